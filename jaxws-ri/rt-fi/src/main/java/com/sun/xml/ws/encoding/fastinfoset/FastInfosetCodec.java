@@ -51,6 +51,7 @@ import com.sun.xml.ws.api.pipe.Codec;
 import com.sun.xml.ws.api.pipe.ContentType;
 import com.sun.xml.ws.api.message.Packet;
 import com.sun.xml.ws.encoding.ContentTypeImpl;
+import com.sun.xml.ws.util.Pool;
 import java.io.BufferedInputStream;
 
 import javax.xml.stream.XMLStreamException;
@@ -75,6 +76,10 @@ public class FastInfosetCodec implements Codec {
     
     private StAXDocumentParser _parser;
     
+    /**
+     * Serializer of the stateful mode, which keeps the vocabulary tables
+     * of this codec. Stateless serializers come from a pool.
+     */
     private StAXDocumentSerializer _serializer;
     
     private final boolean _retainState;
@@ -102,20 +107,33 @@ public class FastInfosetCodec implements Codec {
     public ContentType encode(Packet packet, OutputStream out) {
         Message message = packet.getMessage();
         if (message != null && message.hasPayload()) {
-            final XMLStreamWriter writer = getXMLStreamWriter(out);
-            try {
-                writer.writeStartDocument();
-                packet.getMessage().writePayloadTo(writer);
-                writer.writeEndDocument();
-                writer.flush();
-            } catch (XMLStreamException e) {
-                throw new WebServiceException(e);
+            if (_retainState) {
+                write(message, getXMLStreamWriter(out));
+            } else {
+                // stateless serializers are shared by all the codecs
+                Pool<StAXDocumentSerializer> pool = FastInfosetVocabulary.getSerializers(null);
+                StAXDocumentSerializer serializer = pool.take();
+                serializer.setOutputStream(out);
+                write(message, serializer);
+                // not given back if it failed, its state is unknown
+                pool.recycle(serializer);
             }
         }
         
         return _contentType;
     }
     
+    private static void write(Message message, XMLStreamWriter writer) {
+        try {
+            writer.writeStartDocument();
+            message.writePayloadTo(writer);
+            writer.writeEndDocument();
+            writer.flush();
+        } catch (XMLStreamException e) {
+            throw new WebServiceException(e);
+        }
+    }
+    
     public ContentType encode(Packet packet, WritableByteChannel buffer) {
         //TODO: not yet implemented
         throw new UnsupportedOperationException();
@@ -243,8 +261,8 @@ public class FastInfosetCodec implements Codec {
      *        vocabulary tables for multiple parses.
      * @return a new recyclable {@link StAXDocumentParser} instance.
      */
-    /* package */ static StAXDocumentParser createNewStreamReaderRecyclable(InputStream in, boolean retainState) {
-        StAXDocumentParser parser = new FastInfosetStreamReaderRecyclable(in);
+    /* package */ static FastInfosetStreamReaderRecyclable createNewStreamReaderRecyclable(InputStream in, boolean retainState) {
+        FastInfosetStreamReaderRecyclable parser = new FastInfosetStreamReaderRecyclable(in);
         parser.setStringInterning(true);
         parser.setForceStreamClose(true);
         if (retainState) {
@@ -40,7 +40,6 @@
 
 package com.sun.xml.ws.encoding.fastinfoset;
 
-import com.sun.xml.fastinfoset.stax.StAXDocumentParser;
 import com.sun.xml.ws.api.streaming.XMLStreamReaderFactory;
 import java.io.InputStream;
 import java.io.Reader;
@@ -52,19 +51,20 @@ import javax.xml.stream.XMLStreamReader;
 public final class FastInfosetStreamReaderFactory extends XMLStreamReaderFactory {
     private static final FastInfosetStreamReaderFactory factory = new FastInfosetStreamReaderFactory();
     
-    private ThreadLocal<StAXDocumentParser> pool = new ThreadLocal<StAXDocumentParser>();
+    private ThreadLocal<FastInfosetStreamReaderRecyclable> pool = new ThreadLocal<FastInfosetStreamReaderRecyclable>();
     
     public static FastInfosetStreamReaderFactory getInstance() {
         return factory;
     }
     
     public XMLStreamReader doCreate(String systemId, InputStream in, boolean rejectDTDs) {
-        StAXDocumentParser parser = fetch();
+        FastInfosetStreamReaderRecyclable parser = fetch();
         if (parser == null) {
-            return FastInfosetCodec.createNewStreamReaderRecyclable(in, false);
+            parser = FastInfosetCodec.createNewStreamReaderRecyclable(in, false);
+        } else {
+            parser.setInputStream(in);
         }
-        
-        parser.setInputStream(in);
+        parser.externalVocabularies = FastInfosetVocabulary.apply(parser, parser.externalVocabularies);
         return parser;
     }
     
@@ -72,15 +72,15 @@ public final class FastInfosetStreamReaderFactory extends XMLStreamReaderFactory
         throw new UnsupportedOperationException();
     }
     
-    private StAXDocumentParser fetch() {
-        StAXDocumentParser parser = pool.get();
+    private FastInfosetStreamReaderRecyclable fetch() {
+        FastInfosetStreamReaderRecyclable parser = pool.get();
         pool.set(null);
         return parser;
     }
     
     public void doRecycle(XMLStreamReader r) {
-        if (r instanceof StAXDocumentParser) {
-            pool.set((StAXDocumentParser) r);
+        if (r instanceof FastInfosetStreamReaderRecyclable) {
+            pool.set((FastInfosetStreamReaderRecyclable) r);
         }
     }
 }
@@ -43,6 +43,8 @@ package com.sun.xml.ws.encoding.fastinfoset;
 import com.sun.xml.fastinfoset.stax.StAXDocumentParser;
 import com.sun.xml.ws.api.streaming.XMLStreamReaderFactory;
 import java.io.InputStream;
+import java.util.Map;
+import org.jvnet.fastinfoset.ExternalVocabulary;
 
 /**
  * @author Alexey Stashok
@@ -50,6 +52,11 @@ import java.io.InputStream;
 public final class FastInfosetStreamReaderRecyclable extends StAXDocumentParser implements XMLStreamReaderFactory.RecycleAware {
     private static final FastInfosetStreamReaderFactory READER_FACTORY = FastInfosetStreamReaderFactory.getInstance();
 
+    /**
+     * The external vocabularies last set on this parser.
+     */
+    /* package */ Map<String, ExternalVocabulary> externalVocabularies;
+
     public FastInfosetStreamReaderRecyclable() {
         super();
     }
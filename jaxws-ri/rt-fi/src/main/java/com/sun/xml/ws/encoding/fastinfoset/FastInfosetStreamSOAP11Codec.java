@@ -58,8 +58,8 @@ import javax.xml.stream.XMLStreamReader;
  * @author Paul.Sandoz@Sun.Com
  */
 final class FastInfosetStreamSOAP11Codec extends FastInfosetStreamSOAPCodec {
-    /*package*/ FastInfosetStreamSOAP11Codec(StreamSOAPCodec soapCodec, boolean retainState) {
-        super(soapCodec, SOAPVersion.SOAP_11, retainState,
+    /*package*/ FastInfosetStreamSOAP11Codec(StreamSOAPCodec soapCodec, boolean retainState, String externalVocabularyURI) {
+        super(soapCodec, SOAPVersion.SOAP_11, retainState, externalVocabularyURI,
                 (retainState) ? FastInfosetMIMETypes.STATEFUL_SOAP_11 : FastInfosetMIMETypes.SOAP_11);
     }
 
@@ -58,8 +58,8 @@ import javax.xml.stream.XMLStreamReader;
  * @author Paul.Sandoz@Sun.Com
  */
 final class FastInfosetStreamSOAP12Codec extends FastInfosetStreamSOAPCodec {
-    /*package*/ FastInfosetStreamSOAP12Codec(StreamSOAPCodec soapCodec, boolean retainState) {
-        super(soapCodec, SOAPVersion.SOAP_12, retainState, 
+    /*package*/ FastInfosetStreamSOAP12Codec(StreamSOAPCodec soapCodec, boolean retainState, String externalVocabularyURI) {
+        super(soapCodec, SOAPVersion.SOAP_12, retainState, externalVocabularyURI, 
                 (retainState) ? FastInfosetMIMETypes.STATEFUL_SOAP_12 : FastInfosetMIMETypes.SOAP_12);
     }
 
@@ -50,6 +50,7 @@ import com.sun.xml.ws.api.pipe.StreamSOAPCodec;
 import com.sun.xml.ws.message.stream.StreamHeader;
 import com.sun.xml.stream.buffer.XMLStreamBuffer;
 import com.sun.xml.ws.encoding.ContentTypeImpl;
+import com.sun.xml.ws.util.Pool;
 
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
@@ -75,24 +76,37 @@ public abstract class FastInfosetStreamSOAPCodec implements Codec {
     private static final FastInfosetStreamReaderFactory READER_FACTORY = FastInfosetStreamReaderFactory.getInstance();
 
     private StAXDocumentParser _statefulParser;
+    /**
+     * Serializer of the stateful mode, which keeps the vocabulary tables
+     * of this codec. Stateless serializers come from a pool.
+     */
     private StAXDocumentSerializer _serializer;
     
     private final StreamSOAPCodec _soapCodec;
     
     private final boolean _retainState;
     
+    /**
+     * URI of the {@link FastInfosetVocabulary external vocabulary} stateless
+     * documents are encoded with, or null.
+     */
+    private final String _externalVocabularyURI;
+    
     protected final ContentType _defaultContentType;
     
-    /* package */ FastInfosetStreamSOAPCodec(StreamSOAPCodec soapCodec, SOAPVersion soapVersion, boolean retainState, String mimeType) {
+    /* package */ FastInfosetStreamSOAPCodec(StreamSOAPCodec soapCodec, SOAPVersion soapVersion, boolean retainState,
+            String externalVocabularyURI, String mimeType) {
 //        _soapCodec = StreamSOAPCodec.create(soapVersion);
         _soapCodec = soapCodec;
         _retainState = retainState;
+        _externalVocabularyURI = externalVocabularyURI;
         _defaultContentType = new ContentTypeImpl(mimeType);
     }
     
     /* package */ FastInfosetStreamSOAPCodec(FastInfosetStreamSOAPCodec that) {
         this._soapCodec = (StreamSOAPCodec) that._soapCodec.copy();
         this._retainState = that._retainState;
+        this._externalVocabularyURI = that._externalVocabularyURI;
         this._defaultContentType = that._defaultContentType;
     }
     
@@ -106,17 +120,30 @@ public abstract class FastInfosetStreamSOAPCodec implements Codec {
     
     public ContentType encode(Packet packet, OutputStream out) {
         if (packet.getMessage() != null) {
-            final XMLStreamWriter writer = getXMLStreamWriter(out);
-            try {
-                packet.getMessage().writeTo(writer);
-                writer.flush();
-            } catch (XMLStreamException e) {
-                throw new WebServiceException(e);
+            if (_retainState) {
+                write(packet, getXMLStreamWriter(out));
+            } else {
+                // stateless serializers are shared by all the codecs
+                Pool<StAXDocumentSerializer> pool = FastInfosetVocabulary.getSerializers(_externalVocabularyURI);
+                StAXDocumentSerializer serializer = pool.take();
+                serializer.setOutputStream(out);
+                write(packet, serializer);
+                // not given back if it failed, its state is unknown
+                pool.recycle(serializer);
             }
         }
         return getContentType(packet.soapAction);
     }
     
+    private static void write(Packet packet, XMLStreamWriter writer) {
+        try {
+            packet.getMessage().writeTo(writer);
+            writer.flush();
+        } catch (XMLStreamException e) {
+            throw new WebServiceException(e);
+        }
+    }
+    
     public ContentType encode(Packet packet, WritableByteChannel buffer) {
         //TODO: not yet implemented
         throw new UnsupportedOperationException();
@@ -179,14 +206,30 @@ public abstract class FastInfosetStreamSOAPCodec implements Codec {
      */
     public static FastInfosetStreamSOAPCodec create(StreamSOAPCodec soapCodec,
             SOAPVersion version, boolean retainState) {
+        return create(soapCodec, version, retainState, null);
+    }
+    
+    /**
+     * Creates a new {@link FastInfosetStreamSOAPCodec} instance.
+     *
+     * @param version the SOAP version of the codec.
+     * @param retainState if true the Codec should retain the state of
+     *        vocabulary tables for multiple encode/decode invocations.
+     * @param externalVocabularyURI the URI of the {@link FastInfosetVocabulary}
+     *        stateless documents are encoded with, or null.
+     *        Ignored if retainState is true.
+     * @return a new {@link FastInfosetStreamSOAPCodec} instance.
+     */
+    public static FastInfosetStreamSOAPCodec create(StreamSOAPCodec soapCodec,
+            SOAPVersion version, boolean retainState, String externalVocabularyURI) {
         if(version==null)
             // this decoder is for SOAP, not for XML/HTTP
             throw new IllegalArgumentException();
         switch(version) {
             case SOAP_11:
-                return new FastInfosetStreamSOAP11Codec(soapCodec, retainState);
+                return new FastInfosetStreamSOAP11Codec(soapCodec, retainState, externalVocabularyURI);
             case SOAP_12:
-                return new FastInfosetStreamSOAP12Codec(soapCodec, retainState);
+                return new FastInfosetStreamSOAP12Codec(soapCodec, retainState, externalVocabularyURI);
             default:
                 throw new AssertionError();
         }
@@ -0,0 +1,386 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.encoding.fastinfoset;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import com.sun.xml.fastinfoset.stax.StAXDocumentParser;
+import com.sun.xml.fastinfoset.stax.StAXDocumentSerializer;
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.addressing.AddressingVersion;
+import com.sun.xml.ws.api.server.DocumentAddressResolver;
+import com.sun.xml.ws.api.server.SDDocument;
+import com.sun.xml.ws.api.server.ServiceDefinition;
+import com.sun.xml.ws.api.streaming.XMLStreamReaderFactory;
+import com.sun.xml.ws.util.ByteArrayBuffer;
+import com.sun.xml.ws.util.Pool;
+import org.jvnet.fastinfoset.ExternalVocabulary;
+import org.jvnet.fastinfoset.Vocabulary;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.ws.WebServiceException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * External Fast Infoset vocabularies built from the WSDL and schema
+ * documents of a service.
+ *
+ * <p>
+ * A Fast Infoset document normally starts with empty tables, so the first
+ * occurrence of every namespace and element name of a message is written in
+ * full. A document that references an external vocabulary starts with the
+ * tables of that vocabulary instead, so the names the WSDL and schemas
+ * declare are indexed from the first message on, without the state
+ * stateful Fast Infoset has to keep per peer.
+ *
+ * <p>
+ * The peer must know the vocabulary to parse such a document. So a
+ * vocabulary is only used for encoding when the {@link
+ * com.sun.xml.ws.api.fastinfoset.FastInfosetFeature} of the binding names
+ * its URI, and both peers have to {@link #register register} the same
+ * vocabulary, that is, one built by {@link #create(String, ServiceDefinition)}
+ * or {@link #create(String, URL)} from the same documents. An endpoint
+ * whose feature names a vocabulary registers its documents at deployment;
+ * the vocabulary is only built from them when it is first used, so that an
+ * endpoint which generates its WSDL on first use doesn't generate it at
+ * deployment. Parsers accept the documents referencing any registered
+ * vocabulary.
+ *
+ * <p>
+ * Stateless serializers are pooled per vocabulary, since applying a
+ * vocabulary to a serializer is not cheap.
+ */
+public final class FastInfosetVocabulary {
+
+    private static final String XSD_NS = XMLConstants.W3C_XML_SCHEMA_NS_URI;
+    private static final String WSDL_NS = "http://schemas.xmlsoap.org/wsdl/";
+
+    /**
+     * Registered vocabularies by URI, copied on write, as parsers take the
+     * whole map.
+     */
+    private static volatile Map<String, ExternalVocabulary> vocabularies = Collections.emptyMap();
+    private static final ConcurrentMap<String, SerializerPool> serializers = new ConcurrentHashMap<String, SerializerPool>();
+    private static final SerializerPool NO_VOCABULARY = new SerializerPool(null);
+    /**
+     * Documents of the vocabularies registered by endpoints, by URI, until
+     * the vocabularies are built. Guarded by itself while one is built.
+     */
+    private static final ConcurrentMap<String, ServiceDefinition> deferred = new ConcurrentHashMap<String, ServiceDefinition>();
+
+    private FastInfosetVocabulary() {}
+
+    /**
+     * Builds the vocabulary of the documents of a deployed endpoint.
+     */
+    public static @NotNull ExternalVocabulary create(@NotNull String uri, @NotNull ServiceDefinition serviceDefinition) {
+        Names names = new Names();
+        DocumentAddressResolver resolver = new DocumentAddressResolver() {
+            public String getRelativeAddressFor(@NotNull SDDocument current, @NotNull SDDocument referenced) {
+                return referenced.getURL().toExternalForm();
+            }
+        };
+        for (SDDocument doc : serviceDefinition) {
+            try {
+                ByteArrayBuffer buf = new ByteArrayBuffer();
+                doc.writeTo(null, resolver, buf);
+                names.scan(buf.newInputStream(), null);
+            } catch (IOException e) {
+                throw new WebServiceException(e);
+            }
+        }
+        return names.toVocabulary(uri);
+    }
+
+    /**
+     * Builds the vocabulary of a WSDL and of the WSDL and schema documents
+     * it imports, directly or not, for example from the "?wsdl" address
+     * of an endpoint.
+     */
+    public static @NotNull ExternalVocabulary create(@NotNull String uri, @NotNull URL wsdl) {
+        Names names = new Names();
+        Set<String> seen = new HashSet<String>();
+        Deque<URL> todo = new ArrayDeque<URL>();
+        todo.add(wsdl);
+        while (!todo.isEmpty()) {
+            URL url = todo.poll();
+            if (!seen.add(url.toExternalForm())) {
+                continue;
+            }
+            try {
+                InputStream in = url.openStream();
+                try {
+                    for (String location : names.scan(in, url.toExternalForm())) {
+                        todo.add(new URL(url, location));
+                    }
+                } finally {
+                    in.close();
+                }
+            } catch (IOException e) {
+                throw new WebServiceException(e);
+            }
+        }
+        return names.toVocabulary(uri);
+    }
+
+    /**
+     * Makes the vocabulary known to the parsers, and to the serializers of
+     * the bindings that name its URI. Replaces a vocabulary registered
+     * with the same URI.
+     */
+    public static void register(@NotNull ExternalVocabulary vocabulary) {
+        synchronized (serializers) {
+            Map<String, ExternalVocabulary> m = new HashMap<String, ExternalVocabulary>(vocabularies);
+            m.put(vocabulary.URI, vocabulary);
+            vocabularies = Collections.unmodifiableMap(m);
+            serializers.put(vocabulary.URI, new SerializerPool(vocabulary));
+        }
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.log(Level.FINE, "Registered Fast Infoset vocabulary {0} with {1} namespaces and {2} local names",
+                    new Object[]{vocabulary.URI, vocabulary.vocabulary.namespaceNames.size(),
+                            vocabulary.vocabulary.localNames.size()});
+        }
+    }
+
+    /**
+     * Registers the vocabulary of the endpoint, unless a vocabulary with that
+     * URI is already registered. Called at deployment for the endpoints whose
+     * binding names a vocabulary; the documents are only read when the
+     * vocabulary is first used, to encode or parse a message.
+     */
+    public static void register(@NotNull String uri, @NotNull ServiceDefinition serviceDefinition) {
+        if (vocabularies.get(uri) == null) {
+            deferred.putIfAbsent(uri, serviceDefinition);
+        }
+    }
+
+    public static void unregister(@NotNull String uri) {
+        deferred.remove(uri);
+        synchronized (serializers) {
+            Map<String, ExternalVocabulary> m = new HashMap<String, ExternalVocabulary>(vocabularies);
+            m.remove(uri);
+            vocabularies = Collections.unmodifiableMap(m);
+            serializers.remove(uri);
+        }
+    }
+
+    public static @Nullable ExternalVocabulary get(@NotNull String uri) {
+        if (deferred.containsKey(uri)) {
+            build(uri);
+        }
+        return vocabularies.get(uri);
+    }
+
+    /**
+     * Pool of stateless serializers that reference the vocabulary with the
+     * given URI, or that don't reference any when it's null or not registered.
+     */
+    /* package */ static Pool<StAXDocumentSerializer> getSerializers(@Nullable String uri) {
+        if (uri == null) {
+            return NO_VOCABULARY;
+        }
+        SerializerPool pool = serializers.get(uri);
+        if (pool == null && deferred.containsKey(uri)) {
+            build(uri);
+            pool = serializers.get(uri);
+        }
+        return (pool != null) ? pool : NO_VOCABULARY;
+    }
+
+    /**
+     * Builds the vocabulary of an endpoint registered by
+     * {@link #register(String, ServiceDefinition)}. Threads that need it
+     * meanwhile wait for it. If it can't be built, the documents are
+     * written without it, which any peer can parse.
+     */
+    private static void build(String uri) {
+        synchronized (deferred) {
+            ServiceDefinition serviceDefinition = deferred.remove(uri);
+            if (serviceDefinition == null || vocabularies.get(uri) != null) {
+                return;
+            }
+            try {
+                register(create(uri, serviceDefinition));
+            } catch (WebServiceException e) {
+                LOGGER.log(Level.WARNING, "Cannot build Fast Infoset vocabulary " + uri, e);
+            }
+        }
+    }
+
+    /**
+     * Lets the parser decode the documents referencing any of the registered
+     * vocabularies.
+     *
+     * @return the map now set on the parser, to be passed back as
+     *      {@code applied} the next time the parser is used.
+     */
+    /* package */ static Map<String, ExternalVocabulary> apply(StAXDocumentParser parser, Map<String, ExternalVocabulary> applied) {
+        if (!deferred.isEmpty()) {
+            // the document may reference any of them
+            for (String uri : deferred.keySet()) {
+                build(uri);
+            }
+        }
+        Map<String, ExternalVocabulary> current = vocabularies;
+        if (current != applied) {
+            parser.setExternalVocabularies(current.isEmpty() ? null : current);
+        }
+        return current;
+    }
+
+    private static final class SerializerPool extends Pool<StAXDocumentSerializer> {
+        private final ExternalVocabulary vocabulary;
+
+        SerializerPool(ExternalVocabulary vocabulary) {
+            this.vocabulary = vocabulary;
+        }
+
+        @Override
+        protected StAXDocumentSerializer create() {
+            StAXDocumentSerializer serializer = FastInfosetCodec.createNewStreamWriter(null, false);
+            if (vocabulary != null) {
+                serializer.setExternalVocabulary(vocabulary);
+            }
+            return serializer;
+        }
+    }
+
+    /**
+     * Namespace and local names collected from WSDL and schema documents.
+     * Sorted, so that both peers build the same tables from the same
+     * documents, whatever the order they read them in.
+     */
+    private static final class Names {
+        final Set<String> namespaces = new TreeSet<String>();
+        final Set<String> localNames = new TreeSet<String>();
+
+        Names() {
+            for (SOAPVersion sv : SOAPVersion.values()) {
+                namespaces.add(sv.nsUri);
+            }
+            namespaces.add(AddressingVersion.W3C.nsUri);
+            Collections.addAll(localNames, "Envelope", "Header", "Body", "Fault",
+                    "faultcode", "faultstring", "faultactor", "detail",
+                    "Code", "Value", "Subcode", "Reason", "Text", "Node", "Role", "Detail",
+                    "To", "Action", "MessageID", "RelatesTo", "ReplyTo", "FaultTo", "Address",
+                    "ReferenceParameters", "mustUnderstand");
+        }
+
+        /**
+         * Collects the names of a document.
+         *
+         * @return the locations of the documents it imports or includes.
+         */
+        Set<String> scan(InputStream in, String systemId) {
+            Set<String> locations = new TreeSet<String>();
+            XMLStreamReader reader = XMLStreamReaderFactory.create(systemId, in, true);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                        continue;
+                    }
+                    String ns = reader.getNamespaceURI();
+                    String local = reader.getLocalName();
+                    add(namespaces, reader.getAttributeValue(null, "targetNamespace"));
+                    if (XSD_NS.equals(ns)) {
+                        if (local.equals("element") || local.equals("attribute")) {
+                            add(localNames, reader.getAttributeValue(null, "name"));
+                        } else if (local.equals("import") || local.equals("include") || local.equals("redefine")) {
+                            add(locations, reader.getAttributeValue(null, "schemaLocation"));
+                        }
+                    } else if (WSDL_NS.equals(ns)) {
+                        if (local.equals("operation")) {
+                            // the wrapper elements of rpc/literal operations
+                            String name = reader.getAttributeValue(null, "name");
+                            add(localNames, name);
+                            add(localNames, name == null ? null : name + "Response");
+                        } else if (local.equals("part")) {
+                            add(localNames, reader.getAttributeValue(null, "name"));
+                        } else if (local.equals("import")) {
+                            add(locations, reader.getAttributeValue(null, "location"));
+                        }
+                    } else if (local.equals("body")) {
+                        // soap:body of rpc/literal operations
+                        add(namespaces, reader.getAttributeValue(null, "namespace"));
+                    }
+                }
+            } catch (XMLStreamException e) {
+                throw new WebServiceException(e);
+            } finally {
+                XMLStreamReaderFactory.recycle(reader);
+            }
+            return locations;
+        }
+
+        private static void add(Set<String> set, String value) {
+            if (value != null && value.length() > 0) {
+                set.add(value);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        ExternalVocabulary toVocabulary(String uri) {
+            Vocabulary v = new Vocabulary();
+            v.namespaceNames.addAll(namespaces);
+            v.localNames.addAll(localNames);
+            return new ExternalVocabulary(uri, v);
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(FastInfosetVocabulary.class.getName());
+}
@@ -0,0 +1,301 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.encoding.fastinfoset;
+
+import com.sun.xml.fastinfoset.stax.StAXDocumentSerializer;
+import com.sun.xml.ws.api.BindingID;
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.Messages;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.Codec;
+import com.sun.xml.ws.api.server.SDDocument;
+import com.sun.xml.ws.api.server.SDDocumentFilter;
+import com.sun.xml.ws.api.server.SDDocumentSource;
+import com.sun.xml.ws.api.server.ServiceDefinition;
+import com.sun.xml.ws.api.server.WSEndpoint;
+import com.sun.xml.ws.binding.BindingImpl;
+import com.sun.xml.ws.encoding.StreamSOAPCodec;
+import com.sun.xml.ws.util.Pool;
+
+import junit.framework.TestCase;
+import org.jvnet.fastinfoset.ExternalVocabulary;
+import org.xml.sax.EntityResolver;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.ws.Provider;
+import javax.xml.ws.Service;
+import javax.xml.ws.ServiceMode;
+import javax.xml.ws.WebServiceProvider;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Encodes and decodes documents with {@link FastInfosetVocabulary external vocabularies}.
+ */
+public class FastInfosetVocabularyTest extends TestCase {
+
+    private static final String NS = "http://quote.org/";
+    private static final String TYPES_NS = "http://quote.org/types";
+    private static final String VOCABULARY = "urn:test:quote-vocabulary";
+
+    private URL wsdl;
+    private WSEndpoint<?> endpoint;
+
+    @Override
+    protected void setUp() throws Exception {
+        ClassLoader cl = Thread.currentThread().getContextClassLoader();
+        wsdl = cl.getResource("etc/QuoteService.wsdl");
+        endpoint = WSEndpoint.create(QuoteProvider.class, false, null,
+                new QName(NS, "QuoteService"), new QName(NS, "QuotePort"), null,
+                BindingImpl.create(BindingID.SOAP11_HTTP), SDDocumentSource.create(wsdl),
+                Collections.singletonList(SDDocumentSource.create(cl.getResource("etc/QuoteTypes.xsd"))),
+                (EntityResolver) null, true);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        FastInfosetVocabulary.unregister(VOCABULARY);
+        endpoint.dispose();
+    }
+
+    public void testServiceDefinitionAndWSDLGiveTheSameTables() {
+        ExternalVocabulary fromEndpoint = FastInfosetVocabulary.create(VOCABULARY, endpoint.getServiceDefinition());
+        ExternalVocabulary fromWSDL = FastInfosetVocabulary.create(VOCABULARY, wsdl);
+
+        assertEquals(new ArrayList<Object>(fromEndpoint.vocabulary.namespaceNames),
+                new ArrayList<Object>(fromWSDL.vocabulary.namespaceNames));
+        assertEquals(new ArrayList<Object>(fromEndpoint.vocabulary.localNames),
+                new ArrayList<Object>(fromWSDL.vocabulary.localNames));
+        // the imported schema was read
+        assertTrue(fromWSDL.vocabulary.namespaceNames.contains(TYPES_NS));
+        assertTrue(fromWSDL.vocabulary.localNames.contains("symbol"));
+        assertTrue(fromWSDL.vocabulary.localNames.contains("currency"));
+    }
+
+    public void testEncodedWithServiceDefinitionDecodedWithWSDL() throws Exception {
+        FastInfosetVocabulary.register(FastInfosetVocabulary.create(VOCABULARY, endpoint.getServiceDefinition()));
+        byte[] document = write(FastInfosetVocabulary.getSerializers(VOCABULARY), "ACME");
+
+        // the peer built its vocabulary from the published WSDL
+        FastInfosetVocabulary.unregister(VOCABULARY);
+        try {
+            read(document);
+            fail("the document references an unknown vocabulary");
+        } catch (XMLStreamException e) {
+            // expected
+        }
+        FastInfosetVocabulary.register(FastInfosetVocabulary.create(VOCABULARY, wsdl));
+        assertEquals("ACME", read(document));
+    }
+
+    public void testEndpointVocabularyIsBuiltOnFirstUse() throws Exception {
+        CountingServiceDefinition sd = new CountingServiceDefinition(endpoint.getServiceDefinition());
+        FastInfosetVocabulary.register(VOCABULARY, sd);
+        assertEquals(0, sd.iterations.get());
+
+        Pool<StAXDocumentSerializer> serializers = FastInfosetVocabulary.getSerializers(VOCABULARY);
+        assertEquals(1, sd.iterations.get());
+        assertNotNull(FastInfosetVocabulary.get(VOCABULARY));
+        assertSame(serializers, FastInfosetVocabulary.getSerializers(VOCABULARY));
+        assertEquals(1, sd.iterations.get());
+
+        byte[] document = write(serializers, "ACME");
+        assertEquals("ACME", read(document));
+    }
+
+    public void testParserBuildsEndpointVocabularies() throws Exception {
+        FastInfosetVocabulary.register(FastInfosetVocabulary.create(VOCABULARY, wsdl));
+        byte[] document = write(FastInfosetVocabulary.getSerializers(VOCABULARY), "ACME");
+        FastInfosetVocabulary.unregister(VOCABULARY);
+
+        CountingServiceDefinition sd = new CountingServiceDefinition(endpoint.getServiceDefinition());
+        FastInfosetVocabulary.register(VOCABULARY, sd);
+        assertEquals("ACME", read(document));
+        assertEquals(1, sd.iterations.get());
+    }
+
+    public void testUnknownVocabularyIsNotUsed() throws Exception {
+        assertSame(FastInfosetVocabulary.getSerializers(null), FastInfosetVocabulary.getSerializers("urn:test:unknown"));
+        assertFalse(contains(write(FastInfosetVocabulary.getSerializers("urn:test:unknown"), "ACME"), "urn:test:unknown"));
+    }
+
+    /**
+     * Stateless codecs, and their copies, take their serializers from the
+     * shared pool of their vocabulary.
+     */
+    public void testCodecsShareSerializerPool() throws Exception {
+        FastInfosetVocabulary.register(FastInfosetVocabulary.create(VOCABULARY, wsdl));
+        final Codec codec = FastInfosetStreamSOAPCodec.create(StreamSOAPCodec.create(SOAPVersion.SOAP_11),
+                SOAPVersion.SOAP_11, false, VOCABULARY);
+        final Codec plain = FastInfosetStreamSOAPCodec.create(StreamSOAPCodec.create(SOAPVersion.SOAP_11),
+                SOAPVersion.SOAP_11, false, null);
+
+        byte[] withVocabulary = encode(codec, "ACME");
+        byte[] withoutVocabulary = encode(plain, "ACME");
+        assertTrue(contains(withVocabulary, VOCABULARY));
+        assertFalse(contains(withoutVocabulary, VOCABULARY));
+        assertEquals("ACME", decode(plain, withVocabulary));
+        assertEquals("ACME", decode(codec, withoutVocabulary));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Void>> results = new ArrayList<Future<Void>>();
+            for (int t = 0; t < 4; t++) {
+                final int thread = t;
+                results.add(executor.submit(new Callable<Void>() {
+                    public Void call() throws Exception {
+                        Codec copy = codec.copy();
+                        for (int i = 0; i < 50; i++) {
+                            String symbol = "S" + thread + "-" + i;
+                            assertEquals(symbol, decode(copy, encode(copy, symbol)));
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> f : results) {
+                f.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static byte[] write(Pool<StAXDocumentSerializer> pool, String symbol) throws XMLStreamException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StAXDocumentSerializer w = pool.take();
+        w.setOutputStream(out);
+        w.writeStartDocument();
+        w.writeStartElement("t", "getQuote", TYPES_NS);
+        w.writeNamespace("t", TYPES_NS);
+        w.writeStartElement("t", "symbol", TYPES_NS);
+        w.writeCharacters(symbol);
+        w.writeEndElement();
+        w.writeEndElement();
+        w.writeEndDocument();
+        w.flush();
+        pool.recycle(w);
+        return out.toByteArray();
+    }
+
+    private static String read(byte[] document) throws XMLStreamException {
+        XMLStreamReader r = FastInfosetStreamReaderFactory.getInstance().doCreate(null, new ByteArrayInputStream(document), false);
+        r.nextTag();
+        assertEquals(new QName(TYPES_NS, "getQuote"), r.getName());
+        r.nextTag();
+        assertEquals(new QName(TYPES_NS, "symbol"), r.getName());
+        return r.getElementText();
+    }
+
+    private static byte[] encode(Codec codec, String symbol) throws Exception {
+        Message message = Messages.createUsingPayload(new StreamSource(new StringReader(
+                "<t:getQuote xmlns:t=\"" + TYPES_NS + "\"><t:symbol>" + symbol + "</t:symbol></t:getQuote>")),
+                SOAPVersion.SOAP_11);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.encode(new Packet(message), out);
+        return out.toByteArray();
+    }
+
+    private static String decode(Codec codec, byte[] document) throws Exception {
+        Packet packet = new Packet();
+        codec.decode(new ByteArrayInputStream(document), codec.getMimeType(), packet);
+        XMLStreamReader r = packet.getMessage().readPayload();
+        assertEquals(new QName(TYPES_NS, "getQuote"), r.getName());
+        r.nextTag();
+        return r.getElementText();
+    }
+
+    private static boolean contains(byte[] document, String s) throws Exception {
+        return new String(document, "ISO-8859-1").contains(s);
+    }
+
+    @WebServiceProvider(serviceName = "QuoteService", portName = "QuotePort", targetNamespace = NS,
+            wsdlLocation = "etc/QuoteService.wsdl")
+    @ServiceMode(Service.Mode.PAYLOAD)
+    public static class QuoteProvider implements Provider<Source> {
+        public Source invoke(Source request) {
+            return new StreamSource(new StringReader(
+                    "<t:getQuoteResponse xmlns:t=\"" + TYPES_NS + "\"><t:price>1.0</t:price></t:getQuoteResponse>"));
+        }
+    }
+
+    /**
+     * Counts how many times the documents are read.
+     */
+    private static final class CountingServiceDefinition implements ServiceDefinition {
+        final ServiceDefinition delegate;
+        final AtomicInteger iterations = new AtomicInteger();
+
+        CountingServiceDefinition(ServiceDefinition delegate) {
+            this.delegate = delegate;
+        }
+
+        public SDDocument getPrimary() {
+            return delegate.getPrimary();
+        }
+
+        public void addFilter(SDDocumentFilter filter) {
+            delegate.addFilter(filter);
+        }
+
+        public Iterator<SDDocument> iterator() {
+            iterations.incrementAndGet();
+            return delegate.iterator();
+        }
+    }
+}
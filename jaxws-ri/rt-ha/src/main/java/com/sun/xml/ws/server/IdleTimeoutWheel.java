@@ -0,0 +1,284 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hashed timing wheel that expires entries once they have been idle
+ * for the timeout.
+ *
+ * <p>
+ * Expiry is lazy: using an entry only records the access time, in
+ * {@link Entry#touch()}, and doesn't move it in the wheel. When the wheel
+ * reaches the slot an entry was scheduled in, the entry either expires or,
+ * if it was used in the meantime, is moved to the slot of its new deadline.
+ * So an entry moves at most once per timeout, regardless of the number of
+ * requests, and scheduling, touching and cancelling never take a lock.
+ *
+ * <p>
+ * All the slots are handled by a single daemon thread, which also runs
+ * the expiry callbacks.
+ */
+final class IdleTimeoutWheel {
+
+    private static final Logger LOGGER = Logger.getLogger(IdleTimeoutWheel.class.getName());
+
+    private static final int WHEEL_SIZE = 512;
+
+    /**
+     * An object whose idle time is controlled by the wheel.
+     */
+    static abstract class Entry {
+        private volatile long lastAccess = System.nanoTime();
+        private volatile boolean cancelled;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        // only accessed by the wheel thread
+        private long remainingRounds;
+
+        /**
+         * Records an access, which pushes the expiry back.
+         */
+        final void touch() {
+            lastAccess = System.nanoTime();
+        }
+
+        /**
+         * Makes sure this entry doesn't expire anymore.
+         */
+        final void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * Invoked by the wheel thread when the entry has been idle for the timeout.
+         */
+        abstract void expired();
+    }
+
+    private final long tickNanos;
+    private final Runnable housekeeping;
+    private final List<Entry>[] wheel;
+    // entries to put into the wheel, added by any thread
+    private final ConcurrentLinkedQueue<Entry> pending = new ConcurrentLinkedQueue<Entry>();
+    private final Thread thread;
+
+    private volatile long timeoutNanos;
+    private volatile boolean stopped;
+
+    /**
+     * @param name
+     *      name of the wheel thread.
+     * @param timeoutMillis
+     *      the idle timeout, and the period of the housekeeping task.
+     * @param housekeeping
+     *      task to run periodically on the wheel thread, or null.
+     */
+    @SuppressWarnings("unchecked")
+    IdleTimeoutWheel(String name, long timeoutMillis, Runnable housekeeping) {
+        this.tickNanos = tickNanos(timeoutMillis);
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.housekeeping = housekeeping;
+        this.wheel = new List[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new ArrayList<Entry>();
+        }
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                loop();
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Length of a tick for the given timeout: short enough for an entry to
+     * expire at most about 1/16 of the timeout late, and long enough for the
+     * wheel thread not to wake up needlessly often.
+     */
+    static long tickNanos(long timeoutMillis) {
+        long tick = Math.min(Math.max(timeoutMillis / 16, 1), 100);
+        return TimeUnit.MILLISECONDS.toNanos(tick);
+    }
+
+    /**
+     * Changes the timeout of all the entries. Their deadlines are computed
+     * from their last access with the new timeout the next time the wheel
+     * looks at them.
+     */
+    void setTimeout(long timeoutMillis) {
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    /**
+     * Checks if the tick of this wheel suits the given timeout.
+     */
+    boolean isSuitableFor(long timeoutMillis) {
+        return tickNanos == tickNanos(timeoutMillis);
+    }
+
+    /**
+     * Starts watching the idle time of the entry, unless it's already watched.
+     */
+    void schedule(Entry e) {
+        if (!stopped && e.scheduled.compareAndSet(false, true)) {
+            pending.offer(e);
+        }
+    }
+
+    /**
+     * Stops the wheel thread and waits until it has released all the entries,
+     * so that they can be scheduled in another wheel. Entries don't expire
+     * anymore once this method returns.
+     */
+    void stop() {
+        stopped = true;
+        LockSupport.unpark(thread);
+        if (Thread.currentThread() != thread) {
+            boolean interrupted = false;
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void loop() {
+        final long start = System.nanoTime();
+        long tick = 0;
+        long nextHousekeeping = start + timeoutNanos;
+        try {
+            while (!stopped) {
+                long deadline = start + (tick + 1) * tickNanos;
+                long now;
+                while ((now = System.nanoTime()) - deadline < 0) {
+                    LockSupport.parkNanos(this, deadline - now);
+                    if (stopped) {
+                        return;
+                    }
+                }
+
+                Entry e;
+                while ((e = pending.poll()) != null) {
+                    place(e, e.lastAccess + timeoutNanos, start, tick);
+                }
+
+                int slot = (int) (tick & (WHEEL_SIZE - 1));
+                List<Entry> entries = wheel[slot];
+                wheel[slot] = new ArrayList<Entry>();
+                long timeout = timeoutNanos;
+                for (Entry entry : entries) {
+                    if (entry.cancelled || timeout == 0) {
+                        entry.scheduled.set(false);
+                    } else if (entry.remainingRounds > 0) {
+                        entry.remainingRounds--;
+                        wheel[slot].add(entry);
+                    } else {
+                        long entryDeadline = entry.lastAccess + timeout;
+                        if (now - entryDeadline >= 0) {
+                            entry.scheduled.set(false);
+                            expire(entry);
+                        } else {
+                            // used since it was scheduled
+                            place(entry, entryDeadline, start, tick + 1);
+                        }
+                    }
+                }
+
+                if (housekeeping != null && timeout != 0 && now - nextHousekeeping >= 0) {
+                    nextHousekeeping = now + timeout;
+                    try {
+                        housekeeping.run();
+                    } catch (Throwable t) {
+                        LOGGER.log(Level.SEVERE, "time out housekeeping failed", t);
+                    }
+                }
+                tick++;
+            }
+        } finally {
+            // release everything, entries may be scheduled again in another wheel
+            for (List<Entry> entries : wheel) {
+                for (Entry entry : entries) {
+                    entry.scheduled.set(false);
+                }
+                entries.clear();
+            }
+            Entry e;
+            while ((e = pending.poll()) != null) {
+                e.scheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Puts the entry in the slot of the first tick at or after the deadline,
+     * but not before the given tick.
+     */
+    private void place(Entry e, long deadline, long start, long minTick) {
+        long t = Math.max(minTick, (deadline - start + tickNanos - 1) / tickNanos - 1);
+        e.remainingRounds = (t - minTick) / WHEEL_SIZE;
+        wheel[(int) (t & (WHEEL_SIZE - 1))].add(e);
+    }
+
+    private static void expire(Entry e) {
+        try {
+            e.expired();
+        } catch (Throwable t) {
+            // don't let an error in the code kill the wheel thread
+            LOGGER.log(Level.SEVERE, "time out handler failed", t);
+        }
+    }
+}
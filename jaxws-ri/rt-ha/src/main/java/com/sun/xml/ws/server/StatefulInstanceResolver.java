@@ -43,6 +43,7 @@ package com.sun.xml.ws.server;
 import com.sun.istack.NotNull;
 import com.sun.istack.Nullable;
 import com.sun.xml.bind.marshaller.SAX2DOMEx;
+import com.sun.xml.ws.api.Component;
 import com.sun.xml.ws.api.ha.HighAvailabilityProvider;
 import com.sun.xml.ws.api.ha.HighAvailabilityProvider.StoreType;
 import com.sun.xml.ws.api.message.Header;
@@ -81,6 +82,7 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -94,7 +96,8 @@ import java.util.logging.Logger;
  * @author Kohsuke Kawaguchi
  * @author Jitendra Kotamraju (added high availability)
  */
-public final class StatefulInstanceResolver<T> extends AbstractMultiInstanceResolver<T> implements StatefulWebServiceManager<T> {
+public final class StatefulInstanceResolver<T> extends AbstractMultiInstanceResolver<T>
+        implements StatefulWebServiceManager<T>, StatefulInstanceStatistics {
     /**
      * This instance is used for serving messages that have no cookie
      * or cookie value that the server doesn't recognize.
@@ -109,7 +112,24 @@ public final class StatefulInstanceResolver<T> extends AbstractMultiInstanceReso
     /**
      * Timer that controls the instance time out. Lazily created.
      */
-    private volatile Timer timer;
+    private volatile IdleTimeoutWheel timer;
+    /**
+     * Number of instances that timed out.
+     */
+    private final AtomicLong expiredCount = new AtomicLong();
+    /**
+     * Offers this resolver as {@link StatefulInstanceStatistics} to the
+     * endpoint's managed object.
+     */
+    private final Component statistics = new Component() {
+        @Override
+        public <S> S getSPI(Class<S> spiType) {
+            if (spiType == StatefulInstanceStatistics.class) {
+                return spiType.cast(StatefulInstanceResolver.this);
+            }
+            return null;
+        }
+    };
 
     // Application classloader(typically web app classloader), needed for
     // deserialization of web service class
@@ -243,65 +263,97 @@ public final class StatefulInstanceResolver<T> extends AbstractMultiInstanceReso
      */
     private final class Instance {
         final @NotNull T instance;
-        volatile TimerTask task;
+        /**
+         * Entry of {@link #timer} for this instance, created the first time
+         * the timer is started and shared by the {@link Instance}s that
+         * replace this one in {@link HAMap}.
+         */
+        volatile Timeout timeout;
 
         public Instance(T instance) {
             this.instance = instance;
         }
 
         /**
-         * Resets the timer.
+         * Resets the timer. This only records the access time, the timer
+         * looks at it when the instance would have timed out.
          */
-        public synchronized void restartTimer() {
-            cancel();
+        public void restartTimer() {
             if (timeoutMilliseconds == 0) {
                 return;
             } // no timer
 
-            task = new TimerTask() {
-                @Override
-                public void run() {
-                    try {
-                        Callback<T> cb = timeoutCallback;
-                        if (cb != null) {
-                            if (logger.isLoggable(Level.FINEST)) {
-                                logger.log(Level.FINEST, "Invoking timeout callback for instance/timeouttask = [ {0} / {1} ]", new Object[]{instance, this});
-                            }
-                            cb.onTimeout(instance, StatefulInstanceResolver.this);
-                            return;
-                        }
-                        // default operation is to unexport it.
-                        unexport(instance);
-                    } catch (Throwable e) {
-                        // don't let an error in the code kill the timer thread
-                        logger.log(Level.SEVERE, "time out handler failed", e);
+            Timeout t = timeout;
+            if (t == null) {
+                synchronized (this) {
+                    t = timeout;
+                    if (t == null) {
+                        t = new Timeout(instance);
+                        timeout = t;
                     }
                 }
-            };
-            timer.schedule(task, timeoutMilliseconds);
+            }
+            t.touch();
+            IdleTimeoutWheel w = timer;
+            if (w != null) {
+                w.schedule(t);
+            }
+        }
+
+        /**
+         * Schedules the timer in a new {@link #timer}, if it was started.
+         */
+        void resumeTimer() {
+            Timeout t = timeout;
+            IdleTimeoutWheel w = timer;
+            if (t != null && w != null) {
+                w.schedule(t);
+            }
         }
 
         /**
          * Cancels the timer.
          */
-        public synchronized void cancel() {
-            if (task != null) {
-                boolean result = task.cancel();
+        public void cancel() {
+            Timeout t = timeout;
+            if (t != null) {
+                t.cancel();
                 if (logger.isLoggable(Level.FINEST)) {
-                    logger.log(Level.FINEST, "Timeout callback CANCELED for instance/timeouttask/cancel result = [ {0} / {1} / {2} ]", new Object[]{instance, this, result});
+                    logger.log(Level.FINEST, "Timeout callback CANCELED for instance/timeout = [ {0} / {1} ]", new Object[]{instance, t});
                 }
             } else {
                 if (logger.isLoggable(Level.FINEST)) {
-                    logger.log(Level.FINEST, "Timeout callback NOT CANCELED for instance = [ {0} ]; task is null ...", instance);
+                    logger.log(Level.FINEST, "Timeout callback NOT CANCELED for instance = [ {0} ]; timeout is null ...", instance);
                 }
             }
-            task = null;
+            timeout = null;
         }
-        
-        public synchronized void setTask(TimerTask t) {
-            this.task = t;
+    }
+
+    /**
+     * Times out an instance that hasn't been used for the timeout.
+     */
+    private final class Timeout extends IdleTimeoutWheel.Entry {
+        private final @NotNull T instance;
+
+        Timeout(T instance) {
+            this.instance = instance;
         }
 
+        @Override
+        void expired() {
+            expiredCount.incrementAndGet();
+            Callback<T> cb = timeoutCallback;
+            if (cb != null) {
+                if (logger.isLoggable(Level.FINEST)) {
+                    logger.log(Level.FINEST, "Invoking timeout callback for instance/timeout = [ {0} / {1} ]", new Object[]{instance, this});
+                }
+                cb.onTimeout(instance, StatefulInstanceResolver.this);
+                return;
+            }
+            // default operation is to unexport it.
+            unexport(instance);
+        }
     }
 
 
@@ -402,6 +454,8 @@ public final class StatefulInstanceResolver<T> extends AbstractMultiInstanceReso
                 new InjectionPlan.MethodInjectionPlan<T, StatefulWebServiceManager>(method).inject(null, this);
             }
         }
+
+        endpoint.getComponents().add(statistics);
     }
 
     @Override
@@ -418,6 +472,7 @@ public final class StatefulInstanceResolver<T> extends AbstractMultiInstanceReso
             fallback = null;
         }
         stopTimer();
+        owner.getComponents().remove(statistics);
     }
 
     @NotNull
@@ -493,7 +548,7 @@ public final class StatefulInstanceResolver<T> extends AbstractMultiInstanceReso
             key = UUID.randomUUID().toString();
             Instance instance = new Instance(o);
             if (logger.isLoggable(Level.FINEST)) {
-                logger.log(Level.FINEST, "Storing instance ID/Instance/Object/TimerTask = [ {0} / {1} / {2} / {3} ]", new Object[]{key, instance, instance.instance, instance.task});
+                logger.log(Level.FINEST, "Storing instance ID/Instance/Object = [ {0} / {1} / {2} ]", new Object[]{key, instance, instance.instance});
             }
             haMap.put(key, instance);
             if (timeoutMilliseconds != 0) {
@@ -615,10 +670,8 @@ public final class StatefulInstanceResolver<T> extends AbstractMultiInstanceReso
         }
         this.timeoutMilliseconds = milliseconds;
         this.timeoutCallback = callback;
-        haMap.getExpiredTask().cancel();
         if (timeoutMilliseconds > 0) {
             startTimer();
-            timer.schedule(haMap.newExpiredTask(), timeoutMilliseconds, timeoutMilliseconds);
         } else {
             stopTimer();
         }
@@ -632,16 +685,43 @@ public final class StatefulInstanceResolver<T> extends AbstractMultiInstanceReso
         }
     }
 
+    @Override
+    public int getInstanceCount() {
+        HAMap map = haMap;
+        return map != null ? map.size() : 0;
+    }
+
+    @Override
+    public long getExpiredInstanceCount() {
+        return expiredCount.get();
+    }
 
+    /**
+     * Starts the timer, or adapts it to the current timeout. A timer that
+     * was created for a very different timeout is replaced, and the
+     * instances it was watching are scheduled in the new one.
+     */
     private synchronized void startTimer() {
-        if (timer == null) {
-            timer = new Timer("JAX-WS stateful web service timeout timer");
+        long ms = timeoutMilliseconds;
+        if (timer != null && timer.isSuitableFor(ms)) {
+            timer.setTimeout(ms);
+            return;
+        }
+        stopTimer();
+        timer = new IdleTimeoutWheel("JAX-WS stateful web service timeout timer", ms, new Runnable() {
+            @Override
+            public void run() {
+                haMap.removeExpired();
+            }
+        });
+        for (Instance i : haMap.snapshot()) {
+            i.resumeTimer();
         }
     }
 
     private synchronized void stopTimer() {
         if (timer != null) {
-            timer.cancel();
+            timer.stop();
             timer = null;
         }
     }
@@ -652,8 +732,6 @@ public final class StatefulInstanceResolver<T> extends AbstractMultiInstanceReso
         // object --> cookie
         final Map<T, String> reverseInstances = new HashMap<T, String>();
         final BackingStore<String, HAInstance> bs;
-        // Removes expired entrees from BackingStore
-        TimerTask expiredTask;
 
         HAMap() {
             StoreType type = haEnabled ? StoreType.IN_MEMORY : StoreType.NOOP;
@@ -662,21 +740,21 @@ public final class StatefulInstanceResolver<T> extends AbstractMultiInstanceReso
                     owner.getServiceName() + ":" + owner.getPortName() + ":STATEFUL_WEB_SERVICE",
                     String.class,
                     HAInstance.class);
-            expiredTask = newExpiredTask();
         }
 
-        TimerTask getExpiredTask() {
-            return expiredTask;
+        /**
+         * Removes expired entrees from BackingStore.
+         */
+        void removeExpired() {
+            HighAvailabilityProvider.removeExpired(bs);
+        }
+
+        synchronized int size() {
+            return instances.size();
         }
 
-        private TimerTask newExpiredTask() {
-            expiredTask = new TimerTask() {
-                @Override
-                public void run() {
-                    HighAvailabilityProvider.removeExpired(bs);
-                }
-            };
-            return expiredTask;
+        synchronized List<Instance> snapshot() {
+            return new ArrayList<Instance>(instances.values());
         }
 
         synchronized String get(T t) {
@@ -714,8 +792,8 @@ public final class StatefulInstanceResolver<T> extends AbstractMultiInstanceReso
             boolean isNew = oldi == null;
             if (!isNew) {
                 reverseInstances.remove(oldi.instance);
-                // reuse the original timeout task
-                newi.setTask(oldi.task);
+                // reuse the original timeout
+                newi.timeout = oldi.timeout;
             }
 
             instances.put(id, newi);
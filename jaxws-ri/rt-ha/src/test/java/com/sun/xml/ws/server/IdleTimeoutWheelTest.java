@@ -0,0 +1,159 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.server;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests {@link IdleTimeoutWheel}.
+ */
+public class IdleTimeoutWheelTest extends TestCase {
+
+    private static final class CountingEntry extends IdleTimeoutWheel.Entry {
+        final AtomicInteger expirations = new AtomicInteger();
+        final CountDownLatch expired = new CountDownLatch(1);
+        volatile long expiredAt;
+
+        @Override
+        void expired() {
+            expiredAt = System.nanoTime();
+            expirations.incrementAndGet();
+            expired.countDown();
+        }
+    }
+
+    public void testIdleEntryExpires() throws Exception {
+        IdleTimeoutWheel wheel = new IdleTimeoutWheel("test wheel", 100, null);
+        try {
+            CountingEntry e = new CountingEntry();
+            long start = System.nanoTime();
+            e.touch();
+            wheel.schedule(e);
+            assertTrue(e.expired.await(5, TimeUnit.SECONDS));
+            assertTrue(e.expiredAt - start >= TimeUnit.MILLISECONDS.toNanos(100));
+            Thread.sleep(300);
+            assertEquals(1, e.expirations.get());
+        } finally {
+            wheel.stop();
+        }
+    }
+
+    public void testTouchedEntryDoesNotExpire() throws Exception {
+        IdleTimeoutWheel wheel = new IdleTimeoutWheel("test wheel", 100, null);
+        try {
+            CountingEntry e = new CountingEntry();
+            wheel.schedule(e);
+            for (int i = 0; i < 20; i++) {
+                Thread.sleep(20);
+                e.touch();
+                wheel.schedule(e);
+            }
+            assertEquals(0, e.expirations.get());
+            assertTrue(e.expired.await(5, TimeUnit.SECONDS));
+        } finally {
+            wheel.stop();
+        }
+    }
+
+    public void testCancelledEntryDoesNotExpire() throws Exception {
+        IdleTimeoutWheel wheel = new IdleTimeoutWheel("test wheel", 50, null);
+        try {
+            CountingEntry e = new CountingEntry();
+            wheel.schedule(e);
+            e.cancel();
+            Thread.sleep(300);
+            assertEquals(0, e.expirations.get());
+        } finally {
+            wheel.stop();
+        }
+    }
+
+    public void testTimeoutLongerThanOneTurn() throws Exception {
+        // 512 slots of 1 ms, so the entry goes around the wheel a few times
+        IdleTimeoutWheel wheel = new IdleTimeoutWheel("test wheel", 16, null);
+        try {
+            wheel.setTimeout(1500);
+            CountingEntry e = new CountingEntry();
+            long start = System.nanoTime();
+            e.touch();
+            wheel.schedule(e);
+            assertTrue(e.expired.await(5, TimeUnit.SECONDS));
+            assertTrue(e.expiredAt - start >= TimeUnit.MILLISECONDS.toNanos(1500));
+        } finally {
+            wheel.stop();
+        }
+    }
+
+    public void testStoppedWheelReleasesEntries() throws Exception {
+        IdleTimeoutWheel first = new IdleTimeoutWheel("test wheel", 10000, null);
+        CountingEntry e = new CountingEntry();
+        first.schedule(e);
+        Thread.sleep(50);
+        first.stop();
+
+        IdleTimeoutWheel second = new IdleTimeoutWheel("test wheel", 50, null);
+        try {
+            second.schedule(e);
+            assertTrue(e.expired.await(5, TimeUnit.SECONDS));
+        } finally {
+            second.stop();
+        }
+    }
+
+    public void testHousekeepingRunsPeriodically() throws Exception {
+        final CountDownLatch runs = new CountDownLatch(3);
+        IdleTimeoutWheel wheel = new IdleTimeoutWheel("test wheel", 30, new Runnable() {
+            @Override
+            public void run() {
+                runs.countDown();
+            }
+        });
+        try {
+            assertTrue(runs.await(5, TimeUnit.SECONDS));
+        } finally {
+            wheel.stop();
+        }
+    }
+}
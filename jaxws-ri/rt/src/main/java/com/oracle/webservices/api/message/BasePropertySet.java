@@ -43,15 +43,21 @@ package com.oracle.webservices.api.message;
 import com.sun.istack.NotNull;
 import com.sun.istack.Nullable;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Map.Entry;
 import java.util.Set;
 
@@ -196,6 +202,16 @@ public abstract class BasePropertySet implements PropertySet {
          */
         private final Field f;
 
+        /**
+         * Reads {@link #f}, typed {@code (Object)Object}.
+         */
+        private final MethodHandle getter;
+
+        /**
+         * Writes {@link #f}, typed {@code (Object,Object)void}.
+         */
+        private final MethodHandle setter;
+
         /**
          * One of the values in {@link Property} annotation on {@link #f}.
          */
@@ -205,6 +221,13 @@ public abstract class BasePropertySet implements PropertySet {
             this.f = f;
             f.setAccessible(true);
             this.name = name;
+            try {
+                // the handles are created from the accessible field, so they skip the access checks too
+                this.getter = LOOKUP.unreflectGetter(f).asType(GETTER_TYPE);
+                this.setter = LOOKUP.unreflectSetter(f).asType(SETTER_TYPE);
+            } catch (IllegalAccessException e) {
+                throw new AssertionError(e);
+            }
         }
 
         @Override
@@ -220,32 +243,38 @@ public abstract class BasePropertySet implements PropertySet {
         @Override
         public Object get(PropertySet props) {
             try {
-                return f.get(props);
-            } catch (IllegalAccessException e) {
-                throw new AssertionError();
+                return (Object) getter.invokeExact((Object) props);
+            } catch (Throwable t) {
+                throw propagate(t);
             }
         }
 
         @Override
         public void set(PropertySet props, Object value) {
+            checkAssignable(f.getType(), value, name);
             try {
-                f.set(props,value);
-            } catch (IllegalAccessException e) {
-                throw new AssertionError();
+                setter.invokeExact((Object) props, value);
+            } catch (Throwable t) {
+                throw propagate(t);
             }
         }
     }
 
     static final class MethodAccessor implements Accessor {
         /**
-         * Getter method.
+         * Getter method, typed {@code (Object)Object}.
          */
-        private final @NotNull Method getter;
+        private final @NotNull MethodHandle getter;
         /**
-         * Setter method.
+         * Setter method, typed {@code (Object,Object)void}.
          * Some property is read-only.
          */
-        private final @Nullable Method setter;
+        private final @Nullable MethodHandle setter;
+
+        /**
+         * Parameter type of the setter.
+         */
+        private final @Nullable Class<?> type;
 
         /**
          * One of the values in {@link Property} annotation on {@link #getter}.
@@ -253,13 +282,18 @@ public abstract class BasePropertySet implements PropertySet {
         private final String name;
 
         protected MethodAccessor(Method getter, Method setter, String value) {
-            this.getter = getter;
-            this.setter = setter;
             this.name = value;
             getter.setAccessible(true);
             if (setter!=null) {
                 setter.setAccessible(true);
             }
+            try {
+                this.getter = LOOKUP.unreflect(getter).asType(GETTER_TYPE);
+                this.setter = setter != null ? LOOKUP.unreflect(setter).asType(SETTER_TYPE) : null;
+            } catch (IllegalAccessException e) {
+                throw new AssertionError(e);
+            }
+            this.type = setter != null ? setter.getParameterTypes()[0] : null;
         }
 
         @Override
@@ -275,12 +309,9 @@ public abstract class BasePropertySet implements PropertySet {
         @Override
         public Object get(PropertySet props) {
             try {
-                return getter.invoke(props);
-            } catch (IllegalAccessException e) {
-                throw new AssertionError();
-            } catch (InvocationTargetException e) {
-                handle(e);
-                return 0;   // never reach here
+                return (Object) getter.invokeExact((Object) props);
+            } catch (Throwable t) {
+                throw propagate(t);
             }
         }
 
@@ -289,30 +320,46 @@ public abstract class BasePropertySet implements PropertySet {
             if(setter==null) {
                 throw new ReadOnlyPropertyException(getName());
             }
+            checkAssignable(type, value, name);
             try {
-                setter.invoke(props,value);
-            } catch (IllegalAccessException e) {
-                throw new AssertionError();
-            } catch (InvocationTargetException e) {
-                handle(e);
+                setter.invokeExact((Object) props, value);
+            } catch (Throwable t) {
+                throw propagate(t);
             }
         }
+    }
 
-        /**
-         * Since we don't expect the getter/setter to throw a checked exception,
-         * it should be possible to make the exception propagation transparent.
-         * That's what we are trying to do here.
-         */
-        private Exception handle(InvocationTargetException e) {
-            Throwable t = e.getTargetException();
-            if (t instanceof Error) {
-                throw (Error)t;
-            }
-            if (t instanceof RuntimeException) {
-                throw (RuntimeException)t;
-            }
-            throw new Error(e);
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    /**
+     * Reports a value that can't be stored in a property the way reflection does,
+     * instead of the {@link ClassCastException} the method handle would throw.
+     */
+    private static void checkAssignable(Class<?> type, Object value, String name) {
+        boolean assignable = value == null
+                ? !type.isPrimitive()
+                : MethodType.methodType(type).wrap().returnType().isInstance(value);
+        if (!assignable) {
+            throw new IllegalArgumentException("Cannot set property " + name + " of type "
+                    + type.getName() + " to " + (value == null ? null : value.getClass().getName()));
+        }
+    }
+
+    /**
+     * Since we don't expect the getter/setter to throw a checked exception,
+     * it should be possible to make the exception propagation transparent.
+     * That's what we are trying to do here.
+     */
+    private static RuntimeException propagate(Throwable t) {
+        if (t instanceof Error) {
+            throw (Error)t;
+        }
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException)t;
         }
+        throw new Error(t);
     }
 
 
@@ -321,61 +368,104 @@ public abstract class BasePropertySet implements PropertySet {
      * the map but also to modify the map in a way it is in sync with original strongly typed fields. It also allows
      * (if necessary) to store additional properties those can't be found in strongly typed fields.
      *
+     * <p>
+     * The view doesn't copy anything; the strongly typed properties are read and written
+     * through their {@link Accessor}s on every access, so creating it is cheap.
+     *
      * @see com.sun.xml.ws.api.PropertySet#asMap() method
      */
-    final class MapView extends HashMap<String, Object> {
+    final class MapView extends AbstractMap<String, Object> {
 
         // flag if it should allow store also different properties
         // than the from strongly typed fields
         boolean extensible;
 
+        /**
+         * Properties not backed by strongly typed fields. Lazily allocated.
+         */
+        private Map<String, Object> additional;
+
+        /**
+         * Strongly typed properties removed from the view. Lazily allocated.
+         */
+        private Set<String> removed;
+
         MapView(boolean extensible) {
-        	super(getPropertyMap().getPropertyMapEntries().length);
             this.extensible = extensible;
-            initialize();
         }
 
-        public void initialize() {
-            // iterate (cached) array instead of map to speed things up ...
-            PropertyMapEntry[] entries = getPropertyMap().getPropertyMapEntries();
-            for (PropertyMapEntry entry : entries) {
-                super.put(entry.key, entry.value);
+        /**
+         * @return the accessor of the given property, unless it has been removed from the view.
+         */
+        private Accessor accessor(Object key) {
+            Accessor acc = getPropertyMap().get(key);
+            if (acc != null && removed != null && removed.contains(key)) {
+                return null;
             }
+            return acc;
         }
 
         @Override
         public Object get(Object key) {
-            Object o = super.get(key);
-            if (o instanceof Accessor) {
-                return ((Accessor) o).get(BasePropertySet.this);
-            } else {
-                return o;
+            Accessor acc = accessor(key);
+            if (acc != null) {
+                return acc.get(BasePropertySet.this);
             }
+            return additional != null ? additional.get(key) : null;
         }
 
         @Override
-        public Set<Entry<String, Object>> entrySet() {
-            Set<Entry<String, Object>> entries = new HashSet<Entry<String, Object>>();
-            for (String key : keySet()) {
-                entries.add(new SimpleImmutableEntry<String, Object>(key, get(key)));
+        public boolean containsKey(Object key) {
+            return accessor(key) != null || additional != null && additional.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            int size = getPropertyMap().getPropertyMapEntries().length;
+            if (removed != null) {
+                size -= removed.size();
+            }
+            if (additional != null) {
+                size += additional.size();
             }
-            return entries;
+            return size;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return MapView.this.size();
+                }
+            };
         }
 
         @Override
         public Object put(String key, Object value) {
 
-            Object o = super.get(key);
-            if (o != null && o instanceof Accessor) {
+            Accessor acc = getPropertyMap().get(key);
+            if (acc != null) {
 
-                Object oldValue = ((Accessor) o).get(BasePropertySet.this);
-                ((Accessor) o).set(BasePropertySet.this, value);
+                Object oldValue = acc.get(BasePropertySet.this);
+                acc.set(BasePropertySet.this, value);
+                if (removed != null) {
+                    removed.remove(key);
+                }
                 return oldValue;
 
             } else {
 
                 if (extensible) {
-                    return super.put(key, value);
+                    if (additional == null) {
+                        additional = new HashMap<String, Object>();
+                    }
+                    return additional.put(key, value);
                 } else {
                     throw new IllegalStateException("Unknown property [" + key + "] for PropertySet [" +
                             BasePropertySet.this.getClass().getName() + "]");
@@ -385,19 +475,82 @@ public abstract class BasePropertySet implements PropertySet {
 
         @Override
         public void clear() {
-            for (String key : keySet()) {
-                remove(key);
+            for (PropertyMapEntry entry : getPropertyMap().getPropertyMapEntries()) {
+                remove(entry.key);
+            }
+            if (additional != null) {
+                additional.clear();
             }
         }
 
         @Override
         public Object remove(Object key) {
-            Object o;
-            o = super.get(key);
-            if (o instanceof Accessor) {
-                ((Accessor)o).set(BasePropertySet.this, null);
+            Accessor acc = accessor(key);
+            if (acc != null) {
+                Object oldValue = acc.get(BasePropertySet.this);
+                acc.set(BasePropertySet.this, null);
+                if (removed == null) {
+                    removed = new HashSet<String>();
+                }
+                removed.add(acc.getName());
+                return oldValue;
+            }
+            return additional != null ? additional.remove(key) : null;
+        }
+
+        /**
+         * Iterates the strongly typed properties (from the cached array of the model)
+         * and then the additional ones.
+         */
+        private final class EntryIterator implements Iterator<Entry<String, Object>> {
+            private final PropertyMapEntry[] entries = getPropertyMap().getPropertyMapEntries();
+            private int index = 0;
+            private Iterator<Entry<String, Object>> additionalIterator;
+            private String lastKey;
+
+            @Override
+            public boolean hasNext() {
+                while (index < entries.length) {
+                    if (removed == null || !removed.contains(entries[index].key)) {
+                        return true;
+                    }
+                    index++;
+                }
+                return additionalIterator().hasNext();
+            }
+
+            @Override
+            public Entry<String, Object> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (index < entries.length) {
+                    PropertyMapEntry entry = entries[index++];
+                    lastKey = entry.key;
+                    return new SimpleImmutableEntry<String, Object>(entry.key, entry.value.get(BasePropertySet.this));
+                }
+                lastKey = null;
+                return additionalIterator.next();
+            }
+
+            @Override
+            public void remove() {
+                if (lastKey != null) {
+                    MapView.this.remove(lastKey);
+                    lastKey = null;
+                } else {
+                    additionalIterator().remove();
+                }
+            }
+
+            private Iterator<Entry<String, Object>> additionalIterator() {
+                if (additionalIterator == null) {
+                    additionalIterator = additional != null
+                            ? additional.entrySet().iterator()
+                            : Collections.<Entry<String, Object>>emptyIterator();
+                }
+                return additionalIterator;
             }
-            return super.remove(key);
         }
     }
 
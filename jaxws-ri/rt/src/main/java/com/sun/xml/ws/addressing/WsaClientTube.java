@@ -77,6 +77,12 @@ public class WsaClientTube extends WsaTube {
         return new WsaClientTube(this, cloner);
     }
 
+    @Override
+    public boolean reset() {
+        expectReply = true;
+        return resetNext();
+    }
+
     @Override
     public @NotNull NextAction processRequest(Packet request) {
         expectReply = request.expectReply;
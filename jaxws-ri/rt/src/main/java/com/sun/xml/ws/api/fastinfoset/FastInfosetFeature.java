@@ -70,6 +70,8 @@ public class FastInfosetFeature extends WebServiceFeature {
      */
     public static final String ID = "http://java.sun.com/xml/ns/jaxws/fastinfoset";
 
+    private String externalVocabularyURI;
+
     /**
      * Create a {@link FastInfosetFeature}. The instance created will be enabled.
      */
@@ -88,6 +90,34 @@ public class FastInfosetFeature extends WebServiceFeature {
         this.enabled = enabled;
     }
 
+    /**
+     * Create a {@link FastInfosetFeature} whose stateless Fast Infoset
+     * documents reference an external vocabulary built from the WSDL and
+     * schema documents of the service, so that the names they declare
+     * are indexed from the first message on.
+     *
+     * <p>
+     * The peer must know the vocabulary, see
+     * {@code com.sun.xml.ws.encoding.fastinfoset.FastInfosetVocabulary}.
+     * An endpoint registers its own vocabulary when it's deployed.
+     *
+     * @param enabled specifies whether this feature should
+     *                be enabled or not.
+     * @param externalVocabularyURI URI that identifies the vocabulary.
+     */
+    public FastInfosetFeature(boolean enabled, String externalVocabularyURI) {
+        this.enabled = enabled;
+        this.externalVocabularyURI = externalVocabularyURI;
+    }
+
+    /**
+     * URI of the external vocabulary the documents are encoded with, or null.
+     */
+    @ManagedAttribute
+    public String getExternalVocabularyURI() {
+        return externalVocabularyURI;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -243,6 +243,10 @@ public class AddressingUtils {
             throw new IllegalArgumentException(AddressingMessages.NULL_SOAP_VERSION());
         }
 
+        if (headers instanceof HeaderList) {
+            return ((HeaderList) headers).getFirstHeader(name, markUnderstood, sv);
+        }
+
         Iterator<Header> iter = headers.getHeaders(name.getNamespaceURI(), name.getLocalPart(), markUnderstood);
         while (iter.hasNext()) {
             Header h = iter.next();
@@ -42,6 +42,8 @@ package com.sun.xml.ws.api.message;
 
 import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -145,6 +147,32 @@ public class HeaderList extends ArrayList<Header> implements MessageHeaders {
     private BitSet moreUnderstoodBits = null;
 
     private SOAPVersion soapVersion;
+
+    /**
+     * Lists with at least this many headers are looked up through
+     * {@link #index}; shorter ones are simply scanned.
+     */
+    private static final int INDEX_THRESHOLD = 8;
+
+    /**
+     * Positions of the headers by their local name, built lazily by the
+     * lookups once the list is long enough for a linear scan to hurt
+     * (security, reliable messaging and addressing together easily add up
+     * to 20-30 headers, each looked up several times by different tubes.)
+     *
+     * <p>
+     * The index is valid only as long as its {@link HeaderIndex#modCount}
+     * matches {@link #modCount}. {@link #add(Header)}, {@link #addOrReplace(Header)}
+     * and {@link #replace(Header, Header)} keep it up to date, any other
+     * structural change makes it stale and it is rebuilt on the next lookup.
+     */
+    private transient HeaderIndex index;
+
+    /**
+     * WS-Addressing headers by {@link AddressingVersion#ordinal()}, see {@link #getFirstHeader}.
+     * Lazily allocated.
+     */
+    private transient AddressingView[] addressingViews;
     
     /**
      * This method is deprecated - instead use this one: 
@@ -303,17 +331,66 @@ public class HeaderList extends ArrayList<Header> implements MessageHeaders {
      */
     @Override
     public @Nullable Header get(@NotNull String nsUri, @NotNull String localName, boolean markAsUnderstood) {
-        int len = size();
-        for (int i = 0; i < len; i++) {
-            Header h = get(i);
-            if (h.getLocalPart().equals(localName) && h.getNamespaceURI().equals(nsUri)) {
-                if (markAsUnderstood) {
-                    understood(i);
+        int i = indexOf(nsUri, localName);
+        if (i < 0) {
+            return null;
+        }
+        if (markAsUnderstood) {
+            understood(i);
+        }
+        return get(i);
+    }
+
+    /**
+     * Gets the position of the first {@link Header} of the specified name.
+     *
+     * @return -1 if not found.
+     */
+    private int indexOf(@NotNull String nsUri, @NotNull String localName) {
+        HeaderIndex idx = index();
+        if (idx == null) {
+            int len = size();
+            for (int i = 0; i < len; i++) {
+                Header h = get(i);
+                if (h.getLocalPart().equals(localName) && h.getNamespaceURI().equals(nsUri)) {
+                    return i;
                 }
-                return h;
             }
+            return -1;
         }
-        return null;
+        int[] positions = idx.get(localName);
+        if (positions != null) {
+            for (int i : positions) {
+                if (get(i).getNamespaceURI().equals(nsUri)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the up-to-date {@link #index}, building it if necessary.
+     *
+     * @return null if the list is too short to be worth indexing.
+     */
+    private @Nullable HeaderIndex index() {
+        HeaderIndex idx = index;
+        if (idx != null && idx.modCount == modCount) {
+            return idx;
+        }
+        int len = size();
+        if (len < INDEX_THRESHOLD) {
+            index = null;
+            return null;
+        }
+        idx = new HeaderIndex(len);
+        for (int i = 0; i < len; i++) {
+            idx.add(get(i).getLocalPart(), i);
+        }
+        idx.modCount = modCount;
+        index = idx;
+        return idx;
     }
 
     /**
@@ -370,9 +447,21 @@ public class HeaderList extends ArrayList<Header> implements MessageHeaders {
     @NotNull
     @Override
     Iterator<Header> getHeaders(@NotNull final String nsUri, @NotNull final String localName, final boolean markAsUnderstood) {
+        HeaderIndex headerIndex = index();
+        // positions of the headers with the given local name, or null to scan the whole list
+        final int[] candidates;
+        if (headerIndex == null) {
+            candidates = null;
+        } else {
+            candidates = headerIndex.get(localName);
+            if (candidates == null) {
+                return Collections.<Header>emptyList().iterator();
+            }
+        }
         return new Iterator<Header>() {
 
             int idx = 0;
+            int candidate = 0;
             Header next;
 
             @Override
@@ -403,6 +492,20 @@ public class HeaderList extends ArrayList<Header> implements MessageHeaders {
             }
 
             private void fetch() {
+                if (candidates != null) {
+                    while (candidate < candidates.length) {
+                        idx = candidates[candidate++];
+                        if (idx >= size()) {
+                            break;
+                        }
+                        Header h = get(idx++);
+                        if (h.getLocalPart().equals(localName) && h.getNamespaceURI().equals(nsUri)) {
+                            next = h;
+                            break;
+                        }
+                    }
+                    return;
+                }
                 while (idx < size()) {
                     Header h = get(idx++);
                     if (h.getLocalPart().equals(localName) && h.getNamespaceURI().equals(nsUri)) {
@@ -593,6 +696,61 @@ public class HeaderList extends ArrayList<Header> implements MessageHeaders {
         return AddressingUtils.getRelatesTo(this, av, sv);
     }
 
+    /**
+     * Gets the first {@link Header} of the specified name targeted at the
+     * implicit role of the given SOAP version.
+     *
+     * <p>
+     * The WS-Addressing headers are looked up by every addressing aware tube,
+     * so for them this is answered from a view of all the headers of that
+     * {@link AddressingVersion} built in a single pass.
+     *
+     * @see AddressingUtils#getFirstHeader(MessageHeaders, QName, boolean, SOAPVersion)
+     */
+    @Nullable Header getFirstHeader(@NotNull QName name, boolean markUnderstood, @NotNull SOAPVersion sv) {
+        AddressingVersion av = AddressingVersion.fromNsUri(name.getNamespaceURI());
+        if (av != null) {
+            AddressingView view = addressingView(av);
+            int slot = view.slot(name);
+            if (slot >= 0) {
+                int i = view.positions[slot];
+                if (i == AddressingView.NONE) {
+                    return null;
+                }
+                if (i != AddressingView.MULTIPLE) {
+                    // same as the iteration below, which marks every header it goes through
+                    if (markUnderstood) {
+                        understood(i);
+                    }
+                    Header h = get(i);
+                    return h.getRole(sv).equals(sv.implicitRole) ? h : null;
+                }
+            }
+        }
+
+        Iterator<Header> iter = getHeaders(name.getNamespaceURI(), name.getLocalPart(), markUnderstood);
+        while (iter.hasNext()) {
+            Header h = iter.next();
+            if (h.getRole(sv).equals(sv.implicitRole)) {
+                return h;
+            }
+        }
+        return null;
+    }
+
+    private AddressingView addressingView(AddressingVersion av) {
+        if (addressingViews == null) {
+            addressingViews = new AddressingView[AddressingVersion.values().length];
+        }
+        AddressingView view = addressingViews[av.ordinal()];
+        if (view == null || view.modCount != modCount) {
+            view = new AddressingView(av, this);
+            view.modCount = modCount;
+            addressingViews[av.ordinal()] = view;
+        }
+        return view;
+    }
+
     /**
      * Creates a set of outbound WS-Addressing headers on the client with the
      * specified Action Message Addressing Property value.
@@ -654,7 +812,25 @@ public class HeaderList extends ArrayList<Header> implements MessageHeaders {
      */
     @Override
     public boolean add(Header header) {
-        return super.add(header);
+        boolean indexed = index != null && index.modCount == modCount;
+        super.add(header);
+        if (indexed) {
+            // appending doesn't move any other header, so the index can simply be extended
+            index.add(header.getLocalPart(), size() - 1);
+            index.modCount = modCount;
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the {@link Header} at the specified position.
+     */
+    @Override
+    public Header set(int index, Header header) {
+        // doesn't count as a structural modification, so drop the lookup structures explicitly
+        this.index = null;
+        addressingViews = null;
+        return super.set(index, header);
     }
 
     /**
@@ -668,14 +844,8 @@ public class HeaderList extends ArrayList<Header> implements MessageHeaders {
     @Nullable
     @Override
     Header remove(@NotNull String nsUri, @NotNull String localName) {
-        int len = size();
-        for (int i = 0; i < len; i++) {
-            Header h = get(i);
-            if (h.getLocalPart().equals(localName) && h.getNamespaceURI().equals(nsUri)) {
-                return remove(i);
-            }
-        }
-        return null;
+        int i = indexOf(nsUri, localName);
+        return i < 0 ? null : remove(i);
     }
     
     /**
@@ -691,35 +861,43 @@ public class HeaderList extends ArrayList<Header> implements MessageHeaders {
      */
     @Override
     public boolean addOrReplace(Header header) {
-        for (int i=0; i < size(); i++) {
-          Header hdr = get(i);
-          if (hdr.getNamespaceURI().equals(header.getNamespaceURI()) &&
-              hdr.getLocalPart().equals(header.getLocalPart())) {
-            // Put the new header in the old position. Call super versions
-            // internally to avoid UnsupportedOperationException
-            removeInternal(i);
-            addInternal(i, header);
+        int i = indexOf(header.getNamespaceURI(), header.getLocalPart());
+        if (i >= 0) {
+            replaceAt(i, header);
             return true;
-          }
         }
         return add(header);
     }
     
     @Override
     public void replace(Header old, Header header) {
-        for (int i=0; i < size(); i++) {
-            Header hdr = get(i);
-            if (hdr.getNamespaceURI().equals(header.getNamespaceURI()) &&
-                hdr.getLocalPart().equals(header.getLocalPart())) {
-              // Put the new header in the old position. Call super versions
-              // internally to avoid UnsupportedOperationException
-              removeInternal(i);
-              addInternal(i, header);
-              return;
+        int i = indexOf(header.getNamespaceURI(), header.getLocalPart());
+        if (i < 0) {
+            throw new IllegalArgumentException();
+        }
+        replaceAt(i, header);
+    }
+
+    /**
+     * Puts the new header in the position of an old header of the same name.
+     */
+    private void replaceAt(int i, Header header) {
+        int before = modCount;
+        // Call super versions internally to avoid UnsupportedOperationException
+        removeInternal(i);
+        addInternal(i, header);
+        // no header has moved and the name at i is the same, so whatever
+        // was up to date still is
+        if (index != null && index.modCount == before) {
+            index.modCount = modCount;
+        }
+        if (addressingViews != null) {
+            for (AddressingView view : addressingViews) {
+                if (view != null && view.modCount == before) {
+                    view.modCount = modCount;
+                }
             }
-          }
-        
-          throw new IllegalArgumentException();
+        }
     }
 
     protected void addInternal(int index, Header header) {
@@ -915,13 +1093,8 @@ public class HeaderList extends ArrayList<Header> implements MessageHeaders {
     
     @Override
     public boolean isUnderstood(String nsUri, String localName) {
-        for (int i = 0; i < size(); i++) {
-            Header h = get(i);
-            if (h.getLocalPart().equals(localName) && h.getNamespaceURI().equals(nsUri)) {
-                return isUnderstood(i);
-            }
-        }
-        return false;
+        int i = indexOf(nsUri, localName);
+        return i >= 0 && isUnderstood(i);
     }
     
     @Override
@@ -989,4 +1162,95 @@ public class HeaderList extends ArrayList<Header> implements MessageHeaders {
     public List<Header> asList() {
         return this;
     }
+
+    /**
+     * Header positions by local name. Namespace URIs are compared on lookup,
+     * as local names alone rarely collide among the headers of one message.
+     */
+    private static final class HeaderIndex {
+        private final HashMap<String, int[]> positions;
+        /**
+         * {@link HeaderList#modCount} this index is valid for.
+         */
+        int modCount;
+
+        HeaderIndex(int size) {
+            positions = new HashMap<String, int[]>(size * 2);
+        }
+
+        /**
+         * @return ascending positions of the headers with the given local name, or null.
+         */
+        int[] get(String localName) {
+            return positions.get(localName);
+        }
+
+        void add(String localName, int position) {
+            int[] p = positions.get(localName);
+            if (p == null) {
+                p = new int[] {position};
+            } else {
+                p = Arrays.copyOf(p, p.length + 1);
+                p[p.length - 1] = position;
+            }
+            positions.put(localName, p);
+        }
+    }
+
+    /**
+     * Positions of the WS-Addressing message addressing property headers of
+     * one {@link AddressingVersion}.
+     */
+    private static final class AddressingView {
+        static final int NONE = -1;
+        /**
+         * More than one header of the name, for example targeted at different roles.
+         */
+        static final int MULTIPLE = -2;
+
+        private final QName[] tags;
+        final int[] positions;
+        /**
+         * {@link HeaderList#modCount} this view is valid for.
+         */
+        int modCount;
+
+        AddressingView(AddressingVersion av, HeaderList headers) {
+            tags = new QName[] {av.toTag, av.actionTag, av.messageIDTag, av.relatesToTag,
+                    av.replyToTag, av.faultToTag, av.fromTag};
+            positions = new int[tags.length];
+            Arrays.fill(positions, NONE);
+            int len = headers.size();
+            for (int i = 0; i < len; i++) {
+                Header h = headers.get(i);
+                if (!h.getNamespaceURI().equals(av.nsUri)) {
+                    continue;
+                }
+                String localName = h.getLocalPart();
+                for (int slot = 0; slot < tags.length; slot++) {
+                    if (tags[slot].getLocalPart().equals(localName)) {
+                        positions[slot] = positions[slot] == NONE ? i : MULTIPLE;
+                        break;
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return index into {@link #positions}, or -1 if the name isn't one of the tracked properties.
+         */
+        int slot(QName name) {
+            for (int slot = 0; slot < tags.length; slot++) {
+                if (tags[slot] == name) {
+                    return slot;
+                }
+            }
+            for (int slot = 0; slot < tags.length; slot++) {
+                if (tags[slot].equals(name)) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+    }
 }
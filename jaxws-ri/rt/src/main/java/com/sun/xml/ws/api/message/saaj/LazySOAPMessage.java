@@ -0,0 +1,477 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.api.message.saaj;
+
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.message.Header;
+import com.sun.xml.ws.api.message.HeaderList;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.MessageHeaders;
+import com.sun.xml.ws.message.saaj.SAAJHeader;
+import com.sun.xml.ws.util.xml.XMLStreamWriterFilter;
+import org.w3c.dom.events.Event;
+import org.w3c.dom.events.EventListener;
+import org.w3c.dom.events.EventTarget;
+
+import javax.xml.soap.AttachmentPart;
+import javax.xml.soap.MimeHeaders;
+import javax.xml.soap.SOAPBody;
+import javax.xml.soap.SOAPElement;
+import javax.xml.soap.SOAPException;
+import javax.xml.soap.SOAPHeader;
+import javax.xml.soap.SOAPHeaderElement;
+import javax.xml.soap.SOAPMessage;
+import javax.xml.soap.SOAPPart;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * {@link SOAPMessage} view of a {@link Message} that only reads the parts
+ * of the message that are used.
+ *
+ * <p>
+ * The SOAP header is built from the {@link MessageHeaders} of the message when
+ * {@link #getSOAPHeader()} is first called. Everything else, the body, the
+ * {@link SOAPPart} and the attachments, is read from the message, which is then
+ * consumed, only when it is first used. So a handler that only looks at the
+ * headers never builds the body as DOM.
+ *
+ * <p>
+ * {@link #toMessage()} gives the message back. As long as the body wasn't read,
+ * it is the original message, with its headers replaced by the SOAP header if
+ * the SOAP header was changed.
+ */
+final class LazySOAPMessage extends SOAPMessage {
+
+    private final SOAPVersion soapVersion;
+    private final Message message;
+
+    /**
+     * Starts with an empty header and an empty body.
+     */
+    private final SOAPMessage saaj;
+
+    private boolean headerRead;
+    private boolean headerChanged;
+    private boolean bodyRead;
+
+    LazySOAPMessage(SOAPVersion soapVersion, Message message) throws SOAPException {
+        this.soapVersion = soapVersion;
+        this.message = message;
+        this.saaj = soapVersion.getMessageFactory().createMessage();
+    }
+
+    /**
+     * Gets the message with the changes made through this view.
+     */
+    Message toMessage() throws SOAPException {
+        if (bodyRead) {
+            return SAAJFactory.create(saaj);
+        }
+        if (!headerChanged) {
+            return message;
+        }
+        MessageHeaders headers = message.getHeaders();
+        if (!(headers instanceof HeaderList)) {
+            readAll();
+            return SAAJFactory.create(saaj);
+        }
+        HeaderList headerList = (HeaderList) headers;
+        // one by one, so that the understood bits are dropped with the headers
+        for (int i = headerList.size() - 1; i >= 0; i--) {
+            headerList.remove(i);
+        }
+        for (Iterator<?> it = saaj.getSOAPHeader().getChildElements(); it.hasNext();) {
+            Object child = it.next();
+            if (child instanceof SOAPHeaderElement) {
+                headerList.add(new SAAJHeader((SOAPHeaderElement) child));
+            }
+        }
+        return message;
+    }
+
+    private void readHeader() throws SOAPException {
+        if (headerRead) {
+            return;
+        }
+        headerRead = true;
+        if (message.hasHeaders()) {
+            for (Header header : message.getHeaders().asList()) {
+                header.writeTo(saaj);
+            }
+        }
+        SOAPHeader header = saaj.getSOAPHeader();
+        if (header instanceof EventTarget) {
+            ((EventTarget) header).addEventListener("DOMSubtreeModified", new EventListener() {
+                @Override
+                public void handleEvent(Event evt) {
+                    headerChanged = true;
+                }
+            }, false);
+        } else {
+            // can't tell
+            headerChanged = true;
+        }
+    }
+
+    private void readAll() throws SOAPException {
+        if (bodyRead) {
+            return;
+        }
+        readHeader();
+        bodyRead = true;
+        SaajStaxWriter writer = new SaajStaxWriter(saaj, soapVersion.nsUri);
+        try {
+            message.writeTo(new HeaderSkippingWriter(writer, soapVersion.nsUri));
+        } catch (XMLStreamException e) {
+            throw (e.getCause() instanceof SOAPException) ? (SOAPException) e.getCause() : new SOAPException(e);
+        }
+        SAAJFactory.addAttachmentsToSOAPMessage(saaj, message);
+        if (saaj.saveRequired()) {
+            saaj.saveChanges();
+        }
+    }
+
+    @Override
+    public SOAPHeader getSOAPHeader() throws SOAPException {
+        readHeader();
+        return saaj.getSOAPHeader();
+    }
+
+    @Override
+    public SOAPBody getSOAPBody() throws SOAPException {
+        readAll();
+        return saaj.getSOAPBody();
+    }
+
+    @Override
+    public SOAPPart getSOAPPart() {
+        readAllUnchecked();
+        return saaj.getSOAPPart();
+    }
+
+    @Override
+    public void setContentDescription(String description) {
+        saaj.setContentDescription(description);
+    }
+
+    @Override
+    public String getContentDescription() {
+        return saaj.getContentDescription();
+    }
+
+    @Override
+    public void setProperty(String property, Object value) throws SOAPException {
+        saaj.setProperty(property, value);
+    }
+
+    @Override
+    public Object getProperty(String property) throws SOAPException {
+        return saaj.getProperty(property);
+    }
+
+    @Override
+    public void removeAllAttachments() {
+        readAllUnchecked();
+        saaj.removeAllAttachments();
+    }
+
+    @Override
+    public int countAttachments() {
+        readAllUnchecked();
+        return saaj.countAttachments();
+    }
+
+    @Override
+    public Iterator getAttachments() {
+        readAllUnchecked();
+        return saaj.getAttachments();
+    }
+
+    @Override
+    public Iterator getAttachments(MimeHeaders headers) {
+        readAllUnchecked();
+        return saaj.getAttachments(headers);
+    }
+
+    @Override
+    public void removeAttachments(MimeHeaders headers) {
+        readAllUnchecked();
+        saaj.removeAttachments(headers);
+    }
+
+    @Override
+    public AttachmentPart getAttachment(SOAPElement element) throws SOAPException {
+        readAll();
+        return saaj.getAttachment(element);
+    }
+
+    @Override
+    public void addAttachmentPart(AttachmentPart attachmentPart) {
+        readAllUnchecked();
+        saaj.addAttachmentPart(attachmentPart);
+    }
+
+    @Override
+    public AttachmentPart createAttachmentPart() {
+        return saaj.createAttachmentPart();
+    }
+
+    @Override
+    public MimeHeaders getMimeHeaders() {
+        readAllUnchecked();
+        return saaj.getMimeHeaders();
+    }
+
+    @Override
+    public void saveChanges() throws SOAPException {
+        readAll();
+        saaj.saveChanges();
+    }
+
+    @Override
+    public boolean saveRequired() {
+        readAllUnchecked();
+        return saaj.saveRequired();
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws SOAPException, IOException {
+        readAll();
+        saaj.writeTo(out);
+    }
+
+    /**
+     * For the methods of {@link SOAPMessage} that can't throw {@link SOAPException}.
+     */
+    private void readAllUnchecked() {
+        try {
+            readAll();
+        } catch (SOAPException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Drops the SOAP header of the message, which is already in the SAAJ message.
+     */
+    private static final class HeaderSkippingWriter extends XMLStreamWriterFilter {
+        private final String envNsUri;
+        private int depth;
+        /**
+         * Depth within the SOAP header, 0 outside of it.
+         */
+        private int skipped;
+
+        HeaderSkippingWriter(XMLStreamWriter writer, String envNsUri) {
+            super(writer);
+            this.envNsUri = envNsUri;
+        }
+
+        private boolean start(String namespaceURI, String localName) {
+            if (skipped > 0) {
+                skipped++;
+                return true;
+            }
+            depth++;
+            if (depth == 2 && envNsUri.equals(namespaceURI) && "Header".equals(localName)) {
+                skipped = 1;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void writeStartElement(String localName) throws XMLStreamException {
+            if (!start(null, localName)) {
+                super.writeStartElement(localName);
+            }
+        }
+
+        @Override
+        public void writeStartElement(String namespaceURI, String localName) throws XMLStreamException {
+            if (!start(namespaceURI, localName)) {
+                super.writeStartElement(namespaceURI, localName);
+            }
+        }
+
+        @Override
+        public void writeStartElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+            if (!start(namespaceURI, localName)) {
+                super.writeStartElement(prefix, localName, namespaceURI);
+            }
+        }
+
+        @Override
+        public void writeEndElement() throws XMLStreamException {
+            if (skipped > 0) {
+                if (--skipped == 0) {
+                    depth--;
+                }
+                return;
+            }
+            depth--;
+            super.writeEndElement();
+        }
+
+        @Override
+        public void writeEmptyElement(String localName) throws XMLStreamException {
+            if (skipped == 0) {
+                super.writeEmptyElement(localName);
+            }
+        }
+
+        @Override
+        public void writeEmptyElement(String namespaceURI, String localName) throws XMLStreamException {
+            if (skipped == 0) {
+                super.writeEmptyElement(namespaceURI, localName);
+            }
+        }
+
+        @Override
+        public void writeEmptyElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+            if (skipped == 0) {
+                super.writeEmptyElement(prefix, localName, namespaceURI);
+            }
+        }
+
+        @Override
+        public void writeAttribute(String localName, String value) throws XMLStreamException {
+            if (skipped == 0) {
+                super.writeAttribute(localName, value);
+            }
+        }
+
+        @Override
+        public void writeAttribute(String namespaceURI, String localName, String value) throws XMLStreamException {
+            if (skipped == 0) {
+                super.writeAttribute(namespaceURI, localName, value);
+            }
+        }
+
+        @Override
+        public void writeAttribute(String prefix, String namespaceURI, String localName, String value) throws XMLStreamException {
+            if (skipped == 0) {
+                super.writeAttribute(prefix, namespaceURI, localName, value);
+            }
+        }
+
+        @Override
+        public void writeNamespace(String prefix, String namespaceURI) throws XMLStreamException {
+            if (skipped == 0) {
+                super.writeNamespace(prefix, namespaceURI);
+            }
+        }
+
+        @Override
+        public void writeDefaultNamespace(String namespaceURI) throws XMLStreamException {
+            if (skipped == 0) {
+                super.writeDefaultNamespace(namespaceURI);
+            }
+        }
+
+        @Override
+        public void setPrefix(String prefix, String uri) throws XMLStreamException {
+            if (skipped == 0) {
+                super.setPrefix(prefix, uri);
+            }
+        }
+
+        @Override
+        public void setDefaultNamespace(String uri) throws XMLStreamException {
+            if (skipped == 0) {
+                super.setDefaultNamespace(uri);
+            }
+        }
+
+        @Override
+        public void writeCharacters(String text) throws XMLStreamException {
+            if (skipped == 0) {
+                super.writeCharacters(text);
+            }
+        }
+
+        @Override
+        public void writeCharacters(char[] text, int start, int len) throws XMLStreamException {
+            if (skipped == 0) {
+                super.writeCharacters(text, start, len);
+            }
+        }
+
+        @Override
+        public void writeCData(String data) throws XMLStreamException {
+            if (skipped == 0) {
+                super.writeCData(data);
+            }
+        }
+
+        @Override
+        public void writeComment(String data) throws XMLStreamException {
+            if (skipped == 0) {
+                super.writeComment(data);
+            }
+        }
+
+        @Override
+        public void writeProcessingInstruction(String target) throws XMLStreamException {
+            if (skipped == 0) {
+                super.writeProcessingInstruction(target);
+            }
+        }
+
+        @Override
+        public void writeProcessingInstruction(String target, String data) throws XMLStreamException {
+            if (skipped == 0) {
+                super.writeProcessingInstruction(target, data);
+            }
+        }
+
+        @Override
+        public void writeEntityRef(String name) throws XMLStreamException {
+            if (skipped == 0) {
+                super.writeEntityRef(name);
+            }
+        }
+    }
+}
@@ -49,6 +49,7 @@ import javax.xml.soap.SOAPException;
 import javax.xml.soap.SOAPFactory;
 import javax.xml.soap.SOAPMessage;
 import javax.xml.stream.XMLStreamException;
+import javax.xml.ws.WebServiceException;
 
 import org.xml.sax.SAXException;
 
@@ -137,6 +138,13 @@ public class SAAJFactory {
 	 * @return created Message
 	 */
 	public static Message create(SOAPMessage saaj) {
+		if (saaj instanceof LazySOAPMessage) {
+			try {
+				return ((LazySOAPMessage) saaj).toMessage();
+			} catch (SOAPException e) {
+				throw new WebServiceException(e);
+			}
+		}
 		for (SAAJFactory s : ServiceFinder.find(SAAJFactory.class)) {
 			Message m = s.createMessage(saaj);
 			if (m != null)
@@ -163,6 +171,27 @@ public class SAAJFactory {
     	return instance.readAsSOAPMessage(soapVersion, message);
 	}
 	
+	/**
+	 * Reads Message as a SOAPMessage that only reads the parts of the message
+	 * that are used. The SOAP header is built from the headers of the message
+	 * when it is first used, the message is only consumed when anything else,
+	 * like the SOAP body, is used. {@link #create(SOAPMessage)} gives back the
+	 * message with the changes made through the SOAPMessage.
+	 *
+	 * Reads the whole message, like {@link Message#readAsSOAPMessage()}, when
+	 * the message already is a SOAPMessage or when another SAAJFactory is used.
+	 * @param soapVersion SOAP version
+	 * @param message Message
+	 * @return Created SOAPMessage
+	 * @throws SOAPException if SAAJ processing fails
+	 */
+	public static SOAPMessage readLazily(SOAPVersion soapVersion, Message message) throws SOAPException {
+		if (message instanceof SAAJMessage || ServiceFinder.find(SAAJFactory.class).iterator().hasNext()) {
+			return message.readAsSOAPMessage();
+		}
+		return new LazySOAPMessage(soapVersion, message);
+	}
+
 	/**
      * Reads Message as SOAPMessage.  After this call message is consumed.
      * @param soapVersion SOAP version
@@ -41,9 +41,14 @@
 package com.sun.xml.ws.api.pipe;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.sun.istack.Nullable;
 
 import com.sun.xml.ws.api.message.Packet;
 import com.sun.xml.ws.api.server.Container;
@@ -53,10 +58,25 @@ import com.sun.xml.ws.api.server.ContainerResolver;
  * Collection of {@link Fiber}s.
  * Owns an {@link Executor} to run them.
  *
+ * <p>
+ * When no executor is given, the fibers run on a cached pool of daemon
+ * threads. If the {@code com.sun.xml.ws.api.pipe.Engine.virtualThreads}
+ * system property is true and the JDK supports virtual threads, each
+ * fiber runs on a new virtual thread instead.
+ *
  * @author Kohsuke Kawaguchi
  * @author Jitendra Kotamraju
  */
 public class Engine {
+    private static final Logger LOGGER = Logger.getLogger(Engine.class.getName());
+
+    /**
+     * System property that enables the virtual thread mode.
+     */
+    public static final String VIRTUAL_THREADS_PROPERTY = Engine.class.getName() + ".virtualThreads";
+
+    private static final boolean virtualThreads;
+
     private volatile Executor threadPool;
     public final String id;
     private final Container container;
@@ -90,11 +110,35 @@ public class Engine {
     void addRunnable(Fiber fiber) {
         if(threadPool==null) {
             synchronized(this) {
-                threadPool = wrap(Executors.newCachedThreadPool(new DaemonThreadFactory()));
+                if (threadPool == null) {
+                    ExecutorService ex = createVirtualThreadExecutor("jaxws-engine-" + id + "-virtual-");
+                    threadPool = wrap(ex != null ? ex : Executors.newCachedThreadPool(new DaemonThreadFactory()));
+                }
             }
         }
         threadPool.execute(fiber);
     }
+
+    /**
+     * Creates an executor that runs each task on a new virtual thread,
+     * if the virtual thread mode is enabled.
+     *
+     * @param namePrefix prefix of the names of the virtual threads
+     * @return null if the virtual thread mode is disabled or the JDK
+     *         doesn't support virtual threads.
+     * @see #VIRTUAL_THREADS_PROPERTY
+     */
+    public static @Nullable ExecutorService createVirtualThreadExecutor(String namePrefix) {
+        if (!virtualThreads) {
+            return null;
+        }
+        ExecutorService ex = ThreadHelper.createVirtualThreadExecutor(namePrefix);
+        if (ex == null && LOGGER.isLoggable(Level.CONFIG)) {
+            LOGGER.log(Level.CONFIG, "''{0}'' is set, but virtual threads are not supported by this JDK.",
+                    VIRTUAL_THREADS_PROPERTY);
+        }
+        return ex;
+    }
     
     private Executor wrap(Executor ex) {
         return ContainerResolver.getDefault().wrapExecutor(container, ex);
@@ -134,4 +178,17 @@ public class Engine {
             return t;
         }
     }
+
+    static {
+        boolean enabled = false;
+        try {
+            enabled = Boolean.getBoolean(VIRTUAL_THREADS_PROPERTY);
+        } catch (SecurityException se) {
+            if (LOGGER.isLoggable(Level.CONFIG)) {
+                LOGGER.log(Level.CONFIG, "Cannot read ''{0}'' property, using defaults.",
+                        new Object[] {VIRTUAL_THREADS_PROPERTY});
+            }
+        }
+        virtualThreads = enabled;
+    }
 }
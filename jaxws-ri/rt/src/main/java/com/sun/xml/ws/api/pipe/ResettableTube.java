@@ -0,0 +1,78 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.api.pipe;
+
+import com.sun.xml.ws.api.pipe.helper.AbstractFilterTubeImpl;
+
+/**
+ * {@link Tube} that can be made ready for the next request after processing
+ * a request ended with an exception.
+ *
+ * <p>
+ * A tubeline whose asynchronous processing has failed is normally not reused,
+ * since its tubes may be left in an unexpected state. A fresh copy is made with
+ * {@link TubeCloner} instead, and copying the whole tubeline is expensive.
+ * When the tubes of a tubeline implement this interface, its owner, such as
+ * {@link com.sun.xml.ws.client.Stub}, resets it and keeps using it.
+ * A tubeline whose synchronous processing has failed is always reused, it is
+ * only reset first when it can be.
+ *
+ * <p>
+ * A filter tube resets its own state and then the tubes after it, see
+ * {@link AbstractFilterTubeImpl#resetNext()}.
+ *
+ * @see com.sun.xml.ws.api.pipe.helper.AbstractTubeImpl#reset()
+ */
+public interface ResettableTube extends Tube {
+    /**
+     * Makes this tube, and the tubes after it, ready for the next request
+     * after processing the last one ended with an exception.
+     *
+     * <p>
+     * The owner of the tubeline calls this method on the first tube, while
+     * no {@link Fiber} runs the tubeline.
+     *
+     * @return
+     *      true if the tubeline can process the next request. false if it
+     *      can't, and must be discarded.
+     */
+    boolean reset();
+}
@@ -43,6 +43,8 @@ package com.sun.xml.ws.api.pipe;
 import java.lang.reflect.Constructor;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 
 /**
@@ -54,6 +56,7 @@ import java.util.concurrent.ThreadFactory;
 final class ThreadHelper {
 
     private static final String SAFE_THREAD_NAME = "sun.misc.ManagedLocalsThread";
+    private static final String VIRTUAL_THREAD_BUILDER_NAME = "java.lang.Thread$Builder";
 
     private static final ThreadFactory threadFactory;
 
@@ -96,6 +99,35 @@ final class ThreadHelper {
         return threadFactory.newThread(r);
     }
 
+    /**
+     * Creates an executor that starts a new virtual thread for each task.
+     *
+     * @return null if virtual threads are not supported (before Java SE 21)
+     */
+    static ExecutorService createVirtualThreadExecutor(final String namePrefix) {
+        return AccessController.doPrivileged(
+                new PrivilegedAction<ExecutorService>() {
+                    @Override
+                    public ExecutorService run() {
+                        try {
+                            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                            Class<?> builderClass = Class.forName(VIRTUAL_THREAD_BUILDER_NAME);
+                            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 1L);
+                            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+                            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                                    .invoke(null, factory);
+                        } catch (NoSuchMethodException ignored) {
+                            // virtual threads newly added in Java SE 21
+                        } catch (ClassNotFoundException ignored) {
+                        } catch (ReflectiveOperationException x) {
+                            throw new InternalError(x);
+                        }
+                        return null;
+                    }
+                }
+        );
+    }
+
     // A Thread factory backed by the Thread constructor that
     // suppresses inheriting of inheritable thread-locals.
     private static class JDK9ThreadFactory implements ThreadFactory {
@@ -44,7 +44,11 @@ import com.sun.istack.NotNull;
 import com.sun.istack.Nullable;
 import com.sun.xml.ws.api.EndpointAddress;
 import com.sun.xml.ws.api.pipe.helper.PipeAdapter;
+import com.sun.xml.ws.developer.Http2TransportFeature;
+import com.sun.xml.ws.developer.NonBlockingHttpTransportFeature;
 import com.sun.xml.ws.transport.http.client.HttpTransportPipe;
+import com.sun.xml.ws.transport.http.client.Http2TransportTube;
+import com.sun.xml.ws.transport.http.client.NonBlockingHttpTransportTube;
 import com.sun.xml.ws.util.ServiceFinder;
 import com.sun.xml.ws.util.pipe.StandaloneTubeAssembler;
 import java.util.logging.Level;
@@ -168,6 +172,15 @@ public abstract class TransportTubeFactory {
     }
     
     protected Tube createHttpTransport(ClientTubeAssemblerContext context) {
+        // the non-blocking transports don't do TLS, https stays with the default one
+        if ("http".equalsIgnoreCase(context.getAddress().getURI().getScheme())) {
+            if (context.getBinding().isFeatureEnabled(Http2TransportFeature.class)) {
+                return new Http2TransportTube(context.getCodec(), context.getBinding());
+            }
+            if (context.getBinding().isFeatureEnabled(NonBlockingHttpTransportFeature.class)) {
+                return new NonBlockingHttpTransportTube(context.getCodec(), context.getBinding());
+            }
+        }
         return new HttpTransportPipe(context.getCodec(), context.getBinding());
     }
 
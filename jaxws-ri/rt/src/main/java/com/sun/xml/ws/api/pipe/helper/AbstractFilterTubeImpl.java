@@ -43,6 +43,7 @@ package com.sun.xml.ws.api.pipe.helper;
 import com.sun.istack.NotNull;
 import com.sun.xml.ws.api.message.Packet;
 import com.sun.xml.ws.api.pipe.NextAction;
+import com.sun.xml.ws.api.pipe.ResettableTube;
 import com.sun.xml.ws.api.pipe.Tube;
 import com.sun.xml.ws.api.pipe.TubeCloner;
 
@@ -98,4 +99,15 @@ public abstract class AbstractFilterTubeImpl extends AbstractTubeImpl {
           next.preDestroy();
         }
     }
+
+    /**
+     * Resets the tubes after this one. A filter tube that has no per-request
+     * state, or has restored it, implements {@link #reset()} by calling this.
+     *
+     * @return
+     *      true if the next tube can process the next request.
+     */
+    protected final boolean resetNext() {
+        return next == null || (next instanceof ResettableTube && ((ResettableTube) next).reset());
+    }
 }
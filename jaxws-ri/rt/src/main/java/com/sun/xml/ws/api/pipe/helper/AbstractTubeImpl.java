@@ -45,6 +45,7 @@ import com.sun.xml.ws.api.pipe.Fiber;
 import com.sun.xml.ws.api.pipe.NextAction;
 import com.sun.xml.ws.api.pipe.Pipe;
 import com.sun.xml.ws.api.pipe.PipeCloner;
+import com.sun.xml.ws.api.pipe.ResettableTube;
 import com.sun.xml.ws.api.pipe.Tube;
 import com.sun.xml.ws.api.pipe.TubeCloner;
 
@@ -57,7 +58,7 @@ import com.sun.xml.ws.api.pipe.TubeCloner;
  *
  * @author Kohsuke Kawaguchi
  */
-public abstract class AbstractTubeImpl implements Tube, Pipe {
+public abstract class AbstractTubeImpl implements Tube, Pipe, ResettableTube {
 
     /**
      * Default constructor.
@@ -136,6 +137,17 @@ public abstract class AbstractTubeImpl implements Tube, Pipe {
         return Fiber.current().runSync(this,p);
     }
 
+    /**
+     * Returns false, since the state of an arbitrary tube after an exception is
+     * unknown. Tubes that have no per-request state, or restore it, override
+     * this method.
+     *
+     * @see ResettableTube
+     */
+    public boolean reset() {
+        return false;
+    }
+
     /**
      * Needs to be implemented by the derived class, but we can't make it abstract
      * without upsetting javac.
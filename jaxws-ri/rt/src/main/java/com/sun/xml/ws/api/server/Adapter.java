@@ -139,6 +139,9 @@ public abstract class Adapter<TK extends Adapter.Toolkit>
 			public <S> S getSPI(Class<S> spiType) {
 		        if (spiType.isAssignableFrom(Reconfigurable.class)) {
 		            return spiType.cast(Adapter.this);
+		        }
+		        if (spiType == Pool.Statistics.class) {
+		            return spiType.cast(pool.getStatistics());
 		        }
 				return null;
 			}
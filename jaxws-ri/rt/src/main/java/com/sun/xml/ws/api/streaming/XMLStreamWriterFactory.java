@@ -53,12 +53,14 @@ import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.ws.WebServiceException;
+import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
 import java.io.StringWriter;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.security.AccessController;
-import java.security.PrivilegedAction;
+import java.security.PrivilegedActionException;
+import java.security.PrivilegedExceptionAction;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -101,14 +103,7 @@ public abstract class XMLStreamWriterFactory {
             // this system property can be used to disable the pooling altogether,
             // in case someone hits an issue with pooling in the production system.
             if (!Boolean.getBoolean(XMLStreamWriterFactory.class.getName()+".noPool")) {
-                try {
-                    Class<?> clazz = xof.createXMLStreamWriter(new StringWriter()).getClass();
-                    if (clazz.getName().startsWith("com.sun.xml.stream.")) {
-                        f =  new Zephyr(xof,clazz);
-                    }
-                } catch (XMLStreamException ex) {
-                    Logger.getLogger(XMLStreamWriterFactory.class.getName()).log(Level.INFO, null, ex);
-                }
+                f = Zephyr.newInstance(xof);
             }
 
             if(f==null) {
@@ -275,10 +270,14 @@ public abstract class XMLStreamWriterFactory {
     }
 
     /**
-     * {@link XMLStreamWriterFactory} implementation for Sun's StaX implementation.
+     * {@link XMLStreamWriterFactory} implementation for StaX implementations
+     * whose writers can be reset and bound to another output, such as Sun's
+     * StaX implementation and the one built into the JDK 8.
      *
      * <p>
-     * This implementation supports instance reuse.
+     * This implementation supports instance reuse. A recycled writer is kept
+     * per thread, so {@link XMLOutputFactory} is only used, under its lock,
+     * when a thread has no writer to reuse.
      */
     public static final class Zephyr extends XMLStreamWriterFactory {
         private final XMLOutputFactory xof;
@@ -287,41 +286,80 @@ public abstract class XMLStreamWriterFactory {
         private final Method setOutputMethod;
         private final Class zephyrClass;
 
-        public static XMLStreamWriterFactory newInstance(XMLOutputFactory xof) {
+        /**
+         * @return
+         *      null if the writers of the given factory can't be reused, for
+         *      example because the JDK doesn't let us call their methods.
+         */
+        public static @Nullable XMLStreamWriterFactory newInstance(XMLOutputFactory xof) {
             try {
-                Class<?> clazz = xof.createXMLStreamWriter(new StringWriter()).getClass();
-
-                if(!clazz.getName().startsWith("com.sun.xml.stream."))
-                return null;    // nope
-
-                return new Zephyr(xof,clazz);
-            } catch (XMLStreamException e) {
-                return null;    // impossible
+                XMLStreamWriter probe = xof.createXMLStreamWriter(new StringWriter());
+                Class<?> clazz = probe.getClass();
+                if (!isExported(clazz)) {
+                    return null;
+                }
+                Method reset = getMethod(clazz, "reset");
+                Method setOutput = getMethod(clazz, "setOutput", StreamResult.class, String.class);
+
+                // make sure a reused writer really writes to the new stream
+                probe.writeEmptyElement("probe");
+                probe.close();
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                reset.invoke(probe);
+                setOutput.invoke(probe, new StreamResult(out), "UTF-8");
+                probe.writeEmptyElement("probe");
+                probe.close();
+                if (!out.toString("UTF-8").startsWith("<probe")) {
+                    return null;
+                }
+                return new Zephyr(xof, clazz, reset, setOutput);
+            } catch (Exception e) {
+                // not supported, or not accessible
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.log(Level.FINE, "XMLStreamWriter of " + xof.getClass().getName() + " can't be reused", e);
+                }
+                return null;
             }
         }
 
-        private Zephyr(XMLOutputFactory xof, Class clazz) {
+        private Zephyr(XMLOutputFactory xof, Class clazz, Method resetMethod, Method setOutputMethod) {
             this.xof = xof;
 
             zephyrClass = clazz;
-            setOutputMethod = getMethod(clazz, "setOutput", StreamResult.class, String.class);
-            resetMethod = getMethod(clazz, "reset");
+            this.setOutputMethod = setOutputMethod;
+            this.resetMethod = resetMethod;
         }
 
-        private static Method getMethod(final Class<?> c, final String methodname, final Class<?>... params) {
-            return AccessController.doPrivileged(
-                    new PrivilegedAction<Method>() {
-                        @Override
-                        public Method run() {
-                            try {
+        private static Method getMethod(final Class<?> c, final String methodname, final Class<?>... params) throws NoSuchMethodException {
+            try {
+                return AccessController.doPrivileged(
+                        new PrivilegedExceptionAction<Method>() {
+                            @Override
+                            public Method run() throws NoSuchMethodException {
                                 return c.getMethod(methodname, params);
-                            } catch (NoSuchMethodException e) {
-                                // impossible
-                                throw new NoSuchMethodError(e.getMessage());
                             }
                         }
-                    }
-            );
+                );
+            } catch (PrivilegedActionException e) {
+                throw (NoSuchMethodException) e.getException();
+            }
+        }
+
+        /**
+         * Checks that the module of the class, if any, lets us call its public
+         * methods, instead of calling them and getting a warning from the JDK.
+         */
+        private static boolean isExported(Class<?> clazz) throws Exception {
+            Method getModule;
+            try {
+                getModule = Class.class.getMethod("getModule");
+            } catch (NoSuchMethodException e) {
+                // no modules before Java 9
+                return true;
+            }
+            Object module = getModule.invoke(clazz);
+            String pkg = clazz.getName().substring(0, clazz.getName().lastIndexOf('.'));
+            return (Boolean) module.getClass().getMethod("isExported", String.class).invoke(module, pkg);
         }
 
         /**
@@ -355,7 +393,10 @@ public abstract class XMLStreamWriterFactory {
             } else {
                 // create a new instance
                 try {
-                    xsw = xof.createXMLStreamWriter(out,encoding);
+                    // XMLOutputFactory is not required to be thread-safe
+                    synchronized (xof) {
+                        xsw = xof.createXMLStreamWriter(out,encoding);
+                    }
                 } catch (XMLStreamException e) {
                     throw new XMLReaderException("stax.cantCreate",e);
                 }
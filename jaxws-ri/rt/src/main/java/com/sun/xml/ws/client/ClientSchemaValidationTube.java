@@ -52,7 +52,6 @@ import com.sun.xml.ws.util.MetadataUtil;
 import com.sun.xml.ws.util.pipe.AbstractSchemaValidationTube;
 import org.xml.sax.SAXException;
 
-import javax.xml.transform.Source;
 import javax.xml.validation.Schema;
 import javax.xml.validation.Validator;
 import javax.xml.ws.WebServiceException;
@@ -81,26 +80,12 @@ public class ClientSchemaValidationTube extends AbstractSchemaValidationTube {
             MetadataResolverImpl mdresolver = new MetadataResolverImpl();
             Map<String, SDDocument> docs = MetadataUtil.getMetadataClosure(primaryWsdl, mdresolver, true);
             mdresolver = new MetadataResolverImpl(docs.values());
-            Source[] sources = getSchemaSources(docs.values(), mdresolver);
-            for(Source source : sources) {
-                LOGGER.fine("Constructing client validation schema from = "+source.getSystemId());
-                //printDOM((DOMSource)source);
-            }
-            if (sources.length != 0) {
-                noValidation = false;
-                sf.setResourceResolver(mdresolver);
-                try {
-                    schema = sf.newSchema(sources);
-                } catch(SAXException e) {
-                    throw new WebServiceException(e);
-                }
-                validator = schema.newValidator();
-                return;
-            }
+            schema = createSchema(docs.values(), mdresolver);
+        } else {
+            schema = null;
         }
-        noValidation = true;
-        schema = null;
-        validator = null;
+        noValidation = schema == null;
+        validator = noValidation ? null : schema.newValidator();
     }
 
     protected Validator getValidator() {
@@ -111,11 +96,16 @@ public class ClientSchemaValidationTube extends AbstractSchemaValidationTube {
         return noValidation;
     }
 
+    @Override
+    protected Schema getSchema() {
+        return schema;
+    }
+
     protected ClientSchemaValidationTube(ClientSchemaValidationTube that, TubeCloner cloner) {
         super(that,cloner);
         this.port = that.port;
         this.schema = that.schema;
-        this.validator = schema.newValidator();
+        this.validator = that.noValidation ? null : schema.newValidator();
         this.noValidation = that.noValidation;
     }
 
@@ -123,6 +113,12 @@ public class ClientSchemaValidationTube extends AbstractSchemaValidationTube {
         return new ClientSchemaValidationTube(this,cloner);
     }
 
+    @Override
+    public boolean reset() {
+        validator.reset();
+        return resetNext();
+    }
+
     @Override
     public NextAction processRequest(Packet request) {
         if (isNoValidation() || !feature.isOutbound() || !request.getMessage().hasPayload() || request.getMessage().isFault()) {
@@ -142,7 +138,7 @@ public class ClientSchemaValidationTube extends AbstractSchemaValidationTube {
             return super.processResponse(response);
         }
         try {
-            doProcess(response);
+            doProcessInbound(response);
         } catch(SAXException se) {
             throw new WebServiceException(se);
         }
@@ -41,7 +41,13 @@
 package com.sun.xml.ws.client;
 
 import com.sun.xml.ws.api.model.wsdl.WSDLService;
+import com.sun.xml.ws.api.pipe.Tube;
 import com.sun.xml.ws.api.server.Container;
+import com.sun.xml.ws.developer.Http2TransportFeature;
+import com.sun.xml.ws.developer.NonBlockingHttpTransportFeature;
+import com.sun.xml.ws.transport.http.client.Http2Client;
+import com.sun.xml.ws.transport.http.client.HttpConnectionPool;
+import com.sun.xml.ws.util.Pool;
 
 import java.util.Map;
 
@@ -95,6 +101,51 @@ public final class MonitorRootClient extends com.sun.xml.ws.server.MonitorBase {
     @ManagedAttribute
     private WSDLService wsdlService() { return stub.owner.getWsdlService(); }
 
+    @ManagedAttribute
+    @Description("WSDL models shared between all the services of the process")
+    private WSDLModelCache wsdlModelCache() { return WSDLModelCache.getInstance(); }
+
+    @ManagedAttribute
+    @Description("SEI runtime models shared between all the services of the process")
+    private SEIModelCache seiModelCache() { return SEIModelCache.getInstance(); }
+
+    //
+    // From the tubeline
+    //
+
+    @ManagedAttribute
+    @Description("Pool of tubeline copies, the created count is the number of copies made")
+    private Pool.Statistics tubePool() {
+        Pool<Tube> tubes = stub.getTubes();
+        return (tubes != null) ? tubes.getStatistics() : null;
+    }
+
+    @ManagedAttribute
+    @Description("Number of tubelines reset and reused after a failed invocation")
+    private long tubelinesReset() { return stub.getTubelinesReset(); }
+
+    @ManagedAttribute
+    @Description("Number of tubelines discarded after a failed invocation")
+    private long tubelinesDiscarded() { return stub.getTubelinesDiscarded(); }
+
+    //
+    // From the transport
+    //
+
+    @ManagedAttribute
+    @Description("HTTP connection pool of the non-blocking transport")
+    private HttpConnectionPool httpConnectionPool() {
+        NonBlockingHttpTransportFeature feature = stub.getBinding().getFeature(NonBlockingHttpTransportFeature.class);
+        return (feature != null) ? feature.getConnectionPool() : null;
+    }
+
+    @ManagedAttribute
+    @Description("HTTP/2 connections of the HTTP/2 transport")
+    private Http2Client http2Client() {
+        Http2TransportFeature feature = stub.getBinding().getFeature(Http2TransportFeature.class);
+        return (feature != null) ? feature.getClient() : null;
+    }
+
     
         
 }
@@ -0,0 +1,356 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.client;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import com.sun.xml.ws.api.model.wsdl.WSDLPort;
+import com.sun.xml.ws.model.SOAPSEIModel;
+import org.glassfish.gmbal.Description;
+import org.glassfish.gmbal.ManagedAttribute;
+import org.glassfish.gmbal.ManagedData;
+
+import javax.xml.namespace.QName;
+import javax.xml.ws.WebServiceFeature;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shares the runtime model of an SEI, with its databinding, between the
+ * {@link WSServiceDelegate}s that create proxies for the same port.
+ *
+ * <p>
+ * Building the model runs the {@link com.sun.xml.ws.model.RuntimeModeler} and creates
+ * a JAXB context, which takes long compared to everything else {@code getPort}
+ * does. A model is bound to the {@link WSDLPort} it was built for, so models
+ * can only be shared when the services share their WSDL model, which is why
+ * this cache is active exactly when the {@link WSDLModelCache} is.
+ *
+ * <p>
+ * Models are kept with the SEI class in a {@link ClassValue}, so they go away with
+ * the class loader of the SEI and never keep an application loaded. At most
+ * {@link #MODELS_PER_SEI} models are kept for each SEI, least recently used first.
+ */
+@ManagedData
+@Description("Runtime models of SEIs shared between services")
+public final class SEIModelCache {
+
+    private static final SEIModelCache INSTANCE = new SEIModelCache();
+
+    static final int MODELS_PER_SEI = 8;
+
+    /**
+     * Builds the model when it isn't cached.
+     */
+    interface Builder {
+        SOAPSEIModel build();
+    }
+
+    private final ClassValue<Map<Key, SOAPSEIModel>> models = new ClassValue<Map<Key, SOAPSEIModel>>() {
+        @Override
+        protected Map<Key, SOAPSEIModel> computeValue(Class<?> sei) {
+            Map<Key, SOAPSEIModel> forSei = new LinkedHashMap<Key, SOAPSEIModel>(4, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, SOAPSEIModel> eldest) {
+                    return size() > MODELS_PER_SEI;
+                }
+            };
+            for (Reference<?> ref; (ref = cleared.poll()) != null;) {
+                all.remove(ref);
+            }
+            all.add(new WeakReference<Map<Key, SOAPSEIModel>>(forSei, cleared));
+            return forSei;
+        }
+    };
+
+    // the models of each SEI, cleared when the class loader of the SEI goes away
+    private final Queue<WeakReference<Map<Key, SOAPSEIModel>>> all =
+            new ConcurrentLinkedQueue<WeakReference<Map<Key, SOAPSEIModel>>>();
+    private final ReferenceQueue<Map<Key, SOAPSEIModel>> cleared = new ReferenceQueue<Map<Key, SOAPSEIModel>>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder buildTime = new LongAdder();
+    private final AtomicLong maxBuildTime = new AtomicLong();
+    private volatile long lastBuildTime;
+
+    SEIModelCache() {
+    }
+
+    /**
+     * Gets the cache shared by all the {@link WSServiceDelegate}s.
+     */
+    public static SEIModelCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Gets the model of the given port, building it if it isn't cached.
+     * Two threads missing the same model at the same time may both build it.
+     *
+     * @param cacheable
+     *      false to always build the model, the build time is still recorded.
+     * @param owner
+     *      class of the {@link WSServiceDelegate}, which may build its models differently.
+     */
+    SOAPSEIModel get(boolean cacheable, @NotNull Class<?> owner, @NotNull Class<?> sei,
+                     @NotNull QName serviceName, @NotNull QName portName,
+                     @NotNull WSDLPort wsdlPort, @Nullable String wsdlLocation,
+                     @NotNull WebServiceFeature[] features, @NotNull Builder builder) {
+        if (!cacheable) {
+            return build(builder);
+        }
+        Key key = new Key(owner, serviceName, portName, wsdlPort, wsdlLocation, features);
+        Map<Key, SOAPSEIModel> forSei = models.get(sei);
+        SOAPSEIModel model;
+        synchronized (forSei) {
+            model = forSei.get(key);
+        }
+        if (model != null) {
+            hits.increment();
+            return model;
+        }
+        misses.increment();
+        model = build(builder);
+        synchronized (forSei) {
+            forSei.put(key, model);
+        }
+        return model;
+    }
+
+    private SOAPSEIModel build(Builder builder) {
+        long start = System.nanoTime();
+        SOAPSEIModel model = builder.build();
+        long time = System.nanoTime() - start;
+        buildTime.add(time);
+        lastBuildTime = time;
+        for (long max = maxBuildTime.get(); time > max && !maxBuildTime.compareAndSet(max, time); max = maxBuildTime.get()) {
+        }
+        return model;
+    }
+
+    /**
+     * Drops the models of the given SEI.
+     */
+    public void invalidate(@NotNull Class<?> sei) {
+        Map<Key, SOAPSEIModel> forSei = models.get(sei);
+        synchronized (forSei) {
+            forSei.clear();
+        }
+    }
+
+    @ManagedAttribute
+    @Description("Number of models currently shared, over all SEIs")
+    public long getSize() {
+        long size = 0;
+        for (Iterator<WeakReference<Map<Key, SOAPSEIModel>>> it = all.iterator(); it.hasNext();) {
+            Map<Key, SOAPSEIModel> forSei = it.next().get();
+            if (forSei == null) {
+                it.remove();
+                continue;
+            }
+            synchronized (forSei) {
+                size += forSei.size();
+            }
+        }
+        return size;
+    }
+
+    @ManagedAttribute
+    @Description("Number of proxies that got a shared model")
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @ManagedAttribute
+    @Description("Number of models built for a shareable port")
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @ManagedAttribute
+    @Description("Total time spent building models, in milliseconds")
+    public long getBuildTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(buildTime.sum());
+    }
+
+    @ManagedAttribute
+    @Description("Time the last model took to build, in milliseconds")
+    public long getLastBuildTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastBuildTime);
+    }
+
+    @ManagedAttribute
+    @Description("Longest time a model took to build, in milliseconds")
+    public long getMaxBuildTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxBuildTime.get());
+    }
+
+    /**
+     * Public getters of a feature, whose values make up its part of a {@link Key}.
+     */
+    private static final ClassValue<Method[]> FEATURE_PROPERTIES = new ClassValue<Method[]>() {
+        @Override
+        protected Method[] computeValue(Class<?> type) {
+            List<Method> getters = new ArrayList<Method>();
+            for (Method m : type.getMethods()) {
+                String name = m.getName();
+                if (m.getParameterTypes().length == 0 && !Modifier.isStatic(m.getModifiers())
+                        && m.getDeclaringClass() != Object.class
+                        && (name.startsWith("get") || name.startsWith("is"))) {
+                    getters.add(m);
+                }
+            }
+            Method[] result = getters.toArray(new Method[getters.size()]);
+            Arrays.sort(result, new Comparator<Method>() {
+                @Override
+                public int compare(Method m1, Method m2) {
+                    return m1.getName().compareTo(m2.getName());
+                }
+            });
+            return result;
+        }
+    };
+
+    /**
+     * Identifies a model by everything it is built from, other than the SEI.
+     * The {@link WSDLPort} is compared by identity.
+     *
+     * <p>
+     * Features are compared by their class and the values of their properties.
+     * Values that aren't strings, primitives, enums or classes are compared by
+     * identity, so a feature holding such an object only matches itself.
+     */
+    private static final class Key {
+        private final Class<?> owner;
+        private final QName serviceName;
+        private final QName portName;
+        private final WSDLPort wsdlPort;
+        private final String wsdlLocation;
+        private final Object[] features;
+        private final int hashCode;
+
+        Key(Class<?> owner, QName serviceName, QName portName, WSDLPort wsdlPort, String wsdlLocation,
+            WebServiceFeature[] features) {
+            this.owner = owner;
+            this.serviceName = serviceName;
+            this.portName = portName;
+            this.wsdlPort = wsdlPort;
+            this.wsdlLocation = wsdlLocation;
+            this.features = describe(features);
+            this.hashCode = (serviceName.hashCode() * 31 + portName.hashCode()) * 31 + System.identityHashCode(wsdlPort);
+        }
+
+        private static Object[] describe(WebServiceFeature[] features) {
+            WebServiceFeature[] sorted = features.clone();
+            Arrays.sort(sorted, new Comparator<WebServiceFeature>() {
+                @Override
+                public int compare(WebServiceFeature f1, WebServiceFeature f2) {
+                    return f1.getClass().getName().compareTo(f2.getClass().getName());
+                }
+            });
+            List<Object> values = new ArrayList<Object>();
+            for (WebServiceFeature f : sorted) {
+                values.add(f.getClass());
+                for (Method getter : FEATURE_PROPERTIES.get(f.getClass())) {
+                    try {
+                        values.add(getter.invoke(f));
+                    } catch (Exception e) {
+                        // can't tell whether two of them are the same
+                        values.add(new Object());
+                    }
+                }
+            }
+            return values.toArray();
+        }
+
+        private static boolean sameValue(Object v1, Object v2) {
+            if (v1 == v2) {
+                return true;
+            }
+            if (v1 == null || v2 == null || v1.getClass() != v2.getClass()) {
+                return false;
+            }
+            return (v1 instanceof String || v1 instanceof Number || v1 instanceof Boolean
+                    || v1 instanceof Character || v1 instanceof Enum || v1 instanceof QName)
+                    && v1.equals(v2);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            if (hashCode != that.hashCode || wsdlPort != that.wsdlPort || owner != that.owner
+                    || !serviceName.equals(that.serviceName) || !portName.equals(that.portName)
+                    || (wsdlLocation == null ? that.wsdlLocation != null : !wsdlLocation.equals(that.wsdlLocation))
+                    || features.length != that.features.length) {
+                return false;
+            }
+            for (int i = 0; i < features.length; i++) {
+                if (!sameValue(features[i], that.features[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
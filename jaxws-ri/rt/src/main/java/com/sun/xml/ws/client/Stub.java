@@ -67,6 +67,7 @@ import com.sun.xml.ws.api.pipe.ClientTubeAssemblerContext;
 import com.sun.xml.ws.api.pipe.Engine;
 import com.sun.xml.ws.api.pipe.Fiber;
 import com.sun.xml.ws.api.pipe.FiberContextSwitchInterceptorFactory;
+import com.sun.xml.ws.api.pipe.ResettableTube;
 import com.sun.xml.ws.api.pipe.SyncStartForAsyncFeature;
 import com.sun.xml.ws.api.pipe.Tube;
 import com.sun.xml.ws.api.pipe.TubelineAssembler;
@@ -102,6 +103,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.management.ObjectName;
@@ -132,6 +134,11 @@ public abstract class Stub implements WSBindingProvider, ResponseContextReceiver
      * Set to null when {@link #close() closed}.
      */
     private Pool<Tube> tubes;
+    /**
+     * Tubelines reused, and discarded, after an invocation failed with an exception.
+     */
+    private final LongAdder tubelinesReset = new LongAdder();
+    private final LongAdder tubelinesDiscarded = new LongAdder();
 
     private final Engine engine;
 
@@ -305,9 +312,9 @@ public abstract class Stub implements WSBindingProvider, ResponseContextReceiver
             managedObjectManager = new MonitorRootClient(this).createManagedObjectManager(this);
     
             if (master != null) {
-                this.tubes = new TubePool(master);
+                this.tubes = new TubePool(master, true);
             } else {
-                this.tubes = new TubePool(createPipeline(portInfo, binding));
+                this.tubes = new TubePool(createPipeline(portInfo, binding), true);
             }
     
             addrVersion = binding.getAddressingVersion();
@@ -358,6 +365,35 @@ public abstract class Stub implements WSBindingProvider, ResponseContextReceiver
     public Pool<Tube> getTubes() {
         return tubes;
     }
+
+    long getTubelinesReset() {
+        return tubelinesReset.sum();
+    }
+
+    long getTubelinesDiscarded() {
+        return tubelinesDiscarded.sum();
+    }
+
+    /**
+     * Returns a tubeline whose invocation failed with an exception to the pool.
+     * The tubeline is reset first, if it can be.
+     *
+     * @param discardUnlessReset
+     *      if true, a tubeline that can't be reset is dropped, and the pool
+     *      will make a fresh copy when it's needed. Otherwise it is recycled
+     *      anyway, as the synchronous invocation always did.
+     * @see ResettableTube
+     */
+    private void recycleAfterException(Pool<Tube> pool, Tube tube, boolean discardUnlessReset) {
+        if (tube instanceof ResettableTube && ((ResettableTube) tube).reset()) {
+            tubelinesReset.increment();
+            pool.recycle(tube);
+        } else if (discardUnlessReset) {
+            tubelinesDiscarded.increment();
+        } else {
+            pool.recycle(tube);
+        }
+    }
     
     /**
      * Checks only if RespectBindingFeature is enabled
@@ -459,8 +495,11 @@ public abstract class Stub implements WSBindingProvider, ResponseContextReceiver
         // then send it away!
         Tube tube = pool.take();
 
+        boolean failed = true;
         try {
-            return fiber.runSync(tube, packet);
+            Packet reply = fiber.runSync(tube, packet);
+            failed = false;
+            return reply;
         } finally {
             // this allows us to capture the packet even when the call failed with an exception.
             // when the call fails with an exception it's no longer a 'reply' but it may provide some information
@@ -470,8 +509,13 @@ public abstract class Stub implements WSBindingProvider, ResponseContextReceiver
             // ResponseContext is created.
             Packet reply = (fiber.getPacket() == null) ? packet : fiber.getPacket();
             receiver.setResponseContext(new ResponseContext(reply));
-            
-            pool.recycle(tube);
+
+            // tubes that keep per-request state get a chance to clear it
+            if (failed) {
+                recycleAfterException(pool, tube, false);
+            } else {
+                pool.recycle(tube);
+            }
         }
     }
 
@@ -562,8 +606,9 @@ public abstract class Stub implements WSBindingProvider, ResponseContextReceiver
 
             @Override
             public void onCompletion(@NotNull Throwable error) {
-                // let's not reuse tubes as they might be in a wrong state, so not
-                // calling pool.recycle()
+                // let's not reuse tubes as they might be in a wrong state, unless
+                // they can be reset
+                recycleAfterException(pool, tube, true);
                 completionCallback.onCompletion(error);
             }
         };
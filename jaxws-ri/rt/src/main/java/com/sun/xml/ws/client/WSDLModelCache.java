@@ -0,0 +1,484 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.client;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import com.sun.xml.ws.api.model.wsdl.WSDLModel;
+import com.sun.xml.ws.api.server.Container;
+import com.sun.xml.ws.api.wsdl.parser.WSDLParserExtension;
+import com.sun.xml.ws.util.ByteArrayBuffer;
+import com.sun.xml.ws.wsdl.parser.RuntimeWSDLParser;
+import org.glassfish.gmbal.Description;
+import org.glassfish.gmbal.ManagedAttribute;
+import org.glassfish.gmbal.ManagedData;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.SAXException;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Process-wide cache of parsed {@link WSDLModel}s, so that creating many
+ * {@link javax.xml.ws.Service} objects for the same WSDL parses it only once.
+ *
+ * <p>
+ * The cache is disabled unless a size is given, either with the
+ * {@code com.sun.xml.ws.client.WSDLModelCache.size} system property or with
+ * {@link #setMaximumSize(int)}. Models are kept in least recently used order.
+ *
+ * <p>
+ * A model is looked up by the location of the WSDL, a digest of the content of
+ * the WSDL document, the {@link WSDLParserExtension}s, the catalog and the
+ * {@link Container} used to parse it. The WSDL document is still read every
+ * time, but it is not parsed again when its content hasn't changed. Documents
+ * imported by the WSDL are not part of the digest, so a changed import needs
+ * {@link #invalidate(String)}.
+ *
+ * <p>
+ * The cache must not keep an undeployed application loaded. The context class
+ * loader and the container of a model are only held weakly, and the model is
+ * dropped once either of them is collected. A model parsed by an extension of
+ * the application may reference the application's classes, so it is itself
+ * only held weakly: it is shared as long as a service uses it.
+ *
+ * <p>
+ * {@link WSDLModel}s are not modified once they are parsed, so the same instance
+ * can be shared by all the services created from it.
+ */
+@ManagedData
+@Description("WSDL models shared between services")
+public final class WSDLModelCache {
+
+    private static final Logger LOGGER = Logger.getLogger(WSDLModelCache.class.getName());
+
+    private static final WSDLModelCache INSTANCE = new WSDLModelCache(readMaximumSize());
+
+    /**
+     * Parses the WSDL when it isn't cached.
+     */
+    interface Parser {
+        WSDLModel parse(@NotNull Source wsdlSource) throws IOException, XMLStreamException, SAXException;
+    }
+
+    /**
+     * Guarded by itself.
+     */
+    private final Map<Key, CachedModel> models = new LinkedHashMap<Key, CachedModel>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, CachedModel> eldest) {
+            if (size() > maximumSize) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /**
+     * Gets the class loaders, containers and models held weakly once they are collected.
+     */
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<Object>();
+
+    private volatile int maximumSize;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bypasses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    WSDLModelCache(int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Gets the cache shared by all the {@link WSServiceDelegate}s.
+     */
+    public static WSDLModelCache getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return maximumSize > 0;
+    }
+
+    @ManagedAttribute
+    @Description("Maximum number of models kept, 0 if the cache is disabled")
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Sets the number of models kept. 0 disables the cache and drops all the models.
+     */
+    public void setMaximumSize(int maximumSize) {
+        this.maximumSize = maximumSize;
+        synchronized (models) {
+            Iterator<Key> it = models.keySet().iterator();
+            while (models.size() > Math.max(maximumSize, 0) && it.hasNext()) {
+                it.next();
+                it.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Drops all the models parsed from the given location.
+     *
+     * @param location
+     *      The system id or the external form of the URL of the WSDL.
+     */
+    public void invalidate(@NotNull String location) {
+        synchronized (models) {
+            for (Iterator<Key> it = models.keySet().iterator(); it.hasNext();) {
+                if (location.equals(it.next().location)) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops all the models.
+     */
+    public void invalidateAll() {
+        synchronized (models) {
+            models.clear();
+        }
+    }
+
+    /**
+     * Number of models currently cached.
+     */
+    @ManagedAttribute
+    @Description("Number of models currently cached")
+    public int size() {
+        synchronized (models) {
+            expunge();
+            return models.size();
+        }
+    }
+
+    /**
+     * Lookups answered from the cache.
+     */
+    @ManagedAttribute
+    @Description("Lookups answered from the cache")
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Lookups that had to parse the WSDL.
+     */
+    @ManagedAttribute
+    @Description("Lookups that parsed the WSDL")
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Lookups that bypassed the cache because the WSDL document couldn't be read
+     * up front, for example a DOM source or a location only reachable through MEX.
+     */
+    @ManagedAttribute
+    @Description("Lookups that bypassed the cache")
+    public long getBypasses() {
+        return bypasses.sum();
+    }
+
+    /**
+     * Models dropped to stay within {@link #getMaximumSize()}.
+     */
+    @ManagedAttribute
+    @Description("Models dropped to stay within the maximum size")
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Gets the model of the given WSDL, parsing it if it isn't cached yet.
+     * Two threads missing the same WSDL at the same time may both parse it.
+     */
+    WSDLModel get(@Nullable URL wsdlLocation, @NotNull Source wsdlSource, @NotNull EntityResolver resolver,
+                  @Nullable Class serviceClass, @NotNull WSDLParserExtension[] extensions, @NotNull Container container,
+                  @NotNull Parser parser)
+            throws IOException, XMLStreamException, SAXException {
+        if (!isEnabled()) {
+            return parser.parse(wsdlSource);
+        }
+        String location = wsdlSource.getSystemId() != null ? wsdlSource.getSystemId()
+                : wsdlLocation != null ? wsdlLocation.toExternalForm() : null;
+        ByteArrayBuffer content = read(wsdlLocation, wsdlSource, location, resolver, serviceClass);
+        if (content == null) {
+            bypasses.increment();
+            return parser.parse(wsdlSource);
+        }
+
+        Key key = new Key(location, digest(content), extensions, resolver, container, collected);
+        WSDLModel model = null;
+        synchronized (models) {
+            expunge();
+            CachedModel cached = models.get(key);
+            if (cached != null) {
+                model = cached.get();
+            }
+        }
+        if (model != null) {
+            hits.increment();
+            return model;
+        }
+        misses.increment();
+        // the document has been read already, don't make the parser fetch it again
+        StreamSource source = new StreamSource(content.newInputStream(), location);
+        model = parser.parse(source);
+        CachedModel cached = isShared(extensions) ? new CachedModel(model) : new CachedModel(model, collected);
+        synchronized (models) {
+            models.put(key, cached);
+        }
+        return model;
+    }
+
+    /**
+     * Drops the models whose class loader, container or weakly held model
+     * has been collected. Called with the lock of {@link #models} held.
+     */
+    private void expunge() {
+        if (collected.poll() == null) {
+            return;
+        }
+        while (collected.poll() != null) {
+            // one scan covers them all
+        }
+        for (Iterator<Map.Entry<Key, CachedModel>> it = models.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<Key, CachedModel> e = it.next();
+            if (e.getKey().isStale() || e.getValue().get() == null) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Checks that the extensions are loaded by the class loader of this class
+     * or one of its parents, so that the models they build can't reference
+     * classes of an application.
+     */
+    private static boolean isShared(WSDLParserExtension[] extensions) {
+        for (WSDLParserExtension extension : extensions) {
+            ClassLoader cl = extension.getClass().getClassLoader();
+            if (cl == null) {
+                continue;
+            }
+            ClassLoader shared = WSDLModelCache.class.getClassLoader();
+            while (shared != null && shared != cl) {
+                shared = shared.getParent();
+            }
+            if (shared == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the WSDL document the parser would read, fetched the same way.
+     *
+     * @return null if it can't be read up front.
+     * @see RuntimeWSDLParser#openWSDL
+     */
+    private static @Nullable ByteArrayBuffer read(@Nullable URL wsdlLocation, Source wsdlSource, @Nullable String location,
+                                         EntityResolver resolver, @Nullable Class serviceClass) {
+        try {
+            // consumes the stream of a StreamSource; the parser gets the bytes instead
+            InputStream in = RuntimeWSDLParser.openWSDL(wsdlLocation, wsdlSource, resolver, serviceClass);
+            if (in == null) {
+                return null;
+            }
+            ByteArrayBuffer buf = new ByteArrayBuffer();
+            try {
+                buf.write(in);
+            } finally {
+                in.close();
+            }
+            return buf;
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Cannot read " + location + ", not caching its model", e);
+            return null;
+        } catch (SAXException e) {
+            LOGGER.log(Level.FINE, "Cannot resolve " + location + ", not caching its model", e);
+            return null;
+        }
+    }
+
+    private static byte[] digest(ByteArrayBuffer content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(content.getRawData(), 0, content.size());
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static int readMaximumSize() {
+        try {
+            return Integer.getInteger(WSDLModelCache.class.getName() + ".size", 0);
+        } catch (SecurityException se) {
+            if (LOGGER.isLoggable(Level.CONFIG)) {
+                LOGGER.log(Level.CONFIG, "Cannot read ''{0}'' property, using defaults.",
+                        new Object[] {WSDLModelCache.class.getName() + ".size"});
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * A model, held weakly if it may reference the classes of an application.
+     */
+    private static final class CachedModel {
+        private final WSDLModel model;
+        private final WeakReference<WSDLModel> weakModel;
+
+        CachedModel(WSDLModel model) {
+            this.model = model;
+            this.weakModel = null;
+        }
+
+        CachedModel(WSDLModel model, ReferenceQueue<Object> queue) {
+            this.model = null;
+            this.weakModel = new WeakReference<WSDLModel>(model, queue);
+        }
+
+        @Nullable WSDLModel get() {
+            return weakModel == null ? model : weakModel.get();
+        }
+    }
+
+    private static final class Key {
+        final String location;
+        private final byte[] digest;
+        private final String[] extensions;
+        private final Class<?> resolverClass;
+        /**
+         * The catalog depends on the context class loader, and the extensions
+         * may use the SPIs of the container. Both are held weakly so that a
+         * cached model doesn't keep an undeployed application loaded.
+         * The class loader is null if there is no context class loader, the
+         * container is null for the default {@link ClientContainer} a service
+         * gets outside of a container, which only depends on the class loader.
+         */
+        private final WeakReference<ClassLoader> classLoader;
+        private final WeakReference<Container> container;
+        private final int hashCode;
+
+        Key(String location, byte[] digest, WSDLParserExtension[] extensions, EntityResolver resolver,
+            Container container, ReferenceQueue<Object> queue) {
+            this.location = location;
+            this.digest = digest;
+            this.extensions = new String[extensions.length];
+            for (int i = 0; i < extensions.length; i++) {
+                this.extensions[i] = extensions[i].getClass().getName();
+            }
+            this.resolverClass = resolver.getClass();
+            ClassLoader cl = Thread.currentThread().getContextClassLoader();
+            this.classLoader = (cl == null) ? null : new WeakReference<ClassLoader>(cl, queue);
+            if (container instanceof ClientContainer && container.getComponents().isEmpty()) {
+                container = null;
+            }
+            this.container = (container == null) ? null : new WeakReference<Container>(container, queue);
+            this.hashCode = Arrays.hashCode(digest) * 31 + (location == null ? 0 : location.hashCode())
+                    + System.identityHashCode(cl) * 31 + System.identityHashCode(container);
+        }
+
+        /**
+         * Checks if the class loader or the container of the model was collected.
+         */
+        boolean isStale() {
+            return (container != null && container.get() == null) || (classLoader != null && classLoader.get() == null);
+        }
+
+        private ClassLoader classLoader() {
+            return (classLoader == null) ? null : classLoader.get();
+        }
+
+        private Container container() {
+            return (container == null) ? null : container.get();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return hashCode == that.hashCode
+                    && (location == null ? that.location == null : location.equals(that.location))
+                    && Arrays.equals(digest, that.digest)
+                    && Arrays.equals(extensions, that.extensions)
+                    && resolverClass == that.resolverClass
+                    && (classLoader == null) == (that.classLoader == null)
+                    && classLoader() == that.classLoader()
+                    && (container == null) == (that.container == null)
+                    && container() == that.container();
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
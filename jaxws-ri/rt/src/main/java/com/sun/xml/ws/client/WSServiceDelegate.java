@@ -358,11 +358,21 @@ public class WSServiceDelegate extends WSService {
      * @param wsdlDocumentLocation
      *      Either this or {@code wsdl} parameter must be given.
      *      Null location means the system won't be able to resolve relative references in the WSDL.
+     *
+     * @see WSDLModelCache
      */
-    private WSDLModel parseWSDL(URL wsdlDocumentLocation, Source wsdlSource, Class serviceClass) {
+    private WSDLModel parseWSDL(final URL wsdlDocumentLocation, Source wsdlSource, final Class serviceClass) {
         try {
-            return RuntimeWSDLParser.parse(wsdlDocumentLocation, wsdlSource, createCatalogResolver(),
-                true, getContainer(), serviceClass, ServiceFinder.find(WSDLParserExtension.class).toArray());
+            final EntityResolver resolver = createCatalogResolver();
+            final WSDLParserExtension[] extensions = ServiceFinder.find(WSDLParserExtension.class).toArray();
+            return WSDLModelCache.getInstance().get(wsdlDocumentLocation, wsdlSource, resolver, serviceClass, extensions,
+                    getContainer(), new WSDLModelCache.Parser() {
+                        @Override
+                        public WSDLModel parse(Source source) throws IOException, XMLStreamException, SAXException {
+                            return RuntimeWSDLParser.parse(wsdlDocumentLocation, source, resolver,
+                                    true, getContainer(), serviceClass, extensions);
+                        }
+                    });
         } catch (IOException e) {
             throw new WebServiceException(e);
         } catch (XMLStreamException e) {
@@ -894,11 +904,23 @@ public class WSServiceDelegate extends WSService {
         return null;
     }
 
-    private SEIPortInfo createSEIPortInfo(QName portName, Class portInterface, WebServiceFeatureList features) {
-        WSDLPort wsdlPort = getPortModel(wsdlService, portName);
-        SEIModel model = buildRuntimeModel(serviceName, portName, portInterface, wsdlPort, features);
-		
-        return new SEIPortInfo(this, portInterface, (SOAPSEIModel) model, wsdlPort);
+    /**
+     * The runtime model is shared with other services through the {@link SEIModelCache}
+     * when they share the {@link WSDLPort}, unless the features ask for an own model.
+     */
+    private SEIPortInfo createSEIPortInfo(final QName portName, final Class portInterface, final WebServiceFeatureList features) {
+        final WSDLPort wsdlPort = getPortModel(wsdlService, portName);
+        boolean cacheable = WSDLModelCache.getInstance().isEnabled() && !useOwnSEIModel(features);
+        SOAPSEIModel model = SEIModelCache.getInstance().get(cacheable, getClass(), portInterface, serviceName, portName,
+                wsdlPort, wsdlURL == null ? null : wsdlURL.toExternalForm(), features.toArray(),
+                new SEIModelCache.Builder() {
+                    @Override
+                    public SOAPSEIModel build() {
+                        return (SOAPSEIModel) buildRuntimeModel(serviceName, portName, portInterface, wsdlPort, features);
+                    }
+                });
+
+        return new SEIPortInfo(this, portInterface, model, wsdlPort);
     }
     
     private boolean useOwnSEIModel(WebServiceFeatureList features) {
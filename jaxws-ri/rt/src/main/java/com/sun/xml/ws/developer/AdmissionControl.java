@@ -0,0 +1,99 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.developer;
+
+import javax.jws.WebService;
+import javax.xml.ws.spi.WebServiceFeatureAnnotation;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits the number of requests a {@link WebService} processes at the same
+ * time. Requests over the limit wait in a bounded queue, and the ones that
+ * don't fit in it, or wait too long, are rejected with a SOAP Server fault
+ * (and HTTP status 503 when the transport is HTTP) without being processed.
+ *
+ * <pre>
+ * for e.g.:
+ *
+ * &#64;WebService
+ * &#64;AdmissionControl(maxConcurrentRequests=50, maxQueuedRequests=200, queueTimeout=2000,
+ *         operationLimits="generateReport=5")
+ * public class HelloImpl {
+ *   ...
+ * }
+ * </pre>
+ *
+ * @see AdmissionControlFeature
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD, ElementType.FIELD})
+@Documented
+@WebServiceFeatureAnnotation(id = AdmissionControlFeature.ID, bean = AdmissionControlFeature.class)
+public @interface AdmissionControl {
+
+    /**
+     * Maximum number of requests that are processed at the same time.
+     */
+    int maxConcurrentRequests() default 100;
+
+    /**
+     * Maximum number of requests that wait for processing. When it is 0,
+     * requests over {@link #maxConcurrentRequests()} are rejected right away.
+     */
+    int maxQueuedRequests() default 1000;
+
+    /**
+     * Milliseconds a request waits for processing before it is rejected.
+     * 0 means no limit.
+     */
+    long queueTimeout() default 10000L;
+
+    /**
+     * Limits of individual WSDL operations, each as
+     * {@code <operation local name>=<maximum requests>}. A request to the
+     * operation over its limit, processed or waiting, is rejected right away.
+     */
+    String[] operationLimits() default {};
+}
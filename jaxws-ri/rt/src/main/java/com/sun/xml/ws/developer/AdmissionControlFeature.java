@@ -0,0 +1,173 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.developer;
+
+import com.sun.xml.ws.api.FeatureConstructor;
+
+import javax.xml.ws.WebServiceException;
+import javax.xml.ws.WebServiceFeature;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.glassfish.gmbal.ManagedAttribute;
+import org.glassfish.gmbal.ManagedData;
+
+/**
+ * {@link WebServiceFeature} for endpoint admission control.
+ *
+ * <p>
+ * The endpoint processes at most {@link #getMaxConcurrentRequests()} requests
+ * at the same time. Further requests wait, up to
+ * {@link #getMaxQueuedRequests()} of them and for at most
+ * {@link #getQueueTimeout()} milliseconds. A request that can't be queued, or
+ * that times out, is answered with a SOAP Server fault, and the HTTP
+ * transports send it with status 503. Since the decision is made before the
+ * request is dispatched to the tubeline, the body of a rejected request is
+ * not read.
+ *
+ * @see AdmissionControl
+ */
+@ManagedData
+public final class AdmissionControlFeature extends WebServiceFeature {
+    /**
+     * Constant value identifying the AdmissionControlFeature
+     */
+    public static final String ID = "http://jax-ws.java.net/features/admission-control";
+
+    private final int maxConcurrentRequests;
+    private final int maxQueuedRequests;
+    private final long queueTimeout;
+    private final Map<String, Integer> operationLimits = new LinkedHashMap<String, Integer>();
+
+    /**
+     * @param maxConcurrentRequests
+     *      maximum number of requests that are processed at the same time.
+     */
+    public AdmissionControlFeature(int maxConcurrentRequests) {
+        this(maxConcurrentRequests, 1000, 10000L);
+    }
+
+    /**
+     * @param maxConcurrentRequests
+     *      maximum number of requests that are processed at the same time.
+     * @param maxQueuedRequests
+     *      maximum number of requests that wait for processing.
+     * @param queueTimeout
+     *      milliseconds a request waits for processing, 0 means no limit.
+     */
+    public AdmissionControlFeature(int maxConcurrentRequests, int maxQueuedRequests, long queueTimeout) {
+        if (maxConcurrentRequests <= 0 || maxQueuedRequests < 0 || queueTimeout < 0) {
+            throw new IllegalArgumentException("maxConcurrentRequests=" + maxConcurrentRequests
+                    + ", maxQueuedRequests=" + maxQueuedRequests + ", queueTimeout=" + queueTimeout);
+        }
+        this.enabled = true;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.maxQueuedRequests = maxQueuedRequests;
+        this.queueTimeout = queueTimeout;
+    }
+
+    /**
+     * @param operationLimits
+     *      limits of individual WSDL operations, each as
+     *      {@code <operation local name>=<maximum requests>}.
+     */
+    @FeatureConstructor({"maxConcurrentRequests", "maxQueuedRequests", "queueTimeout", "operationLimits"})
+    public AdmissionControlFeature(int maxConcurrentRequests, int maxQueuedRequests, long queueTimeout,
+                                   String[] operationLimits) {
+        this(maxConcurrentRequests, maxQueuedRequests, queueTimeout);
+        for (String limit : operationLimits) {
+            int eq = limit.indexOf('=');
+            if (eq <= 0) {
+                throw new WebServiceException("Invalid operation limit \"" + limit + "\", expected <operation>=<maximum requests>");
+            }
+            try {
+                setOperationLimit(limit.substring(0, eq).trim(), Integer.parseInt(limit.substring(eq + 1).trim()));
+            } catch (NumberFormatException e) {
+                throw new WebServiceException("Invalid operation limit \"" + limit + "\", expected <operation>=<maximum requests>", e);
+            }
+        }
+    }
+
+    @ManagedAttribute
+    public String getID() {
+        return ID;
+    }
+
+    @ManagedAttribute
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    @ManagedAttribute
+    public int getMaxQueuedRequests() {
+        return maxQueuedRequests;
+    }
+
+    @ManagedAttribute
+    public long getQueueTimeout() {
+        return queueTimeout;
+    }
+
+    /**
+     * Limits the number of requests to a WSDL operation that are processed
+     * or waiting. Requests over the limit are rejected right away.
+     *
+     * @param operation
+     *      local name of the WSDL operation
+     * @param maxRequests
+     *      maximum number of requests to the operation
+     */
+    public void setOperationLimit(String operation, int maxRequests) {
+        if (maxRequests <= 0) {
+            throw new IllegalArgumentException("maxRequests=" + maxRequests);
+        }
+        operationLimits.put(operation, maxRequests);
+    }
+
+    /**
+     * @return
+     *      maximum number of requests by WSDL operation local name, never null.
+     */
+    public Map<String, Integer> getOperationLimits() {
+        return Collections.unmodifiableMap(operationLimits);
+    }
+}
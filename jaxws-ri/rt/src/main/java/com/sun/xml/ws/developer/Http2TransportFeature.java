@@ -0,0 +1,115 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.developer;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import com.sun.xml.ws.transport.http.client.Http2Client;
+
+import javax.xml.ws.WebServiceFeature;
+import java.nio.channels.AsynchronousChannelGroup;
+
+/**
+ * Enables the HTTP/2 client transport.
+ *
+ * <p>
+ * With this feature, requests to {@code http} endpoint addresses are sent
+ * over cleartext HTTP/2 with prior knowledge (h2c, RFC 7540 section 3.4), so
+ * the endpoint must accept HTTP/2 connections without an upgrade. All the
+ * concurrent invocations to a host are multiplexed as streams of a single
+ * connection, and the request headers are HPACK compressed. Like
+ * {@link NonBlockingHttpTransportFeature}, the exchange doesn't hold on to
+ * a thread while waiting for the response.
+ *
+ * <p>
+ * {@code https} endpoint addresses continue to use the default transport,
+ * as negotiating HTTP/2 over TLS requires ALPN. Proxy settings of
+ * {@link java.net.HttpURLConnection} are not honored.
+ *
+ * <p>
+ * The connections are kept by a {@link Http2Client} that belongs to this
+ * feature instance, so they are shared by all the proxies and dispatches that
+ * are created with the same instance.
+ *
+ * <p>
+ * <b>THIS feature IS EXPERIMENTAL AND IS SUBJECT TO CHANGE WITHOUT NOTICE IN FUTURE.</b>
+ *
+ * @see com.sun.xml.ws.transport.http.client.Http2TransportTube
+ */
+public final class Http2TransportFeature extends WebServiceFeature {
+    /**
+     * Constant value identifying the {@link Http2TransportFeature} feature.
+     */
+    public static final String ID = "http://jax-ws.java.net/features/http2-transport";
+
+    private final AsynchronousChannelGroup channelGroup;
+    private final Http2Client client;
+
+    /**
+     * Uses the JVM's default {@link AsynchronousChannelGroup} for the I/O completions.
+     */
+    public Http2TransportFeature() {
+        this(null);
+    }
+
+    /**
+     * @param channelGroup
+     *      group whose threads process the I/O completions, or null to
+     *      use the JVM's default group.
+     */
+    public Http2TransportFeature(@Nullable AsynchronousChannelGroup channelGroup) {
+        this.enabled = true;
+        this.channelGroup = channelGroup;
+        this.client = new Http2Client(channelGroup);
+    }
+
+    public String getID() {
+        return ID;
+    }
+
+    public @Nullable AsynchronousChannelGroup getChannelGroup() {
+        return channelGroup;
+    }
+
+    public @NotNull Http2Client getClient() {
+        return client;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.developer;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import com.sun.xml.ws.transport.http.client.HttpConnectionPool;
+
+import javax.xml.ws.WebServiceFeature;
+import java.nio.channels.AsynchronousChannelGroup;
+
+/**
+ * Enables the non-blocking HTTP client transport.
+ *
+ * <p>
+ * With this feature, the client transport doesn't hold on to a thread while
+ * waiting for the response. The request is written with asynchronous socket
+ * I/O, the {@link com.sun.xml.ws.api.pipe.Fiber} is suspended, and it is resumed
+ * from the I/O completion once the whole response has been received. This lets
+ * a large number of in-flight asynchronous invocations
+ * ({@link javax.xml.ws.Dispatch#invokeAsync}, async SEI methods) share a small
+ * number of threads.
+ *
+ * <p>
+ * Only plain {@code http} endpoint addresses are handled by the non-blocking
+ * transport, other addresses continue to use the default transport. Proxy
+ * settings of {@link java.net.HttpURLConnection} are not honored.
+ *
+ * <p>
+ * Connections are kept alive and pooled by a {@link HttpConnectionPool}
+ * that belongs to this feature instance, so it is shared by all the
+ * proxies and dispatches that are created with the same instance. Its idle
+ * connections are closed once all of them are closed.
+ *
+ * <p>
+ * <b>THIS feature IS EXPERIMENTAL AND IS SUBJECT TO CHANGE WITHOUT NOTICE IN FUTURE.</b>
+ *
+ * @see com.sun.xml.ws.transport.http.client.NonBlockingHttpTransportTube
+ */
+public final class NonBlockingHttpTransportFeature extends WebServiceFeature {
+    /**
+     * Constant value identifying the {@link NonBlockingHttpTransportFeature} feature.
+     */
+    public static final String ID = "http://jax-ws.java.net/features/non-blocking-http-transport";
+
+    private final AsynchronousChannelGroup channelGroup;
+    private final HttpConnectionPool connectionPool;
+
+    /**
+     * Uses the JVM's default {@link AsynchronousChannelGroup} for the I/O completions.
+     */
+    public NonBlockingHttpTransportFeature() {
+        this(null);
+    }
+
+    /**
+     * @param channelGroup
+     *      group whose threads process the I/O completions, or null to
+     *      use the JVM's default group.
+     */
+    public NonBlockingHttpTransportFeature(@Nullable AsynchronousChannelGroup channelGroup) {
+        this(channelGroup, HttpConnectionPool.DEFAULT_MAX_CONNECTIONS_PER_HOST, HttpConnectionPool.DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * @param channelGroup
+     *      group whose threads process the I/O completions, or null to
+     *      use the JVM's default group.
+     * @param maxConnectionsPerHost
+     *      maximum number of connections, busy or idle, to one endpoint host.
+     *      Further requests wait for a connection without blocking a thread.
+     * @param idleTimeout
+     *      milliseconds after which an idle connection is closed.
+     */
+    public NonBlockingHttpTransportFeature(@Nullable AsynchronousChannelGroup channelGroup,
+                                           int maxConnectionsPerHost, long idleTimeout) {
+        this.enabled = true;
+        this.channelGroup = channelGroup;
+        this.connectionPool = new HttpConnectionPool(channelGroup, maxConnectionsPerHost, idleTimeout);
+    }
+
+    public String getID() {
+        return ID;
+    }
+
+    public @Nullable AsynchronousChannelGroup getChannelGroup() {
+        return channelGroup;
+    }
+
+    public @NotNull HttpConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+}
@@ -101,6 +101,13 @@ public @interface SchemaValidation {
      */
     boolean outbound() default true;
 
+    /**
+     * Validates inbound messages while they are read, without copying them.
+     *
+     * @see SchemaValidationFeature#isStreaming()
+     */
+    boolean streaming() default false;
+
     /**
      * Does validation for bound headers in a SOAP message.
      *
@@ -65,6 +65,7 @@ public class SchemaValidationFeature extends WebServiceFeature {
     private final Class<? extends ValidationErrorHandler> clazz;
     private final boolean inbound;
     private final boolean outbound;
+    private final boolean streaming;
 
     public SchemaValidationFeature() {
         this(true, true, DraconianValidationErrorHandler.class);
@@ -88,12 +89,21 @@ public class SchemaValidationFeature extends WebServiceFeature {
     /**
      * @since JAX-WS RI 2.2.2
      */
-    @FeatureConstructor({"inbound", "outbound", "handler"})
     public SchemaValidationFeature(boolean inbound, boolean outbound, Class<? extends ValidationErrorHandler> clazz) {
+        this(inbound, outbound, clazz, false);
+    }
+
+    /**
+     * @param streaming
+     *      validates inbound messages while they are read, see {@link #isStreaming()}
+     */
+    @FeatureConstructor({"inbound", "outbound", "handler", "streaming"})
+    public SchemaValidationFeature(boolean inbound, boolean outbound, Class<? extends ValidationErrorHandler> clazz, boolean streaming) {
         this.enabled = true;
         this.inbound = inbound;
         this.outbound = outbound;
         this.clazz = clazz;
+        this.streaming = streaming;
     }
 
     @ManagedAttribute
@@ -129,4 +139,17 @@ public class SchemaValidationFeature extends WebServiceFeature {
     public boolean isOutbound() {
         return outbound;
     }
+
+    /**
+     * Validates inbound messages in the same pass that reads them, instead
+     * of validating a copy of the message before it is read.
+     *
+     * <p>
+     * The payload isn't buffered, so a validation error is only reported once
+     * the payload is read to its end. A message that isn't read as a stream or
+     * with JAXB is still validated from a copy.
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
 }
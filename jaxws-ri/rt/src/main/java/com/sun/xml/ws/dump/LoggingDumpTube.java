@@ -109,6 +109,11 @@ public class LoggingDumpTube extends AbstractFilterTubeImpl {
         return new LoggingDumpTube(this, cloner);
     }
 
+    @Override
+    public boolean reset() {
+        return resetNext();
+    }
+
 
     @Override
     public NextAction processRequest(Packet request) {
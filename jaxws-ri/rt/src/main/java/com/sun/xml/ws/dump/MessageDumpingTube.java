@@ -103,6 +103,11 @@ final class MessageDumpingTube extends AbstractFilterTubeImpl {
         return new MessageDumpingTube(this, cloner);
     }
 
+    @Override
+    public boolean reset() {
+        return resetNext();
+    }
+
     @Override
     public NextAction processRequest(Packet request) {
         dump(MessageType.Request, Converter.toString(request), Fiber.current().owner.id);
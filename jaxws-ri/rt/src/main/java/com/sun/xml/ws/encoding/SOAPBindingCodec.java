@@ -180,7 +180,8 @@ public class SOAPBindingCodec extends MimeCodec implements com.sun.xml.ws.api.pi
         WebServiceFeature fi = features.get(FastInfosetFeature.class);
         isFastInfosetDisabled = (fi != null && !fi.isEnabled());
         if (!isFastInfosetDisabled) {
-            fiSoapCodec = getFICodec(xmlSoapCodec, version);
+            fiSoapCodec = getFICodec(xmlSoapCodec, version,
+                    (fi != null) ? ((FastInfosetFeature) fi).getExternalVocabularyURI() : null);
             if (fiSoapCodec != null) {
                 fiMimeType = fiSoapCodec.getMimeType();
                 fiSwaCodec = new SwACodec(version, features, fiSoapCodec);
@@ -486,11 +487,11 @@ public class SOAPBindingCodec extends MimeCodec implements com.sun.xml.ws.api.pi
     /**
      * Obtain an FI SOAP codec instance using reflection.
      */
-    private static Codec getFICodec(StreamSOAPCodec soapCodec, SOAPVersion version) {
+    private static Codec getFICodec(StreamSOAPCodec soapCodec, SOAPVersion version, String externalVocabularyURI) {
         try {
             Class c = Class.forName("com.sun.xml.ws.encoding.fastinfoset.FastInfosetStreamSOAPCodec");
-            Method m = c.getMethod("create", StreamSOAPCodec.class, SOAPVersion.class);
-            return (Codec)m.invoke(null, soapCodec, version);
+            Method m = c.getMethod("create", StreamSOAPCodec.class, SOAPVersion.class, boolean.class, String.class);
+            return (Codec)m.invoke(null, soapCodec, version, false, externalVocabularyURI);
         } catch (Exception e) {
             // TODO Log that FI cannot be loaded
             return null;
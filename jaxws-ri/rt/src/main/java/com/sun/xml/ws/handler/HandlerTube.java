@@ -243,6 +243,21 @@ public abstract class HandlerTube extends AbstractFilterTubeImpl {
 
     }
 
+    /**
+     * Forgets the state of the failed invocation, the handlers were already
+     * closed when the exception passed through {@link #processException(Throwable)}.
+     */
+    @Override
+    public boolean reset() {
+        exchange = null;
+        requestProcessingSucessful = false;
+        remedyActionTaken = false;
+        if (processor != null) {
+            processor.setIndex(-1);
+        }
+        return resetNext();
+    }
+
     /**
      * On Client, Override by calling #closeClientHandlers(MessageContext mc)
      * On Server, Override by calling #closeServerHandlers(MessageContext mc)
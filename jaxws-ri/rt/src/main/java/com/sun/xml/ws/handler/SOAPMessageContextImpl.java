@@ -57,6 +57,8 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Implementation of {@link SOAPMessageContext}. This class is used at runtime
@@ -68,6 +70,14 @@ import java.util.Set;
  */
 public class SOAPMessageContextImpl extends MessageUpdatableContext implements SOAPMessageContext {
 
+    private static final Logger LOGGER = Logger.getLogger(SOAPMessageContextImpl.class.getName());
+
+    /**
+     * Reads the whole message as soon as {@link #getMessage()} is called,
+     * instead of only the parts the handler uses.
+     */
+    private static final boolean EAGER_MESSAGE = readEagerMessage();
+
     private Set<String> roles;
     private SOAPMessage soapMsg = null;
     private WSBinding binding;
@@ -82,7 +92,14 @@ public class SOAPMessageContextImpl extends MessageUpdatableContext implements S
         if(soapMsg == null) {
             try {
             	Message m = packet.getMessage();
-            	soapMsg = m != null ? m.readAsSOAPMessage() : null;
+            	if (m == null) {
+            	    soapMsg = null;
+            	} else if (EAGER_MESSAGE) {
+            	    soapMsg = m.readAsSOAPMessage();
+            	} else {
+            	    // most handlers only look at the headers, keep the body as it is until it's used
+            	    soapMsg = SAAJFactory.readLazily(binding.getSOAPVersion(), m);
+            	}
             } catch (SOAPException e) {
                 throw new WebServiceException(e);
             }
@@ -143,4 +160,16 @@ public class SOAPMessageContextImpl extends MessageUpdatableContext implements S
     public Set<String> getRoles() {
         return roles;
     } 
+
+    private static boolean readEagerMessage() {
+        try {
+            return Boolean.getBoolean(SOAPMessageContextImpl.class.getName() + ".eagerMessage");
+        } catch (SecurityException se) {
+            if (LOGGER.isLoggable(Level.CONFIG)) {
+                LOGGER.log(Level.CONFIG, "Cannot read ''{0}'' property, using defaults.",
+                        new Object[] {SOAPMessageContextImpl.class.getName() + ".eagerMessage"});
+            }
+            return false;
+        }
+    }
 }
@@ -63,6 +63,7 @@ final class Injector {
     private static final Method resolveClass;
     private static final Method getPackage;
     private static final Method definePackage;
+    private static final Method findLoadedClass;
 
     static {
         Method[] m = AccessController.doPrivileged(
@@ -75,7 +76,8 @@ final class Injector {
                                 getMethod(ClassLoader.class, "getPackage", String.class),
                                 getMethod(ClassLoader.class, "definePackage",
                                         String.class, String.class, String.class, String.class,
-                                        String.class, String.class, String.class, URL.class)
+                                        String.class, String.class, String.class, URL.class),
+                                getMethod(ClassLoader.class, "findLoadedClass", String.class)
                         };
                     }
                 }
@@ -84,6 +86,7 @@ final class Injector {
         resolveClass = m[1];
         getPackage = m[2];
         definePackage = m[3];
+        findLoadedClass = m[4];
     }
 
     private static Method getMethod(final Class<?> c, final String methodname, final Class<?>... params) {
@@ -99,11 +102,21 @@ final class Injector {
 
     static synchronized Class inject(ClassLoader cl, String className, byte[] image) {
         // To avoid race conditions let us check if the classloader
-        // already contains the class
+        // already contains the class. The caller has just failed to load
+        // it, so only a class injected since then needs to be found here;
+        // asking the loader again would search its whole class path a
+        // second time for every generated bean.
         try {
-            return cl.loadClass(className);
-        } catch (ClassNotFoundException e) {
-            // nothing to do
+            Class c = (Class)findLoadedClass.invoke(cl, className);
+            if (c != null) {
+                return c;
+            }
+        } catch (IllegalAccessException e) {
+            LOGGER.log(Level.FINE,"Unable to inject "+className,e);
+            throw new WebServiceException(e);
+        } catch (InvocationTargetException e) {
+            LOGGER.log(Level.FINE,"Unable to inject "+className,e);
+            throw new WebServiceException(e);
         }
         try {
             int packIndex = className.lastIndexOf('.');
@@ -99,4 +99,9 @@ public class ClientMUTube extends MUTube {
         return new ClientMUTube(this,cloner);
     }
 
+    @Override
+    public boolean reset() {
+        return resetNext();
+    }
+
 }
@@ -0,0 +1,467 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.server;
+
+import com.sun.istack.Nullable;
+import com.sun.xml.ws.developer.AdmissionControlFeature;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.glassfish.gmbal.Description;
+import org.glassfish.gmbal.ManagedAttribute;
+import org.glassfish.gmbal.ManagedData;
+
+/**
+ * Limits the number of requests an endpoint processes at the same time,
+ * as configured by {@link AdmissionControlFeature}.
+ *
+ * <p>
+ * A {@link Request} is either admitted right away, queued until a running
+ * request is {@link #release(String) released}, or rejected. Queued requests
+ * don't hold a thread, unless they are waiting in {@link #acquire(String)}.
+ * A queued request that reaches the queue timeout is rejected by a timer
+ * thread shared by all the endpoints, even if no other request arrives or
+ * finishes in the meantime.
+ */
+@ManagedData
+@Description("Admission control of the endpoint")
+public final class AdmissionController {
+
+    /**
+     * Why a request was rejected.
+     */
+    public enum Rejection {
+        /**
+         * The endpoint processes the maximum number of requests and the queue is full.
+         */
+        BUSY,
+        /**
+         * The request waited in the queue longer than the queue timeout.
+         */
+        TIMEOUT,
+        /**
+         * The operation of the request has the maximum number of requests.
+         */
+        OPERATION_BUSY
+    }
+
+    /**
+     * A request waiting for admission.
+     */
+    static abstract class Request {
+        final String operation;
+        long deadline;
+
+        /**
+         * @param operation
+         *      local name of the WSDL operation if it's known, otherwise null.
+         */
+        Request(@Nullable String operation) {
+            this.operation = operation;
+        }
+
+        /**
+         * Called when the request can be processed. {@link #release(String)}
+         * must be called once it is done.
+         */
+        abstract void admitted();
+
+        abstract void rejected(Rejection reason);
+    }
+
+    private final int maxConcurrentRequests;
+    private final int maxQueuedRequests;
+    private final long queueTimeoutNanos;
+    private final Map<String, OperationLimit> operationLimits;
+
+    // guarded by this
+    private final ArrayDeque<Request> queue = new ArrayDeque<Request>();
+    private int active;
+    // rejects the head of the queue at its deadline, guarded by this
+    private ScheduledFuture<?> expiry;
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder operationRejected = new LongAdder();
+
+    AdmissionController(AdmissionControlFeature feature) {
+        this.maxConcurrentRequests = feature.getMaxConcurrentRequests();
+        this.maxQueuedRequests = feature.getMaxQueuedRequests();
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(feature.getQueueTimeout());
+        Map<String, OperationLimit> limits = new HashMap<String, OperationLimit>();
+        for (Map.Entry<String, Integer> e : feature.getOperationLimits().entrySet()) {
+            limits.put(e.getKey(), new OperationLimit(e.getValue()));
+        }
+        this.operationLimits = limits.isEmpty() ? Collections.<String, OperationLimit>emptyMap() : limits;
+    }
+
+    /**
+     * @return true if requests need to be submitted with their operation
+     */
+    boolean hasOperationLimits() {
+        return !operationLimits.isEmpty();
+    }
+
+    /**
+     * Admits, queues or rejects the request. {@link Request#admitted()} is
+     * only called for a queued request, when it is its turn.
+     * {@link Request#rejected(Rejection)} is called by this thread, unless the
+     * request is queued.
+     *
+     * @return
+     *      true if the request is admitted right away, and can be processed by the caller.
+     */
+    boolean submit(Request request) {
+        if (!reserve(request.operation)) {
+            operationRejected.increment();
+            request.rejected(Rejection.OPERATION_BUSY);
+            return false;
+        }
+        long now = System.nanoTime();
+        List<Request> expired;
+        boolean admit = false;
+        boolean queued = false;
+        synchronized (this) {
+            expired = expire(now);
+            if (active < maxConcurrentRequests) {
+                active++;
+                admit = true;
+            } else if (queue.size() < maxQueuedRequests) {
+                request.deadline = now + queueTimeoutNanos;
+                queue.addLast(request);
+                queued = true;
+                scheduleExpiry(now);
+            }
+        }
+        timeOut(expired);
+        if (admit) {
+            admitted.increment();
+        } else if (!queued) {
+            unreserve(request.operation);
+            rejected.increment();
+            request.rejected(Rejection.BUSY);
+        }
+        return admit;
+    }
+
+    /**
+     * Blocks the calling thread until the request can be processed.
+     *
+     * @param operation
+     *      local name of the WSDL operation if it's known, otherwise null.
+     * @return
+     *      null if the request is admitted, and {@link #release(String)} must
+     *      be called once it is done. Otherwise the reason of the rejection.
+     */
+    @Nullable Rejection acquire(@Nullable String operation) {
+        SyncRequest request = new SyncRequest(operation);
+        if (submit(request)) {
+            return null;
+        }
+        boolean interrupted = false;
+        try {
+            boolean decided;
+            try {
+                if (queueTimeoutNanos > 0) {
+                    decided = request.decided.await(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+                } else {
+                    request.decided.await();
+                    decided = true;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+                decided = false;
+            }
+            if (!decided && dequeue(request)) {
+                unreserve(operation);
+                if (interrupted) {
+                    rejected.increment();
+                    return Rejection.BUSY;
+                }
+                timedOut.increment();
+                return Rejection.TIMEOUT;
+            }
+            // admitted or rejected, possibly by another thread just now
+            while (true) {
+                try {
+                    request.decided.await();
+                    return request.rejection;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Called once an admitted request is done. Its slot is handed over to
+     * the oldest queued request.
+     */
+    void release(@Nullable String operation) {
+        unreserve(operation);
+        long now = System.nanoTime();
+        List<Request> expired;
+        Request next;
+        synchronized (this) {
+            expired = expire(now);
+            next = queue.pollFirst();
+            if (next == null) {
+                active--;
+            }
+        }
+        timeOut(expired);
+        if (next != null) {
+            admit(next);
+        }
+    }
+
+    private void admit(Request request) {
+        admitted.increment();
+        try {
+            request.admitted();
+        } catch (RuntimeException e) {
+            release(request.operation);
+            throw e;
+        } catch (Error e) {
+            release(request.operation);
+            throw e;
+        }
+    }
+
+    private synchronized boolean dequeue(Request request) {
+        return queue.remove(request);
+    }
+
+    /*
+     * Makes sure the timer looks at the queue when its head is due, unless
+     * it's already going to. Called with the lock held.
+     */
+    private void scheduleExpiry(long now) {
+        Request head = queue.peekFirst();
+        if (queueTimeoutNanos <= 0 || expiry != null || head == null) {
+            return;
+        }
+        expiry = TIMER.schedule(new Runnable() {
+            @Override
+            public void run() {
+                expireQueued();
+            }
+        }, Math.max(0, head.deadline - now), TimeUnit.NANOSECONDS);
+    }
+
+    private void expireQueued() {
+        long now = System.nanoTime();
+        List<Request> expired;
+        synchronized (this) {
+            expiry = null;
+            expired = expire(now);
+            // the next head, or the current one if it was admitted before its deadline
+            scheduleExpiry(now);
+        }
+        timeOut(expired);
+    }
+
+    // called with the lock held
+    private List<Request> expire(long now) {
+        if (queueTimeoutNanos <= 0) {
+            return null;
+        }
+        List<Request> expired = null;
+        Request head;
+        while ((head = queue.peekFirst()) != null && now - head.deadline >= 0) {
+            queue.pollFirst();
+            if (expired == null) {
+                expired = new ArrayList<Request>();
+            }
+            expired.add(head);
+        }
+        return expired;
+    }
+
+    private void timeOut(List<Request> expired) {
+        if (expired != null) {
+            for (Request request : expired) {
+                unreserve(request.operation);
+                timedOut.increment();
+                request.rejected(Rejection.TIMEOUT);
+            }
+        }
+    }
+
+    private boolean reserve(String operation) {
+        OperationLimit limit = operation != null ? operationLimits.get(operation) : null;
+        if (limit == null) {
+            return true;
+        }
+        if (limit.count.incrementAndGet() > limit.max) {
+            limit.count.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private void unreserve(String operation) {
+        OperationLimit limit = operation != null ? operationLimits.get(operation) : null;
+        if (limit != null) {
+            limit.count.decrementAndGet();
+        }
+    }
+
+    @ManagedAttribute
+    @Description("Maximum number of requests processed at the same time")
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    @ManagedAttribute
+    @Description("Maximum number of requests waiting for processing")
+    public int getMaxQueuedRequests() {
+        return maxQueuedRequests;
+    }
+
+    @ManagedAttribute
+    @Description("Number of requests being processed")
+    public synchronized int getActiveRequests() {
+        return active;
+    }
+
+    @ManagedAttribute
+    @Description("Number of requests waiting for processing")
+    public synchronized int getQueuedRequests() {
+        return queue.size();
+    }
+
+    @ManagedAttribute
+    @Description("Number of requests admitted for processing")
+    public long getAdmittedRequests() {
+        return admitted.sum();
+    }
+
+    @ManagedAttribute
+    @Description("Number of requests rejected because the queue was full")
+    public long getRejectedRequests() {
+        return rejected.sum();
+    }
+
+    @ManagedAttribute
+    @Description("Number of requests rejected because they waited too long")
+    public long getTimedOutRequests() {
+        return timedOut.sum();
+    }
+
+    @ManagedAttribute
+    @Description("Number of requests rejected because of the limit of their operation")
+    public long getOperationRejectedRequests() {
+        return operationRejected.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "AdmissionController[active=" + getActiveRequests() + ", queued=" + getQueuedRequests()
+                + ", admitted=" + getAdmittedRequests() + ", rejected=" + getRejectedRequests()
+                + ", timedOut=" + getTimedOutRequests() + ", operationRejected=" + getOperationRejectedRequests() + ']';
+    }
+
+    /**
+     * Rejects the queued requests that reached the queue timeout.
+     */
+    private static final ScheduledExecutorService TIMER;
+
+    static {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "jaxws-admission-control-timer");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        TIMER = timer;
+    }
+
+    private static final class OperationLimit {
+        final int max;
+        final AtomicInteger count = new AtomicInteger();
+
+        OperationLimit(int max) {
+            this.max = max;
+        }
+    }
+
+    private static final class SyncRequest extends Request {
+        final CountDownLatch decided = new CountDownLatch(1);
+        volatile Rejection rejection;
+
+        SyncRequest(String operation) {
+            super(operation);
+        }
+
+        @Override
+        void admitted() {
+            decided.countDown();
+        }
+
+        @Override
+        void rejected(Rejection reason) {
+            rejection = reason;
+            decided.countDown();
+        }
+    }
+}
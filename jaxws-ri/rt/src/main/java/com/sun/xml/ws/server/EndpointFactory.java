@@ -48,6 +48,7 @@ import com.sun.xml.ws.api.WSBinding;
 import com.sun.xml.ws.api.WSFeatureList;
 import com.sun.xml.ws.api.databinding.DatabindingConfig;
 import com.sun.xml.ws.api.databinding.DatabindingFactory;
+import com.sun.xml.ws.api.fastinfoset.FastInfosetFeature;
 import com.sun.xml.ws.api.databinding.MetadataReader;
 import com.sun.xml.ws.api.databinding.WSDLGenInfo;
 import com.sun.xml.ws.api.model.SEIModel;
@@ -63,6 +64,7 @@ import com.sun.xml.ws.api.server.InstanceResolver;
 import com.sun.xml.ws.api.server.Invoker;
 import com.sun.xml.ws.api.server.SDDocument;
 import com.sun.xml.ws.api.server.SDDocumentSource;
+import com.sun.xml.ws.api.server.ServiceDefinition;
 import com.sun.xml.ws.api.server.WSEndpoint;
 import com.sun.xml.ws.api.streaming.XMLStreamReaderFactory;
 import com.sun.xml.ws.api.wsdl.parser.WSDLParserExtension;
@@ -104,6 +106,7 @@ import javax.xml.ws.soap.SOAPBinding;
 
 import java.io.IOException;
 import java.net.URL;
+import java.lang.reflect.Method;
 import java.util.AbstractCollection;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -113,7 +116,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -265,6 +270,7 @@ public class EndpointFactory {
 
         EndpointAwareTube terminal;
         WSDLPort wsdlPort = null;
+        ServiceDefinitionImpl lazyServiceDefinition = null;
         AbstractSEIModelImpl seiModel = null;
         // create WSDL model
         if (primaryDoc != null) {
@@ -304,8 +310,16 @@ public class EndpointFactory {
                         ((SOAPSEIModel)seiModel).getKnownHeaders());
             }
             // Generate WSDL for SEI endpoints(not for Provider endpoints)
-            if (primaryDoc == null) {
-                primaryDoc = generateWSDL(binding, seiModel, docList, container, implType);
+            if (primaryDoc == null && LAZY_WSDL_GENERATION) {
+                // the WSDL model needs the WSDL documents but not the schemas; the published
+                // metadata is generated again, in full, when it is first asked for
+                Collection<SDDocumentImpl> modelDocs = new ArrayList<SDDocumentImpl>(docList);
+                SDDocumentImpl modelWsdl = generateWSDL(binding, seiModel, modelDocs, container, implType, false);
+                wsdlPort = getWSDLPort(modelWsdl, modelDocs, serviceName, portName, container, resolver);
+                seiModel.freeze(wsdlPort);
+                lazyServiceDefinition = createLazyServiceDefinition(binding, seiModel, docList, container, implType, resolver);
+            } else if (primaryDoc == null) {
+                primaryDoc = generateWSDL(binding, seiModel, docList, container, implType, true);
                 // create WSDL model
                 wsdlPort = getWSDLPort(primaryDoc, docList, serviceName, portName, container, resolver);
                 seiModel.freeze(wsdlPort);
@@ -327,12 +341,37 @@ public class EndpointFactory {
             docList = findMetadataClosure(primaryDoc, docList, resolver);
         }
         
-        ServiceDefinitionImpl serviceDefiniton = (primaryDoc != null) ? new ServiceDefinitionImpl(docList, primaryDoc) : null;
+        ServiceDefinitionImpl serviceDefiniton = (primaryDoc != null) ? new ServiceDefinitionImpl(docList, primaryDoc) : lazyServiceDefinition;
+        if (serviceDefiniton != null) {
+            registerFastInfosetVocabulary(binding, serviceDefiniton);
+        }
 
         return create(serviceName, portName, binding, container, seiModel, wsdlPort, implType, serviceDefiniton, 
         		terminal, isTransportSynchronous, policyMap);
     }
     
+    /**
+     * Registers the documents of the endpoint as its Fast Infoset vocabulary,
+     * if its {@link FastInfosetFeature} names one. The vocabulary is built
+     * from them on first use, not here, so the service definition isn't
+     * iterated, and a lazily generated WSDL isn't generated, at deployment.
+     */
+    private static void registerFastInfosetVocabulary(WSBinding binding, ServiceDefinition serviceDefinition) {
+        FastInfosetFeature fi = binding.getFeature(FastInfosetFeature.class);
+        if (fi == null || !fi.isEnabled() || fi.getExternalVocabularyURI() == null) {
+            return;
+        }
+        try {
+            Class<?> c = Class.forName("com.sun.xml.ws.encoding.fastinfoset.FastInfosetVocabulary");
+            Method m = c.getMethod("register", String.class, ServiceDefinition.class);
+            m.invoke(null, fi.getExternalVocabularyURI(), serviceDefinition);
+        } catch (ClassNotFoundException e) {
+            // Fast Infoset is not available, the feature doesn't apply
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Cannot register Fast Infoset vocabulary " + fi.getExternalVocabularyURI(), e);
+        }
+    }
+
     protected <T> WSEndpoint<T> create(QName serviceName, QName portName, WSBinding binding, Container container, SEIModel seiModel, WSDLPort wsdlPort, Class<T> implType, ServiceDefinitionImpl serviceDefinition, EndpointAwareTube terminal, boolean isTransportSynchronous, PolicyMap policyMap) {
         return new WSEndpointImpl<T>(serviceName, portName, binding, container, seiModel, 
         		wsdlPort, implType, serviceDefinition, terminal, isTransportSynchronous, policyMap);
@@ -663,12 +702,31 @@ public class EndpointFactory {
         return string;
     }
 
+    /**
+     * Service definition whose WSDL and schemas are generated when they are first needed,
+     * typically by a {@code ?wsdl} request.
+     */
+    private static ServiceDefinitionImpl createLazyServiceDefinition(final WSBinding binding, final AbstractSEIModelImpl seiModel,
+                                                                     final Collection<SDDocumentImpl> metadata, final Container container,
+                                                                     final Class implType, final EntityResolver resolver) {
+        return new ServiceDefinitionImpl(new Callable<ServiceDefinitionImpl>() {
+            @Override
+            public ServiceDefinitionImpl call() {
+                Collection<SDDocumentImpl> docs = new ArrayList<SDDocumentImpl>(metadata);
+                SDDocumentImpl primaryDoc = generateWSDL(binding, seiModel, docs, container, implType, true);
+                return new ServiceDefinitionImpl(findMetadataClosure(primaryDoc, docs, resolver), primaryDoc);
+            }
+        });
+    }
+
     /**
      * Generates the WSDL and XML Schema for the endpoint if necessary
      * It generates WSDL only for SOAP1.1, and for XSOAP1.2 bindings
+     *
+     * @param generateSchemas false to generate the WSDL documents only
      */
     private static SDDocumentImpl generateWSDL(WSBinding binding, AbstractSEIModelImpl seiModel, Collection<SDDocumentImpl> docs,
-                                               Container container, Class implType) {
+                                               Container container, Class implType, boolean generateSchemas) {
         BindingID bindingId = binding.getBindingId();
         if (!bindingId.canGenerateWSDL()) {
             throw new ServerRtException("can.not.generate.wsdl", bindingId);
@@ -680,7 +738,8 @@ public class EndpointFactory {
         }
 
         // Generate WSDL and schema documents using runtime model
-        WSDLGenResolver wsdlResolver = new WSDLGenResolver(docs,seiModel.getServiceQName(),seiModel.getPortTypeName());
+        WSDLGenResolver wsdlResolver = new WSDLGenResolver(docs,seiModel.getServiceQName(),seiModel.getPortTypeName(),
+                generateSchemas);
         WSDLGenInfo wsdlGenInfo = new WSDLGenInfo(); 
         wsdlGenInfo.setWsdlResolver(wsdlResolver);
         wsdlGenInfo.setContainer(container);
@@ -901,6 +960,24 @@ public class EndpointFactory {
 
     private static final Logger logger = Logger.getLogger(
         com.sun.xml.ws.util.Constants.LoggingDomain + ".server.endpoint");
+
+    /**
+     * When no WSDL is packaged, generate the published WSDL and schemas on first use
+     * instead of at deployment. Set by the
+     * {@code com.sun.xml.ws.server.EndpointFactory.lazyWsdlGeneration} system property.
+     */
+    private static final boolean LAZY_WSDL_GENERATION;
+
+    static {
+        boolean lazy = false;
+        try {
+            lazy = Boolean.getBoolean(EndpointFactory.class.getName() + ".lazyWsdlGeneration");
+        } catch (SecurityException se) {
+            logger.log(Level.CONFIG, "Cannot read ''{0}'' property, using defaults.",
+                    new Object[]{EndpointFactory.class.getName() + ".lazyWsdlGeneration"});
+        }
+        LAZY_WSDL_GENERATION = lazy;
+    }
     
     private static class CollectionCollection<T> extends AbstractCollection<T> {
 
@@ -45,8 +45,10 @@ import com.sun.xml.ws.api.BindingID;
 import com.sun.xml.ws.api.WSFeatureList;
 import com.sun.xml.ws.api.EndpointAddress;
 import com.sun.xml.ws.api.addressing.AddressingVersion;
+import com.sun.xml.ws.api.Component;
 import com.sun.xml.ws.api.server.*;
 import com.sun.xml.ws.transport.http.HttpAdapter;
+import com.sun.xml.ws.util.Pool;
 import com.sun.xml.ws.util.RuntimeVersion;
 import org.glassfish.gmbal.AMXMetadata;
 import org.glassfish.gmbal.Description;
@@ -64,9 +66,9 @@ import java.util.*;
 @AMXMetadata(type="WSEndpoint")
 public final class MonitorRootService extends MonitorBase {
 
-    private final WSEndpoint endpoint;
+    private final WSEndpoint<?> endpoint;
 
-    MonitorRootService(final WSEndpoint endpoint) {
+    MonitorRootService(final WSEndpoint<?> endpoint) {
         this.endpoint = endpoint;
     }
 
@@ -175,6 +177,50 @@ public final class MonitorRootService extends MonitorBase {
                endpoint.getSEIModel().getWSDLLocation() : null;
     }
 
+    @ManagedAttribute
+    @Description("SEI model JAXB marshaller pool")
+    public Pool.Statistics seiModelMarshallerPool() {
+        return endpoint.getSEIModel() != null ?
+               endpoint.getSEIModel().getMarshallerPool().getStatistics() : null;
+    }
+
+    //
+    // Items from pools
+    //
+
+    @ManagedAttribute
+    @Description("Pool of tubeline copies serving the requests")
+    public Pool.Statistics tubePool() {
+        return endpoint instanceof WSEndpointImpl ?
+               ((WSEndpointImpl) endpoint).getTubePoolStatistics() : null;
+    }
+
+    @ManagedAttribute
+    @Description("Admission control: active and queued requests, rejections")
+    public AdmissionController admissionControl() {
+        return endpoint instanceof WSEndpointImpl ?
+               ((WSEndpointImpl) endpoint).getAdmissionController() : null;
+    }
+
+    @ManagedAttribute
+    @Description("Instances of a stateful web service")
+    public StatefulInstanceStatistics statefulInstances() {
+        return endpoint.getSPI(StatefulInstanceStatistics.class);
+    }
+
+    @ManagedAttribute
+    @Description("Pools of transport toolkits of the adapters serving this endpoint")
+    public List<Pool.Statistics> adapterToolkitPools() {
+        final List<Pool.Statistics> pools = new ArrayList<Pool.Statistics>();
+        for (Component c : endpoint.getComponents()) {
+            final Pool.Statistics stats = c.getSPI(Pool.Statistics.class);
+            if (stats != null) {
+                pools.add(stats);
+            }
+        }
+        return pools;
+    }
+
     //
     // Items from RuntimeVersion
     //
@@ -55,7 +55,6 @@ import com.sun.xml.ws.fault.SOAPFaultBuilder;
 import com.sun.xml.ws.util.pipe.AbstractSchemaValidationTube;
 import org.xml.sax.SAXException;
 
-import javax.xml.transform.Source;
 import javax.xml.validation.Schema;
 import javax.xml.validation.Validator;
 import javax.xml.ws.WebServiceException;
@@ -78,6 +77,11 @@ public class ServerSchemaValidationTube extends AbstractSchemaValidationTube {
     private final SEIModel seiModel;
     private final WSDLPort wsdlPort;
 
+    /**
+     * Request that is validated as it is read, until the response comes back.
+     */
+    private Message streamingRequest;
+
     public ServerSchemaValidationTube(WSEndpoint endpoint, WSBinding binding,
             SEIModel seiModel, WSDLPort wsdlPort, Tube next) {
         super(binding, next);
@@ -86,26 +90,12 @@ public class ServerSchemaValidationTube extends AbstractSchemaValidationTube {
 
         if (endpoint.getServiceDefinition() != null) {
             MetadataResolverImpl mdresolver = new MetadataResolverImpl(endpoint.getServiceDefinition());
-            Source[] sources = getSchemaSources(endpoint.getServiceDefinition(), mdresolver);
-            for(Source source : sources) {
-                LOGGER.fine("Constructing service validation schema from = "+source.getSystemId());
-                //printDOM((DOMSource)source);
-            }
-            if (sources.length != 0) {
-                noValidation = false;
-                sf.setResourceResolver(mdresolver);
-                try {
-                    schema = sf.newSchema(sources);
-                } catch(SAXException e) {
-                    throw new WebServiceException(e);
-                }
-                validator = schema.newValidator();
-                return;
-            }
+            schema = createSchema(endpoint.getServiceDefinition(), mdresolver);
+        } else {
+            schema = null;
         }
-        noValidation = true;
-        schema = null;
-        validator = null;
+        noValidation = schema == null;
+        validator = noValidation ? null : schema.newValidator();
     }
 
     protected Validator getValidator() {
@@ -116,29 +106,42 @@ public class ServerSchemaValidationTube extends AbstractSchemaValidationTube {
         return noValidation;
     }
 
+    @Override
+    protected Schema getSchema() {
+        return schema;
+    }
+
     @Override
     public NextAction processRequest(Packet request) {
         if (isNoValidation() || !feature.isInbound() || !request.getMessage().hasPayload() || request.getMessage().isFault()) {
             return super.processRequest(request);
         }
         try {
-            doProcess(request);
+            doProcessInbound(request);
         } catch(SAXException se) {
             LOGGER.log(Level.WARNING, "Client Request doesn't pass Service's Schema Validation", se);
             // Client request is invalid. So sending specific fault code
             // Also converting this to fault message so that handlers may get
             // to see the message.
-            SOAPVersion soapVersion = binding.getSOAPVersion();
-            Message faultMsg = SOAPFaultBuilder.createSOAPFaultMessage(
-                    soapVersion, null, se, soapVersion.faultCodeClient);
-            return doReturnWith(request.createServerResponse(faultMsg,
+            return doReturnWith(request.createServerResponse(createClientFault(se),
                     wsdlPort, seiModel, binding));
         }
+        streamingRequest = request.getMessage();
         return super.processRequest(request);
     }
 
     @Override
     public NextAction processResponse(Packet response) {
+        SAXException requestError = getStreamingValidationError(streamingRequest);
+        streamingRequest = null;
+        if (requestError != null) {
+            LOGGER.log(Level.WARNING, "Client Request doesn't pass Service's Schema Validation", requestError);
+            // the endpoint failed reading the request, the fault is the one of the validation
+            if (response.getMessage() != null) {
+                response.setMessage(createClientFault(requestError));
+            }
+            return super.processResponse(response);
+        }
         if (isNoValidation() || !feature.isOutbound() || response.getMessage() == null || !response.getMessage().hasPayload() || response.getMessage().isFault()) {
             return super.processResponse(response);
         }
@@ -151,11 +154,23 @@ public class ServerSchemaValidationTube extends AbstractSchemaValidationTube {
         return super.processResponse(response);
     }
 
+    @Override
+    public NextAction processException(Throwable t) {
+        streamingRequest = null;
+        return super.processException(t);
+    }
+
+    private Message createClientFault(SAXException se) {
+        SOAPVersion soapVersion = binding.getSOAPVersion();
+        return SOAPFaultBuilder.createSOAPFaultMessage(
+                soapVersion, null, se, soapVersion.faultCodeClient);
+    }
+
     protected ServerSchemaValidationTube(ServerSchemaValidationTube that, TubeCloner cloner) {
         super(that,cloner);
         //this.docs = that.docs;
         this.schema = that.schema;      // Schema is thread-safe
-        this.validator = schema.newValidator();
+        this.validator = that.noValidation ? null : schema.newValidator();
         this.noValidation = that.noValidation;
         this.seiModel = that.seiModel;
         this.wsdlPort = that.wsdlPort;
@@ -52,6 +52,12 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.xml.ws.WebServiceException;
 
 /**
  * {@link ServiceDefinition} implementation.
@@ -60,13 +66,24 @@ import java.util.Map;
  * You construct a {@link ServiceDefinitionImpl} by first constructing
  * a list of {@link SDDocumentImpl}s.
  *
+ * <p>
+ * {@link EndpointFactory} may instead give a generator, so that a generated WSDL
+ * and its schemas are only built when somebody asks for them.
+ *
  * @author Kohsuke Kawaguchi
  */
 public final class ServiceDefinitionImpl implements ServiceDefinition, SDDocumentResolver {
-    private final Collection<SDDocumentImpl> docs;
+    private Collection<SDDocumentImpl> docs;
 
     private final Map<String,SDDocumentImpl> bySystemId;
-    private final @NotNull SDDocumentImpl primaryWsdl;
+    private SDDocumentImpl primaryWsdl;
+
+    /**
+     * Generates {@link #docs} and {@link #primaryWsdl} on first use, null if they are given.
+     */
+    private final AtomicReference<FutureTask<ServiceDefinitionImpl>> generation;
+    private final Callable<ServiceDefinitionImpl> generator;
+    private volatile boolean generated;
 
     /**
      * Set when {@link WSEndpointImpl} is created.
@@ -86,6 +103,62 @@ public final class ServiceDefinitionImpl implements ServiceDefinition, SDDocumen
         this.docs = docs;
         this.primaryWsdl = primaryWsdl;
         this.bySystemId = new HashMap<String, SDDocumentImpl>();
+        this.generation = null;
+        this.generator = null;
+        this.generated = true;
+    }
+
+    /**
+     * Service definition whose documents are generated the first time they are needed.
+     *
+     * @param generator
+     *      Returns a service definition with the generated documents. Called once,
+     *      unless it fails.
+     */
+    /*package*/ ServiceDefinitionImpl(@NotNull Callable<ServiceDefinitionImpl> generator) {
+        this.bySystemId = new HashMap<String, SDDocumentImpl>();
+        this.generation = new AtomicReference<FutureTask<ServiceDefinitionImpl>>();
+        this.generator = generator;
+    }
+
+    /**
+     * Runs the generator on the first thread that needs the documents; the other
+     * threads wait for its result instead of generating them again.
+     */
+    private void generate() {
+        if (generated) {
+            return;
+        }
+        FutureTask<ServiceDefinitionImpl> task = generation.get();
+        if (task == null) {
+            FutureTask<ServiceDefinitionImpl> newTask = new FutureTask<ServiceDefinitionImpl>(generator);
+            if (generation.compareAndSet(null, newTask)) {
+                newTask.run();
+            }
+            task = generation.get();
+        }
+        ServiceDefinitionImpl result;
+        try {
+            result = task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebServiceException(e);
+        } catch (ExecutionException e) {
+            // let the next request try again
+            generation.compareAndSet(task, null);
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new WebServiceException(cause);
+        }
+        // every thread publishes the same result, the volatile write makes it visible
+        docs = result.docs;
+        primaryWsdl = result.primaryWsdl;
+        generated = true;
     }
 
     private boolean isInitialized = false;
@@ -93,6 +166,7 @@ public final class ServiceDefinitionImpl implements ServiceDefinition, SDDocumen
     private synchronized void init() {
         if (isInitialized)
             return;
+        generate();
         isInitialized = true;
         
         for (SDDocumentImpl doc : docs) {
@@ -111,6 +185,7 @@ public final class ServiceDefinitionImpl implements ServiceDefinition, SDDocumen
     }
 
     public @NotNull SDDocument getPrimary() {
+        generate();
         return primaryWsdl;
     }
 
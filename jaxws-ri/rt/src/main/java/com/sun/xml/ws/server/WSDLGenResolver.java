@@ -81,11 +81,23 @@ final class WSDLGenResolver implements com.oracle.webservices.api.databinding.WS
 
     private final QName serviceName;
     private final QName portTypeName;
+    private final boolean generateSchemas;
 
     public WSDLGenResolver(@NotNull Collection<SDDocumentImpl> docs,QName serviceName,QName portTypeName) {
+        this(docs, serviceName, portTypeName, true);
+    }
+
+    /**
+     * @param generateSchemas
+     *      false to only generate the WSDL documents, which is all the WSDL model needs.
+     *      They still import the schemas under the names they would be generated with.
+     */
+    public WSDLGenResolver(@NotNull Collection<SDDocumentImpl> docs,QName serviceName,QName portTypeName,
+                           boolean generateSchemas) {
         this.docs = docs;
         this.serviceName = serviceName;
         this.portTypeName = portTypeName;
+        this.generateSchemas = generateSchemas;
 
         for (SDDocumentImpl doc : docs) {
             if(doc.isWSDL()) {
@@ -179,6 +191,9 @@ final class WSDLGenResolver implements com.oracle.webservices.api.databinding.WS
             filename.value = schemas.get(0).getURL().toExternalForm();
             return null;            // Don't generate schema
         }
+        if (!generateSchemas) {
+            return null;
+        }
 
         URL url = createURL(filename.value);
         MutableXMLStreamBuffer xsb = new MutableXMLStreamBuffer();
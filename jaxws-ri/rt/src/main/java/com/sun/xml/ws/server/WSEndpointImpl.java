@@ -55,16 +55,19 @@ import com.sun.xml.ws.api.addressing.WSEndpointReference;
 import com.sun.xml.ws.api.message.Message;
 import com.sun.xml.ws.api.message.Packet;
 import com.sun.xml.ws.api.model.SEIModel;
+import com.sun.xml.ws.api.model.WSDLOperationMapping;
 import com.sun.xml.ws.api.model.wsdl.WSDLPort;
 import com.sun.xml.ws.api.pipe.*;
 import com.sun.xml.ws.api.server.*;
 import com.sun.xml.ws.binding.BindingImpl;
+import com.sun.xml.ws.developer.AdmissionControlFeature;
 import com.sun.xml.ws.fault.SOAPFaultBuilder;
 import com.sun.xml.ws.model.wsdl.WSDLDirectProperties;
 import com.sun.xml.ws.model.wsdl.WSDLPortProperties;
 import com.sun.xml.ws.model.wsdl.WSDLProperties;
 import com.sun.xml.ws.policy.PolicyMap;
 import com.sun.xml.ws.resources.HandlerMessages;
+import com.sun.xml.ws.resources.ServerMessages;
 import com.sun.xml.ws.util.Pool;
 import com.sun.xml.ws.util.Pool.TubePool;
 import com.sun.xml.ws.util.ServiceFinder;
@@ -78,7 +81,9 @@ import javax.xml.stream.XMLStreamException;
 import javax.xml.ws.EndpointReference;
 import javax.xml.ws.WebServiceException;
 import javax.xml.ws.handler.Handler;
+import javax.xml.ws.handler.MessageContext;
 import java.lang.reflect.Method;
+import java.net.HttpURLConnection;
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.Executor;
@@ -110,6 +115,7 @@ public /*final*/ class WSEndpointImpl<T> extends WSEndpoint<T> implements LazyMO
     private final @NotNull Codec masterCodec;
     private final @NotNull PolicyMap endpointPolicy;
     private final Pool<Tube> tubePool;
+    private final @Nullable AdmissionController admissionController;
     private final OperationDispatcher operationDispatcher;
     private @NotNull ManagedObjectManager managedObjectManager;
     private boolean managedObjectManagerClosed = false;
@@ -201,6 +207,7 @@ public /*final*/ class WSEndpointImpl<T> extends WSEndpoint<T> implements LazyMO
         this.masterCodec = c;
 
         tubePool = new TubePool(masterTubeline);
+        admissionController = createAdmissionController(binding);
         terminalTube.setEndpoint(this);
         engine = new Engine(toString(), container);
         wsdlProperties = (port == null) ? new WSDLDirectProperties(serviceName, portName, seiModel) : new WSDLPortProperties(port, seiModel);
@@ -268,6 +275,7 @@ public /*final*/ class WSEndpointImpl<T> extends WSEndpoint<T> implements LazyMO
                 seiModel, port, this, null /* not known */, false);
 
                 tubePool = new TubePool(masterTubeline);
+                admissionController = createAdmissionController(binding);
                 engine = new Engine(toString(), container);
                 wsdlProperties = (port == null) ? new WSDLDirectProperties(serviceName, portName, seiModel) : new WSDLPortProperties(port, seiModel);
   }
@@ -288,6 +296,26 @@ public /*final*/ class WSEndpointImpl<T> extends WSEndpoint<T> implements LazyMO
             return endpointPolicy;
     }
 
+    /**
+     * Statistics of the pool of tubeline copies that serve the requests.
+     */
+    @NotNull Pool.Statistics getTubePoolStatistics() {
+        return tubePool.getStatistics();
+    }
+
+    private static @Nullable AdmissionController createAdmissionController(WSBinding binding) {
+        return binding.isFeatureEnabled(AdmissionControlFeature.class)
+                ? new AdmissionController(binding.getFeature(AdmissionControlFeature.class)) : null;
+    }
+
+    /**
+     * Admission control of the requests, null when {@link AdmissionControlFeature}
+     * is not enabled.
+     */
+    @Nullable AdmissionController getAdmissionController() {
+        return admissionController;
+    }
+
     public @NotNull Class<T> getImplementationClass() {
                 return implementationClass;
         }
@@ -324,55 +352,133 @@ public /*final*/ class WSEndpointImpl<T> extends WSEndpoint<T> implements LazyMO
 
     private void processAsync(final Packet request,
             final CompletionCallback callback,
-            FiberContextSwitchInterceptor interceptor, boolean schedule) {
+            final FiberContextSwitchInterceptor interceptor, final boolean schedule) {
         Container old = ContainerResolver.getDefault().enterContainer(container);
         try {
             request.endpoint = WSEndpointImpl.this;
             request.addSatellite(wsdlProperties);
 
-            Fiber fiber = engine.createFiber();
-            fiber.setDeliverThrowableInPacket(true);
-            if (interceptor != null) {
-                fiber.addInterceptor(interceptor);
+            if (admissionController == null) {
+                startFiber(request, callback, interceptor, null, binding.isFeatureEnabled(SyncStartForAsyncFeature.class)
+                        || !schedule);
+                return;
             }
-            final Tube tube = tubePool.take();
-            Fiber.CompletionCallback cbak = new Fiber.CompletionCallback() {
-                public void onCompletion(@NotNull Packet response) {
-                    ThrowableContainerPropertySet tc = response.getSatellite(ThrowableContainerPropertySet.class);
-                    if (tc == null) {
-                        // Only recycle tubes in non-exception path as some Tubes may be
-                        // in invalid state following exception
-                        tubePool.recycle(tube);
+            // decided before the tubeline reads the message body
+            final String operation = getOperationForAdmission(request);
+            AdmissionController.Request admission = new AdmissionController.Request(operation) {
+                void admitted() {
+                    // runs when another request is done, possibly on its thread
+                    Container old = ContainerResolver.getDefault().enterContainer(container);
+                    try {
+                        startFiber(request, callback, interceptor, operation, false);
+                    } finally {
+                        ContainerResolver.getDefault().exitContainer(old);
                     }
+                }
 
+                void rejected(AdmissionController.Rejection reason) {
                     if (callback != null) {
-                        if (tc != null) {
-                            response = createServiceResponseForException(tc,
-                                                                         response,
-                                                                         soapVersion,
-                                                                         request.endpoint.getPort(),
-                                                                         null,
-                                                                         request.endpoint.getBinding());
-                        }
-                        callback.onCompletion(response);
+                        callback.onCompletion(createRejectedResponse(request, reason));
                     }
                 }
-
-                public void onCompletion(@NotNull Throwable error) {
-                    // will never be called now that we are using
-                    // fiber.setDeliverThrowableInPacket(true);
-                    throw new IllegalStateException();
-                }
             };
-
-            fiber.start(tube, request, cbak,
-                    binding.isFeatureEnabled(SyncStartForAsyncFeature.class)
-                            || !schedule);
+            if (admissionController.submit(admission)) {
+                startFiber(request, callback, interceptor, operation, binding.isFeatureEnabled(SyncStartForAsyncFeature.class)
+                        || !schedule);
+            }
         } finally {
             ContainerResolver.getDefault().exitContainer(old);
         }
     }
 
+    /**
+     * @param operation
+     *      passed to {@link AdmissionController#release(String)} once the
+     *      request is done, when admission control is on.
+     */
+    private void startFiber(final Packet request, final CompletionCallback callback,
+            FiberContextSwitchInterceptor interceptor, final String operation, boolean forceSync) {
+        Fiber fiber = engine.createFiber();
+        fiber.setDeliverThrowableInPacket(true);
+        if (interceptor != null) {
+            fiber.addInterceptor(interceptor);
+        }
+        final Tube tube = tubePool.take();
+        Fiber.CompletionCallback cbak = new Fiber.CompletionCallback() {
+            public void onCompletion(@NotNull Packet response) {
+                ThrowableContainerPropertySet tc = response.getSatellite(ThrowableContainerPropertySet.class);
+                if (tc == null) {
+                    // Only recycle tubes in non-exception path as some Tubes may be
+                    // in invalid state following exception
+                    tubePool.recycle(tube);
+                }
+                if (admissionController != null) {
+                    admissionController.release(operation);
+                }
+
+                if (callback != null) {
+                    if (tc != null) {
+                        response = createServiceResponseForException(tc,
+                                                                     response,
+                                                                     soapVersion,
+                                                                     request.endpoint.getPort(),
+                                                                     null,
+                                                                     request.endpoint.getBinding());
+                    }
+                    callback.onCompletion(response);
+                }
+            }
+
+            public void onCompletion(@NotNull Throwable error) {
+                // will never be called now that we are using
+                // fiber.setDeliverThrowableInPacket(true);
+                throw new IllegalStateException();
+            }
+        };
+
+        fiber.start(tube, request, cbak, forceSync);
+    }
+
+    /**
+     * Local name of the WSDL operation of the request, when the admission
+     * control has per-operation limits.
+     */
+    private @Nullable String getOperationForAdmission(Packet request) {
+        if (!admissionController.hasOperationLimits()) {
+            return null;
+        }
+        WSDLOperationMapping mapping = request.getWSDLOperationMapping();
+        return mapping != null ? mapping.getOperationName().getLocalPart() : null;
+    }
+
+    /**
+     * Response to a request that the admission control rejected: a SOAP Server
+     * fault, sent with HTTP status 503 by the HTTP transports.
+     */
+    private Packet createRejectedResponse(Packet request, AdmissionController.Rejection reason) {
+        String reasonText;
+        switch (reason) {
+            case TIMEOUT:
+                reasonText = ServerMessages.ADMISSION_REJECTED_TIMEOUT(portName);
+                break;
+            case OPERATION_BUSY:
+                reasonText = ServerMessages.ADMISSION_REJECTED_OPERATION(portName, getOperationForAdmission(request));
+                break;
+            default:
+                reasonText = ServerMessages.ADMISSION_REJECTED_BUSY(portName);
+        }
+        if (logger.isLoggable(Level.FINE)) {
+            logger.fine(reasonText);
+        }
+        if (request.supports(MessageContext.HTTP_RESPONSE_CODE)) {
+            request.put(MessageContext.HTTP_RESPONSE_CODE, HttpURLConnection.HTTP_UNAVAILABLE);
+        }
+        // no fault without SOAP, XML/HTTP binding gets the status code only
+        Message faultMsg = soapVersion == null ? null
+                : SOAPFaultBuilder.createSOAPFaultMessage(soapVersion, reasonText, soapVersion.faultCodeServer);
+        return request.createServerResponse(faultMsg, port, seiModel, binding);
+    }
+
     @Override
     public Packet createServiceResponseForException(final ThrowableContainerPropertySet tc,
                                                     final Packet      responsePacket,
@@ -413,6 +519,14 @@ public /*final*/ class WSEndpointImpl<T> extends WSEndpoint<T> implements LazyMO
                     request.endpoint = WSEndpointImpl.this;
                     request.addSatellite(wsdlProperties);
 
+                    String operation = null;
+                    if (admissionController != null) {
+                        operation = getOperationForAdmission(request);
+                        AdmissionController.Rejection rejection = admissionController.acquire(operation);
+                        if (rejection != null) {
+                            return createRejectedResponse(request, rejection);
+                        }
+                    }
                     Fiber fiber = engine.createFiber();
                     Packet response;
                     try {
@@ -427,6 +541,10 @@ public /*final*/ class WSEndpointImpl<T> extends WSEndpoint<T> implements LazyMO
                         response = request.createServerResponse(faultMsg,
                                 request.endpoint.getPort(), null,
                                 request.endpoint.getBinding());
+                    } finally {
+                        if (admissionController != null) {
+                            admissionController.release(operation);
+                        }
                     }
                     return response;
                 } finally {
@@ -49,6 +49,8 @@ import com.sun.xml.ws.developer.HttpConfigFeature;
 
 import javax.xml.ws.BindingProvider;
 import javax.xml.ws.WebServiceFeature;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Proxy transport {@link Tube} and {@link Pipe} that lazily determines the
@@ -64,6 +66,13 @@ import javax.xml.ws.WebServiceFeature;
  * address, this class implements a simple cache strategy to avoid re-creating
  * transport pipes excessively.
  *
+ * <p>
+ * The transport for an address is created once per proxy, by the factory, and
+ * the other copies of this pipe process the requests with a copy of it. So a
+ * transport that holds a resource on behalf of the proxy, such as a connection
+ * pool, acquires it once per address, and the pipe the copies are made from
+ * gives all of them back when the proxy is closed.
+ *
  * @author Kohsuke Kawaguchi
  */
 public final class DeferredTransportPipe extends AbstractTubeImpl {
@@ -75,16 +84,23 @@ public final class DeferredTransportPipe extends AbstractTubeImpl {
     private final ClassLoader classLoader;
     private final ClientTubeAssemblerContext context;
 
+    // shared by all the copies
+    private final Transports transports;
+    // only the pipe the copies are made from destroys the shared transports
+    private final boolean master;
+
     public DeferredTransportPipe(ClassLoader classLoader, ClientTubeAssemblerContext context) {
         this.classLoader = classLoader;
         this.context = context;
+        this.transports = new Transports();
+        this.master = true;
         if (context.getBinding().getFeature(HttpConfigFeature.class) == null) {
             context.getBinding().getFeatures().mergeFeatures(
                     new WebServiceFeature[] { new HttpConfigFeature() }, false);
         }
         //See if we can create the transport pipe from the available information.
         try {
-            this.transport = TransportTubeFactory.create(classLoader, context);
+            this.transport = transports.copyFor(context.getAddress());
             this.address = context.getAddress();
         } catch(Exception e) {
             //No problem, transport will be initialized while processing the requests
@@ -95,6 +111,8 @@ public final class DeferredTransportPipe extends AbstractTubeImpl {
         super(that,cloner);
         this.classLoader = that.classLoader;
         this.context = that.context;
+        this.transports = that.transports;
+        this.master = false;
         if(that.transport!=null) {
             this.transport = cloner.copy(that.transport);
             this.address = that.address;
@@ -113,28 +131,16 @@ public final class DeferredTransportPipe extends AbstractTubeImpl {
 
         if(transport!=null) {
             // delete the current entry
-            transport.preDestroy();
+            if (!transports.isOriginal(transport)) {
+                transport.preDestroy();
+            }
             transport = null;
             address = null;
         }
 
         // otherwise find out what transport will process this.
-
-        ClientTubeAssemblerContext newContext = new ClientTubeAssemblerContext(
-            request.endpointAddress,
-            context.getWsdlModel(),
-            context.getBindingProvider(),
-            context.getBinding(),
-            context.getContainer(),
-            context.getCodec().copy(),
-            context.getSEIModel(),
-            context.getSEI()
-        );
-
+        transport = transports.copyFor(request.endpointAddress);
         address = request.endpointAddress;
-        transport = TransportTubeFactory.create(classLoader, newContext);
-        // successful return from the above method indicates a successful pipe creation
-        assert transport!=null;
 
         return transport.processRequest(request);
     }
@@ -147,13 +153,69 @@ public final class DeferredTransportPipe extends AbstractTubeImpl {
 
     public void preDestroy() {
         if(transport!=null) {
-            transport.preDestroy();
+            if (!transports.isOriginal(transport)) {
+                transport.preDestroy();
+            }
             transport = null;
             address = null;
         }
+        if (master) {
+            transports.destroy();
+        }
+    }
+
+    @Override
+    public boolean reset() {
+        return transport == null
+                || (transport instanceof ResettableTube && ((ResettableTube) transport).reset());
     }
 
     public DeferredTransportPipe copy(TubeCloner cloner) {
         return new DeferredTransportPipe(this,cloner);
     }
+
+    /**
+     * The transports created by the factory, one per endpoint address. The
+     * first pipe to need one uses it, the others use copies of it. Only
+     * {@link #destroy()} destroys them.
+     */
+    private final class Transports {
+        // keyed by the string form, as the same address is often set as a new object
+        private final Map<String, Tube> originals = new HashMap<String, Tube>();
+
+        synchronized Tube copyFor(EndpointAddress address) {
+            String key = address.toString();
+            Tube original = originals.get(key);
+            if (original == null) {
+                ClientTubeAssemblerContext newContext = new ClientTubeAssemblerContext(
+                    address,
+                    context.getWsdlModel(),
+                    context.getBindingProvider(),
+                    context.getBinding(),
+                    context.getContainer(),
+                    context.getCodec().copy(),
+                    context.getSEIModel(),
+                    context.getSEI()
+                );
+                original = TransportTubeFactory.create(classLoader, newContext);
+                // successful return from the above method indicates a successful pipe creation
+                assert original!=null;
+                originals.put(key, original);
+                // the first pipe uses it, as the factory's transport may not be meant to be copied
+                return original;
+            }
+            return TubeCloner.clone(original);
+        }
+
+        synchronized boolean isOriginal(Tube tube) {
+            return originals.containsValue(tube);
+        }
+
+        synchronized void destroy() {
+            for (Tube original : originals.values()) {
+                original.preDestroy();
+            }
+            originals.clear();
+        }
+    }
 }
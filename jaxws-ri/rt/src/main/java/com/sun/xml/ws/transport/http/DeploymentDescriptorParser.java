@@ -47,6 +47,7 @@ import com.sun.xml.ws.api.BindingID;
 import com.sun.xml.ws.api.WSBinding;
 import com.sun.xml.ws.api.databinding.MetadataReader;
 import com.sun.xml.ws.api.server.Container;
+import com.sun.xml.ws.api.server.ContainerResolver;
 import com.sun.xml.ws.api.server.SDDocumentSource;
 import com.sun.xml.ws.api.server.WSEndpoint;
 import com.sun.xml.ws.api.streaming.XMLStreamReaderFactory;
@@ -87,6 +88,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -133,11 +137,30 @@ public class DeploymentDescriptorParser<A> {
 
     private static final Logger logger = Logger.getLogger(com.sun.xml.ws.util.Constants.LoggingDomain + ".server.http");
 
+    /**
+     * Default of {@link #setParallelism(int)}, from the
+     * {@code com.sun.xml.ws.transport.http.DeploymentDescriptorParser.parallelism} system property.
+     */
+    private static final int DEFAULT_PARALLELISM;
+
+    static {
+        int parallelism = 1;
+        try {
+            parallelism = Integer.getInteger(DeploymentDescriptorParser.class.getName() + ".parallelism", 1);
+        } catch (SecurityException se) {
+            logger.log(Level.CONFIG, "Cannot read ''{0}'' property, using defaults.",
+                    new Object[]{DeploymentDescriptorParser.class.getName() + ".parallelism"});
+        }
+        DEFAULT_PARALLELISM = parallelism;
+    }
+
     private final Container container;
     private final ClassLoader classLoader;
     private final ResourceLoader loader;
     private final AdapterFactory<A> adapterFactory;
 
+    private int parallelism = DEFAULT_PARALLELISM;
+
     /**
      * Endpoint names that are declared.
      * Used to catch double definitions.
@@ -166,6 +189,25 @@ public class DeploymentDescriptorParser<A> {
         logger.log(Level.FINE, "war metadata={0}", docs);
     }
 
+    /**
+     * Sets the number of threads the endpoints are built on.
+     *
+     * <p>
+     * With 1, the default, each endpoint is built as soon as it is parsed. Otherwise all
+     * the endpoints are parsed first and then built on a fork/join pool of this many threads,
+     * or of as many threads as processors if 0 or less. The adapters are created on the
+     * calling thread, in the order of {@code sun-jaxws.xml}, either way.
+     *
+     * <p>
+     * The endpoints must not depend on each other while they are built, for example
+     * through static state initialized by their implementation classes. If any of them
+     * fails, the ones that were built are disposed and the failure of the endpoint declared
+     * first is thrown.
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
     /**
      * Parses the {@code sun-jaxws.xml} file and configures
      * a set of {@link HttpAdapter}s.
@@ -232,7 +274,8 @@ public class DeploymentDescriptorParser<A> {
             failWithFullName("runtime.parser.invalidElement", reader);
         }
 
-        List<A> adapters = new ArrayList<A>();
+        long start = System.nanoTime();
+        List<EndpointBuild> builds = new ArrayList<EndpointBuild>();
 
         Attributes attrs = XMLStreamReaderUtil.getAttributes(reader);
         String version = getMandatoryNonEmptyAttribute(reader, attrs, ATTR_VERSION);
@@ -300,20 +343,189 @@ public class DeploymentDescriptorParser<A> {
                 EndpointFactory.verifyImplementorClass(implementorClass, metadataReader);
                 SDDocumentSource primaryWSDL = getPrimaryWSDL(reader, attrs, implementorClass, metadataReader);
 
-                WSEndpoint<?> endpoint = WSEndpoint.create(
-                        implementorClass, !handlersSetInDD,
-                        null,
-                        serviceName, portName, container, binding,
-                        primaryWSDL, docs.values(), createEntityResolver(), false
-                );
-                adapters.add(adapterFactory.createAdapter(name, urlPattern, endpoint));
+                EndpointBuild build = new EndpointBuild(name, urlPattern, implementorClass, !handlersSetInDD,
+                        serviceName, portName, binding, primaryWSDL, createEntityResolver());
+                builds.add(build);
+                if (parallelism == 1) {
+                    build.run();
+                    if (build.failure != null) {
+                        dispose(builds);
+                        build.rethrow();
+                    }
+                }
             } else {
                 failWithLocalName("runtime.parser.invalidElement", reader);
             }
         }
+        int threads = 1;
+        if (parallelism != 1) {
+            threads = buildInParallel(builds);
+        }
+        logBuildTimes(builds, threads, System.nanoTime() - start);
+
+        List<A> adapters = new ArrayList<A>(builds.size());
+        for (EndpointBuild build : builds) {
+            adapters.add(adapterFactory.createAdapter(build.name, build.urlPattern, build.endpoint));
+        }
         return adapters;
     }
 
+    /**
+     * Builds the endpoints on a fork/join pool of at most {@link #parallelism} threads.
+     *
+     * <p>
+     * All the endpoints are built even if some fail. The failure of the endpoint declared
+     * first is then thrown, with the other failures suppressed, so an application reports
+     * the same error at every start. The endpoints that were built are disposed.
+     *
+     * @return the number of threads used.
+     */
+    private int buildInParallel(List<EndpointBuild> builds) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        threads = Math.max(1, Math.min(threads, builds.size()));
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        final Container contextContainer = ContainerResolver.getDefault().getContainer();
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(builds.size());
+        for (final EndpointBuild build : builds) {
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    Thread thread = Thread.currentThread();
+                    ClassLoader oldClassLoader = thread.getContextClassLoader();
+                    thread.setContextClassLoader(contextClassLoader);
+                    Container oldContainer = ContainerResolver.getDefault().enterContainer(contextContainer);
+                    try {
+                        build.run();
+                    } finally {
+                        ContainerResolver.getDefault().exitContainer(oldContainer);
+                        thread.setContextClassLoader(oldClassLoader);
+                    }
+                    return null;
+                }
+            });
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invokeAll(tasks);
+        } finally {
+            pool.shutdown();
+        }
+
+        EndpointBuild failed = null;
+        for (EndpointBuild build : builds) {
+            if (build.failure == null) {
+                continue;
+            }
+            if (failed == null) {
+                failed = build;
+            } else if (failed.failure != build.failure) {
+                failed.failure.addSuppressed(build.failure);
+            }
+        }
+        if (failed != null) {
+            dispose(builds);
+            failed.rethrow();
+        }
+        return threads;
+    }
+
+    /**
+     * Disposes the endpoints that were built.
+     */
+    private void dispose(List<EndpointBuild> builds) {
+        for (EndpointBuild build : builds) {
+            if (build.endpoint != null) {
+                try {
+                    build.endpoint.dispose();
+                } catch (Throwable t) {
+                    logger.log(Level.WARNING, t.getMessage(), t);
+                }
+            }
+        }
+    }
+
+    private void logBuildTimes(List<EndpointBuild> builds, int threads, long elapsed) {
+        if (!logger.isLoggable(Level.INFO) || builds.isEmpty()) {
+            return;
+        }
+        boolean perEndpoint = logger.isLoggable(Level.CONFIG);
+        EndpointBuild slowest = builds.get(0);
+        for (EndpointBuild build : builds) {
+            if (build.nanos > slowest.nanos) {
+                slowest = build;
+            }
+            if (perEndpoint) {
+                logger.log(Level.CONFIG, "Endpoint {0} built in {1} ms",
+                        new Object[]{build.name, TimeUnit.NANOSECONDS.toMillis(build.nanos)});
+            }
+        }
+        logger.log(Level.INFO, "{0} endpoints built in {1} ms on {2} thread(s), slowest is {3} ({4} ms)",
+                new Object[]{builds.size(), TimeUnit.NANOSECONDS.toMillis(elapsed), threads,
+                        slowest.name, TimeUnit.NANOSECONDS.toMillis(slowest.nanos)});
+    }
+
+    /**
+     * An endpoint declared in {@code sun-jaxws.xml}, parsed and waiting to be built.
+     */
+    private final class EndpointBuild implements Runnable {
+        final String name;
+        final String urlPattern;
+        private final Class<?> implementorClass;
+        private final boolean processHandlerAnnotation;
+        private final QName serviceName;
+        private final QName portName;
+        private final WSBinding binding;
+        private final SDDocumentSource primaryWSDL;
+        private final EntityResolver resolver;
+
+        WSEndpoint<?> endpoint;
+        Throwable failure;
+        long nanos;
+
+        EndpointBuild(String name, String urlPattern, Class<?> implementorClass, boolean processHandlerAnnotation,
+                      QName serviceName, QName portName, WSBinding binding, SDDocumentSource primaryWSDL,
+                      EntityResolver resolver) {
+            this.name = name;
+            this.urlPattern = urlPattern;
+            this.implementorClass = implementorClass;
+            this.processHandlerAnnotation = processHandlerAnnotation;
+            this.serviceName = serviceName;
+            this.portName = portName;
+            this.binding = binding;
+            this.primaryWSDL = primaryWSDL;
+            this.resolver = resolver;
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            try {
+                endpoint = WSEndpoint.create(
+                        implementorClass, processHandlerAnnotation,
+                        null,
+                        serviceName, portName, container, binding,
+                        primaryWSDL, docs.values(), resolver, false
+                );
+            } catch (Throwable t) {
+                failure = t;
+            } finally {
+                nanos = System.nanoTime() - start;
+            }
+        }
+
+        void rethrow() {
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            if (failure != null) {
+                throw new ServerRtException(failure);
+            }
+        }
+    }
+
     /**
      * @param ddBindingId   binding id explicitlyspecified in the DeploymentDescriptor or parameter
      * @param implClass     Endpoint Implementation class
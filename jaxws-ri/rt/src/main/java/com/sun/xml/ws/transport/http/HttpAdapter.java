@@ -51,6 +51,7 @@ import java.util.AbstractMap;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -58,6 +59,8 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
 
 import javax.xml.ws.Binding;
 import javax.xml.ws.WebServiceException;
@@ -130,6 +133,19 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
      */
     private ServiceDefinition serviceDefinition = null;
 
+    /**
+     * Documents rendered by {@link #publishWSDL(WSHTTPConnection)}, keyed by
+     * document and base address, least recently used first. Cleared when the
+     * service definition changes. Guarded by itself.
+     */
+    private final Map<RenderedDocumentKey, RenderedDocument> renderedDocuments =
+            new LinkedHashMap<RenderedDocumentKey, RenderedDocument>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<RenderedDocumentKey, RenderedDocument> eldest) {
+                    return size() > wsdl_cache_size;
+                }
+            };
+
     public final HttpAdapterList<? extends HttpAdapter> owner;
 
     /**
@@ -192,6 +208,9 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
      */
     public final void initWSDLMap(final ServiceDefinition serviceDefinition) {
         this.serviceDefinition = serviceDefinition;
+        synchronized (renderedDocuments) {
+            renderedDocuments.clear();
+        }
         if(serviceDefinition==null) {
             wsdls = Collections.emptyMap();
             revWsdls = Collections.emptyMap();
@@ -906,6 +925,14 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
      * Sends out the WSDL (and other referenced documents)
      * in response to the GET requests to URLs like "?wsdl" or "?xsd=2".
      *
+     * <p>
+     * The documents, with their addresses patched for the base address of the
+     * request, are rendered once and cached (see {@link #wsdl_cache_size}).
+     * Cached documents are served with an {@code ETag} derived from their
+     * content, {@code If-None-Match} requests are answered with 304, and clients
+     * that accept it get a gzip compressed copy. There is no
+     * {@code Last-Modified}, as a document has no modification time of its own.
+     *
      * @param con
      *      The connection to which the data will be sent.
      *
@@ -920,16 +947,186 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
             return;
         }
 
+        if (wsdl_cache_size <= 0) {
+            con.setStatus(HttpURLConnection.HTTP_OK);
+            con.setContentTypeResponseHeader("text/xml;charset=utf-8");
+
+            OutputStream os = con.getProtocol().contains("1.1") ? con.getOutput() : new Http10OutputStream(con);
+
+            PortAddressResolver portAddressResolver = getPortAddressResolver(con.getBaseAddress());
+            DocumentAddressResolver resolver = getDocumentAddressResolver(portAddressResolver);
+
+            doc.writeTo(portAddressResolver, resolver, os);
+            os.close();
+            return;
+        }
+
+        RenderedDocument rendered = getRenderedDocument(doc, con.getBaseAddress());
+        boolean gzip = publish_compressed_wsdl && acceptsGzip(con);
+        String etag = gzip ? rendered.gzipEtag : rendered.etag;
+        con.setResponseHeader("ETag", etag);
+        if (publish_compressed_wsdl) {
+            con.setResponseHeader("Vary", "Accept-Encoding");
+        }
+        if (isNotModified(con, etag)) {
+            con.setStatus(HttpURLConnection.HTTP_NOT_MODIFIED);
+            con.getOutput().close();
+            return;
+        }
+
         con.setStatus(HttpURLConnection.HTTP_OK);
         con.setContentTypeResponseHeader("text/xml;charset=utf-8");
+        ByteArrayBuffer body = rendered.bytes;
+        if (gzip) {
+            con.setResponseHeader("Content-Encoding", "gzip");
+            body = rendered.getGzipped();
+        }
+        con.setContentLengthResponseHeader(body.size());
+        OutputStream os = con.getOutput();
+        body.writeTo(os);
+        os.close();
+    }
 
-        OutputStream os = con.getProtocol().contains("1.1") ? con.getOutput() : new Http10OutputStream(con);
+    /*
+     * Renders the document with the addresses of the given base address,
+     * or returns the cached rendering.
+     */
+    private RenderedDocument getRenderedDocument(SDDocument doc, String baseAddress) throws IOException {
+        RenderedDocumentKey key = new RenderedDocumentKey(doc, baseAddress);
+        RenderedDocument rendered;
+        synchronized (renderedDocuments) {
+            rendered = renderedDocuments.get(key);
+        }
+        if (rendered == null) {
+            PortAddressResolver portAddressResolver = getPortAddressResolver(baseAddress);
+            DocumentAddressResolver resolver = getDocumentAddressResolver(portAddressResolver);
 
-        PortAddressResolver portAddressResolver = getPortAddressResolver(con.getBaseAddress());
-        DocumentAddressResolver resolver = getDocumentAddressResolver(portAddressResolver);
+            ByteArrayBuffer buf = new ByteArrayBuffer();
+            doc.writeTo(portAddressResolver, resolver, buf);
+            rendered = new RenderedDocument(buf);
+            synchronized (renderedDocuments) {
+                renderedDocuments.put(key, rendered);
+            }
+        }
+        return rendered;
+    }
 
-        doc.writeTo(portAddressResolver, resolver, os);
-        os.close();
+    /*
+     * Evaluates Accept-Encoding. A coding with a q-value of 0 is refused,
+     * and "*" stands for gzip unless gzip is listed.
+     */
+    private static boolean acceptsGzip(WSHTTPConnection con) {
+        List<String> values = con.getRequestHeaderValues("Accept-Encoding");
+        float gzip = -1;
+        float any = -1;
+        if (values != null) {
+            for (String value : values) {
+                for (String coding : value.split(",")) {
+                    String[] params = coding.split(";");
+                    String name = params[0].trim();
+                    if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip")) {
+                        gzip = Math.max(gzip, qvalue(params));
+                    } else if (name.equals("*")) {
+                        any = qvalue(params);
+                    }
+                }
+            }
+        }
+        return gzip >= 0 ? gzip > 0 : any > 0;
+    }
+
+    /*
+     * Parses the q parameter, 1 if it's missing or malformed.
+     */
+    private static float qvalue(String[] params) {
+        for (int i = 1; i < params.length; i++) {
+            String param = params[i].trim();
+            int eq = param.indexOf('=');
+            if (eq > 0 && param.substring(0, eq).trim().equalsIgnoreCase("q")) {
+                try {
+                    return Float.parseFloat(param.substring(eq + 1).trim());
+                } catch (NumberFormatException e) {
+                    return 1;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /*
+     * Evaluates If-None-Match.
+     */
+    private static boolean isNotModified(WSHTTPConnection con, String etag) {
+        List<String> noneMatch = con.getRequestHeaderValues("If-None-Match");
+        if (noneMatch != null) {
+            for (String value : noneMatch) {
+                for (String tag : value.split(",")) {
+                    tag = tag.trim();
+                    if (tag.startsWith("W/")) {
+                        tag = tag.substring(2);
+                    }
+                    if (tag.equals("*") || tag.equals(etag)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static final class RenderedDocumentKey {
+        private final SDDocument doc;
+        private final String baseAddress;
+
+        RenderedDocumentKey(SDDocument doc, String baseAddress) {
+            this.doc = doc;
+            this.baseAddress = baseAddress;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof RenderedDocumentKey)) {
+                return false;
+            }
+            RenderedDocumentKey that = (RenderedDocumentKey) o;
+            return doc == that.doc && baseAddress.equals(that.baseAddress);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(doc) * 31 + baseAddress.hashCode();
+        }
+    }
+
+    /**
+     * Bytes of a document with the addresses patched for one base address.
+     */
+    private static final class RenderedDocument {
+        final ByteArrayBuffer bytes;
+        final String etag;
+        final String gzipEtag;
+        private volatile ByteArrayBuffer gzipped;
+
+        RenderedDocument(ByteArrayBuffer bytes) {
+            this.bytes = bytes;
+            CRC32 crc = new CRC32();
+            crc.update(bytes.getRawData(), 0, bytes.size());
+            String tag = Long.toHexString(crc.getValue()) + '-' + Integer.toHexString(bytes.size());
+            this.etag = '"' + tag + '"';
+            this.gzipEtag = "\"" + tag + "-gzip\"";
+        }
+
+        ByteArrayBuffer getGzipped() throws IOException {
+            ByteArrayBuffer b = gzipped;
+            if (b == null) {
+                b = new ByteArrayBuffer(bytes.size() / 4 + 32);
+                GZIPOutputStream gzip = new GZIPOutputStream(b);
+                bytes.writeTo(gzip);
+                gzip.close();
+                gzipped = b;
+            }
+            return b;
+        }
     }
 
     public PortAddressResolver getPortAddressResolver(String baseAddress) {
@@ -1121,6 +1318,17 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
 
     public static volatile boolean publishStatusPage = true;
 
+    /**
+     * Maximum number of rendered WSDL/XSD documents cached per adapter.
+     * 0 disables the cache, and with it ETag and gzip support.
+     */
+    public static volatile int wsdl_cache_size = 32;
+
+    /**
+     * Serves the cached WSDL/XSD documents gzip compressed to clients that accept it.
+     */
+    public static volatile boolean publish_compressed_wsdl = true;
+
     public static synchronized void setPublishStatus(boolean publish) {
         publishStatusPage = publish;
     }
@@ -1152,6 +1360,24 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
                         new Object[] {HttpAdapter.class.getName() + ".publishStatusPage"});
             }
         }
+        try {
+            wsdl_cache_size = Integer.getInteger(HttpAdapter.class.getName() + ".wsdlCacheSize", 32);
+        } catch (SecurityException se) {
+            if (LOGGER.isLoggable(Level.CONFIG)) {
+                LOGGER.log(Level.CONFIG, "Cannot read ''{0}'' property, using defaults.",
+                        new Object[] {HttpAdapter.class.getName() + ".wsdlCacheSize"});
+            }
+        }
+        try {
+            if (System.getProperty(HttpAdapter.class.getName() + ".publishCompressedWSDL") != null) {
+                publish_compressed_wsdl = Boolean.getBoolean(HttpAdapter.class.getName() + ".publishCompressedWSDL");
+            }
+        } catch (SecurityException se) {
+            if (LOGGER.isLoggable(Level.CONFIG)) {
+                LOGGER.log(Level.CONFIG, "Cannot read ''{0}'' property, using defaults.",
+                        new Object[] {HttpAdapter.class.getName() + ".publishCompressedWSDL"});
+            }
+        }
     }
 
     public static void setDump(boolean dumpMessages) {
@@ -0,0 +1,560 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http.client;
+
+import com.sun.xml.ws.util.ByteArrayBuffer;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HPACK header compression for HTTP/2 (RFC 7541).
+ *
+ * <p>
+ * The {@link Encoder} adds the request headers to its dynamic table, so
+ * headers that repeat from request to request on a connection, such as
+ * {@code content-type}, {@code soapaction} and {@code user-agent}, are sent
+ * as a single index after the first request. Header names and values are
+ * ISO-8859-1 strings, like {@link java.net.HttpURLConnection} treats them.
+ */
+final class Hpack {
+
+    private Hpack() {}
+
+    static final int DEFAULT_TABLE_SIZE = 4096;
+    private static final int ENTRY_OVERHEAD = 32;
+
+    private static final String[][] STATIC_TABLE = {
+            {":authority", ""},
+            {":method", "GET"},
+            {":method", "POST"},
+            {":path", "/"},
+            {":path", "/index.html"},
+            {":scheme", "http"},
+            {":scheme", "https"},
+            {":status", "200"},
+            {":status", "204"},
+            {":status", "206"},
+            {":status", "304"},
+            {":status", "400"},
+            {":status", "404"},
+            {":status", "500"},
+            {"accept-charset", ""},
+            {"accept-encoding", "gzip, deflate"},
+            {"accept-language", ""},
+            {"accept-ranges", ""},
+            {"accept", ""},
+            {"access-control-allow-origin", ""},
+            {"age", ""},
+            {"allow", ""},
+            {"authorization", ""},
+            {"cache-control", ""},
+            {"content-disposition", ""},
+            {"content-encoding", ""},
+            {"content-language", ""},
+            {"content-length", ""},
+            {"content-location", ""},
+            {"content-range", ""},
+            {"content-type", ""},
+            {"cookie", ""},
+            {"date", ""},
+            {"etag", ""},
+            {"expect", ""},
+            {"expires", ""},
+            {"from", ""},
+            {"host", ""},
+            {"if-match", ""},
+            {"if-modified-since", ""},
+            {"if-none-match", ""},
+            {"if-range", ""},
+            {"if-unmodified-since", ""},
+            {"last-modified", ""},
+            {"link", ""},
+            {"location", ""},
+            {"max-forwards", ""},
+            {"proxy-authenticate", ""},
+            {"proxy-authorization", ""},
+            {"range", ""},
+            {"referer", ""},
+            {"refresh", ""},
+            {"retry-after", ""},
+            {"server", ""},
+            {"set-cookie", ""},
+            {"strict-transport-security", ""},
+            {"transfer-encoding", ""},
+            {"user-agent", ""},
+            {"vary", ""},
+            {"via", ""},
+            {"www-authenticate", ""},
+    };
+
+    /**
+     * Static table index of the first entry with the given name.
+     */
+    private static final Map<String, Integer> STATIC_NAMES = new HashMap<String, Integer>();
+
+    static {
+        for (int i = STATIC_TABLE.length - 1; i >= 0; i--) {
+            STATIC_NAMES.put(STATIC_TABLE[i][0], i + 1);
+        }
+    }
+
+    /**
+     * Dynamic table shared by the encoding or decoding side of a connection.
+     * The most recently added entry has the lowest index.
+     */
+    private static final class DynamicTable {
+        private final Deque<String[]> entries = new ArrayDeque<String[]>();
+        private int size;
+        private int maxSize;
+
+        DynamicTable(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        int length() {
+            return entries.size();
+        }
+
+        String[] get(int index) {
+            // index 0 is the most recent entry
+            Iterator<String[]> it = entries.iterator();
+            String[] e = null;
+            for (int i = 0; i <= index; i++) {
+                e = it.next();
+            }
+            return e;
+        }
+
+        void add(String name, String value) {
+            int entrySize = name.length() + value.length() + ENTRY_OVERHEAD;
+            if (entrySize > maxSize) {
+                // an entry larger than the table empties it
+                entries.clear();
+                size = 0;
+                return;
+            }
+            evict(maxSize - entrySize);
+            entries.addFirst(new String[] {name, value});
+            size += entrySize;
+        }
+
+        void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+            evict(maxSize);
+        }
+
+        private void evict(int limit) {
+            while (size > limit) {
+                String[] e = entries.removeLast();
+                size -= e[0].length() + e[1].length() + ENTRY_OVERHEAD;
+            }
+        }
+    }
+
+    /**
+     * Encodes header lists. Not thread-safe: the caller serializes the header
+     * blocks of a connection in the order they are written.
+     */
+    static final class Encoder {
+        private final DynamicTable table = new DynamicTable(DEFAULT_TABLE_SIZE);
+        private int pendingMaxSize = -1;
+
+        /**
+         * Applies the peer's SETTINGS_HEADER_TABLE_SIZE.
+         */
+        void setMaxTableSize(int maxSize) {
+            int size = Math.min(maxSize, DEFAULT_TABLE_SIZE);
+            if (size != table.maxSize) {
+                pendingMaxSize = size;
+            }
+        }
+
+        /**
+         * Appends the header block for the given lower-case name/value pairs.
+         */
+        void encode(List<String[]> headers, ByteArrayBuffer out) {
+            if (pendingMaxSize != -1) {
+                table.setMaxSize(pendingMaxSize);
+                writeInt(out, 0x20, 5, pendingMaxSize);
+                pendingMaxSize = -1;
+            }
+            for (String[] header : headers) {
+                encode(header[0], header[1], out);
+            }
+        }
+
+        private void encode(String name, String value, ByteArrayBuffer out) {
+            int nameIndex = 0;
+            Integer staticIndex = STATIC_NAMES.get(name);
+            if (staticIndex != null) {
+                nameIndex = staticIndex;
+                for (int i = staticIndex - 1; i < STATIC_TABLE.length && STATIC_TABLE[i][0].equals(name); i++) {
+                    if (STATIC_TABLE[i][1].equals(value)) {
+                        writeInt(out, 0x80, 7, i + 1);
+                        return;
+                    }
+                }
+            }
+            int i = 0;
+            for (String[] e : table.entries) {
+                if (e[0].equals(name)) {
+                    if (e[1].equals(value)) {
+                        writeInt(out, 0x80, 7, STATIC_TABLE.length + 1 + i);
+                        return;
+                    }
+                    if (nameIndex == 0) {
+                        nameIndex = STATIC_TABLE.length + 1 + i;
+                    }
+                }
+                i++;
+            }
+
+            if (isSensitive(name)) {
+                // literal never indexed, so that intermediaries don't index it either
+                writeInt(out, 0x10, 4, nameIndex);
+            } else if (isVolatile(name)) {
+                // literal without indexing
+                writeInt(out, 0x00, 4, nameIndex);
+            } else {
+                // literal with incremental indexing
+                writeInt(out, 0x40, 6, nameIndex);
+                table.add(name, value);
+            }
+            if (nameIndex == 0) {
+                writeString(out, name);
+            }
+            writeString(out, value);
+        }
+
+        private static boolean isSensitive(String name) {
+            return name.equals("authorization") || name.equals("cookie")
+                    || name.equals("proxy-authorization");
+        }
+
+        private static boolean isVolatile(String name) {
+            return name.equals("content-length");
+        }
+    }
+
+    /**
+     * Decodes header blocks. Not thread-safe: the caller must decode the
+     * header blocks of a connection in the order they are received.
+     */
+    static final class Decoder {
+        private final DynamicTable table = new DynamicTable(DEFAULT_TABLE_SIZE);
+
+        /**
+         * @return the name/value pairs of the header block.
+         * @throws IOException if the block isn't valid HPACK, which is a
+         *      connection error, as the dynamic table can't be kept in sync.
+         */
+        List<String[]> decode(byte[] block, int off, int len) throws IOException {
+            List<String[]> headers = new ArrayList<String[]>();
+            int[] pos = {off};
+            int end = off + len;
+            while (pos[0] < end) {
+                int b = block[pos[0]] & 0xff;
+                if ((b & 0x80) != 0) {
+                    // indexed
+                    String[] e = entry(readInt(block, pos, end, 7));
+                    headers.add(new String[] {e[0], e[1]});
+                } else if ((b & 0x40) != 0) {
+                    // literal with incremental indexing
+                    String[] h = readLiteral(block, pos, end, 6);
+                    table.add(h[0], h[1]);
+                    headers.add(h);
+                } else if ((b & 0x20) != 0) {
+                    // dynamic table size update
+                    int size = readInt(block, pos, end, 5);
+                    if (size > DEFAULT_TABLE_SIZE) {
+                        throw new IOException("HPACK table size update exceeds the limit: " + size);
+                    }
+                    table.setMaxSize(size);
+                } else {
+                    // literal without indexing, literal never indexed
+                    headers.add(readLiteral(block, pos, end, 4));
+                }
+            }
+            return headers;
+        }
+
+        private String[] readLiteral(byte[] block, int[] pos, int end, int prefix) throws IOException {
+            int nameIndex = readInt(block, pos, end, prefix);
+            String name = (nameIndex == 0) ? readString(block, pos, end) : entry(nameIndex)[0];
+            String value = readString(block, pos, end);
+            return new String[] {name, value};
+        }
+
+        private String[] entry(int index) throws IOException {
+            if (index <= 0) {
+                throw new IOException("Invalid HPACK index: " + index);
+            }
+            if (index <= STATIC_TABLE.length) {
+                return STATIC_TABLE[index - 1];
+            }
+            int dynamicIndex = index - STATIC_TABLE.length - 1;
+            if (dynamicIndex >= table.length()) {
+                throw new IOException("Invalid HPACK index: " + index);
+            }
+            return table.get(dynamicIndex);
+        }
+    }
+
+    //
+    // Primitive types, RFC 7541 section 5
+    //
+
+    static void writeInt(ByteArrayBuffer out, int flags, int prefix, int value) {
+        int max = (1 << prefix) - 1;
+        if (value < max) {
+            out.write(flags | value);
+            return;
+        }
+        out.write(flags | max);
+        value -= max;
+        while (value >= 0x80) {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static int readInt(byte[] in, int[] pos, int end, int prefix) throws IOException {
+        int max = (1 << prefix) - 1;
+        int value = in[pos[0]++] & max;
+        if (value < max) {
+            return value;
+        }
+        int shift = 0;
+        int b;
+        do {
+            if (pos[0] >= end || shift > 28) {
+                throw new IOException("Invalid HPACK integer");
+            }
+            b = in[pos[0]++] & 0xff;
+            value += (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        if (value < 0) {
+            throw new IOException("Invalid HPACK integer");
+        }
+        return value;
+    }
+
+    static void writeString(ByteArrayBuffer out, String s) {
+        int huffmanLength = huffmanLength(s);
+        if (huffmanLength < s.length()) {
+            writeInt(out, 0x80, 7, huffmanLength);
+            huffmanEncode(s, out);
+        } else {
+            writeInt(out, 0x00, 7, s.length());
+            for (int i = 0; i < s.length(); i++) {
+                out.write(s.charAt(i) & 0xff);
+            }
+        }
+    }
+
+    static String readString(byte[] in, int[] pos, int end) throws IOException {
+        if (pos[0] >= end) {
+            throw new IOException("Truncated HPACK string");
+        }
+        boolean huffman = (in[pos[0]] & 0x80) != 0;
+        int len = readInt(in, pos, end, 7);
+        if (len > end - pos[0]) {
+            throw new IOException("Truncated HPACK string");
+        }
+        String s = huffman
+                ? huffmanDecode(in, pos[0], len)
+                : new String(in, pos[0], len, "ISO-8859-1");
+        pos[0] += len;
+        return s;
+    }
+
+    //
+    // Huffman code, RFC 7541 appendix B
+    //
+
+    private static final int[] HUFFMAN_CODES = {
+            0x1ff8, 0x7fffd8, 0xfffffe2, 0xfffffe3, 0xfffffe4, 0xfffffe5, 0xfffffe6, 0xfffffe7,
+            0xfffffe8, 0xffffea, 0x3ffffffc, 0xfffffe9, 0xfffffea, 0x3ffffffd, 0xfffffeb, 0xfffffec,
+            0xfffffed, 0xfffffee, 0xfffffef, 0xffffff0, 0xffffff1, 0xffffff2, 0x3ffffffe, 0xffffff3,
+            0xffffff4, 0xffffff5, 0xffffff6, 0xffffff7, 0xffffff8, 0xffffff9, 0xffffffa, 0xffffffb,
+            0x14, 0x3f8, 0x3f9, 0xffa, 0x1ff9, 0x15, 0xf8, 0x7fa,
+            0x3fa, 0x3fb, 0xf9, 0x7fb, 0xfa, 0x16, 0x17, 0x18,
+            0x0, 0x1, 0x2, 0x19, 0x1a, 0x1b, 0x1c, 0x1d,
+            0x1e, 0x1f, 0x5c, 0xfb, 0x7ffc, 0x20, 0xffb, 0x3fc,
+            0x1ffa, 0x21, 0x5d, 0x5e, 0x5f, 0x60, 0x61, 0x62,
+            0x63, 0x64, 0x65, 0x66, 0x67, 0x68, 0x69, 0x6a,
+            0x6b, 0x6c, 0x6d, 0x6e, 0x6f, 0x70, 0x71, 0x72,
+            0xfc, 0x73, 0xfd, 0x1ffb, 0x7fff0, 0x1ffc, 0x3ffc, 0x22,
+            0x7ffd, 0x3, 0x23, 0x4, 0x24, 0x5, 0x25, 0x26,
+            0x27, 0x6, 0x74, 0x75, 0x28, 0x29, 0x2a, 0x7,
+            0x2b, 0x76, 0x2c, 0x8, 0x9, 0x2d, 0x77, 0x78,
+            0x79, 0x7a, 0x7b, 0x7ffe, 0x7fc, 0x3ffd, 0x1ffd, 0xffffffc,
+            0xfffe6, 0x3fffd2, 0xfffe7, 0xfffe8, 0x3fffd3, 0x3fffd4, 0x3fffd5, 0x7fffd9,
+            0x3fffd6, 0x7fffda, 0x7fffdb, 0x7fffdc, 0x7fffdd, 0x7fffde, 0xffffeb, 0x7fffdf,
+            0xffffec, 0xffffed, 0x3fffd7, 0x7fffe0, 0xffffee, 0x7fffe1, 0x7fffe2, 0x7fffe3,
+            0x7fffe4, 0x1fffdc, 0x3fffd8, 0x7fffe5, 0x3fffd9, 0x7fffe6, 0x7fffe7, 0xffffef,
+            0x3fffda, 0x1fffdd, 0xfffe9, 0x3fffdb, 0x3fffdc, 0x7fffe8, 0x7fffe9, 0x1fffde,
+            0x7fffea, 0x3fffdd, 0x3fffde, 0xfffff0, 0x1fffdf, 0x3fffdf, 0x7fffeb, 0x7fffec,
+            0x1fffe0, 0x1fffe1, 0x3fffe0, 0x1fffe2, 0x7fffed, 0x3fffe1, 0x7fffee, 0x7fffef,
+            0xfffea, 0x3fffe2, 0x3fffe3, 0x3fffe4, 0x7ffff0, 0x3fffe5, 0x3fffe6, 0x7ffff1,
+            0x3ffffe0, 0x3ffffe1, 0xfffeb, 0x7fff1, 0x3fffe7, 0x7ffff2, 0x3fffe8, 0x1ffffec,
+            0x3ffffe2, 0x3ffffe3, 0x3ffffe4, 0x7ffffde, 0x7ffffdf, 0x3ffffe5, 0xfffff1, 0x1ffffed,
+            0x7fff2, 0x1fffe3, 0x3ffffe6, 0x7ffffe0, 0x7ffffe1, 0x3ffffe7, 0x7ffffe2, 0xfffff2,
+            0x1fffe4, 0x1fffe5, 0x3ffffe8, 0x3ffffe9, 0xffffffd, 0x7ffffe3, 0x7ffffe4, 0x7ffffe5,
+            0xfffec, 0xfffff3, 0xfffed, 0x1fffe6, 0x3fffe9, 0x1fffe7, 0x1fffe8, 0x7ffff3,
+            0x3fffea, 0x3fffeb, 0x1ffffee, 0x1ffffef, 0xfffff4, 0xfffff5, 0x3ffffea, 0x7ffff4,
+            0x3ffffeb, 0x7ffffe6, 0x3ffffec, 0x3ffffed, 0x7ffffe7, 0x7ffffe8, 0x7ffffe9, 0x7ffffea,
+            0x7ffffeb, 0xffffffe, 0x7ffffec, 0x7ffffed, 0x7ffffee, 0x7ffffef, 0x7fffff0, 0x3ffffee,    };
+
+    private static final byte[] HUFFMAN_LENGTHS = {
+            13, 23, 28, 28, 28, 28, 28, 28, 28, 24, 30, 28, 28, 30, 28, 28,
+            28, 28, 28, 28, 28, 28, 30, 28, 28, 28, 28, 28, 28, 28, 28, 28,
+            6, 10, 10, 12, 13, 6, 8, 11, 10, 10, 8, 11, 8, 6, 6, 6,
+            5, 5, 5, 6, 6, 6, 6, 6, 6, 6, 7, 8, 15, 6, 12, 10,
+            13, 6, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7,
+            7, 7, 7, 7, 7, 7, 7, 7, 8, 7, 8, 13, 19, 13, 14, 6,
+            15, 5, 6, 5, 6, 5, 6, 6, 6, 5, 7, 7, 6, 6, 6, 5,
+            6, 7, 6, 5, 5, 6, 7, 7, 7, 7, 7, 15, 11, 14, 13, 28,
+            20, 22, 20, 20, 22, 22, 22, 23, 22, 23, 23, 23, 23, 23, 24, 23,
+            24, 24, 22, 23, 24, 23, 23, 23, 23, 21, 22, 23, 22, 23, 23, 24,
+            22, 21, 20, 22, 22, 23, 23, 21, 23, 22, 22, 24, 21, 22, 23, 23,
+            21, 21, 22, 21, 23, 22, 23, 23, 20, 22, 22, 22, 23, 22, 22, 23,
+            26, 26, 20, 19, 22, 23, 22, 25, 26, 26, 26, 27, 27, 26, 24, 25,
+            19, 21, 26, 27, 27, 26, 27, 24, 21, 21, 26, 26, 28, 27, 27, 27,
+            20, 24, 20, 21, 22, 21, 21, 23, 22, 22, 25, 25, 24, 24, 26, 23,
+            26, 27, 26, 26, 27, 27, 27, 27, 27, 28, 27, 27, 27, 27, 27, 26,    };
+
+    private static final int EOS_LENGTH = 30;
+
+    /**
+     * Decoding tree of the Huffman code. Node n has the children
+     * HUFFMAN_TREE[2n] and HUFFMAN_TREE[2n+1]; a negative child -(s+1)
+     * is a leaf for symbol s, 0 is no child.
+     */
+    private static final int[] HUFFMAN_TREE;
+
+    static {
+        int[] tree = new int[2 * 512];
+        int nodes = 1;
+        for (int symbol = 0; symbol < HUFFMAN_CODES.length; symbol++) {
+            int code = HUFFMAN_CODES[symbol];
+            int len = HUFFMAN_LENGTHS[symbol];
+            int node = 0;
+            for (int bit = len - 1; bit > 0; bit--) {
+                int slot = 2 * node + ((code >>> bit) & 1);
+                if (tree[slot] == 0) {
+                    tree[slot] = nodes++;
+                }
+                node = tree[slot];
+            }
+            tree[2 * node + (code & 1)] = -(symbol + 1);
+        }
+        HUFFMAN_TREE = tree;
+    }
+
+    static int huffmanLength(String s) {
+        long bits = 0;
+        for (int i = 0; i < s.length(); i++) {
+            bits += HUFFMAN_LENGTHS[s.charAt(i) & 0xff];
+        }
+        return (int) ((bits + 7) >> 3);
+    }
+
+    static void huffmanEncode(String s, ByteArrayBuffer out) {
+        long current = 0;
+        int bits = 0;
+        for (int i = 0; i < s.length(); i++) {
+            int c = s.charAt(i) & 0xff;
+            current = (current << HUFFMAN_LENGTHS[c]) | HUFFMAN_CODES[c];
+            bits += HUFFMAN_LENGTHS[c];
+            while (bits >= 8) {
+                bits -= 8;
+                out.write((int) (current >>> bits));
+            }
+        }
+        if (bits > 0) {
+            // pad with the most significant bits of EOS
+            current = (current << (8 - bits)) | (0xff >>> bits);
+            out.write((int) current);
+        }
+    }
+
+    static String huffmanDecode(byte[] in, int off, int len) throws IOException {
+        StringBuilder sb = new StringBuilder(len + len / 2);
+        int node = 0;
+        int depth = 0;
+        boolean allOnes = true;
+        for (int i = off; i < off + len; i++) {
+            int b = in[i] & 0xff;
+            for (int bit = 7; bit >= 0; bit--) {
+                int one = (b >>> bit) & 1;
+                int child = HUFFMAN_TREE[2 * node + one];
+                depth++;
+                allOnes &= (one == 1);
+                if (child < 0) {
+                    int symbol = -child - 1;
+                    sb.append((char) symbol);
+                    node = 0;
+                    depth = 0;
+                    allOnes = true;
+                } else if (child == 0 || depth >= EOS_LENGTH) {
+                    throw new IOException("Invalid HPACK Huffman code");
+                } else {
+                    node = child;
+                }
+            }
+        }
+        // the padding is a prefix of EOS, i.e. at most 7 one bits
+        if (depth > 7 || !allOnes) {
+            throw new IOException("Invalid HPACK Huffman padding");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http.client;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import org.glassfish.gmbal.Description;
+import org.glassfish.gmbal.ManagedAttribute;
+import org.glassfish.gmbal.ManagedData;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.AsynchronousChannelGroup;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps one multiplexed {@link Http2Connection} per endpoint host, used by
+ * {@link Http2ClientTransport}.
+ *
+ * <p>
+ * All the concurrent requests to a host are sent as streams of the same
+ * connection, so a client needs a single socket per host regardless of the
+ * number of in-flight invocations. A new connection is opened once the
+ * current one is closed by either side or runs out of stream identifiers.
+ *
+ * <p>
+ * An instance is shared by all the tubes of the proxies/dispatches created
+ * with the same {@link com.sun.xml.ws.developer.Http2TransportFeature},
+ * and its statistics are exposed through the client's managed object. Each
+ * tubeline {@link #retain() retains} the client and {@link #dispose() disposes}
+ * it when the proxy is closed; the connections are closed when the last one is.
+ */
+@ManagedData
+@Description("HTTP/2 client")
+public final class Http2Client {
+
+    private final AsynchronousChannelGroup channelGroup;
+    // guarded by itself
+    private final Map<InetSocketAddress, Http2Connection> connections = new HashMap<InetSocketAddress, Http2Connection>();
+    private volatile boolean closed;
+    // tubelines using the client, guarded by this
+    private int users;
+
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong streams = new AtomicLong();
+
+    public Http2Client() {
+        this(null);
+    }
+
+    /**
+     * @param channelGroup
+     *      group whose threads process the I/O completions, or null to
+     *      use the JVM's default group.
+     */
+    public Http2Client(@Nullable AsynchronousChannelGroup channelGroup) {
+        this.channelGroup = channelGroup;
+    }
+
+    @Nullable AsynchronousChannelGroup getChannelGroup() {
+        return channelGroup;
+    }
+
+    /**
+     * Starts the exchange of the given stream on the connection to the
+     * given address, opening the connection if needed.
+     */
+    void submit(@NotNull InetSocketAddress address, @NotNull Http2ClientTransport stream) {
+        while (true) {
+            if (closed) {
+                stream.notifyFailed(new IOException("HTTP/2 client is closed"));
+                return;
+            }
+            Http2Connection connection;
+            boolean created = false;
+            synchronized (connections) {
+                connection = connections.get(address);
+                if (connection == null || !connection.isUsable()) {
+                    connection = new Http2Connection(this, address);
+                    connections.put(address, connection);
+                    created = true;
+                }
+            }
+            boolean submitted = connection.submit(stream);
+            if (created) {
+                // the stream is queued until the connection is established
+                this.created.incrementAndGet();
+                connection.connect(stream.getConnectTimeout());
+            }
+            if (submitted) {
+                return;
+            }
+            connectionClosed(connection);
+        }
+    }
+
+    void streamStarted() {
+        streams.incrementAndGet();
+    }
+
+    /**
+     * Forgets a connection that doesn't take new streams anymore.
+     */
+    void connectionClosed(@NotNull Http2Connection connection) {
+        synchronized (connections) {
+            for (Map.Entry<InetSocketAddress, Http2Connection> e : connections.entrySet()) {
+                if (e.getValue() == connection) {
+                    connections.remove(e.getKey());
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Registers a user of this client, typically the tubeline of a proxy.
+     * Reopens the client if it was closed.
+     */
+    public synchronized void retain() {
+        users++;
+        closed = false;
+    }
+
+    /**
+     * Unregisters a user registered with {@link #retain()}, and closes the
+     * client when it was the last one.
+     */
+    public void dispose() {
+        synchronized (this) {
+            if (users == 0 || --users > 0) {
+                return;
+            }
+        }
+        close();
+    }
+
+    /**
+     * Closes all the connections. Exchanges in progress fail.
+     */
+    public void close() {
+        closed = true;
+        List<Http2Connection> all;
+        synchronized (connections) {
+            all = new ArrayList<Http2Connection>(connections.values());
+            connections.clear();
+        }
+        for (Http2Connection connection : all) {
+            connection.close();
+        }
+    }
+
+    @ManagedAttribute
+    @Description("Number of HTTP/2 connections opened")
+    public long getCreatedCount() {
+        return created.get();
+    }
+
+    @ManagedAttribute
+    @Description("Number of streams started")
+    public long getStreamCount() {
+        return streams.get();
+    }
+
+    @ManagedAttribute
+    @Description("Number of open HTTP/2 connections")
+    public int getOpenCount() {
+        synchronized (connections) {
+            return connections.size();
+        }
+    }
+
+    @ManagedAttribute
+    @Description("Number of streams in progress")
+    public int getActiveStreamCount() {
+        int count = 0;
+        for (Http2Connection connection : snapshot()) {
+            count += connection.getActiveStreamCount();
+        }
+        return count;
+    }
+
+    @ManagedAttribute
+    @Description("Number of streams waiting for the connection or for the server's concurrency limit")
+    public int getPendingStreamCount() {
+        int count = 0;
+        for (Http2Connection connection : snapshot()) {
+            count += connection.getPendingStreamCount();
+        }
+        return count;
+    }
+
+    private List<Http2Connection> snapshot() {
+        synchronized (connections) {
+            return new ArrayList<Http2Connection>(connections.values());
+        }
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http.client;
+
+import com.sun.istack.NotNull;
+import com.sun.xml.ws.api.message.Packet;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link NonBlockingClientTransport} that exchanges one request/response as a
+ * stream of a multiplexed {@link Http2Connection}.
+ *
+ * <p>
+ * The request headers are sent as an HPACK compressed header block, so the
+ * headers repeated on every SOAP request (SOAPAction, Content-Type, Accept,
+ * User-Agent ...) only cost a few bytes once the server has indexed them.
+ */
+final class Http2ClientTransport extends NonBlockingClientTransport {
+
+    private final Http2Client client;
+
+    private InetSocketAddress address;
+    private List<String[]> requestHeaders;
+    private boolean retried;
+    private volatile Future<?> timeout;
+
+    // guarded by the Http2Connection
+    int streamId;
+    long sendWindow;
+    int entitySent;
+    int receivedUnacknowledged;
+
+    Http2ClientTransport(@NotNull Packet packet, @NotNull Map<String, List<String>> reqHeaders,
+                         @NotNull Http2Client client) {
+        super(packet, reqHeaders);
+        this.client = client;
+    }
+
+    @Override
+    void start() {
+        URL url = endpoint.getURL();
+        int port = (url.getPort() != -1) ? url.getPort() : url.getDefaultPort();
+        address = new InetSocketAddress(url.getHost(), port);
+        requestHeaders = createRequestHeaders(url);
+        client.submit(address, this);
+    }
+
+    List<String[]> getRequestHeaders() {
+        return requestHeaders;
+    }
+
+    long getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /*
+     * Pseudo-headers first, then the regular headers in lower case without
+     * the connection-specific ones that HTTP/2 forbids.
+     */
+    private List<String[]> createRequestHeaders(URL url) {
+        List<String[]> headers = new ArrayList<String[]>(reqHeaders.size() + 6);
+        String file = url.getFile();
+        String authority = (url.getPort() != -1) ? url.getHost() + ':' + url.getPort() : url.getHost();
+        headers.add(new String[] {":method", method});
+        headers.add(new String[] {":scheme", "http"});
+        headers.add(new String[] {":authority", authority});
+        headers.add(new String[] {":path", file.length() == 0 ? "/" : file});
+        for (Map.Entry<String, List<String>> entry : reqHeaders.entrySet()) {
+            String name = entry.getKey().toLowerCase(Locale.ENGLISH);
+            if ("content-length".equals(name) || "host".equals(name) || "connection".equals(name)
+                    || "keep-alive".equals(name) || "proxy-connection".equals(name)
+                    || "transfer-encoding".equals(name) || "upgrade".equals(name) || "te".equals(name)) {
+                continue;
+            }
+            for (String value : entry.getValue()) {
+                headers.add(new String[] {name, value});
+            }
+        }
+        if (requiresEntity()) {
+            headers.add(new String[] {"content-length", String.valueOf(getEntityLength())});
+        }
+        return headers;
+    }
+
+    /**
+     * Called with a decoded response header block.
+     */
+    void onHeaders(List<String[]> headers) throws IOException {
+        String status = null;
+        for (String[] header : headers) {
+            if (":status".equals(header[0])) {
+                status = header[1];
+            }
+        }
+        if (status == null) {
+            // trailers
+            for (String[] header : headers) {
+                respHeaders.add(header[0], header[1]);
+            }
+            return;
+        }
+        int code;
+        try {
+            code = Integer.parseInt(status);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid HTTP/2 :status " + status);
+        }
+        if (code >= 100 && code < 200) {
+            // interim response
+            return;
+        }
+        statusCode = code;
+        statusMessage = reasonPhrase(code);
+        contentLength = -1;
+        for (String[] header : headers) {
+            if (header[0].startsWith(":")) {
+                continue;
+            }
+            respHeaders.add(header[0], header[1]);
+            if ("content-length".equals(header[0])) {
+                try {
+                    contentLength = Integer.parseInt(header[1].trim());
+                } catch (NumberFormatException e) {
+                    throw new IOException("Invalid Content-Length " + header[1]);
+                }
+            }
+        }
+    }
+
+    void scheduleTimeout(final Http2Connection connection) {
+        if (readTimeout > 0) {
+            timeout = HttpConnectionPool.TIMER.schedule(new Runnable() {
+                public void run() {
+                    connection.cancel(Http2ClientTransport.this);
+                }
+            }, readTimeout, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    void cancelTimeout() {
+        Future<?> t = timeout;
+        if (t != null) {
+            t.cancel(false);
+            timeout = null;
+        }
+    }
+
+    /**
+     * Sends the request once more on another connection, if the
+     * server didn't process it on the original one.
+     */
+    void retry(Throwable exc) {
+        if (retried) {
+            notifyFailed(exc);
+            return;
+        }
+        retried = true;
+        streamId = 0;
+        entitySent = 0;
+        receivedUnacknowledged = 0;
+        respHeaders.clear();
+        body.reset();
+        client.submit(address, this);
+    }
+
+    /*
+     * HTTP/2 has no reason phrase, the standard one is used in error messages.
+     */
+    private static String reasonPhrase(int code) {
+        switch (code) {
+            case 200: return "OK";
+            case 202: return "Accepted";
+            case 204: return "No Content";
+            case 301: return "Moved Permanently";
+            case 302: return "Found";
+            case 307: return "Temporary Redirect";
+            case 400: return "Bad Request";
+            case 401: return "Unauthorized";
+            case 403: return "Forbidden";
+            case 404: return "Not Found";
+            case 405: return "Method Not Allowed";
+            case 415: return "Unsupported Media Type";
+            case 500: return "Internal Server Error";
+            case 502: return "Bad Gateway";
+            case 503: return "Service Unavailable";
+            case 504: return "Gateway Timeout";
+            default: return "";
+        }
+    }
+}
@@ -0,0 +1,774 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http.client;
+
+import com.sun.xml.ws.util.ByteArrayBuffer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * One cleartext HTTP/2 connection (h2c with prior knowledge, RFC 7540)
+ * that multiplexes the exchanges of many {@link Http2ClientTransport}s.
+ *
+ * <p>
+ * Writes are queued and written by one outstanding gathering write at a
+ * time; frames are read by one outstanding read that dispatches them to the
+ * streams. Neither blocks a thread. Request and response bodies are subject
+ * to HTTP/2 flow control: request DATA waits for window updates from the
+ * server, and the response windows are replenished as DATA is received.
+ */
+final class Http2Connection {
+
+    private static final Logger LOGGER = Logger.getLogger(Http2Connection.class.getName());
+
+    private static final byte[] PREFACE = {
+            'P', 'R', 'I', ' ', '*', ' ', 'H', 'T', 'T', 'P', '/', '2', '.', '0', '\r', '\n',
+            '\r', '\n', 'S', 'M', '\r', '\n', '\r', '\n'
+    };
+
+    static final int FRAME_HEADER_LENGTH = 9;
+
+    static final int DATA = 0x0;
+    static final int HEADERS = 0x1;
+    static final int PRIORITY = 0x2;
+    static final int RST_STREAM = 0x3;
+    static final int SETTINGS = 0x4;
+    static final int PUSH_PROMISE = 0x5;
+    static final int PING = 0x6;
+    static final int GOAWAY = 0x7;
+    static final int WINDOW_UPDATE = 0x8;
+    static final int CONTINUATION = 0x9;
+
+    static final int FLAG_END_STREAM = 0x1;
+    static final int FLAG_ACK = 0x1;
+    static final int FLAG_END_HEADERS = 0x4;
+    static final int FLAG_PADDED = 0x8;
+    static final int FLAG_PRIORITY = 0x20;
+
+    static final int SETTINGS_HEADER_TABLE_SIZE = 0x1;
+    static final int SETTINGS_ENABLE_PUSH = 0x2;
+    static final int SETTINGS_MAX_CONCURRENT_STREAMS = 0x3;
+    static final int SETTINGS_INITIAL_WINDOW_SIZE = 0x4;
+    static final int SETTINGS_MAX_FRAME_SIZE = 0x5;
+
+    static final int NO_ERROR = 0x0;
+    static final int PROTOCOL_ERROR = 0x1;
+    static final int CANCEL = 0x8;
+
+    private static final int DEFAULT_WINDOW_SIZE = 65535;
+    private static final int DEFAULT_MAX_FRAME_SIZE = 16384;
+    /**
+     * Receive window of the connection and of every stream; responses are
+     * buffered whole, so a large window avoids round trips for big responses.
+     */
+    private static final int RECEIVE_WINDOW_SIZE = 16 * 1024 * 1024;
+    private static final int MAX_STREAM_ID = Integer.MAX_VALUE;
+
+    private final Http2Client client;
+    private final InetSocketAddress address;
+    private final Hpack.Encoder encoder = new Hpack.Encoder();
+    private final Hpack.Decoder decoder = new Hpack.Decoder();
+
+    // guarded by this
+    private AsynchronousSocketChannel channel;
+    private boolean connected;
+    private boolean closed;
+    private int nextStreamId = 1;
+    private final Map<Integer, Http2ClientTransport> streams = new HashMap<Integer, Http2ClientTransport>();
+    private final Deque<Http2ClientTransport> pending = new ArrayDeque<Http2ClientTransport>();
+    private int peerMaxConcurrentStreams = Integer.MAX_VALUE;
+    private int peerInitialWindowSize = DEFAULT_WINDOW_SIZE;
+    private int peerMaxFrameSize = DEFAULT_MAX_FRAME_SIZE;
+    private long sendWindow = DEFAULT_WINDOW_SIZE;
+    private final Deque<ByteBuffer> writeQueue = new ArrayDeque<ByteBuffer>();
+    // streams whose entity is referenced by the queued DATA frames, once per frame
+    private final List<Http2ClientTransport> writeQueueRefs = new ArrayList<Http2ClientTransport>();
+    private boolean writing;
+
+    // only used by the reading thread
+    private ByteBuffer readBuffer = ByteBuffer.allocate(FRAME_HEADER_LENGTH + DEFAULT_MAX_FRAME_SIZE);
+    private final ByteArrayBuffer headerBlock = new ByteArrayBuffer();
+    private int headerBlockStreamId;
+    private boolean headerBlockEndStream;
+    private long receivedUnacknowledged;
+
+    Http2Connection(Http2Client client, InetSocketAddress address) {
+        this.client = client;
+        this.address = address;
+    }
+
+    /**
+     * Opens the connection and sends the connection preface. Streams
+     * submitted in the mean time are started once connected.
+     */
+    void connect(long connectTimeout) {
+        final AsynchronousSocketChannel ch;
+        try {
+            ch = AsynchronousSocketChannel.open(client.getChannelGroup());
+        } catch (IOException e) {
+            failed(e);
+            return;
+        }
+        synchronized (this) {
+            channel = ch;
+        }
+        final Future<?> connectTimer = (connectTimeout > 0)
+                ? HttpConnectionPool.TIMER.schedule(new Runnable() {
+                    public void run() {
+                        close();
+                    }
+                }, connectTimeout, TimeUnit.MILLISECONDS)
+                : null;
+        ch.connect(address, null, new CompletionHandler<Void, Void>() {
+            public void completed(Void result, Void attachment) {
+                if (connectTimer != null) {
+                    connectTimer.cancel(false);
+                }
+                List<Http2ClientTransport> started;
+                synchronized (Http2Connection.this) {
+                    connected = true;
+                    writeQueue.add(ByteBuffer.wrap(PREFACE));
+                    ByteBuffer settings = frameHeader(18, SETTINGS, 0, 0);
+                    settings.putShort((short) SETTINGS_ENABLE_PUSH).putInt(0);
+                    settings.putShort((short) SETTINGS_MAX_CONCURRENT_STREAMS).putInt(0);
+                    settings.putShort((short) SETTINGS_INITIAL_WINDOW_SIZE).putInt(RECEIVE_WINDOW_SIZE);
+                    settings.flip();
+                    writeQueue.add(settings);
+                    writeQueue.add(windowUpdate(0, RECEIVE_WINDOW_SIZE - DEFAULT_WINDOW_SIZE));
+                    started = startPending();
+                }
+                flush();
+                scheduleTimeouts(started);
+                read();
+            }
+
+            public void failed(Throwable exc, Void attachment) {
+                if (connectTimer != null && connectTimer.isDone()) {
+                    exc = new SocketTimeoutException("connect timed out");
+                }
+                Http2Connection.this.failed(exc);
+            }
+        });
+    }
+
+    /**
+     * Returns false if this connection doesn't take new streams anymore.
+     */
+    synchronized boolean isUsable() {
+        return !closed && nextStreamId < MAX_STREAM_ID - 2 * (streams.size() + pending.size());
+    }
+
+    synchronized int getActiveStreamCount() {
+        return streams.size();
+    }
+
+    synchronized int getPendingStreamCount() {
+        return pending.size();
+    }
+
+    /**
+     * Starts the exchange of the given stream, or queues it until the
+     * connection is established or the server allows more concurrent streams.
+     *
+     * @return false if this connection is closed and can't take the stream.
+     */
+    boolean submit(Http2ClientTransport stream) {
+        List<Http2ClientTransport> started;
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            pending.add(stream);
+            started = startPending();
+        }
+        flush();
+        scheduleTimeouts(started);
+        return true;
+    }
+
+    /*
+     * Starts queued streams within the concurrency limit of the server.
+     */
+    private List<Http2ClientTransport> startPending() {
+        List<Http2ClientTransport> started = null;
+        while (connected && !closed && !pending.isEmpty() && streams.size() < peerMaxConcurrentStreams) {
+            Http2ClientTransport stream = pending.poll();
+            int id = nextStreamId;
+            nextStreamId += 2;
+            stream.streamId = id;
+            stream.sendWindow = peerInitialWindowSize;
+            streams.put(id, stream);
+            client.streamStarted();
+
+            ByteArrayBuffer block = new ByteArrayBuffer();
+            encoder.encode(stream.getRequestHeaders(), block);
+            boolean endStream = stream.getEntityLength() == 0;
+            writeHeaderBlock(id, block, endStream);
+            if (!endStream) {
+                writeData(stream);
+            }
+            if (started == null) {
+                started = new ArrayList<Http2ClientTransport>();
+            }
+            started.add(stream);
+        }
+        return started;
+    }
+
+    private void writeHeaderBlock(int streamId, ByteArrayBuffer block, boolean endStream) {
+        byte[] data = block.getRawData();
+        int len = block.size();
+        int off = 0;
+        int type = HEADERS;
+        do {
+            int n = Math.min(len - off, peerMaxFrameSize);
+            int flags = (off + n == len) ? FLAG_END_HEADERS : 0;
+            if (type == HEADERS && endStream) {
+                flags |= FLAG_END_STREAM;
+            }
+            ByteBuffer header = frameHeader(n, type, flags, streamId);
+            header.flip();
+            writeQueue.add(header);
+            writeQueue.add(ByteBuffer.wrap(data, off, n));
+            off += n;
+            type = CONTINUATION;
+        } while (off < len);
+    }
+
+    /*
+     * Writes as much of the request entity as the flow control windows allow.
+     */
+    private void writeData(Http2ClientTransport stream) {
+        int len = stream.getEntityLength();
+        while (stream.entitySent < len && stream.sendWindow > 0 && sendWindow > 0) {
+            int n = (int) Math.min(Math.min(len - stream.entitySent, peerMaxFrameSize),
+                    Math.min(stream.sendWindow, sendWindow));
+            boolean last = stream.entitySent + n == len;
+            ByteBuffer header = frameHeader(n, DATA, last ? FLAG_END_STREAM : 0, stream.streamId);
+            header.flip();
+            writeQueue.add(header);
+            Collections.addAll(writeQueue, stream.getEntity().getBuffers(stream.entitySent, n));
+            stream.retainEntity();
+            writeQueueRefs.add(stream);
+            stream.entitySent += n;
+            stream.sendWindow -= n;
+            sendWindow -= n;
+        }
+    }
+
+    private void writeBlockedData() {
+        for (Http2ClientTransport stream : streams.values()) {
+            if (sendWindow <= 0) {
+                break;
+            }
+            if (stream.entitySent < stream.getEntityLength()) {
+                writeData(stream);
+            }
+        }
+    }
+
+    /*
+     * Writes the queued frames, one gathering write at a time.
+     */
+    private void flush() {
+        final ByteBuffer[] buffers;
+        final List<Http2ClientTransport> refs;
+        final AsynchronousSocketChannel ch;
+        synchronized (this) {
+            if (writing || writeQueue.isEmpty() || !connected || channel == null) {
+                return;
+            }
+            writing = true;
+            buffers = writeQueue.toArray(new ByteBuffer[writeQueue.size()]);
+            writeQueue.clear();
+            refs = new ArrayList<Http2ClientTransport>(writeQueueRefs);
+            writeQueueRefs.clear();
+            ch = channel;
+        }
+        write(ch, buffers, 0, refs);
+    }
+
+    private void write(final AsynchronousSocketChannel ch, final ByteBuffer[] buffers, final int offset,
+                       final List<Http2ClientTransport> refs) {
+        ch.write(buffers, offset, buffers.length - offset, 0L, TimeUnit.MILLISECONDS, null, new CompletionHandler<Long, Void>() {
+            public void completed(Long result, Void attachment) {
+                int i = offset;
+                while (i < buffers.length && !buffers[i].hasRemaining()) {
+                    i++;
+                }
+                if (i < buffers.length) {
+                    write(ch, buffers, i, refs);
+                    return;
+                }
+                releaseEntities(refs);
+                synchronized (Http2Connection.this) {
+                    writing = false;
+                }
+                flush();
+            }
+
+            public void failed(Throwable exc, Void attachment) {
+                releaseEntities(refs);
+                Http2Connection.this.failed(exc);
+            }
+        });
+    }
+
+    private static void releaseEntities(List<Http2ClientTransport> refs) {
+        for (Http2ClientTransport stream : refs) {
+            stream.releaseEntity();
+        }
+    }
+
+    private void read() {
+        final AsynchronousSocketChannel ch;
+        synchronized (this) {
+            ch = channel;
+        }
+        ch.read(readBuffer, 0L, TimeUnit.MILLISECONDS, null, new CompletionHandler<Integer, Void>() {
+            public void completed(Integer result, Void attachment) {
+                if (result < 0) {
+                    Http2Connection.this.failed(new IOException("HTTP/2 connection closed by the server"));
+                    return;
+                }
+                try {
+                    readBuffer.flip();
+                    while (readBuffer.remaining() >= FRAME_HEADER_LENGTH) {
+                        int length = ((readBuffer.get(readBuffer.position()) & 0xff) << 16)
+                                | ((readBuffer.get(readBuffer.position() + 1) & 0xff) << 8)
+                                | (readBuffer.get(readBuffer.position() + 2) & 0xff);
+                        if (length > DEFAULT_MAX_FRAME_SIZE) {
+                            throw new IOException("HTTP/2 frame exceeds SETTINGS_MAX_FRAME_SIZE: " + length);
+                        }
+                        if (readBuffer.remaining() < FRAME_HEADER_LENGTH + length) {
+                            break;
+                        }
+                        int type = readBuffer.get(readBuffer.position() + 3) & 0xff;
+                        int flags = readBuffer.get(readBuffer.position() + 4) & 0xff;
+                        int streamId = readBuffer.getInt(readBuffer.position() + 5) & MAX_STREAM_ID;
+                        int payload = readBuffer.position() + FRAME_HEADER_LENGTH;
+                        onFrame(type, flags, streamId, readBuffer.array(), payload, length);
+                        readBuffer.position(payload + length);
+                    }
+                    readBuffer.compact();
+                } catch (IOException e) {
+                    goAway(PROTOCOL_ERROR);
+                    Http2Connection.this.failed(e);
+                    return;
+                }
+                synchronized (Http2Connection.this) {
+                    if (closed && streams.isEmpty()) {
+                        close();
+                        return;
+                    }
+                }
+                read();
+            }
+
+            public void failed(Throwable exc, Void attachment) {
+                Http2Connection.this.failed(exc);
+            }
+        });
+    }
+
+    private void onFrame(int type, int flags, int streamId, byte[] in, int off, int len) throws IOException {
+        if (headerBlockStreamId != 0 && type != CONTINUATION) {
+            throw new IOException("HTTP/2 header block interrupted by a frame of type " + type);
+        }
+        switch (type) {
+            case DATA:
+                onData(flags, streamId, in, off, len);
+                break;
+            case HEADERS:
+                if (streamId == 0) {
+                    throw new IOException("HTTP/2 HEADERS frame on stream 0");
+                }
+                int start = off;
+                int end = off + len;
+                if ((flags & FLAG_PADDED) != 0) {
+                    end -= (in[start++] & 0xff);
+                }
+                if ((flags & FLAG_PRIORITY) != 0) {
+                    start += 5;
+                }
+                if (start > end) {
+                    throw new IOException("Invalid HTTP/2 HEADERS frame padding");
+                }
+                headerBlock.reset();
+                headerBlock.write(in, start, end - start);
+                headerBlockStreamId = streamId;
+                headerBlockEndStream = (flags & FLAG_END_STREAM) != 0;
+                if ((flags & FLAG_END_HEADERS) != 0) {
+                    onHeaderBlock();
+                }
+                break;
+            case CONTINUATION:
+                if (streamId != headerBlockStreamId || streamId == 0) {
+                    throw new IOException("Unexpected HTTP/2 CONTINUATION frame");
+                }
+                headerBlock.write(in, off, len);
+                if ((flags & FLAG_END_HEADERS) != 0) {
+                    onHeaderBlock();
+                }
+                break;
+            case RST_STREAM:
+                if (len != 4) {
+                    throw new IOException("Invalid HTTP/2 RST_STREAM frame");
+                }
+                int errorCode = ((in[off] & 0xff) << 24) | ((in[off + 1] & 0xff) << 16)
+                        | ((in[off + 2] & 0xff) << 8) | (in[off + 3] & 0xff);
+                Http2ClientTransport reset = removeStream(streamId);
+                if (reset != null) {
+                    reset.notifyFailed(new IOException("HTTP/2 stream reset by the server, error code " + errorCode));
+                }
+                break;
+            case SETTINGS:
+                if ((flags & FLAG_ACK) == 0) {
+                    onSettings(in, off, len);
+                }
+                break;
+            case PUSH_PROMISE:
+                // disabled by our SETTINGS_ENABLE_PUSH
+                throw new IOException("Unexpected HTTP/2 PUSH_PROMISE frame");
+            case PING:
+                if ((flags & FLAG_ACK) == 0) {
+                    synchronized (this) {
+                        ByteBuffer ping = frameHeader(len, PING, FLAG_ACK, 0);
+                        ping.put(in, off, len).flip();
+                        writeQueue.add(ping);
+                    }
+                    flush();
+                }
+                break;
+            case GOAWAY:
+                onGoAway(((in[off] & 0xff) << 24 | (in[off + 1] & 0xff) << 16
+                        | (in[off + 2] & 0xff) << 8 | (in[off + 3] & 0xff)) & MAX_STREAM_ID);
+                break;
+            case WINDOW_UPDATE:
+                int increment = (((in[off] & 0xff) << 24) | ((in[off + 1] & 0xff) << 16)
+                        | ((in[off + 2] & 0xff) << 8) | (in[off + 3] & 0xff)) & MAX_STREAM_ID;
+                synchronized (this) {
+                    if (streamId == 0) {
+                        sendWindow += increment;
+                        writeBlockedData();
+                    } else {
+                        Http2ClientTransport stream = streams.get(streamId);
+                        if (stream != null) {
+                            stream.sendWindow += increment;
+                            writeData(stream);
+                        }
+                    }
+                }
+                flush();
+                break;
+            default:
+                // PRIORITY and unknown frame types are ignored
+        }
+    }
+
+    private void onData(int flags, int streamId, byte[] in, int off, int len) throws IOException {
+        int start = off;
+        int end = off + len;
+        if ((flags & FLAG_PADDED) != 0) {
+            end -= (in[start++] & 0xff);
+            if (start > end) {
+                throw new IOException("Invalid HTTP/2 DATA frame padding");
+            }
+        }
+        boolean endStream = (flags & FLAG_END_STREAM) != 0;
+        Http2ClientTransport stream;
+        synchronized (this) {
+            stream = streams.get(streamId);
+            // replenish the windows with what was consumed
+            receivedUnacknowledged += len;
+            if (receivedUnacknowledged >= RECEIVE_WINDOW_SIZE / 2) {
+                writeQueue.add(windowUpdate(0, (int) receivedUnacknowledged));
+                receivedUnacknowledged = 0;
+            }
+            if (stream != null && !endStream) {
+                stream.receivedUnacknowledged += len;
+                if (stream.receivedUnacknowledged >= RECEIVE_WINDOW_SIZE / 2) {
+                    writeQueue.add(windowUpdate(streamId, stream.receivedUnacknowledged));
+                    stream.receivedUnacknowledged = 0;
+                }
+            }
+        }
+        flush();
+        if (stream != null) {
+            stream.body.write(in, start, end - start);
+            if (endStream) {
+                complete(streamId);
+            }
+        }
+    }
+
+    private void onHeaderBlock() throws IOException {
+        int streamId = headerBlockStreamId;
+        headerBlockStreamId = 0;
+        // always decoded, to keep the dynamic table in sync
+        List<String[]> headers = decoder.decode(headerBlock.getRawData(), 0, headerBlock.size());
+        Http2ClientTransport stream;
+        synchronized (this) {
+            stream = streams.get(streamId);
+        }
+        if (stream != null) {
+            stream.onHeaders(headers);
+            if (headerBlockEndStream) {
+                complete(streamId);
+            }
+        }
+    }
+
+    private void onSettings(byte[] in, int off, int len) throws IOException {
+        if (len % 6 != 0) {
+            throw new IOException("Invalid HTTP/2 SETTINGS frame");
+        }
+        List<Http2ClientTransport> started;
+        synchronized (this) {
+            for (int i = off; i < off + len; i += 6) {
+                int id = ((in[i] & 0xff) << 8) | (in[i + 1] & 0xff);
+                int value = ((in[i + 2] & 0xff) << 24) | ((in[i + 3] & 0xff) << 16)
+                        | ((in[i + 4] & 0xff) << 8) | (in[i + 5] & 0xff);
+                switch (id) {
+                    case SETTINGS_HEADER_TABLE_SIZE:
+                        encoder.setMaxTableSize(value);
+                        break;
+                    case SETTINGS_MAX_CONCURRENT_STREAMS:
+                        peerMaxConcurrentStreams = value;
+                        break;
+                    case SETTINGS_INITIAL_WINDOW_SIZE:
+                        if (value < 0) {
+                            throw new IOException("Invalid HTTP/2 SETTINGS_INITIAL_WINDOW_SIZE: " + value);
+                        }
+                        int delta = value - peerInitialWindowSize;
+                        peerInitialWindowSize = value;
+                        for (Http2ClientTransport stream : streams.values()) {
+                            stream.sendWindow += delta;
+                        }
+                        break;
+                    case SETTINGS_MAX_FRAME_SIZE:
+                        if (value < DEFAULT_MAX_FRAME_SIZE || value > 0xffffff) {
+                            throw new IOException("Invalid HTTP/2 SETTINGS_MAX_FRAME_SIZE: " + value);
+                        }
+                        peerMaxFrameSize = value;
+                        break;
+                    default:
+                        // not relevant for the client
+                }
+            }
+            ByteBuffer ack = frameHeader(0, SETTINGS, FLAG_ACK, 0);
+            ack.flip();
+            writeQueue.add(ack);
+            writeBlockedData();
+            started = startPending();
+        }
+        flush();
+        scheduleTimeouts(started);
+    }
+
+    /*
+     * The streams above the last stream id of GOAWAY were not processed
+     * by the server and are sent again on another connection.
+     */
+    private void onGoAway(int lastStreamId) {
+        List<Http2ClientTransport> unprocessed = new ArrayList<Http2ClientTransport>();
+        synchronized (this) {
+            closed = true;
+            Iterator<Map.Entry<Integer, Http2ClientTransport>> it = streams.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Integer, Http2ClientTransport> e = it.next();
+                if (e.getKey() > lastStreamId) {
+                    it.remove();
+                    unprocessed.add(e.getValue());
+                }
+            }
+            unprocessed.addAll(pending);
+            pending.clear();
+        }
+        client.connectionClosed(this);
+        for (Http2ClientTransport stream : unprocessed) {
+            stream.retry(new IOException("HTTP/2 connection going away"));
+        }
+    }
+
+    private void complete(int streamId) {
+        Http2ClientTransport stream = removeStream(streamId);
+        if (stream != null) {
+            stream.notifyCompleted();
+        }
+    }
+
+    /**
+     * Cancels the stream after a timeout.
+     */
+    void cancel(Http2ClientTransport stream) {
+        if (removeStream(stream.streamId) != null) {
+            synchronized (this) {
+                ByteBuffer rst = frameHeader(4, RST_STREAM, 0, stream.streamId);
+                rst.putInt(CANCEL).flip();
+                writeQueue.add(rst);
+            }
+            flush();
+            stream.notifyFailed(new SocketTimeoutException("Read timed out"));
+        }
+    }
+
+    private Http2ClientTransport removeStream(int streamId) {
+        List<Http2ClientTransport> started;
+        Http2ClientTransport stream;
+        synchronized (this) {
+            stream = streams.remove(streamId);
+            if (stream == null) {
+                return null;
+            }
+            started = startPending();
+        }
+        stream.cancelTimeout();
+        flush();
+        scheduleTimeouts(started);
+        return stream;
+    }
+
+    private void scheduleTimeouts(List<Http2ClientTransport> started) {
+        if (started != null) {
+            for (Http2ClientTransport stream : started) {
+                stream.scheduleTimeout(this);
+            }
+        }
+    }
+
+    private void goAway(int errorCode) {
+        synchronized (this) {
+            if (!connected) {
+                return;
+            }
+            ByteBuffer goAway = frameHeader(8, GOAWAY, 0, 0);
+            goAway.putInt(0).putInt(errorCode).flip();
+            writeQueue.add(goAway);
+        }
+        flush();
+    }
+
+    /*
+     * Fails all streams of a broken connection. Streams that weren't
+     * sent yet are retried on another connection, unless this one
+     * couldn't even be established.
+     */
+    private void failed(Throwable exc) {
+        List<Http2ClientTransport> active;
+        List<Http2ClientTransport> unsent;
+        List<Http2ClientTransport> unwritten;
+        boolean wasConnected;
+        synchronized (this) {
+            closed = true;
+            wasConnected = connected;
+            writeQueue.clear();
+            unwritten = new ArrayList<Http2ClientTransport>(writeQueueRefs);
+            writeQueueRefs.clear();
+            active = new ArrayList<Http2ClientTransport>(streams.values());
+            streams.clear();
+            unsent = new ArrayList<Http2ClientTransport>(pending);
+            pending.clear();
+        }
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.log(Level.FINE, "HTTP/2 connection to " + address + " failed", exc);
+        }
+        close();
+        client.connectionClosed(this);
+        releaseEntities(unwritten);
+        for (Http2ClientTransport stream : active) {
+            stream.cancelTimeout();
+            stream.notifyFailed(exc);
+        }
+        for (Http2ClientTransport stream : unsent) {
+            if (wasConnected) {
+                stream.retry(exc);
+            } else {
+                stream.notifyFailed(exc);
+            }
+        }
+    }
+
+    void close() {
+        AsynchronousSocketChannel ch;
+        synchronized (this) {
+            closed = true;
+            ch = channel;
+        }
+        if (ch != null) {
+            try {
+                ch.close();
+            } catch (IOException e) {
+                // Nothing much can be done. Intentionally left empty
+            }
+        }
+    }
+
+    private static ByteBuffer frameHeader(int length, int type, int flags, int streamId) {
+        ByteBuffer buf = ByteBuffer.allocate(FRAME_HEADER_LENGTH + ((type == DATA || type == HEADERS || type == CONTINUATION) ? 0 : length));
+        buf.put((byte) (length >>> 16)).put((byte) (length >>> 8)).put((byte) length);
+        buf.put((byte) type).put((byte) flags).putInt(streamId);
+        return buf;
+    }
+
+    private static ByteBuffer windowUpdate(int streamId, int increment) {
+        ByteBuffer buf = frameHeader(4, WINDOW_UPDATE, 0, streamId);
+        buf.putInt(increment).flip();
+        return buf;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http.client;
+
+import com.sun.xml.ws.api.WSBinding;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.Codec;
+import com.sun.xml.ws.api.pipe.TubeCloner;
+import com.sun.xml.ws.developer.Http2TransportFeature;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link NonBlockingHttpTransportTube} that sends the requests as streams
+ * of multiplexed HTTP/2 connections.
+ *
+ * <p>
+ * This tube is used for {@code http} endpoint addresses when
+ * {@link Http2TransportFeature} is enabled. The connections come from the
+ * {@link Http2Client} of the feature, which all copies of this tube share.
+ * The tube created for the proxy retains the client, and releases it when
+ * the proxy is closed.
+ */
+public class Http2TransportTube extends NonBlockingHttpTransportTube {
+
+    private final Http2Client client;
+    private final boolean master;
+
+    public Http2TransportTube(Codec codec, WSBinding binding) {
+        super(codec, binding, null);
+        Http2TransportFeature feature = binding.getFeature(Http2TransportFeature.class);
+        this.client = (feature != null) ? feature.getClient() : new Http2Client();
+        this.master = true;
+        client.retain();
+    }
+
+    /*
+     * Copy constructor for {@link Tube#copy(TubeCloner)}.
+     */
+    private Http2TransportTube(Http2TransportTube that, TubeCloner cloner) {
+        super(that, cloner);
+        this.client = that.client;
+        this.master = false;
+    }
+
+    @Override
+    NonBlockingClientTransport createTransport(Packet request, Map<String, List<String>> reqHeaders) {
+        return new Http2ClientTransport(request, reqHeaders, client);
+    }
+
+    @Override
+    public void preDestroy() {
+        if (master) {
+            client.dispose();
+        }
+    }
+
+    @Override
+    public Http2TransportTube copy(TubeCloner cloner) {
+        return new Http2TransportTube(this, cloner);
+    }
+}
@@ -0,0 +1,783 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http.client;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import org.glassfish.gmbal.Description;
+import org.glassfish.gmbal.ManagedAttribute;
+import org.glassfish.gmbal.ManagedData;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousChannelGroup;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.InterruptedByTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keep-alive connection pool used by {@link NonBlockingHttpClientTransport}.
+ *
+ * <p>
+ * Connections are pooled per endpoint host and port. At most
+ * {@link #getMaxConnectionsPerHost()} connections are open to one host at
+ * any time; a borrower that finds the limit reached is queued and gets the
+ * next released connection, without blocking a thread. A queued borrower
+ * fails with a {@link SocketTimeoutException} if no connection is released
+ * within its connect timeout, or {@link #DEFAULT_MAX_WAIT} milliseconds if
+ * it has none.
+ *
+ * <p>
+ * An idle connection keeps a read pending, so a connection closed by the
+ * server, or one the server sends unsolicited data on, is dropped as soon as
+ * that happens instead of being handed to the next borrower. The first read
+ * of the borrower takes over that pending read.
+ *
+ * <p>
+ * Idle connections are evicted once they have been idle longer than
+ * {@link #getIdleTimeout()}. Eviction is done lazily by the borrowing and
+ * releasing threads, so the pool doesn't need a thread of its own. A host
+ * left without connections is forgotten at the same time.
+ *
+ * <p>
+ * An instance is shared by all the tubes of the proxies/dispatches created
+ * with the same {@link com.sun.xml.ws.developer.NonBlockingHttpTransportFeature},
+ * and its statistics are exposed through the client's managed object. Each
+ * tubeline {@link #retain() retains} the pool and {@link #dispose() disposes}
+ * it when the proxy is closed; the pool is closed when the last one is.
+ */
+@ManagedData
+@Description("HTTP client connection pool")
+public final class HttpConnectionPool {
+
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 20;
+    public static final long DEFAULT_IDLE_TIMEOUT = 30000;
+    public static final long DEFAULT_MAX_WAIT = 60000;
+
+    private final AsynchronousChannelGroup channelGroup;
+    private final int maxConnectionsPerHost;
+    private final long idleTimeout;
+    private final ConcurrentMap<InetSocketAddress, HostPool> hosts = new ConcurrentHashMap<InetSocketAddress, HostPool>();
+    private volatile long lastSweep = System.currentTimeMillis();
+    private volatile boolean closed;
+    // tubelines using the pool, guarded by this
+    private int users;
+
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong invalid = new AtomicLong();
+    private final AtomicLong waited = new AtomicLong();
+    private final AtomicLong waitTimeouts = new AtomicLong();
+
+    public HttpConnectionPool() {
+        this(null, DEFAULT_MAX_CONNECTIONS_PER_HOST, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * @param channelGroup
+     *      group whose threads process the I/O completions, or null to
+     *      use the JVM's default group.
+     * @param maxConnectionsPerHost
+     *      maximum number of connections, busy or idle, to one host and port.
+     * @param idleTimeout
+     *      milliseconds after which an idle connection is closed.
+     */
+    public HttpConnectionPool(@Nullable AsynchronousChannelGroup channelGroup, int maxConnectionsPerHost, long idleTimeout) {
+        if (maxConnectionsPerHost <= 0) {
+            throw new IllegalArgumentException("maxConnectionsPerHost must be positive: " + maxConnectionsPerHost);
+        }
+        this.channelGroup = channelGroup;
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * A connection of this pool. Must be given back with {@link HttpConnectionPool#release}.
+     */
+    static final class Connection {
+        final AsynchronousSocketChannel channel;
+        final HostPool host;
+        final boolean reused;
+        long lastUsed;
+        // read that watched the connection while it was idle, not taken over yet
+        private IdleRead idleRead;
+
+        Connection(AsynchronousSocketChannel channel, HostPool host, boolean reused, long lastUsed) {
+            this.channel = channel;
+            this.host = host;
+            this.reused = reused;
+            this.lastUsed = lastUsed;
+        }
+
+        /**
+         * Reads from the connection, like {@link AsynchronousSocketChannel#read(ByteBuffer, long, TimeUnit, Object, CompletionHandler)}.
+         * The first read of a reused connection takes over the read that was
+         * left pending while the connection was idle.
+         *
+         * @param timeout milliseconds to wait for the read to complete, 0 for no timeout
+         */
+        void read(ByteBuffer dst, long timeout, CompletionHandler<Integer, Void> handler) {
+            IdleRead pending = idleRead;
+            if (pending == null) {
+                channel.read(dst, timeout, TimeUnit.MILLISECONDS, null, handler);
+            } else {
+                idleRead = null;
+                pending.takeOver(dst, timeout, handler);
+            }
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Nothing much can be done. Intentionally left empty
+            }
+        }
+    }
+
+    /**
+     * Borrows a connection to the given address. The handler is invoked
+     * exactly once, when a connection becomes available or could not be opened.
+     *
+     * @param connectTimeout milliseconds to wait for a new connection, 0 for no timeout
+     * @param fresh true to skip the idle connections and open a new one
+     */
+    void borrow(@NotNull InetSocketAddress address, long connectTimeout, boolean fresh,
+                @NotNull CompletionHandler<Connection, Void> handler) {
+        if (closed) {
+            handler.failed(new IOException("Connection pool is closed"), null);
+            return;
+        }
+        sweep();
+        while (true) {
+            HostPool host = hosts.get(address);
+            if (host == null) {
+                HostPool newHost = new HostPool(address);
+                host = hosts.putIfAbsent(address, newHost);
+                if (host == null) {
+                    host = newHost;
+                }
+            }
+            if (host.borrow(connectTimeout, fresh, handler)) {
+                return;
+            }
+            // the host was just removed by sweep(), a new one takes its place
+        }
+    }
+
+    /**
+     * Gives back a borrowed connection.
+     *
+     * @param reusable false if the connection can't carry another exchange
+     */
+    void release(@NotNull Connection connection, boolean reusable) {
+        connection.host.release(connection, reusable && !closed);
+    }
+
+    /**
+     * Registers a user of this pool, typically the tubeline of a proxy.
+     * Reopens the pool if it was closed.
+     */
+    public synchronized void retain() {
+        users++;
+        closed = false;
+    }
+
+    /**
+     * Unregisters a user registered with {@link #retain()}, and closes the
+     * pool when it was the last one.
+     */
+    public void dispose() {
+        synchronized (this) {
+            if (users == 0 || --users > 0) {
+                return;
+            }
+        }
+        close();
+    }
+
+    /**
+     * Closes all the idle connections and fails the borrowers waiting for one.
+     * Connections in use are closed when they are released.
+     */
+    public void close() {
+        closed = true;
+        for (HostPool host : hosts.values()) {
+            host.evict(Long.MAX_VALUE);
+            host.failWaiters(new IOException("Connection pool is closed"));
+        }
+    }
+
+    @ManagedAttribute
+    @Description("Maximum number of connections per host")
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    @ManagedAttribute
+    @Description("Milliseconds after which an idle connection is closed")
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    @ManagedAttribute
+    @Description("Number of connections opened")
+    public long getCreatedCount() {
+        return created.get();
+    }
+
+    @ManagedAttribute
+    @Description("Number of exchanges that reused a pooled connection")
+    public long getReusedCount() {
+        return reused.get();
+    }
+
+    @ManagedAttribute
+    @Description("Number of idle connections closed by the idle timeout")
+    public long getEvictedCount() {
+        return evicted.get();
+    }
+
+    @ManagedAttribute
+    @Description("Number of idle connections dropped because they expired or the server closed them")
+    public long getInvalidCount() {
+        return invalid.get();
+    }
+
+    @ManagedAttribute
+    @Description("Number of borrowers that had to wait for the per host limit")
+    public long getWaitedCount() {
+        return waited.get();
+    }
+
+    @ManagedAttribute
+    @Description("Number of open connections, busy or idle")
+    public int getOpenCount() {
+        int count = 0;
+        for (HostPool host : hosts.values()) {
+            synchronized (host) {
+                count += host.open;
+            }
+        }
+        return count;
+    }
+
+    @ManagedAttribute
+    @Description("Number of idle connections")
+    public int getIdleCount() {
+        int count = 0;
+        for (HostPool host : hosts.values()) {
+            synchronized (host) {
+                count += host.idle.size();
+            }
+        }
+        return count;
+    }
+
+    @ManagedAttribute
+    @Description("Number of hosts with open connections or waiting borrowers")
+    public int getHostCount() {
+        return hosts.size();
+    }
+
+    @ManagedAttribute
+    @Description("Number of borrowers that gave up waiting for the per host limit")
+    public long getWaitTimeoutCount() {
+        return waitTimeouts.get();
+    }
+
+    @ManagedAttribute
+    @Description("Number of borrowers waiting for a connection")
+    public int getPendingCount() {
+        int count = 0;
+        for (HostPool host : hosts.values()) {
+            synchronized (host) {
+                count += host.waiters.size();
+            }
+        }
+        return count;
+    }
+
+    /*
+     * Evicts expired idle connections of all hosts, at most once per idle timeout,
+     * and removes the hosts that are left without connections.
+     * This takes care of hosts that aren't used anymore.
+     */
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        if (now - lastSweep < idleTimeout) {
+            return;
+        }
+        lastSweep = now;
+        for (HostPool host : hosts.values()) {
+            host.evict(now - idleTimeout);
+            if (host.retireIfUnused()) {
+                hosts.remove(host.address, host);
+            }
+        }
+    }
+
+    /*
+     * A connection closed by the server is dropped by its idle read, this
+     * only needs to catch the ones that sat idle for too long.
+     */
+    private boolean isValid(Connection c, long now) {
+        return c.channel.isOpen() && now - c.lastUsed < idleTimeout;
+    }
+
+    /**
+     * Connections to one host and port.
+     */
+    final class HostPool {
+        private final InetSocketAddress address;
+        // most recently used first
+        private final Deque<Connection> idle = new ArrayDeque<Connection>();
+        private final Deque<Waiter> waiters = new ArrayDeque<Waiter>();
+        // busy, idle and being connected
+        private int open;
+        // removed from hosts, borrowers must use the new HostPool
+        private boolean retired;
+
+        HostPool(InetSocketAddress address) {
+            this.address = address;
+        }
+
+        /**
+         * @return false if this host was retired and the borrower must use its replacement.
+         */
+        boolean borrow(long connectTimeout, boolean fresh, CompletionHandler<Connection, Void> handler) {
+            long now = System.currentTimeMillis();
+            Connection connection = null;
+            List<Connection> invalids = null;
+            synchronized (this) {
+                if (retired) {
+                    return false;
+                }
+                if (!fresh) {
+                    Connection c;
+                    while ((c = idle.pollFirst()) != null) {
+                        if (isValid(c, now)) {
+                            connection = c;
+                            break;
+                        }
+                        open--;
+                        if (invalids == null) {
+                            invalids = new ArrayList<Connection>();
+                        }
+                        invalids.add(c);
+                    }
+                } else if (open >= maxConnectionsPerHost && !idle.isEmpty()) {
+                    // make room for the new connection
+                    Connection c = idle.pollLast();
+                    open--;
+                    invalids = new ArrayList<Connection>();
+                    invalids.add(c);
+                }
+                if (connection == null) {
+                    if (open >= maxConnectionsPerHost) {
+                        Waiter waiter = new Waiter(connectTimeout, handler);
+                        waiters.addLast(waiter);
+                        waiter.scheduleTimeout(this);
+                        waited.incrementAndGet();
+                        handler = null;
+                    } else {
+                        open++;
+                    }
+                }
+            }
+            if (invalids != null) {
+                invalid.addAndGet(invalids.size());
+                for (Connection c : invalids) {
+                    c.close();
+                }
+            }
+            if (connection != null) {
+                reused.incrementAndGet();
+                Connection borrowed = new Connection(connection.channel, this, true, now);
+                borrowed.idleRead = connection.idleRead;
+                handler.completed(borrowed, null);
+            } else if (handler != null) {
+                connect(connectTimeout, handler);
+            }
+            return true;
+        }
+
+        /*
+         * Retires this host if it has no connections and no waiting borrowers.
+         */
+        synchronized boolean retireIfUnused() {
+            if (open == 0 && waiters.isEmpty()) {
+                retired = true;
+            }
+            return retired;
+        }
+
+        /*
+         * Fails the waiter if it is still queued.
+         */
+        void timeout(Waiter waiter) {
+            boolean removed;
+            synchronized (this) {
+                removed = waiters.remove(waiter);
+            }
+            if (removed) {
+                waitTimeouts.incrementAndGet();
+                waiter.handler.failed(new SocketTimeoutException("Timed out waiting for a connection to " + address), null);
+            }
+        }
+
+        void failWaiters(Throwable exc) {
+            List<Waiter> failed;
+            synchronized (this) {
+                failed = new ArrayList<Waiter>(waiters);
+                waiters.clear();
+            }
+            for (Waiter waiter : failed) {
+                waiter.cancelTimeout();
+                waiter.handler.failed(exc, null);
+            }
+        }
+
+        void release(Connection connection, boolean reusable) {
+            Waiter waiter;
+            boolean connectForWaiter = false;
+            // a read still pending from the idle time can't be watched by a new one
+            boolean keep = reusable && connection.channel.isOpen() && connection.idleRead == null;
+            IdleRead idleRead = null;
+            synchronized (this) {
+                waiter = waiters.pollFirst();
+                if (!keep) {
+                    if (waiter == null) {
+                        open--;
+                    } else {
+                        // the slot goes to the waiter
+                        connectForWaiter = true;
+                    }
+                } else if (waiter == null) {
+                    connection.lastUsed = System.currentTimeMillis();
+                    idleRead = new IdleRead(connection);
+                    connection.idleRead = idleRead;
+                    idle.addFirst(connection);
+                }
+            }
+            if (idleRead != null) {
+                // a borrower that takes the connection before this waits for the same read
+                idleRead.start();
+            }
+            if (waiter != null) {
+                waiter.cancelTimeout();
+            }
+            if (!keep) {
+                connection.close();
+                if (connectForWaiter) {
+                    connect(waiter.connectTimeout, waiter.handler);
+                }
+            } else if (waiter != null) {
+                reused.incrementAndGet();
+                waiter.handler.completed(new Connection(connection.channel, this, true, System.currentTimeMillis()), null);
+            }
+        }
+
+        /*
+         * Closes an idle connection that the server closed or sent data on.
+         *
+         * @return false if the connection isn't idle anymore.
+         */
+        boolean dropIdle(Connection connection) {
+            synchronized (this) {
+                if (!idle.remove(connection)) {
+                    return false;
+                }
+                open--;
+            }
+            invalid.incrementAndGet();
+            connection.close();
+            return true;
+        }
+
+        /*
+         * Closes the idle connections that were last used before the given time.
+         */
+        void evict(long before) {
+            List<Connection> expired = null;
+            synchronized (this) {
+                Iterator<Connection> it = idle.descendingIterator();
+                while (it.hasNext()) {
+                    Connection c = it.next();
+                    if (c.lastUsed >= before) {
+                        break;
+                    }
+                    it.remove();
+                    open--;
+                    if (expired == null) {
+                        expired = new ArrayList<Connection>();
+                    }
+                    expired.add(c);
+                }
+            }
+            if (expired != null) {
+                evicted.addAndGet(expired.size());
+                for (Connection c : expired) {
+                    c.close();
+                }
+            }
+        }
+
+        /*
+         * Opens a new connection, the caller has already accounted for it in open.
+         */
+        private void connect(long connectTimeout, final CompletionHandler<Connection, Void> handler) {
+            final AsynchronousSocketChannel channel;
+            try {
+                channel = AsynchronousSocketChannel.open(channelGroup);
+            } catch (IOException e) {
+                connectFailed(handler, e);
+                return;
+            }
+            final Future<?> connectTimer = (connectTimeout > 0)
+                    ? TIMER.schedule(new Runnable() {
+                        public void run() {
+                            try {
+                                channel.close();
+                            } catch (IOException e) {
+                                // Nothing much can be done. Intentionally left empty
+                            }
+                        }
+                    }, connectTimeout, TimeUnit.MILLISECONDS)
+                    : null;
+            channel.connect(address, null, new CompletionHandler<Void, Void>() {
+                public void completed(Void result, Void attachment) {
+                    if (connectTimer != null) {
+                        connectTimer.cancel(false);
+                    }
+                    created.incrementAndGet();
+                    handler.completed(new Connection(channel, HostPool.this, false, System.currentTimeMillis()), null);
+                }
+
+                public void failed(Throwable exc, Void attachment) {
+                    if (connectTimer != null && connectTimer.isDone()) {
+                        exc = new SocketTimeoutException("connect timed out");
+                    }
+                    connectFailed(handler, exc);
+                }
+            });
+        }
+
+        private void connectFailed(CompletionHandler<Connection, Void> handler, Throwable exc) {
+            Waiter waiter;
+            synchronized (this) {
+                waiter = waiters.pollFirst();
+                if (waiter == null) {
+                    open--;
+                }
+            }
+            handler.failed(exc, null);
+            if (waiter != null) {
+                // give the slot to the next borrower
+                waiter.cancelTimeout();
+                connect(waiter.connectTimeout, waiter.handler);
+            }
+        }
+    }
+
+    /**
+     * Read left pending on an idle connection. While the connection is idle,
+     * its completion means that the server closed the connection or sent
+     * data nobody asked for, and the connection is dropped. Once the
+     * connection is borrowed, the result goes to the first read of the borrower.
+     */
+    private static final class IdleRead implements CompletionHandler<Integer, Void> {
+        private final Connection connection;
+        private final ByteBuffer buf = ByteBuffer.allocate(1);
+        // guarded by this
+        private boolean done;
+        private Integer result;
+        private Throwable failure;
+        private ByteBuffer dst;
+        private CompletionHandler<Integer, Void> handler;
+        private Future<?> timeout;
+
+        IdleRead(Connection connection) {
+            this.connection = connection;
+        }
+
+        void start() {
+            connection.channel.read(buf, null, this);
+        }
+
+        public void completed(Integer result, Void attachment) {
+            finish(result, null);
+        }
+
+        public void failed(Throwable exc, Void attachment) {
+            finish(null, exc);
+        }
+
+        private void finish(Integer result, Throwable exc) {
+            if (connection.host.dropIdle(connection)) {
+                return;
+            }
+            CompletionHandler<Integer, Void> reader;
+            synchronized (this) {
+                done = true;
+                this.result = result;
+                this.failure = exc;
+                reader = handler;
+                handler = null;
+            }
+            if (reader != null) {
+                deliver(reader);
+            }
+        }
+
+        /*
+         * Delivers the result of this read to the borrower, into the given buffer.
+         */
+        void takeOver(ByteBuffer dst, long timeoutMillis, CompletionHandler<Integer, Void> reader) {
+            synchronized (this) {
+                this.dst = dst;
+                if (!done) {
+                    handler = reader;
+                    if (timeoutMillis > 0) {
+                        timeout = TIMER.schedule(new Runnable() {
+                            public void run() {
+                                timedOut();
+                            }
+                        }, timeoutMillis, TimeUnit.MILLISECONDS);
+                    }
+                    return;
+                }
+            }
+            deliver(reader);
+        }
+
+        private void timedOut() {
+            CompletionHandler<Integer, Void> reader;
+            synchronized (this) {
+                reader = handler;
+                handler = null;
+            }
+            if (reader != null) {
+                // like a timed out channel read, the connection can't be read anymore
+                connection.close();
+                reader.failed(new InterruptedByTimeoutException(), null);
+            }
+        }
+
+        private void deliver(CompletionHandler<Integer, Void> reader) {
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            if (failure != null) {
+                reader.failed(failure, null);
+                return;
+            }
+            if (result > 0) {
+                buf.flip();
+                dst.put(buf);
+            }
+            reader.completed(result, null);
+        }
+    }
+
+    private static final class Waiter {
+        final long connectTimeout;
+        final CompletionHandler<Connection, Void> handler;
+        private Future<?> timeout;
+
+        Waiter(long connectTimeout, CompletionHandler<Connection, Void> handler) {
+            this.connectTimeout = connectTimeout;
+            this.handler = handler;
+        }
+
+        /*
+         * Called with the lock of the host held, so that the waiter can't be
+         * served before its timeout is set.
+         */
+        void scheduleTimeout(final HostPool host) {
+            timeout = TIMER.schedule(new Runnable() {
+                public void run() {
+                    host.timeout(Waiter.this);
+                }
+            }, connectTimeout > 0 ? connectTimeout : DEFAULT_MAX_WAIT, TimeUnit.MILLISECONDS);
+        }
+
+        /*
+         * Called after the waiter was taken off the queue.
+         */
+        void cancelTimeout() {
+            timeout.cancel(false);
+        }
+    }
+
+    /**
+     * Enforces the connect and request timeouts of the non-blocking transports.
+     */
+    static final ScheduledExecutorService TIMER;
+
+    static {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "jaxws-http-client-timer");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        TIMER = timer;
+    }
+}
@@ -55,6 +55,7 @@ import com.sun.xml.ws.transport.Headers;
 import com.sun.xml.ws.transport.http.HttpAdapter;
 import com.sun.xml.ws.util.ByteArrayBuffer;
 import com.sun.xml.ws.util.RuntimeVersion;
+import com.sun.xml.ws.util.SegmentedBuffer;
 import com.sun.xml.ws.util.StreamUtils;
 
 import javax.xml.bind.DatatypeConverter;
@@ -82,15 +83,18 @@ import java.util.logging.Logger;
 public class HttpTransportPipe extends AbstractTubeImpl {
 
     private static final List<String> USER_AGENT = Collections.singletonList(RuntimeVersion.VERSION.toString());
-    private static final Logger LOGGER = Logger.getLogger(HttpTransportPipe.class.getName());
+    /*package*/ static final Logger LOGGER = Logger.getLogger(HttpTransportPipe.class.getName());
 
     /**
      * Dumps what goes across HTTP transport.
      */
     public static boolean dump;
 
-    private final Codec codec;
-    private final WSBinding binding;
+    /**
+     * Replaced by {@link #reset()}, otherwise the tube's own copy.
+     */
+    /*package*/ Codec codec;
+    /*package*/ final WSBinding binding;
     private final CookieHandler cookieJar;      // shared object among the tubes
     private final boolean sticky;
 
@@ -130,7 +134,7 @@ public class HttpTransportPipe extends AbstractTubeImpl {
     /*
      * Copy constructor for {@link Tube#copy(TubeCloner)}.
      */
-    private HttpTransportPipe(HttpTransportPipe that, TubeCloner cloner) {
+    protected HttpTransportPipe(HttpTransportPipe that, TubeCloner cloner) {
         this(that.codec.copy(), that.binding);
         cloner.add(that,this);
     }
@@ -159,57 +163,38 @@ public class HttpTransportPipe extends AbstractTubeImpl {
         HttpClientTransport con;
         try {
             // get transport headers from message
-            Map<String, List<String>> reqHeaders = new Headers();
-            @SuppressWarnings("unchecked")
-            Map<String, List<String>> userHeaders = (Map<String, List<String>>) request.invocationProperties.get(MessageContext.HTTP_REQUEST_HEADERS);
-            boolean addUserAgent = true;
-            if (userHeaders != null) {
-                // userHeaders may not be modifiable like SingletonMap, just copy them
-                reqHeaders.putAll(userHeaders);
-                // application wants to use its own User-Agent header
-                if (userHeaders.get("User-Agent") != null) {
-                    addUserAgent = false;
-                }
-            }
-            if (addUserAgent) {
-                reqHeaders.put("User-Agent", USER_AGENT);
-            }
-
-            addBasicAuth(request, reqHeaders);
-            addCookies(request, reqHeaders);
+            Map<String, List<String>> reqHeaders = createRequestHeaders(request);
 
             con = getTransport(request, reqHeaders);
             request.addSatellite(new HttpResponseProperties(con));
 
             ContentType ct = codec.getStaticContentType(request);
             if (ct == null) {
-                ByteArrayBuffer buf = new ByteArrayBuffer();
-
-                ct = codec.encode(request, buf);
-                // data size is available, set it as Content-Length
-                reqHeaders.put("Content-Length", Collections.singletonList(Integer.toString(buf.size())));
-                reqHeaders.put("Content-Type", Collections.singletonList(ct.getContentType()));
-                if (ct.getAcceptHeader() != null) {
-                    reqHeaders.put("Accept", Collections.singletonList(ct.getAcceptHeader()));
-                }
-                if (binding instanceof SOAPBinding) {
-                    writeSOAPAction(reqHeaders, ct.getSOAPActionHeader());
-                }
+                // the content type is only known once encoded, so the message
+                // is buffered in pooled segments rather than in one heap array
+                SegmentedBuffer buf = new SegmentedBuffer();
+                try {
+                    ct = codec.encode(request, buf);
+                    // data size is available, set it as Content-Length
+                    reqHeaders.put("Content-Length", Collections.singletonList(Integer.toString(buf.size())));
+                    addContentTypeHeaders(reqHeaders, ct);
+
+                    if (dump || LOGGER.isLoggable(Level.FINER)) {
+                        ByteArrayBuffer copy = new ByteArrayBuffer();
+                        buf.writeTo(copy);
+                        dump(copy, "HTTP request", reqHeaders);
+                    }
 
-                if (dump || LOGGER.isLoggable(Level.FINER)) {
-                    dump(buf, "HTTP request", reqHeaders);
+                    OutputStream out = con.getOutput();
+                    if (out != null) {
+                        buf.writeTo(out);
+                    }
+                } finally {
+                    buf.release();
                 }
-
-                buf.writeTo(con.getOutput());
             } else {
                 // Set static Content-Type
-                reqHeaders.put("Content-Type", Collections.singletonList(ct.getContentType()));
-                if (ct.getAcceptHeader() != null) {
-                    reqHeaders.put("Accept", Collections.singletonList(ct.getAcceptHeader()));
-                }
-                if (binding instanceof SOAPBinding) {
-                    writeSOAPAction(reqHeaders, ct.getSOAPActionHeader());
-                }
+                addContentTypeHeaders(reqHeaders, ct);
 
                 if(dump || LOGGER.isLoggable(Level.FINER)) {
                     ByteArrayBuffer buf = new ByteArrayBuffer();
@@ -237,7 +222,46 @@ public class HttpTransportPipe extends AbstractTubeImpl {
         }
     }
 
-    private Packet createResponsePacket(Packet request, HttpClientTransport con) throws IOException {
+    /*
+     * Creates the HTTP request headers for the given packet: the application's
+     * headers, User-Agent, basic authentication and the remembered cookies.
+     */
+    /*package*/ Map<String, List<String>> createRequestHeaders(Packet request) throws IOException {
+        Map<String, List<String>> reqHeaders = new Headers();
+        @SuppressWarnings("unchecked")
+        Map<String, List<String>> userHeaders = (Map<String, List<String>>) request.invocationProperties.get(MessageContext.HTTP_REQUEST_HEADERS);
+        boolean addUserAgent = true;
+        if (userHeaders != null) {
+            // userHeaders may not be modifiable like SingletonMap, just copy them
+            reqHeaders.putAll(userHeaders);
+            // application wants to use its own User-Agent header
+            if (userHeaders.get("User-Agent") != null) {
+                addUserAgent = false;
+            }
+        }
+        if (addUserAgent) {
+            reqHeaders.put("User-Agent", USER_AGENT);
+        }
+
+        addBasicAuth(request, reqHeaders);
+        addCookies(request, reqHeaders);
+        return reqHeaders;
+    }
+
+    /*
+     * Sets Content-Type, Accept and SOAPAction headers for the encoded message.
+     */
+    /*package*/ void addContentTypeHeaders(Map<String, List<String>> reqHeaders, ContentType ct) {
+        reqHeaders.put("Content-Type", Collections.singletonList(ct.getContentType()));
+        if (ct.getAcceptHeader() != null) {
+            reqHeaders.put("Accept", Collections.singletonList(ct.getAcceptHeader()));
+        }
+        if (binding instanceof SOAPBinding) {
+            writeSOAPAction(reqHeaders, ct.getSOAPActionHeader());
+        }
+    }
+
+    /*package*/ Packet createResponsePacket(Packet request, HttpClientTransport con) throws IOException {
         con.readResponseCodeAndMessage();   // throws IOE
         recordCookies(request, con);
 
@@ -428,13 +452,25 @@ public class HttpTransportPipe extends AbstractTubeImpl {
         // nothing to do. Intentionally left empty.
     }
 
+    /**
+     * The tube itself keeps nothing from one request to the next, but the codec
+     * may have been left in the middle of an encode or decode by the exception.
+     * It is replaced with a fresh {@link Codec#copy() copy}, the same thing
+     * {@link #copy(TubeCloner)} would do.
+     */
+    @Override
+    public boolean reset() {
+        codec = codec.copy();
+        return true;
+    }
+
     @Override
     public HttpTransportPipe copy(TubeCloner cloner) {
         return new HttpTransportPipe(this,cloner);
     }
 
 
-    private void dump(ByteArrayBuffer buf, String caption, Map<String, List<String>> headers) throws IOException {
+    /*package*/ void dump(ByteArrayBuffer buf, String caption, Map<String, List<String>> headers) throws IOException {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         PrintWriter pw = new PrintWriter(baos, true);
         pw.println("---["+caption +"]---");
@@ -0,0 +1,216 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http.client;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import com.sun.xml.ws.api.EndpointAddress;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.client.BindingProviderProperties;
+import com.sun.xml.ws.client.ClientTransportException;
+import com.sun.xml.ws.developer.JAXWSProperties;
+import com.sun.xml.ws.resources.ClientMessages;
+import com.sun.xml.ws.transport.Headers;
+import com.sun.xml.ws.util.ByteArrayBuffer;
+import com.sun.xml.ws.util.SegmentedBuffer;
+
+import javax.xml.ws.handler.MessageContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.CompletionHandler;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * {@link HttpClientTransport} whose exchange runs without blocking the calling thread.
+ *
+ * <p>
+ * {@link #send} starts the exchange and returns immediately; the given
+ * {@link CompletionHandler} is notified from an I/O completion thread
+ * once the whole response has been received. The response is then available
+ * through the regular {@link HttpClientTransport} accessors, so that
+ * {@link HttpTransportPipe} can build the response {@link Packet} from it.
+ *
+ * <p>
+ * Subclasses implement the wire protocol and fill {@link #statusCode},
+ * {@link #statusMessage}, {@link #contentLength}, {@link #respHeaders}
+ * and {@link #body}.
+ *
+ * <p>
+ * The request entity is a {@link SegmentedBuffer} whose segments are written
+ * to the socket as they are. It is released once the exchange is over and
+ * no write that refers to it is pending anymore; writers hold on to it with
+ * {@link #retainEntity()} and {@link #releaseEntity()}.
+ */
+abstract class NonBlockingClientTransport extends HttpClientTransport {
+
+    final EndpointAddress endpoint;
+    final Map<String, List<String>> reqHeaders;
+    final String method;
+    final long readTimeout;
+    final long connectTimeout;
+
+    final Headers respHeaders = new Headers();
+    final ByteArrayBuffer body = new ByteArrayBuffer();
+
+    private SegmentedBuffer entity;
+    // one for the exchange, plus one per pending write of the entity
+    private final AtomicInteger entityRefs = new AtomicInteger(1);
+    private CompletionHandler<NonBlockingClientTransport, Packet> handler;
+    private Packet request;
+
+    NonBlockingClientTransport(@NotNull Packet packet, @NotNull Map<String, List<String>> reqHeaders) {
+        super(packet, reqHeaders);
+        this.endpoint = packet.endpointAddress;
+        this.reqHeaders = reqHeaders;
+        String requestMethod = (String) packet.invocationProperties.get(MessageContext.HTTP_REQUEST_METHOD);
+        this.method = (requestMethod != null) ? requestMethod : "POST";
+        Integer reqTimeout = (Integer) packet.invocationProperties.get(BindingProviderProperties.REQUEST_TIMEOUT);
+        this.readTimeout = (reqTimeout != null) ? reqTimeout : 0;
+        Integer conTimeout = (Integer) packet.invocationProperties.get(JAXWSProperties.CONNECT_TIMEOUT);
+        this.connectTimeout = (conTimeout != null) ? conTimeout : 0;
+    }
+
+    /**
+     * Starts the exchange. The handler is invoked exactly once, either with
+     * this transport once the response is complete, or with the failure.
+     *
+     * @param entity request entity, ignored for methods that don't send one.
+     *      This transport releases it.
+     */
+    final void send(@NotNull SegmentedBuffer entity, @NotNull Packet request,
+                    @NotNull CompletionHandler<NonBlockingClientTransport, Packet> handler) {
+        this.entity = entity;
+        this.request = request;
+        this.handler = handler;
+        start();
+    }
+
+    /**
+     * Sends the request. Calls {@link #notifyCompleted()} or {@link #notifyFailed(Throwable)}
+     * when done.
+     */
+    abstract void start();
+
+    final SegmentedBuffer getEntity() {
+        return entity;
+    }
+
+    /**
+     * Number of bytes of the request entity to send.
+     */
+    final int getEntityLength() {
+        return requiresEntity() ? entity.size() : 0;
+    }
+
+    /**
+     * Called before a write that refers to the request entity.
+     */
+    final void retainEntity() {
+        entityRefs.incrementAndGet();
+    }
+
+    /**
+     * Called when a write that refers to the request entity is done or failed.
+     */
+    final void releaseEntity() {
+        if (entityRefs.decrementAndGet() == 0) {
+            entity.release();
+        }
+    }
+
+    final void notifyCompleted() {
+        releaseEntity();
+        handler.completed(this, request);
+    }
+
+    final void notifyFailed(Throwable exc) {
+        releaseEntity();
+        handler.failed(new ClientTransportException(ClientMessages.localizableHTTP_CLIENT_FAILED(exc), exc), request);
+    }
+
+    final boolean requiresEntity() {
+        return !(method.equalsIgnoreCase("GET") ||
+                method.equalsIgnoreCase("HEAD") ||
+                method.equalsIgnoreCase("DELETE"));
+    }
+
+    @Override
+    public Map<String, List<String>> getHeaders() {
+        return respHeaders;
+    }
+
+    @Override
+    protected void readResponseCodeAndMessage() {
+        // already parsed when the response was received
+    }
+
+    @Override
+    protected @Nullable InputStream readResponse() {
+        return body.newInputStream();
+    }
+
+    @Override
+    @Nullable InputStream getInput() {
+        InputStream in = readResponse();
+        String contentEncoding = respHeaders.getFirst("Content-Encoding");
+        if (contentEncoding != null && contentEncoding.contains("gzip")) {
+            try {
+                in = new GZIPInputStream(in);
+            } catch (IOException e) {
+                throw new ClientTransportException(ClientMessages.localizableHTTP_STATUS_CODE(statusCode, statusMessage), e);
+            }
+        }
+        return in;
+    }
+
+    @Override
+    @Nullable String getContentType() {
+        return respHeaders.getFirst("Content-Type");
+    }
+
+    @Override
+    public int getContentLength() {
+        return contentLength;
+    }
+}
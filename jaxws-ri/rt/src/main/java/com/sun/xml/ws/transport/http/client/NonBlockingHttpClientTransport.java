@@ -0,0 +1,389 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http.client;
+
+import com.sun.istack.NotNull;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.util.ByteArrayBuffer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.InterruptedByTimeoutException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link NonBlockingClientTransport} that exchanges one HTTP/1.1 request/response
+ * over a pooled {@link AsynchronousSocketChannel}.
+ *
+ * <p>
+ * The connection is borrowed from a {@link HttpConnectionPool} and given back
+ * for reuse once the response has been read, unless the server asked to close
+ * it. If a reused connection turns out to be closed by the server before any
+ * part of the response was received, the request is sent once more over a new
+ * connection. A request that timed out is never sent again.
+ */
+final class NonBlockingHttpClientTransport extends NonBlockingClientTransport {
+
+    private static final String CRLF = "\r\n";
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    private static final int STATE_HEAD = 0;
+    private static final int STATE_BODY = 1;
+    private static final int STATE_BODY_TO_EOF = 2;
+    private static final int STATE_CHUNK_SIZE = 3;
+    private static final int STATE_CHUNK_DATA = 4;
+    private static final int STATE_CHUNK_END = 5;
+    private static final int STATE_TRAILER = 6;
+    private static final int STATE_DONE = 7;
+
+    private final HttpConnectionPool pool;
+
+    private HttpConnectionPool.Connection connection;
+    private InetSocketAddress address;
+    private byte[] requestHead;
+    private boolean retried;
+
+    // response parsing state
+    private int state = STATE_HEAD;
+    private final ByteArrayBuffer line = new ByteArrayBuffer(256);
+    private ByteArrayBuffer head = new ByteArrayBuffer(512);
+    private boolean received;
+    private boolean keepAlive;
+    private long remaining;
+
+    NonBlockingHttpClientTransport(@NotNull Packet packet, @NotNull Map<String, List<String>> reqHeaders,
+                                   @NotNull HttpConnectionPool pool) {
+        super(packet, reqHeaders);
+        this.pool = pool;
+    }
+
+    @Override
+    void start() {
+        try {
+            URL url = endpoint.getURL();
+            int port = (url.getPort() != -1) ? url.getPort() : url.getDefaultPort();
+            address = new InetSocketAddress(url.getHost(), port);
+            requestHead = createRequestHead(url, getEntityLength()).getBytes("ISO-8859-1");
+        } catch (IOException e) {
+            fail(e);
+            return;
+        }
+        connect(false);
+    }
+
+    private void connect(boolean fresh) {
+        pool.borrow(address, connectTimeout, fresh, new CompletionHandler<HttpConnectionPool.Connection, Void>() {
+            public void completed(HttpConnectionPool.Connection result, Void attachment) {
+                connection = result;
+                ByteBuffer[] body = getEntity().getBuffers(0, getEntityLength());
+                ByteBuffer[] out = new ByteBuffer[body.length + 1];
+                out[0] = ByteBuffer.wrap(requestHead);
+                System.arraycopy(body, 0, out, 1, body.length);
+                retainEntity();
+                write(out);
+            }
+
+            public void failed(Throwable exc, Void attachment) {
+                fail(exc);
+            }
+        });
+    }
+
+    private void write(final ByteBuffer[] out) {
+        connection.channel.write(out, 0, out.length, readTimeout, TimeUnit.MILLISECONDS, null, new CompletionHandler<Long, Void>() {
+            public void completed(Long result, Void attachment) {
+                if (out[out.length - 1].hasRemaining()) {
+                    write(out);
+                } else {
+                    releaseEntity();
+                    read(ByteBuffer.allocate(READ_BUFFER_SIZE));
+                }
+            }
+
+            public void failed(Throwable exc, Void attachment) {
+                releaseEntity();
+                failOrRetry(exc);
+            }
+        });
+    }
+
+    private void read(final ByteBuffer in) {
+        in.clear();
+        connection.read(in, readTimeout, new CompletionHandler<Integer, Void>() {
+            public void completed(Integer result, Void attachment) {
+                try {
+                    if (result < 0) {
+                        if (state != STATE_BODY_TO_EOF) {
+                            throw new IOException("Connection closed before the complete HTTP response was received");
+                        }
+                        state = STATE_DONE;
+                        keepAlive = false;
+                    } else {
+                        received = true;
+                        in.flip();
+                        consume(in);
+                    }
+                } catch (IOException e) {
+                    failOrRetry(e);
+                    return;
+                }
+                if (state == STATE_DONE) {
+                    pool.release(connection, keepAlive);
+                    notifyCompleted();
+                } else {
+                    read(in);
+                }
+            }
+
+            public void failed(Throwable exc, Void attachment) {
+                failOrRetry(exc);
+            }
+        });
+    }
+
+    /*
+     * A pooled connection may have been closed by the server while it was idle.
+     * That shows up as an EOF, a reset or a write failure before any response
+     * byte, then it is safe to send the request again over a new connection.
+     * A timeout means the server may still be processing the request, which
+     * must not be sent twice.
+     */
+    private void failOrRetry(Throwable exc) {
+        if (connection.reused && !received && !retried && isConnectionLost(exc)) {
+            retried = true;
+            pool.release(connection, false);
+            connection = null;
+            connect(true);
+        } else {
+            fail(exc);
+        }
+    }
+
+    private static boolean isConnectionLost(Throwable exc) {
+        return exc instanceof IOException
+                && !(exc instanceof InterruptedByTimeoutException)
+                && !(exc instanceof SocketTimeoutException);
+    }
+
+    private void fail(Throwable exc) {
+        if (connection != null) {
+            pool.release(connection, false);
+            connection = null;
+        }
+        notifyFailed(exc);
+    }
+
+    private String createRequestHead(URL url, int contentLength) {
+        StringBuilder sb = new StringBuilder(256);
+        String file = url.getFile();
+        sb.append(method).append(' ').append(file.length() == 0 ? "/" : file).append(" HTTP/1.1").append(CRLF);
+        sb.append("Host: ").append(url.getHost());
+        if (url.getPort() != -1) {
+            sb.append(':').append(url.getPort());
+        }
+        sb.append(CRLF);
+        for (Map.Entry<String, List<String>> entry : reqHeaders.entrySet()) {
+            String name = entry.getKey();
+            if ("Content-Length".equalsIgnoreCase(name) || "Host".equalsIgnoreCase(name)
+                    || "Connection".equalsIgnoreCase(name) || "Transfer-Encoding".equalsIgnoreCase(name)) {
+                continue;
+            }
+            for (String value : entry.getValue()) {
+                sb.append(name).append(": ").append(value).append(CRLF);
+            }
+        }
+        if (requiresEntity()) {
+            sb.append("Content-Length: ").append(contentLength).append(CRLF);
+        }
+        sb.append(CRLF);
+        return sb.toString();
+    }
+
+    /*
+     * Feeds the received bytes to the response parser.
+     */
+    private void consume(ByteBuffer in) throws IOException {
+        while (in.hasRemaining() && state != STATE_DONE) {
+            switch (state) {
+                case STATE_HEAD:
+                    head.write(in.get());
+                    if (endsWithEmptyLine(head)) {
+                        parseHead();
+                    }
+                    break;
+                case STATE_BODY:
+                case STATE_CHUNK_DATA:
+                    int n = (int) Math.min(remaining, in.remaining());
+                    body.write(in.array(), in.arrayOffset() + in.position(), n);
+                    in.position(in.position() + n);
+                    remaining -= n;
+                    if (remaining == 0) {
+                        state = (state == STATE_BODY) ? STATE_DONE : STATE_CHUNK_END;
+                    }
+                    break;
+                case STATE_BODY_TO_EOF:
+                    int len = in.remaining();
+                    body.write(in.array(), in.arrayOffset() + in.position(), len);
+                    in.position(in.position() + len);
+                    break;
+                case STATE_CHUNK_SIZE:
+                    if (readLine(in)) {
+                        String size = lineAsString().trim();
+                        int ext = size.indexOf(';');
+                        if (ext != -1) {
+                            size = size.substring(0, ext).trim();
+                        }
+                        try {
+                            remaining = Long.parseLong(size, 16);
+                        } catch (NumberFormatException e) {
+                            throw new IOException("Invalid chunk size: " + size);
+                        }
+                        state = (remaining == 0) ? STATE_TRAILER : STATE_CHUNK_DATA;
+                        line.reset();
+                    }
+                    break;
+                case STATE_CHUNK_END:
+                    if (readLine(in)) {
+                        state = STATE_CHUNK_SIZE;
+                        line.reset();
+                    }
+                    break;
+                case STATE_TRAILER:
+                    if (readLine(in)) {
+                        if (lineAsString().trim().length() == 0) {
+                            state = STATE_DONE;
+                        }
+                        line.reset();
+                    }
+                    break;
+                default:
+                    throw new AssertionError(state);
+            }
+        }
+    }
+
+    private boolean readLine(ByteBuffer in) {
+        while (in.hasRemaining()) {
+            byte b = in.get();
+            if (b == '\n') {
+                return true;
+            }
+            line.write(b);
+        }
+        return false;
+    }
+
+    private String lineAsString() throws IOException {
+        return new String(line.getRawData(), 0, line.size(), "ISO-8859-1");
+    }
+
+    private static boolean endsWithEmptyLine(ByteArrayBuffer buf) {
+        int size = buf.size();
+        byte[] data = buf.getRawData();
+        return size >= 4 && data[size - 4] == '\r' && data[size - 3] == '\n'
+                && data[size - 2] == '\r' && data[size - 1] == '\n';
+    }
+
+    private void parseHead() throws IOException {
+        String[] lines = new String(head.getRawData(), 0, head.size(), "ISO-8859-1").split(CRLF);
+        String statusLine = lines[0];
+        int sp1 = statusLine.indexOf(' ');
+        if (!statusLine.startsWith("HTTP/") || sp1 == -1) {
+            throw new IOException("Invalid HTTP status line: " + statusLine);
+        }
+        int sp2 = statusLine.indexOf(' ', sp1 + 1);
+        try {
+            statusCode = Integer.parseInt(statusLine.substring(sp1 + 1, (sp2 == -1) ? statusLine.length() : sp2).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid HTTP status line: " + statusLine);
+        }
+        statusMessage = (sp2 == -1) ? "" : statusLine.substring(sp2 + 1);
+
+        if (statusCode >= 100 && statusCode < 200) {
+            // interim response such as 100-continue, the real one follows
+            head = new ByteArrayBuffer(512);
+            return;
+        }
+
+        for (int i = 1; i < lines.length; i++) {
+            int colon = lines[i].indexOf(':');
+            if (colon > 0) {
+                respHeaders.add(lines[i].substring(0, colon).trim(), lines[i].substring(colon + 1).trim());
+            }
+        }
+
+        String connectionHeader = respHeaders.getFirst("Connection");
+        if (statusLine.startsWith("HTTP/1.0")) {
+            keepAlive = connectionHeader != null && connectionHeader.toLowerCase().contains("keep-alive");
+        } else {
+            keepAlive = connectionHeader == null || !connectionHeader.toLowerCase().contains("close");
+        }
+
+        contentLength = -1;
+        String te = respHeaders.getFirst("Transfer-Encoding");
+        String cl = respHeaders.getFirst("Content-Length");
+        if (method.equalsIgnoreCase("HEAD") || statusCode == 204 || statusCode == 304) {
+            contentLength = 0;
+            state = STATE_DONE;
+        } else if (te != null && te.toLowerCase().contains("chunked")) {
+            state = STATE_CHUNK_SIZE;
+        } else if (cl != null) {
+            try {
+                remaining = Long.parseLong(cl.trim());
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid Content-Length: " + cl);
+            }
+            contentLength = (int) remaining;
+            state = (remaining == 0) ? STATE_DONE : STATE_BODY;
+        } else {
+            // the body is delimited by the end of the connection
+            state = STATE_BODY_TO_EOF;
+            keepAlive = false;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http.client;
+
+import com.sun.istack.NotNull;
+import com.sun.xml.ws.api.WSBinding;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.Codec;
+import com.sun.xml.ws.api.pipe.ContentType;
+import com.sun.xml.ws.api.pipe.Fiber;
+import com.sun.xml.ws.api.pipe.NextAction;
+import com.sun.xml.ws.api.pipe.TubeCloner;
+import com.sun.xml.ws.developer.NonBlockingHttpTransportFeature;
+import com.sun.xml.ws.util.ByteArrayBuffer;
+import com.sun.xml.ws.util.SegmentedBuffer;
+
+import javax.xml.ws.WebServiceException;
+import java.nio.channels.CompletionHandler;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * {@link HttpTransportPipe} that doesn't block the {@link Fiber} while
+ * waiting on the network.
+ *
+ * <p>
+ * The request is encoded into a {@link SegmentedBuffer}, whose off-heap
+ * segments are written with asynchronous gathering writes, and the
+ * fiber is suspended. The fiber is resumed from the I/O completion with
+ * the decoded response (or the transport failure), so no thread is held
+ * for the duration of the round trip. Connections come from the
+ * {@link HttpConnectionPool} of the feature, which all copies of this tube share.
+ * The tubeline retains the pool, and disposes it when the proxy is closed.
+ *
+ * <p>
+ * This tube is used instead of {@link HttpTransportPipe} for {@code http}
+ * endpoint addresses when {@link NonBlockingHttpTransportFeature} is enabled.
+ * {@link #process(Packet)} keeps the blocking behavior of the super class.
+ */
+public class NonBlockingHttpTransportTube extends HttpTransportPipe {
+
+    private final HttpConnectionPool pool;
+    // only the tube the copies are made from gives the pool back
+    private final boolean master;
+
+    public NonBlockingHttpTransportTube(Codec codec, WSBinding binding) {
+        this(codec, binding, createPool(binding));
+    }
+
+    /*package*/ NonBlockingHttpTransportTube(Codec codec, WSBinding binding, HttpConnectionPool pool) {
+        super(codec, binding);
+        this.pool = pool;
+        this.master = true;
+        if (pool != null) {
+            pool.retain();
+        }
+    }
+
+    private static HttpConnectionPool createPool(WSBinding binding) {
+        NonBlockingHttpTransportFeature feature = binding.getFeature(NonBlockingHttpTransportFeature.class);
+        return (feature != null) ? feature.getConnectionPool() : new HttpConnectionPool();
+    }
+
+    /*
+     * Copy constructor for {@link Tube#copy(TubeCloner)}.
+     */
+    /*package*/ NonBlockingHttpTransportTube(NonBlockingHttpTransportTube that, TubeCloner cloner) {
+        super(that, cloner);
+        this.pool = that.pool;
+        this.master = false;
+    }
+
+    @Override
+    public NextAction processRequest(@NotNull final Packet request) {
+        final NonBlockingClientTransport con;
+        final SegmentedBuffer entity = new SegmentedBuffer();
+        try {
+            Map<String, List<String>> reqHeaders = createRequestHeaders(request);
+            con = createTransport(request, reqHeaders);
+            request.addSatellite(new HttpResponseProperties(con));
+
+            ContentType ct;
+            List<String> contentEncoding = reqHeaders.get("Content-Encoding");
+            if (contentEncoding != null && contentEncoding.get(0).contains("gzip")) {
+                GZIPOutputStream gzip = new GZIPOutputStream(entity);
+                ct = codec.encode(request, gzip);
+                gzip.close();
+            } else {
+                ct = codec.encode(request, entity);
+            }
+            addContentTypeHeaders(reqHeaders, ct);
+
+            if (dump || LOGGER.isLoggable(Level.FINER)) {
+                ByteArrayBuffer copy = new ByteArrayBuffer();
+                entity.writeTo(copy);
+                dump(copy, "HTTP request - "+request.endpointAddress, reqHeaders);
+            }
+        } catch(WebServiceException wex) {
+            entity.release();
+            throw wex;
+        } catch(Exception ex) {
+            entity.release();
+            throw new WebServiceException(ex);
+        }
+
+        final Fiber fiber = Fiber.current();
+        return doSuspend(new Runnable() {
+            public void run() {
+                con.send(entity, request, new ResponseHandler(fiber));
+            }
+        });
+    }
+
+    /**
+     * Creates the transport for one exchange.
+     */
+    NonBlockingClientTransport createTransport(Packet request, Map<String, List<String>> reqHeaders) {
+        return new NonBlockingHttpClientTransport(request, reqHeaders, pool);
+    }
+
+    @Override
+    public NonBlockingHttpTransportTube copy(TubeCloner cloner) {
+        return new NonBlockingHttpTransportTube(this, cloner);
+    }
+
+    @Override
+    public void preDestroy() {
+        if (master && pool != null) {
+            pool.dispose();
+        }
+    }
+
+    /**
+     * Decodes the response and resumes the suspended {@link Fiber}.
+     */
+    private final class ResponseHandler implements CompletionHandler<NonBlockingClientTransport, Packet> {
+        private final Fiber fiber;
+
+        ResponseHandler(Fiber fiber) {
+            this.fiber = fiber;
+        }
+
+        public void completed(NonBlockingClientTransport con, Packet request) {
+            Packet reply;
+            try {
+                reply = createResponsePacket(request, con);
+            } catch (WebServiceException wex) {
+                fiber.resume(wex, request);
+                return;
+            } catch (Exception ex) {
+                fiber.resume(new WebServiceException(ex), request);
+                return;
+            }
+            fiber.resume(reply);
+        }
+
+        public void failed(Throwable exc, Packet request) {
+            fiber.resume(exc instanceof WebServiceException ? exc : new WebServiceException(exc), request);
+        }
+    }
+}
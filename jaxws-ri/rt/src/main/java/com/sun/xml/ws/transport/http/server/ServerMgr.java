@@ -42,6 +42,7 @@ package com.sun.xml.ws.transport.http.server;
 
 import com.sun.net.httpserver.HttpContext;
 import com.sun.net.httpserver.HttpServer;
+import com.sun.xml.ws.api.pipe.Engine;
 import com.sun.xml.ws.server.ServerRtException;
 
 import java.net.InetSocketAddress;
@@ -114,7 +115,8 @@ final class ServerMgr {
                         logger.fine("Creating new HTTP Server at "+inetAddress);
                         // Creates server with default socket backlog
                         server = HttpServer.create(inetAddress, 0);
-                        server.setExecutor(Executors.newCachedThreadPool());
+                        ExecutorService executor = Engine.createVirtualThreadExecutor("jaxws-http-server-");
+                        server.setExecutor(executor != null ? executor : Executors.newCachedThreadPool());
                         String path = url.toURI().getPath();
                         logger.fine("Creating HTTP Context at = "+path);
                         HttpContext context = server.createContext(path);
@@ -42,11 +42,23 @@ package com.sun.xml.ws.util;
 
 import com.sun.xml.ws.api.pipe.Tube;
 import com.sun.xml.ws.api.pipe.TubeCloner;
+import org.glassfish.gmbal.Description;
+import org.glassfish.gmbal.ManagedAttribute;
+import org.glassfish.gmbal.ManagedData;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * General-purpose object pool.
@@ -56,16 +68,102 @@ import java.lang.ref.WeakReference;
  * are expensive to create (such as JAXB objects, StAX parsers, {@link Tube} instances.)
  *
  * <p>
- * This class provides a default implementation of such a pool.
+ * This class provides a default implementation of such a pool. It is lock-free:
+ * an object recycled by a thread is first kept in a slot picked by the identity
+ * of that thread, so that the next {@link #take()} on the same thread usually
+ * gets it back without touching any shared structure. Objects that don't fit in
+ * their slot go to one of several stripes, and a thread whose slot and stripe
+ * are empty steals from the other stripes before creating a new object.
  *
- * TODO: improve the implementation
+ * <p>
+ * The number of idle objects is bounded by {@link #getMaxSize()}; objects
+ * recycled beyond that are dropped. Objects that stay idle longer than the
+ * idle timeout are trimmed as the pool is used. Both limits are set with the
+ * {@code com.sun.xml.ws.util.Pool.maxSize} and
+ * {@code com.sun.xml.ws.util.Pool.idleTimeout} (milliseconds, 0 to never trim)
+ * system properties.
  *
  * @author Kohsuke Kawaguchi
  */
 public abstract class Pool<T> {
 
-    // volatile since multiple threads may access queue reference
-    private volatile WeakReference<ConcurrentLinkedQueue<T>> queue;
+    private static final Logger LOGGER = Logger.getLogger(Pool.class.getName());
+
+    private static final int SLOTS;
+    private static final int STRIPES;
+    private static int DEFAULT_MAX_SIZE = Integer.MAX_VALUE;
+    private static long IDLE_TIMEOUT = TimeUnit.MINUTES.toNanos(5);
+
+    static {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        STRIPES = powerOfTwo(cpus);
+        SLOTS = powerOfTwo(cpus * 4);
+        try {
+            DEFAULT_MAX_SIZE = Integer.getInteger(Pool.class.getName() + ".maxSize", DEFAULT_MAX_SIZE);
+            if (DEFAULT_MAX_SIZE <= 0) {
+                DEFAULT_MAX_SIZE = Integer.MAX_VALUE;
+            }
+            IDLE_TIMEOUT = TimeUnit.MILLISECONDS.toNanos(
+                    Long.getLong(Pool.class.getName() + ".idleTimeout", TimeUnit.NANOSECONDS.toMillis(IDLE_TIMEOUT)));
+        } catch (SecurityException se) {
+            if (LOGGER.isLoggable(Level.CONFIG)) {
+                LOGGER.log(Level.CONFIG, "Cannot read ''{0}'' or ''{1}'' property, using defaults.",
+                        new Object[] {Pool.class.getName() + ".maxSize", Pool.class.getName() + ".idleTimeout"});
+            }
+        }
+    }
+
+    private static int powerOfTwo(int n) {
+        int p = 1;
+        while (p < n && p < 256) {
+            p <<= 1;
+        }
+        return p;
+    }
+
+    /**
+     * An idle object, with the time it was recycled.
+     */
+    private static final class Entry<T> {
+        final T value;
+        final long idleSince;
+
+        Entry(T value, long idleSince) {
+            this.value = value;
+            this.idleSince = idleSince;
+        }
+    }
+
+    /**
+     * Idle objects. Referenced weakly, so that the garbage collector may
+     * reclaim all of them when memory is scarce.
+     */
+    private static final class Storage<T> {
+        final AtomicReferenceArray<Entry<T>> slots = new AtomicReferenceArray<Entry<T>>(SLOTS);
+        // most recently recycled objects are at the head
+        final List<ConcurrentLinkedDeque<Entry<T>>> stripes = new ArrayList<ConcurrentLinkedDeque<Entry<T>>>(STRIPES);
+
+        Storage() {
+            for (int i = 0; i < STRIPES; i++) {
+                stripes.add(new ConcurrentLinkedDeque<Entry<T>>());
+            }
+        }
+    }
+
+    // volatile since multiple threads may access storage reference
+    private volatile WeakReference<Storage<T>> storage;
+
+    private volatile int maxSize = DEFAULT_MAX_SIZE;
+    private final AtomicInteger idle = new AtomicInteger();
+    private final AtomicLong nextTrim = new AtomicLong(System.nanoTime() + IDLE_TIMEOUT);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+    private final LongAdder trimmed = new LongAdder();
+
+    private final Statistics statistics = new Statistics(this);
 
     /**
      * Gets a new object from the pool.
@@ -77,32 +175,100 @@ public abstract class Pool<T> {
      *      always non-null.
      */
     public final T take() {
-        T t = getQueue().poll();
-        if(t==null)
-            return create();
+        Storage<T> s = getStorage();
+        int index = index();
+
+        Entry<T> e = s.slots.get(index & (SLOTS - 1));
+        if (e == null || !s.slots.compareAndSet(index & (SLOTS - 1), e, null)) {
+            e = null;
+            int stripe = index & (STRIPES - 1);
+            for (int i = 0; e == null && i < STRIPES; i++) {
+                e = s.stripes.get((stripe + i) & (STRIPES - 1)).pollFirst();
+            }
+        }
+
+        if (e != null) {
+            idle.decrementAndGet();
+            hits.increment();
+            return e.value;
+        }
+
+        misses.increment();
+        T t = create();
+        created.increment();
         return t;
     }
 
-    private ConcurrentLinkedQueue<T> getQueue() {
-        WeakReference<ConcurrentLinkedQueue<T>> q = queue;
-        if (q != null) {
-            ConcurrentLinkedQueue<T> d = q.get();
-            if (d != null)
-                return d;
+    private Storage<T> getStorage() {
+        WeakReference<Storage<T>> r = storage;
+        if (r != null) {
+            Storage<T> s = r.get();
+            if (s != null)
+                return s;
         }
 
-        // overwrite the queue
-        ConcurrentLinkedQueue<T> d = new ConcurrentLinkedQueue<T>();
-        queue = new WeakReference<ConcurrentLinkedQueue<T>>(d);
+        // overwrite the storage; whatever was idle in the old one is gone
+        Storage<T> s = new Storage<T>();
+        storage = new WeakReference<Storage<T>>(s);
+        idle.set(0);
+
+        return s;
+    }
 
-        return d;
+    private static int index() {
+        long id = Thread.currentThread().getId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return h ^ (h >>> 16);
     }
 
     /**
      * Returns an object back to the pool.
      */
     public final void recycle(T t) {
-        getQueue().offer(t);
+        Storage<T> s = getStorage();
+        long now = System.nanoTime();
+
+        if (idle.incrementAndGet() > maxSize) {
+            idle.decrementAndGet();
+            discarded.increment();
+            discard(t);
+        } else {
+            Entry<T> e = new Entry<T>(t, now);
+            int index = index();
+            if (!s.slots.compareAndSet(index & (SLOTS - 1), null, e)) {
+                s.stripes.get(index & (STRIPES - 1)).offerFirst(e);
+            }
+        }
+
+        long next = nextTrim.get();
+        if (IDLE_TIMEOUT > 0 && now - next >= 0 && nextTrim.compareAndSet(next, now + IDLE_TIMEOUT / 2)) {
+            trim(s, now);
+        }
+    }
+
+    /**
+     * Drops the objects that have been idle longer than the idle timeout.
+     */
+    private void trim(Storage<T> s, long now) {
+        for (int i = 0; i < SLOTS; i++) {
+            Entry<T> e = s.slots.get(i);
+            if (e != null && now - e.idleSince > IDLE_TIMEOUT && s.slots.compareAndSet(i, e, null)) {
+                idle.decrementAndGet();
+                trimmed.increment();
+                discard(e.value);
+            }
+        }
+        for (ConcurrentLinkedDeque<Entry<T>> stripe : s.stripes) {
+            // the least recently recycled objects are at the tail
+            Entry<T> e;
+            while ((e = stripe.peekLast()) != null && now - e.idleSince > IDLE_TIMEOUT) {
+                if (stripe.removeLastOccurrence(e)) {
+                    idle.decrementAndGet();
+                    trimmed.increment();
+                    discard(e.value);
+                }
+            }
+        }
     }
 
     /**
@@ -118,6 +284,105 @@ public abstract class Pool<T> {
      */
     protected abstract T create();
 
+    /**
+     * Called with an object that the pool drops, either because it was
+     * recycled while the pool was full or because it stayed idle longer
+     * than the idle timeout. Idle objects reclaimed by the garbage collector
+     * are not passed to this method.
+     *
+     * <p>
+     * The default implementation does nothing.
+     */
+    protected void discard(T t) {
+    }
+
+    /**
+     * Gets the maximum number of idle objects this pool keeps.
+     */
+    public final int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Sets the maximum number of idle objects this pool keeps.
+     * Objects recycled while the pool is full are dropped.
+     *
+     * @param maxSize
+     *      the new limit, or a value less than 1 for no limit.
+     */
+    public final void setMaxSize(int maxSize) {
+        this.maxSize = maxSize > 0 ? maxSize : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Gets the live statistics of this pool.
+     */
+    public final Statistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Usage counters of a {@link Pool}, exposed through the managed object
+     * of the endpoint or client the pool belongs to.
+     */
+    @ManagedData
+    @Description("Object pool statistics")
+    public static final class Statistics {
+
+        private final Pool<?> pool;
+
+        private Statistics(Pool<?> pool) {
+            this.pool = pool;
+        }
+
+        @ManagedAttribute
+        @Description("Number of take requests served by an idle object")
+        public long getHits() {
+            return pool.hits.sum();
+        }
+
+        @ManagedAttribute
+        @Description("Number of take requests that found the pool empty")
+        public long getMisses() {
+            return pool.misses.sum();
+        }
+
+        @ManagedAttribute
+        @Description("Number of objects created by the pool")
+        public long getCreated() {
+            return pool.created.sum();
+        }
+
+        @ManagedAttribute
+        @Description("Number of recycled objects dropped because the pool was full")
+        public long getDiscarded() {
+            return pool.discarded.sum();
+        }
+
+        @ManagedAttribute
+        @Description("Number of idle objects dropped after the idle timeout")
+        public long getTrimmed() {
+            return pool.trimmed.sum();
+        }
+
+        @ManagedAttribute
+        @Description("Number of idle objects in the pool")
+        public int getIdle() {
+            return pool.idle.get();
+        }
+
+        @ManagedAttribute
+        @Description("Maximum number of idle objects in the pool")
+        public int getMaxSize() {
+            return pool.maxSize;
+        }
+
+        @Override
+        public String toString() {
+            return "hits=" + getHits() + ", misses=" + getMisses() + ", created=" + getCreated()
+                    + ", discarded=" + getDiscarded() + ", trimmed=" + getTrimmed() + ", idle=" + getIdle();
+        }
+    }
 
     /**
      * JAXB {@link javax.xml.bind.Marshaller} pool.
@@ -166,9 +431,24 @@ public abstract class Pool<T> {
      */
     public static final class TubePool extends Pool<Tube> {
         private final Tube master;
+        private final boolean destroyCopies;
 
         public TubePool(Tube master) {
+            this(master, false);
+        }
+
+        /**
+         * @param destroyCopies
+         *      true to call {@link Tube#preDestroy()} on the copies that the
+         *      pool drops. This is only safe for tubelines whose copies don't
+         *      release what they share with the master, like the client ones.
+         *      The copies of a server tubeline share its
+         *      {@link com.sun.xml.ws.server.InvokerTube}, which disposes the
+         *      service instances.
+         */
+        public TubePool(Tube master, boolean destroyCopies) {
             this.master = master;
+            this.destroyCopies = destroyCopies;
             recycle(master);    // we'll use master as a part of the pool, too.
         }
 
@@ -176,6 +456,14 @@ public abstract class Pool<T> {
         protected Tube create() {
             return TubeCloner.clone(master);
         }
+
+        @Override
+        protected void discard(Tube tube) {
+            // the master is destroyed by the owner of the pool
+            if (destroyCopies && tube != master) {
+                tube.preDestroy();
+            }
+        }
         
         /**
          *
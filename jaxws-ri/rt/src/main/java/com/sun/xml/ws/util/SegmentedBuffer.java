@@ -0,0 +1,232 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Write buffer that stores a sequence of bytes in fixed size, off-heap segments.
+ *
+ * <p>
+ * Unlike {@link ByteArrayBuffer}, this buffer never reallocates and copies
+ * what was already written, and it doesn't need a contiguous heap array as
+ * large as the whole content. This makes it suitable for buffering large
+ * messages (MTOM/SwA attachments) just to learn their length. The segments
+ * can be handed to a gathering write with {@link #getBuffers()} or copied
+ * to an {@link OutputStream} with {@link #writeTo(OutputStream)}.
+ *
+ * <p>
+ * The segments are direct {@link ByteBuffer}s taken from a process wide pool.
+ * {@link #release()} gives them back once the content has been written;
+ * the buffer can't be used after that. At most
+ * {@code com.sun.xml.ws.util.SegmentedBuffer.poolSize} direct segments
+ * (256 by default) are ever allocated, all of which fit in the pool. When
+ * they are all in use, for example by many concurrent large messages, the
+ * buffer continues with heap segments, which are left to the garbage
+ * collector instead of exhausting the direct memory.
+ */
+public final class SegmentedBuffer extends OutputStream {
+
+    private static final Logger LOGGER = Logger.getLogger(SegmentedBuffer.class.getName());
+
+    /**
+     * Size of a segment, in bytes.
+     */
+    public static final int SEGMENT_SIZE = 32 * 1024;
+
+    /*package*/ static final int POOL_SIZE;
+    private static final ConcurrentLinkedQueue<ByteBuffer> POOL = new ConcurrentLinkedQueue<ByteBuffer>();
+    /**
+     * Number of direct segments allocated so far, never more than {@link #POOL_SIZE}.
+     */
+    private static final AtomicInteger direct = new AtomicInteger();
+
+    private final List<ByteBuffer> segments = new ArrayList<ByteBuffer>();
+    private ByteBuffer current;
+    private int count;
+    private boolean released;
+
+    /**
+     * Appends the given bytes to this buffer.
+     */
+    @Override
+    public void write(byte[] b, int off, int len) {
+        while (len > 0) {
+            ByteBuffer segment = segmentWithRoom();
+            int n = Math.min(len, segment.remaining());
+            segment.put(b, off, n);
+            off += n;
+            len -= n;
+            count += n;
+        }
+    }
+
+    @Override
+    public void write(int b) {
+        segmentWithRoom().put((byte) b);
+        count++;
+    }
+
+    private ByteBuffer segmentWithRoom() {
+        if (released) {
+            throw new IllegalStateException("SegmentedBuffer is released");
+        }
+        if (current == null || !current.hasRemaining()) {
+            current = take();
+            segments.add(current);
+        }
+        return current;
+    }
+
+    /**
+     * Gets the number of bytes written so far.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns the content as read-only buffers, ready for a gathering write.
+     * Each call returns new buffers positioned at the beginning of the content.
+     */
+    public ByteBuffer[] getBuffers() {
+        return getBuffers(0, count);
+    }
+
+    /**
+     * Returns a range of the content as read-only buffers.
+     *
+     * @param off offset of the first byte of the range
+     * @param len number of bytes in the range
+     */
+    public ByteBuffer[] getBuffers(int off, int len) {
+        if (off < 0 || len < 0 || off + len > count) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return new ByteBuffer[0];
+        }
+        int first = off / SEGMENT_SIZE;
+        int last = (off + len - 1) / SEGMENT_SIZE;
+        ByteBuffer[] buffers = new ByteBuffer[last - first + 1];
+        for (int i = first; i <= last; i++) {
+            ByteBuffer b = segments.get(i).asReadOnlyBuffer();
+            int start = (i == first) ? off - i * SEGMENT_SIZE : 0;
+            int end = (i == last) ? off + len - i * SEGMENT_SIZE : SEGMENT_SIZE;
+            b.limit(end).position(start);
+            buffers[i - first] = b;
+        }
+        return buffers;
+    }
+
+    /**
+     * Writes the whole content to the given {@link OutputStream}.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        if (count == 0) {
+            return;
+        }
+        byte[] chunk = new byte[Math.min(count, SEGMENT_SIZE)];
+        for (ByteBuffer b : getBuffers()) {
+            while (b.hasRemaining()) {
+                int n = Math.min(b.remaining(), chunk.length);
+                b.get(chunk, 0, n);
+                out.write(chunk, 0, n);
+            }
+        }
+    }
+
+    /**
+     * Gives the segments back to the pool. Does nothing if already released.
+     */
+    public void release() {
+        if (released) {
+            return;
+        }
+        released = true;
+        for (ByteBuffer segment : segments) {
+            recycle(segment);
+        }
+        segments.clear();
+        current = null;
+    }
+
+    private static ByteBuffer take() {
+        ByteBuffer b = POOL.poll();
+        if (b != null) {
+            b.clear();
+            return b;
+        }
+        if (direct.incrementAndGet() <= POOL_SIZE) {
+            return ByteBuffer.allocateDirect(SEGMENT_SIZE);
+        }
+        direct.decrementAndGet();
+        return ByteBuffer.allocate(SEGMENT_SIZE);
+    }
+
+    private static void recycle(ByteBuffer b) {
+        // there is always room for the direct segments, heap ones are just dropped
+        if (b.isDirect()) {
+            POOL.offer(b);
+        }
+    }
+
+    static {
+        int size = 256;
+        try {
+            size = Integer.getInteger(SegmentedBuffer.class.getName() + ".poolSize", size);
+        } catch (SecurityException se) {
+            if (LOGGER.isLoggable(Level.CONFIG)) {
+                LOGGER.log(Level.CONFIG, "Cannot read ''{0}'' property, using defaults.",
+                        new Object[] {SegmentedBuffer.class.getName() + ".poolSize"});
+            }
+        }
+        POOL_SIZE = size;
+    }
+}
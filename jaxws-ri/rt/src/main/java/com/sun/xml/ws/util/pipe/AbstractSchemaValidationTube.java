@@ -73,6 +73,7 @@ import javax.xml.transform.TransformerException;
 import javax.xml.transform.dom.DOMResult;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
 import javax.xml.ws.WebServiceException;
@@ -121,6 +122,50 @@ public abstract class AbstractSchemaValidationTube extends AbstractFilterTubeImp
 
     protected abstract boolean isNoValidation();
 
+    /**
+     * Gets the schema the messages are validated against.
+     *
+     * @return null if messages are not validated as they are read
+     */
+    protected @Nullable Schema getSchema() {
+        return null;
+    }
+
+    /**
+     * Compiles the schema of the given metadata documents, or gets the one
+     * that was already compiled for the same documents.
+     *
+     * @return null if the documents don't have any schema
+     */
+    protected @Nullable Schema createSchema(Iterable<SDDocument> docs, MetadataResolverImpl mdresolver) {
+        String key = SchemaCache.isEnabled() ? SchemaCache.key(docs, resolver) : null;
+        if (key != null) {
+            Schema schema = SchemaCache.get(key);
+            if (schema != null) {
+                LOGGER.fine("Using the cached validation schema");
+                return schema;
+            }
+        }
+        Source[] sources = getSchemaSources(docs, mdresolver);
+        for(Source source : sources) {
+            LOGGER.fine("Constructing validation schema from = "+source.getSystemId());
+        }
+        if (sources.length == 0) {
+            return null;
+        }
+        Schema schema;
+        sf.setResourceResolver(mdresolver);
+        try {
+            schema = sf.newSchema(sources);
+        } catch(SAXException e) {
+            throw new WebServiceException(e);
+        }
+        if (key != null) {
+            SchemaCache.put(key, schema);
+        }
+        return schema;
+    }
+
     private static class ValidationDocumentAddressResolver implements DocumentAddressResolver {
 
         @Nullable
@@ -557,15 +602,7 @@ public abstract class AbstractSchemaValidationTube extends AbstractFilterTubeImp
 
     protected void doProcess(Packet packet) throws SAXException {
         getValidator().reset();
-        Class<? extends ValidationErrorHandler> handlerClass = feature.getErrorHandler();
-        ValidationErrorHandler handler;
-        try {
-            handler = handlerClass.newInstance();
-        } catch(Exception e) {
-            throw new WebServiceException(e);
-        }
-        handler.setPacket(packet);
-        getValidator().setErrorHandler(handler);
+        getValidator().setErrorHandler(createErrorHandler(packet));
         Message msg = packet.getMessage().copy();
         Source source = msg.readPayloadAsSource();
         try {
@@ -577,6 +614,43 @@ public abstract class AbstractSchemaValidationTube extends AbstractFilterTubeImp
         }
     }
 
+    /**
+     * Validates an inbound message. With {@link SchemaValidationFeature#isStreaming()},
+     * the payload is validated later, in the same pass that reads it, and the
+     * error is then given by {@link #getStreamingValidationError(Message)}.
+     */
+    protected void doProcessInbound(Packet packet) throws SAXException {
+        Schema schema = getSchema();
+        if (!feature.isStreaming() || schema == null) {
+            doProcess(packet);
+            return;
+        }
+        packet.setMessage(new StreamingValidationMessage(packet.getMessage(), schema, createErrorHandler(packet)));
+    }
+
+    /**
+     * Gets the first validation error of an inbound message that was validated
+     * as it was read.
+     *
+     * @return null if the message is valid, or if it isn't validated as it is read
+     */
+    protected @Nullable SAXException getStreamingValidationError(@Nullable Message message) {
+        return message instanceof StreamingValidationMessage
+                ? ((StreamingValidationMessage) message).getError() : null;
+    }
+
+    private ValidationErrorHandler createErrorHandler(Packet packet) {
+        Class<? extends ValidationErrorHandler> handlerClass = feature.getErrorHandler();
+        ValidationErrorHandler handler;
+        try {
+            handler = handlerClass.newInstance();
+        } catch(Exception e) {
+            throw new WebServiceException(e);
+        }
+        handler.setPacket(packet);
+        return handler;
+    }
+
     private String getTargetNamespace(DOMSource src) {
         Element elem = (Element)src.getNode();
         return elem.getAttribute("targetNamespace");
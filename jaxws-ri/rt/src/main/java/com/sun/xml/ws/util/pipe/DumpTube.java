@@ -157,5 +157,10 @@ public class DumpTube extends AbstractFilterTubeImpl {
         return new DumpTube(this,cloner);
     }
 
+    @Override
+    public boolean reset() {
+        return resetNext();
+    }
+
     private static boolean warnStaxUtils;
 }
@@ -0,0 +1,152 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.util.pipe;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import com.sun.xml.ws.api.server.DocumentAddressResolver;
+import com.sun.xml.ws.api.server.SDDocument;
+import com.sun.xml.ws.util.ByteArrayBuffer;
+
+import javax.xml.validation.Schema;
+import javax.xml.ws.WebServiceException;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Compiled {@link Schema}s shared by the schema validation tubes of the
+ * endpoints and ports that are built from the same metadata documents.
+ *
+ * <p>
+ * A {@link Schema} is looked up by a digest of the location and the content of
+ * all the documents it is compiled from, so endpoints that only share the name
+ * of their WSDL don't share the schema. Schemas are kept in least recently used
+ * order, at most {@code com.sun.xml.ws.util.pipe.SchemaCache.size} of them
+ * (16 by default, 0 disables the cache).
+ *
+ * <p>
+ * {@link Schema} is immutable and thread-safe, so the same instance can be
+ * used by all the tubes.
+ */
+final class SchemaCache {
+
+    private static final Logger LOGGER = Logger.getLogger(SchemaCache.class.getName());
+
+    private static final int MAXIMUM_SIZE = readMaximumSize();
+
+    /**
+     * Guarded by itself.
+     */
+    private static final Map<String, Schema> SCHEMAS = new LinkedHashMap<String, Schema>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Schema> eldest) {
+            return size() > MAXIMUM_SIZE;
+        }
+    };
+
+    private SchemaCache() {}
+
+    static boolean isEnabled() {
+        return MAXIMUM_SIZE > 0;
+    }
+
+    /**
+     * Computes the key of the schema that is compiled from the given documents.
+     */
+    static @NotNull String key(@NotNull Iterable<SDDocument> docs, @NotNull DocumentAddressResolver resolver) {
+        // sorted, the iteration order of the documents isn't specified
+        Map<String, SDDocument> sorted = new TreeMap<String, SDDocument>();
+        for (SDDocument doc : docs) {
+            sorted.put(doc.getURL().toExternalForm(), doc);
+        }
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+        for (Map.Entry<String, SDDocument> e : sorted.entrySet()) {
+            ByteArrayBuffer bab = new ByteArrayBuffer();
+            try {
+                e.getValue().writeTo(null, resolver, bab);
+            } catch (IOException ioe) {
+                throw new WebServiceException(ioe);
+            }
+            md.update(e.getKey().getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+            md.update(bab.getRawData(), 0, bab.size());
+            md.update((byte) 0);
+        }
+        return new BigInteger(1, md.digest()).toString(16);
+    }
+
+    static @Nullable Schema get(@NotNull String key) {
+        synchronized (SCHEMAS) {
+            return SCHEMAS.get(key);
+        }
+    }
+
+    static void put(@NotNull String key, @NotNull Schema schema) {
+        synchronized (SCHEMAS) {
+            SCHEMAS.put(key, schema);
+        }
+    }
+
+    private static int readMaximumSize() {
+        try {
+            return Integer.getInteger(SchemaCache.class.getName() + ".size", 16);
+        } catch (SecurityException se) {
+            if (LOGGER.isLoggable(Level.CONFIG)) {
+                LOGGER.log(Level.CONFIG, "Cannot read ''{0}'' property, using defaults.",
+                        new Object[] {SchemaCache.class.getName() + ".size"});
+            }
+            return 16;
+        }
+    }
+}
@@ -0,0 +1,451 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.util.pipe;
+
+import com.sun.istack.Nullable;
+import com.sun.xml.bind.api.Bridge;
+import com.sun.xml.ws.api.message.FilterMessageImpl;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.streaming.XMLStreamReaderFactory;
+import com.sun.xml.ws.developer.ValidationErrorHandler;
+import com.sun.xml.ws.message.AttachmentUnmarshallerImpl;
+import com.sun.xml.ws.spi.db.XMLBridge;
+import com.sun.xml.ws.streaming.XMLStreamReaderUtil;
+import com.sun.xml.ws.util.xml.XMLStreamReaderFilter;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.NamespaceSupport;
+
+import javax.xml.XMLConstants;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.soap.SOAPException;
+import javax.xml.soap.SOAPMessage;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.Source;
+import javax.xml.validation.Schema;
+import javax.xml.validation.Validator;
+import javax.xml.validation.ValidatorHandler;
+import javax.xml.ws.WebServiceException;
+import java.io.IOException;
+import java.util.Enumeration;
+
+/**
+ * {@link Message} whose payload is validated in the same pass that reads it.
+ *
+ * <p>
+ * {@link #readPayload()} and {@code readPayloadAsJAXB} hand out a reader that
+ * feeds every event of the payload to a {@link ValidatorHandler}, so the payload
+ * is neither copied nor parsed twice. The first validation error is reported,
+ * as an {@link XMLStreamException}, when the end of the payload is read.
+ *
+ * <p>
+ * The other ways of reading the message need the whole message, so they
+ * validate a copy of it first, as {@link AbstractSchemaValidationTube} does
+ * without streaming.
+ *
+ * <p>
+ * The validator only learns the namespace declarations of the payload, and
+ * the ones of the envelope that are used by the names and {@code xsi:type}s
+ * of the payload. A QName in the text of an element whose prefix is declared
+ * outside of the payload isn't resolved.
+ */
+final class StreamingValidationMessage extends FilterMessageImpl {
+
+    private final Message delegate;
+    private final Schema schema;
+    private final ValidationErrorHandler errorHandler;
+
+    /**
+     * True once the payload is handed out or validated.
+     */
+    private boolean validated;
+
+    private volatile SAXException error;
+
+    StreamingValidationMessage(Message delegate, Schema schema, ValidationErrorHandler errorHandler) {
+        super(delegate);
+        this.delegate = delegate;
+        this.schema = schema;
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * Gets the first validation error of the payload, if it was read.
+     */
+    @Nullable SAXException getError() {
+        return error;
+    }
+
+    @Override
+    public XMLStreamReader readPayload() throws XMLStreamException {
+        XMLStreamReader reader = delegate.readPayload();
+        if (reader == null || validated) {
+            return reader;
+        }
+        validated = true;
+        return new ValidatingReader(reader);
+    }
+
+    @Override
+    public <T> T readPayloadAsJAXB(Unmarshaller unmarshaller) throws JAXBException {
+        if (!hasPayload()) {
+            return null;
+        }
+        XMLStreamReader reader = readPayloadForJAXB();
+        if (hasAttachments()) {
+            unmarshaller.setAttachmentUnmarshaller(new AttachmentUnmarshallerImpl(getAttachments()));
+        }
+        try {
+            return (T) unmarshaller.unmarshal(reader);
+        } finally {
+            unmarshaller.setAttachmentUnmarshaller(null);
+            close(reader);
+        }
+    }
+
+    /** @deprecated */
+    @Override
+    public <T> T readPayloadAsJAXB(Bridge<T> bridge) throws JAXBException {
+        if (!hasPayload()) {
+            return null;
+        }
+        XMLStreamReader reader = readPayloadForJAXB();
+        T r = bridge.unmarshal(reader,
+            hasAttachments() ? new AttachmentUnmarshallerImpl(getAttachments()) : null);
+        close(reader);
+        return r;
+    }
+
+    @Override
+    public <T> T readPayloadAsJAXB(XMLBridge<T> bridge) throws JAXBException {
+        if (!hasPayload()) {
+            return null;
+        }
+        XMLStreamReader reader = readPayloadForJAXB();
+        T r = bridge.unmarshal(reader,
+            hasAttachments() ? new AttachmentUnmarshallerImpl(getAttachments()) : null);
+        close(reader);
+        return r;
+    }
+
+    @Override
+    public Source readEnvelopeAsSource() {
+        validateCopy();
+        return super.readEnvelopeAsSource();
+    }
+
+    @Override
+    public Source readPayloadAsSource() {
+        validateCopy();
+        return super.readPayloadAsSource();
+    }
+
+    @Override
+    public SOAPMessage readAsSOAPMessage() throws SOAPException {
+        validateCopy();
+        return super.readAsSOAPMessage();
+    }
+
+    @Override
+    public SOAPMessage readAsSOAPMessage(Packet packet, boolean inbound) throws SOAPException {
+        validateCopy();
+        return super.readAsSOAPMessage(packet, inbound);
+    }
+
+    @Override
+    public void writePayloadTo(XMLStreamWriter sw) throws XMLStreamException {
+        validateCopy();
+        super.writePayloadTo(sw);
+    }
+
+    @Override
+    public void writeTo(XMLStreamWriter sw) throws XMLStreamException {
+        validateCopy();
+        super.writeTo(sw);
+    }
+
+    @Override
+    public void writeTo(ContentHandler contentHandler, ErrorHandler errorHandler) throws SAXException {
+        validateCopy();
+        super.writeTo(contentHandler, errorHandler);
+    }
+
+    @Override
+    public Message copy() {
+        validateCopy();
+        return super.copy();
+    }
+
+    private XMLStreamReader readPayloadForJAXB() {
+        try {
+            return readPayload();
+        } catch (XMLStreamException e) {
+            throw new WebServiceException(e);
+        }
+    }
+
+    private static void close(XMLStreamReader reader) {
+        XMLStreamReaderUtil.readRest(reader);
+        XMLStreamReaderUtil.close(reader);
+        XMLStreamReaderFactory.recycle(reader);
+    }
+
+    /**
+     * Validates the payload from a copy of the message, when the message is
+     * read in a way that can't be validated as a stream.
+     */
+    private void validateCopy() {
+        if (validated || !hasPayload()) {
+            return;
+        }
+        validated = true;
+        Validator validator = schema.newValidator();
+        validator.setErrorHandler(errorHandler);
+        try {
+            validator.validate(delegate.copy().readPayloadAsSource());
+        } catch (SAXException e) {
+            error = e;
+            throw new WebServiceException(e);
+        } catch (IOException e) {
+            throw new WebServiceException(e);
+        }
+    }
+
+    /**
+     * Passes the events of the payload to a {@link ValidatorHandler} as they are read.
+     */
+    private final class ValidatingReader extends XMLStreamReaderFilter {
+
+        private final ValidatorHandler handler;
+        private final NamespaceSupport namespaces = new NamespaceSupport();
+        private final AttributesImpl attributes = new AttributesImpl();
+
+        private int depth;
+        private boolean failed;
+        private boolean finished;
+
+        ValidatingReader(XMLStreamReader reader) throws XMLStreamException {
+            super(reader);
+            handler = schema.newValidatorHandler();
+            handler.setErrorHandler(errorHandler);
+            try {
+                handler.startDocument();
+            } catch (SAXException e) {
+                fail(e);
+            }
+            if (reader.getEventType() == XMLStreamConstants.START_ELEMENT) {
+                validate(XMLStreamConstants.START_ELEMENT);
+            }
+        }
+
+        @Override
+        public int next() throws XMLStreamException {
+            int event = reader.next();
+            validate(event);
+            return event;
+        }
+
+        @Override
+        public int nextTag() throws XMLStreamException {
+            int event = next();
+            while ((event == XMLStreamConstants.CHARACTERS && isWhiteSpace())
+                    || (event == XMLStreamConstants.CDATA && isWhiteSpace())
+                    || event == XMLStreamConstants.SPACE
+                    || event == XMLStreamConstants.PROCESSING_INSTRUCTION
+                    || event == XMLStreamConstants.COMMENT) {
+                event = next();
+            }
+            if (event != XMLStreamConstants.START_ELEMENT && event != XMLStreamConstants.END_ELEMENT) {
+                throw new XMLStreamException("expected start or end tag", getLocation());
+            }
+            return event;
+        }
+
+        @Override
+        public String getElementText() throws XMLStreamException {
+            if (getEventType() != XMLStreamConstants.START_ELEMENT) {
+                throw new XMLStreamException("parser must be on START_ELEMENT to read next text", getLocation());
+            }
+            StringBuilder text = new StringBuilder();
+            int event = next();
+            while (event != XMLStreamConstants.END_ELEMENT) {
+                if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                        || event == XMLStreamConstants.SPACE || event == XMLStreamConstants.ENTITY_REFERENCE) {
+                    text.append(getText());
+                } else if (event != XMLStreamConstants.PROCESSING_INSTRUCTION && event != XMLStreamConstants.COMMENT) {
+                    throw new XMLStreamException("element text content may not contain START_ELEMENT", getLocation());
+                }
+                event = next();
+            }
+            return text.toString();
+        }
+
+        private void validate(int event) throws XMLStreamException {
+            if (finished) {
+                return;
+            }
+            try {
+                switch (event) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        depth++;
+                        if (!failed) {
+                            startElement();
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        // before the handler, which throws on an invalid payload
+                        finished = --depth == 0;
+                        if (!failed) {
+                            endElement();
+                            if (finished) {
+                                handler.endDocument();
+                            }
+                        }
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                        if (depth > 0 && !failed) {
+                            handler.characters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        }
+                        break;
+                    case XMLStreamConstants.SPACE:
+                        if (depth > 0 && !failed) {
+                            handler.ignorableWhitespace(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        }
+                        break;
+                    case XMLStreamConstants.ENTITY_REFERENCE:
+                        if (depth > 0 && !failed) {
+                            String text = reader.getText();
+                            handler.characters(text.toCharArray(), 0, text.length());
+                        }
+                        break;
+                    case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                        if (depth > 0 && !failed) {
+                            handler.processingInstruction(reader.getPITarget(), fixNull(reader.getPIData()));
+                        }
+                        break;
+                    case XMLStreamConstants.END_DOCUMENT:
+                        finished = true;
+                        break;
+                    default:
+                        break;
+                }
+            } catch (SAXException e) {
+                fail(e);
+            }
+            if (finished && error != null) {
+                throw new XMLStreamException(error.getMessage(), error);
+            }
+        }
+
+        private void fail(SAXException e) {
+            failed = true;
+            if (error == null) {
+                error = e;
+            }
+        }
+
+        private void startElement() throws SAXException {
+            namespaces.pushContext();
+            for (int i = 0; i < reader.getNamespaceCount(); i++) {
+                namespaces.declarePrefix(fixNull(reader.getNamespacePrefix(i)), fixNull(reader.getNamespaceURI(i)));
+            }
+            // prefixes of the payload that are declared on the envelope or the body
+            declareInScope(reader.getPrefix());
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                declareInScope(reader.getAttributePrefix(i));
+            }
+            String type = reader.getAttributeValue(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "type");
+            if (type != null) {
+                int colon = type.indexOf(':');
+                declareInScope(colon < 0 ? "" : type.substring(0, colon).trim());
+            }
+            for (Enumeration<?> e = namespaces.getDeclaredPrefixes(); e.hasMoreElements();) {
+                String prefix = (String) e.nextElement();
+                handler.startPrefixMapping(prefix, fixNull(namespaces.getURI(prefix)));
+            }
+
+            attributes.clear();
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                String localName = reader.getAttributeLocalName(i);
+                attributes.addAttribute(fixNull(reader.getAttributeNamespace(i)), localName,
+                        qname(reader.getAttributePrefix(i), localName), "CDATA", reader.getAttributeValue(i));
+            }
+            handler.startElement(fixNull(reader.getNamespaceURI()), reader.getLocalName(),
+                    qname(reader.getPrefix(), reader.getLocalName()), attributes);
+        }
+
+        private void endElement() throws SAXException {
+            handler.endElement(fixNull(reader.getNamespaceURI()), reader.getLocalName(),
+                    qname(reader.getPrefix(), reader.getLocalName()));
+            for (Enumeration<?> e = namespaces.getDeclaredPrefixes(); e.hasMoreElements();) {
+                handler.endPrefixMapping((String) e.nextElement());
+            }
+            namespaces.popContext();
+        }
+
+        private void declareInScope(String prefix) {
+            prefix = fixNull(prefix);
+            if (namespaces.getURI(prefix) != null || prefix.equals("xml") || prefix.equals("xmlns")) {
+                return;
+            }
+            String uri = reader.getNamespaceURI(prefix);
+            if (uri != null && uri.length() > 0) {
+                namespaces.declarePrefix(prefix, uri);
+            }
+        }
+    }
+
+    private static String qname(String prefix, String localName) {
+        return prefix == null || prefix.length() == 0 ? localName : prefix + ':' + localName;
+    }
+
+    private static String fixNull(String s) {
+        return s == null ? "" : s;
+    }
+}
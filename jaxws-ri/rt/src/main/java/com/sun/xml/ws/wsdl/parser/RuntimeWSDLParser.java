@@ -91,6 +91,7 @@ import com.sun.xml.ws.util.xml.XmlUtil;
 import com.sun.xml.ws.policy.jaxws.PolicyWSDLParserExtension;
 
 import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
 import javax.jws.soap.SOAPBinding.Style;
@@ -410,7 +411,58 @@ public class RuntimeWSDLParser {
         return parser;
     }
 
-    private boolean isKnownReadableSource(Source wsdlSource) {
+    /**
+     * Opens the WSDL document that {@link #parse(URL, Source, EntityResolver, boolean, Container, Class, WSDLParserExtension...)}
+     * reads, looking it up the same way: through the entity resolver first,
+     * then from the given {@link Source}, and last from the location, with the
+     * {@link WSDLLocator} of the container as a fallback. Lets callers read the
+     * very bytes the parser would read, for instance to tell whether the
+     * document changed.
+     *
+     * @return null if the document is given as a {@link Source} that can't be
+     *      read as a stream, or if there is nothing to read it from.
+     */
+    public static @Nullable InputStream openWSDL(@Nullable URL wsdlLoc, @NotNull Source wsdlSource,
+                                                 @NotNull EntityResolver resolver, Class serviceClass) throws IOException, SAXException {
+        String systemId = wsdlSource.getSystemId();
+        InputStream stream = openResolved(resolver, systemId);
+        if (stream == null && wsdlLoc != null) {
+            String exForm = wsdlLoc.toExternalForm();
+            stream = openResolved(resolver, exForm);
+
+            if (stream == null && serviceClass != null) {
+                URL ru = serviceClass.getResource(".");
+                if (ru != null) {
+                    String ruExForm = ru.toExternalForm();
+                    if (exForm.startsWith(ruExForm)) {
+                        stream = openResolved(resolver, exForm.substring(ruExForm.length()));
+                    }
+                }
+            }
+        }
+        if (stream == null) {
+            if (wsdlSource instanceof StreamSource && ((StreamSource) wsdlSource).getInputStream() != null) {
+                stream = ((StreamSource) wsdlSource).getInputStream();
+            } else if (!isKnownReadableSource(wsdlSource) && wsdlLoc != null) {
+                stream = open(wsdlLoc, serviceClass).getByteStream();
+            }
+        }
+        return stream;
+    }
+
+    /**
+     * Opens the document the entity resolver maps the system ID to, as
+     * {@link EntityResolverWrapper} does.
+     */
+    private static InputStream openResolved(EntityResolver resolver, String systemId) throws IOException, SAXException {
+        InputSource source = resolver.resolveEntity(null, systemId);
+        if (source == null) {
+            return null;
+        }
+        return new URL(source.getSystemId() != null ? source.getSystemId() : systemId).openStream();
+    }
+
+    private static boolean isKnownReadableSource(Source wsdlSource) {
 		if (wsdlSource instanceof StreamSource) {
 			return (((StreamSource) wsdlSource).getInputStream() != null ||
 					((StreamSource) wsdlSource).getReader() != null);
@@ -994,6 +1046,18 @@ public class RuntimeWSDLParser {
      * to parse a WSDL file.
      */
     private static XMLStreamReader createReader(URL wsdlLoc, Class<Service> serviceClass) throws IOException, XMLStreamException {
+        InputSource source = open(wsdlLoc, serviceClass);
+        InputStream stream = source.getByteStream();
+        return new TidyXMLStreamReader(XMLStreamReaderFactory.create(source.getSystemId(), stream, false), stream);
+    }
+
+    /**
+     * Opens the WSDL document at the given location, falling back to the
+     * {@link WSDLLocator} of the container when it can't be read from there.
+     *
+     * @return the stream of the document, with the location it was read from.
+     */
+    private static InputSource open(URL wsdlLoc, Class<Service> serviceClass) throws IOException {
         InputStream stream;
         try {
         	stream = wsdlLoc.openStream();
@@ -1035,7 +1099,9 @@ public class RuntimeWSDLParser {
         	} while(true);
         }
         
-        return new TidyXMLStreamReader(XMLStreamReaderFactory.create(wsdlLoc.toExternalForm(), stream, false), stream);
+        InputSource source = new InputSource(wsdlLoc.toExternalForm());
+        source.setByteStream(stream);
+        return source;
     }
 
     private void register(WSDLParserExtension e) {
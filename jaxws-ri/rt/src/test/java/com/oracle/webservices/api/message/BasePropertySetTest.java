@@ -0,0 +1,200 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.oracle.webservices.api.message;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+public class BasePropertySetTest extends TestCase {
+
+    static final String FIELD = "test.field";
+    static final String COUNT = "test.count";
+    static final String READ_ONLY = "test.readOnly";
+    static final String FAILING = "test.failing";
+
+    public void testAccessors() {
+        Props props = new Props();
+        assertNull(props.get(FIELD));
+        props.put(FIELD, "value");
+        assertEquals("value", props.field);
+        assertEquals("value", props.get(FIELD));
+
+        assertEquals(0, props.get(COUNT));
+        props.put(COUNT, 5);
+        assertEquals(5, props.count);
+        assertEquals(5, props.get(COUNT));
+
+        assertEquals("constant", props.get(READ_ONLY));
+        try {
+            props.put(READ_ONLY, "other");
+            fail();
+        } catch (ReadOnlyPropertyException e) {
+            // expected
+        }
+    }
+
+    public void testIncompatibleValue() {
+        Props props = new Props();
+        try {
+            props.put(FIELD, 1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            props.put(COUNT, null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testExceptionFromGetter() {
+        try {
+            new FailingProps().get(FAILING);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            assertEquals("failing", e.getMessage());
+        }
+    }
+
+    public void testMapViewIsLive() {
+        Props props = new Props();
+        Map<String, Object> map = props.asMap();
+        assertEquals(3, map.size());
+        assertTrue(map.containsKey(FIELD));
+        assertNull(map.get(FIELD));
+
+        props.field = "set directly";
+        assertEquals("set directly", map.get(FIELD));
+        assertEquals(Integer.valueOf(0), map.put(COUNT, 7));
+        assertEquals(7, props.count);
+
+        Map<String, Object> copy = new HashMap<String, Object>();
+        for (Map.Entry<String, Object> e : map.entrySet()) {
+            copy.put(e.getKey(), e.getValue());
+        }
+        assertEquals("set directly", copy.get(FIELD));
+        assertEquals(7, copy.get(COUNT));
+        assertEquals(3, copy.size());
+
+        assertEquals("set directly", map.remove(FIELD));
+        assertNull(props.field);
+        assertFalse(map.containsKey(FIELD));
+        assertEquals(2, map.size());
+        map.put(FIELD, "back");
+        assertTrue(map.containsKey(FIELD));
+        assertEquals("back", props.field);
+
+        try {
+            map.put("unknown", "value");
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    public void testExtensibleMapView() {
+        Props props = new Props() {
+            @Override
+            protected boolean mapAllowsAdditionalProperties() {
+                return true;
+            }
+        };
+        Map<String, Object> map = props.asMap();
+        map.put("unknown", "value");
+        assertEquals("value", map.get("unknown"));
+        assertEquals(4, map.size());
+
+        for (Iterator<String> it = map.keySet().iterator(); it.hasNext();) {
+            if ("unknown".equals(it.next())) {
+                it.remove();
+            }
+        }
+        assertFalse(map.containsKey("unknown"));
+        assertEquals(3, map.size());
+    }
+
+    static class Props extends BasePropertySet {
+        private static final PropertyMap model = parse(Props.class);
+
+        @Property(FIELD)
+        String field;
+
+        int count;
+
+        @Property(COUNT)
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        @Property(READ_ONLY)
+        public String getReadOnly() {
+            return "constant";
+        }
+
+        @Override
+        protected PropertyMap getPropertyMap() {
+            return model;
+        }
+    }
+
+    static class FailingProps extends BasePropertySet {
+        private static final PropertyMap model = parse(FailingProps.class);
+
+        @Property(FAILING)
+        public String getFailing() {
+            throw new UnsupportedOperationException("failing");
+        }
+
+        @Override
+        protected PropertyMap getPropertyMap() {
+            return model;
+        }
+    }
+}
@@ -41,6 +41,7 @@
 package com.sun.xml.ws.api.message;
 
 import java.io.ByteArrayInputStream;
+import java.util.Iterator;
 import java.util.Set;
 
 import javax.xml.namespace.QName;
@@ -50,6 +51,8 @@ import javax.xml.transform.Source;
 import javax.xml.transform.stream.StreamSource;
 
 import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.addressing.AddressingVersion;
+import com.sun.xml.ws.message.StringHeader;
 import com.sun.xml.ws.message.saaj.SAAJMessage;
 
 import junit.framework.TestCase;
@@ -181,6 +184,71 @@ public class HeaderListTest extends TestCase {
         assertTrue(understood.contains(actionQName));
         assertTrue(understood.contains(msgIdQName));
     }
+    public void testIndexedLookupAfterModifications() throws Exception {
+        for (int i = 0; i < 30; i++) {
+            testInstance.add(Headers.create(new QName(TEST_NS, "" + i), "" + i));
+        }
+        // same local name in another namespace
+        testInstance.add(Headers.create(new QName("urn:other", "5"), "other"));
+
+        assertEquals("5", testInstance.get(TEST_NS, "5", false).getStringContent());
+        assertEquals("other", testInstance.get("urn:other", "5", false).getStringContent());
+        assertNull(testInstance.get(TEST_NS, "30", false));
+
+        // appended after the index was built
+        testInstance.add(Headers.create(new QName(TEST_NS, "30"), "30"));
+        assertEquals("30", testInstance.get(TEST_NS, "30", false).getStringContent());
+
+        // removal shifts the positions of the following headers
+        assertNotNull(testInstance.remove(new QName(TEST_NS, "3")));
+        assertNull(testInstance.get(TEST_NS, "3", false));
+        for (int i = 4; i <= 30; i++) {
+            assertEquals("" + i, testInstance.get(TEST_NS, "" + i, false).getStringContent());
+        }
+
+        testInstance.addOrReplace(Headers.create(new QName(TEST_NS, "10"), "ten"));
+        assertEquals("ten", testInstance.get(TEST_NS, "10", false).getStringContent());
+        testInstance.replace(null, Headers.create(new QName(TEST_NS, "11"), "eleven"));
+        assertEquals("eleven", testInstance.get(TEST_NS, "11", false).getStringContent());
+
+        testInstance.set(0, Headers.create(new QName(TEST_NS, "zero"), "zero"));
+        assertNull(testInstance.get(TEST_NS, "0", false));
+        assertEquals("zero", testInstance.get(TEST_NS, "zero", false).getStringContent());
+
+        testInstance.add(Headers.create(new QName(TEST_NS, "12"), "twelve"));
+        Iterator<Header> twelves = testInstance.getHeaders(TEST_NS, "12", true);
+        assertEquals("12", twelves.next().getStringContent());
+        assertEquals("twelve", twelves.next().getStringContent());
+        assertFalse(twelves.hasNext());
+        assertTrue(testInstance.isUnderstood(TEST_NS, "12"));
+        assertTrue(testInstance.isUnderstood(testInstance.size() - 1));
+    }
+
+    public void testAddressingHeaders() throws Exception {
+        AddressingVersion av = AddressingVersion.W3C;
+        SOAPVersion sv = SOAPVersion.SOAP_11;
+        for (int i = 0; i < 20; i++) {
+            testInstance.add(Headers.create(new QName(TEST_NS, "" + i), "" + i));
+        }
+        assertNull(testInstance.getAction(av, sv));
+        assertEquals(av.anonymousUri, testInstance.getTo(av, sv));
+
+        testInstance.add(new StringHeader(av.actionTag, "urn:action"));
+        testInstance.add(new StringHeader(av.messageIDTag, "uuid:1"));
+        assertEquals("urn:action", testInstance.getAction(av, sv));
+        assertEquals("uuid:1", testInstance.getMessageID(av, sv));
+        assertTrue(testInstance.isUnderstood(av.actionTag));
+        assertNull(testInstance.getMessageID(AddressingVersion.MEMBER, sv));
+
+        testInstance.addOrReplace(new StringHeader(av.actionTag, "urn:other-action"));
+        assertEquals("urn:other-action", testInstance.getAction(av, sv));
+
+        testInstance.remove(new QName(TEST_NS, "0"));
+        assertEquals("uuid:1", testInstance.getMessageID(av, sv));
+        testInstance.remove(av.messageIDTag);
+        assertNull(testInstance.getMessageID(av, sv));
+    }
+
     private SOAPMessage makeSOAPMessage(String msg) throws Exception {
         MessageFactory factory = MessageFactory.newInstance();
         SOAPMessage message = factory.createMessage();
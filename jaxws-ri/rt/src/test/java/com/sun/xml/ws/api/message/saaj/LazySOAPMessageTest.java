@@ -0,0 +1,110 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.api.message.saaj;
+
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.message.Header;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.Messages;
+
+import javax.xml.namespace.QName;
+import javax.xml.soap.SOAPElement;
+import javax.xml.soap.SOAPHeaderElement;
+import javax.xml.soap.SOAPMessage;
+import javax.xml.transform.stream.StreamSource;
+import java.io.StringReader;
+import java.util.Iterator;
+
+import junit.framework.TestCase;
+
+public class LazySOAPMessageTest extends TestCase {
+
+    private static final String ENVELOPE =
+            "<S:Envelope xmlns:S='http://schemas.xmlsoap.org/soap/envelope/' xmlns:t='urn:test'>" +
+            "<S:Header><t:auth>token</t:auth></S:Header>" +
+            "<S:Body><t:echo><t:value>hello</t:value></t:echo></S:Body></S:Envelope>";
+
+    public void testUnchangedHeaderKeepsMessage() throws Exception {
+        Message msg = create();
+        SOAPMessage saaj = SAAJFactory.readLazily(SOAPVersion.SOAP_11, msg);
+        SOAPHeaderElement auth = (SOAPHeaderElement) saaj.getSOAPHeader().getChildElements().next();
+        assertEquals("token", auth.getTextContent());
+
+        assertSame(msg, SAAJFactory.create(saaj));
+        // the body is still there to be read
+        assertEquals("echo", msg.getPayloadLocalPart());
+        assertNotNull(msg.readPayloadAsSource());
+    }
+
+    public void testChangedHeaderIsWrittenBack() throws Exception {
+        Message msg = create();
+        SOAPMessage saaj = SAAJFactory.readLazily(SOAPVersion.SOAP_11, msg);
+        SOAPHeaderElement auth = (SOAPHeaderElement) saaj.getSOAPHeader().getChildElements().next();
+        auth.setTextContent("changed");
+        saaj.getSOAPHeader().addHeaderElement(new QName("urn:test", "trace", "t")).setTextContent("1");
+
+        assertSame(msg, SAAJFactory.create(saaj));
+        Header header = msg.getHeaders().get("urn:test", "auth", false);
+        assertEquals("changed", header.getStringContent());
+        assertNotNull(msg.getHeaders().get("urn:test", "trace", false));
+    }
+
+    public void testBodyIsReadWhenUsed() throws Exception {
+        Message msg = create();
+        SOAPMessage saaj = SAAJFactory.readLazily(SOAPVersion.SOAP_11, msg);
+        SOAPHeaderElement auth = (SOAPHeaderElement) saaj.getSOAPHeader().getChildElements().next();
+        Iterator<?> it = saaj.getSOAPBody().getChildElements();
+        SOAPElement echo = (SOAPElement) it.next();
+        assertEquals("echo", echo.getLocalName());
+        assertFalse(it.hasNext());
+        // the header that was read first is the one of the whole message
+        assertSame(auth, saaj.getSOAPPart().getEnvelope().getHeader().getChildElements().next());
+
+        Message updated = SAAJFactory.create(saaj);
+        assertNotSame(msg, updated);
+        assertEquals("echo", updated.getPayloadLocalPart());
+        assertNotNull(updated.getHeaders().get("urn:test", "auth", false));
+    }
+
+    private static Message create() {
+        return Messages.create(new StreamSource(new StringReader(ENVELOPE)), SOAPVersion.SOAP_11);
+    }
+}
@@ -42,7 +42,10 @@ package com.sun.xml.ws.api.pipe;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import com.sun.istack.NotNull;
 import com.sun.xml.ws.api.message.Packet;
@@ -141,6 +144,89 @@ public class EngineTest extends TestCase {
         assertEquals(testContainer, firstCall.container);
     }
     
+    public void testDefaultExecutorRunsFibersOnDaemonThreads() throws Exception {
+        if (Boolean.getBoolean(Engine.VIRTUAL_THREADS_PROPERTY)) {
+            return;
+        }
+        Engine e = new Engine("engine1", new Container() {});
+        ThreadRecordingTube tube = new ThreadRecordingTube();
+        LatchCompletionCallback callback = new LatchCompletionCallback();
+
+        e.createFiber().start(tube, new Packet(), callback);
+
+        assertTrue(callback.done.await(10, TimeUnit.SECONDS));
+        assertNull(callback.error);
+        assertTrue(tube.thread.isDaemon());
+        assertTrue(tube.thread.getName(), tube.thread.getName().startsWith("jaxws-engine-"));
+    }
+
+    public void testVirtualThreadModeIsOffByDefault() {
+        if (Boolean.getBoolean(Engine.VIRTUAL_THREADS_PROPERTY)) {
+            return;
+        }
+        assertNull(Engine.createVirtualThreadExecutor("jaxws-test-"));
+    }
+
+    public void testVirtualThreadExecutor() throws Exception {
+        ExecutorService x = ThreadHelper.createVirtualThreadExecutor("jaxws-test-");
+        if (x == null) {
+            // virtual threads newly added in Java SE 21
+            return;
+        }
+        try {
+            Engine e = new Engine("engine1", new Container() {}, x);
+            ThreadRecordingTube tube = new ThreadRecordingTube();
+            LatchCompletionCallback callback = new LatchCompletionCallback();
+
+            e.createFiber().start(tube, new Packet(), callback);
+
+            assertTrue(callback.done.await(10, TimeUnit.SECONDS));
+            assertNull(callback.error);
+            assertTrue(tube.thread.getName(), tube.thread.getName().startsWith("jaxws-test-"));
+            assertEquals(Boolean.TRUE, Thread.class.getMethod("isVirtual").invoke(tube.thread));
+        } finally {
+            x.shutdown();
+        }
+    }
+
+    static class LatchCompletionCallback implements CompletionCallback {
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile Throwable error;
+
+        @Override
+        public void onCompletion(@NotNull Packet response) {
+            done.countDown();
+        }
+
+        @Override
+        public void onCompletion(@NotNull Throwable error) {
+            this.error = error;
+            done.countDown();
+        }
+    }
+
+    static class ThreadRecordingTube extends TestTube {
+        volatile Thread thread;
+
+        ThreadRecordingTube() {}
+
+        ThreadRecordingTube(ThreadRecordingTube that, TubeCloner cloner) {
+            super(that, cloner);
+        }
+
+        @Override
+        @NotNull
+        public NextAction processRequest(@NotNull Packet request) {
+            thread = Thread.currentThread();
+            return super.processRequest(request);
+        }
+
+        @Override
+        public ThreadRecordingTube copy(TubeCloner cloner) {
+            return new ThreadRecordingTube(this, cloner);
+        }
+    }
+
     static class SimpleCompletionCallback implements CompletionCallback {
         public Packet response = null;
         public Throwable error = null;
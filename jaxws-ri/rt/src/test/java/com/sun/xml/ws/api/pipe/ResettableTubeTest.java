@@ -0,0 +1,156 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.api.pipe;
+
+import com.sun.istack.NotNull;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.helper.AbstractFilterTubeImpl;
+import com.sun.xml.ws.api.pipe.helper.AbstractTubeImpl;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the {@link ResettableTube} contract of the tube helpers.
+ */
+public class ResettableTubeTest extends TestCase {
+
+    public void testTubeIsNotResettableByDefault() {
+        assertFalse(new Terminal(false).reset());
+        assertFalse(new Filter(new Terminal(true), false).reset());
+    }
+
+    public void testResetGoesThroughTubeline() {
+        Terminal terminal = new Terminal(true);
+        Filter first = new Filter(new Filter(terminal, true), true);
+        assertTrue(first.reset());
+        assertEquals(1, terminal.resets);
+    }
+
+    public void testTubelineWithUnknownTubeIsNotResettable() {
+        Terminal terminal = new Terminal(true);
+        Filter first = new Filter(new Filter(terminal, false), true);
+        assertFalse(first.reset());
+        assertEquals(0, terminal.resets);
+
+        assertFalse(new Filter(new Terminal(false), true).reset());
+    }
+
+    public void testFilterWithoutNext() {
+        assertTrue(new Filter(null, true).reset());
+    }
+
+    /**
+     * Filter tube that opts in to the reset contract, or not.
+     */
+    private static final class Filter extends AbstractFilterTubeImpl {
+        private final boolean resettable;
+
+        Filter(Tube next, boolean resettable) {
+            super(next);
+            this.resettable = resettable;
+        }
+
+        Filter(Filter that, TubeCloner cloner) {
+            super(that, cloner);
+            this.resettable = that.resettable;
+        }
+
+        @Override
+        public boolean reset() {
+            return resettable ? resetNext() : super.reset();
+        }
+
+        @Override
+        public Filter copy(TubeCloner cloner) {
+            return new Filter(this, cloner);
+        }
+    }
+
+    /**
+     * Last tube of the tubeline.
+     */
+    private static final class Terminal extends AbstractTubeImpl {
+        private final boolean resettable;
+        int resets;
+
+        Terminal(boolean resettable) {
+            this.resettable = resettable;
+        }
+
+        Terminal(Terminal that, TubeCloner cloner) {
+            super(that, cloner);
+            this.resettable = that.resettable;
+        }
+
+        @Override
+        public boolean reset() {
+            resets++;
+            return resettable;
+        }
+
+        @Override
+        @NotNull
+        public NextAction processRequest(@NotNull Packet request) {
+            return doReturnWith(request);
+        }
+
+        @Override
+        @NotNull
+        public NextAction processResponse(@NotNull Packet response) {
+            return doReturnWith(response);
+        }
+
+        @Override
+        @NotNull
+        public NextAction processException(@NotNull Throwable t) {
+            return doThrow(t);
+        }
+
+        @Override
+        public void preDestroy() {
+        }
+
+        @Override
+        public Terminal copy(TubeCloner cloner) {
+            return new Terminal(this, cloner);
+        }
+    }
+}
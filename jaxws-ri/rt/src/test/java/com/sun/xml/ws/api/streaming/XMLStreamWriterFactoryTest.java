@@ -0,0 +1,91 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.api.streaming;
+
+import java.io.ByteArrayOutputStream;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamWriter;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks that the writers recycled by {@link XMLStreamWriterFactory.Zephyr}
+ * write to the stream they are created for next.
+ */
+public class XMLStreamWriterFactoryTest extends TestCase {
+
+    private static final String SOAP_NS = "http://schemas.xmlsoap.org/soap/envelope/";
+    private static final String EXPECTED = "<S:Envelope xmlns:S=\"" + SOAP_NS + "\"><S:Body>"
+            + "<echoResponse xmlns=\"urn:test\"><return>hello</return></echoResponse></S:Body></S:Envelope>";
+
+    public void testRecycledWritersAreRebound() throws Exception {
+        XMLStreamWriterFactory factory = XMLStreamWriterFactory.Zephyr.newInstance(XMLOutputFactory.newInstance());
+        if (factory == null) {
+            // the writers of this StAX implementation aren't accessible, so they aren't reused
+            return;
+        }
+        for (int i = 0; i < 3; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            XMLStreamWriter w = factory.doCreate(out);
+            write(w);
+            factory.doRecycle(w);
+            assertTrue(out.toString("UTF-8"), out.toString("UTF-8").endsWith(EXPECTED));
+        }
+    }
+
+    private static void write(XMLStreamWriter w) throws Exception {
+        w.writeStartDocument();
+        w.writeStartElement("S", "Envelope", SOAP_NS);
+        w.writeNamespace("S", SOAP_NS);
+        w.writeStartElement("S", "Body", SOAP_NS);
+        w.writeStartElement("", "echoResponse", "urn:test");
+        w.writeDefaultNamespace("urn:test");
+        w.writeStartElement("", "return", "urn:test");
+        w.writeCharacters("hello");
+        w.writeEndElement();
+        w.writeEndElement();
+        w.writeEndElement();
+        w.writeEndElement();
+        w.writeEndDocument();
+        w.flush();
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.client;
+
+import com.sun.xml.ws.api.WSService;
+import com.sun.xml.ws.model.SOAPSEIModel;
+import com.sun.xml.ws.util.ByteArrayBuffer;
+
+import junit.framework.TestCase;
+
+import javax.xml.ws.WebServiceFeature;
+import javax.xml.ws.soap.AddressingFeature;
+import java.io.InputStream;
+
+import static com.sun.xml.ws.client.SEIPortInfoTest.PORT_INTERFACE;
+import static com.sun.xml.ws.client.SEIPortInfoTest.PORT_NAME;
+import static com.sun.xml.ws.client.SEIPortInfoTest.SERVICE_NAME;
+import static com.sun.xml.ws.client.SEIPortInfoTest.WSDL_URL;
+
+public class SEIModelCacheTest extends TestCase {
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        WSDLModelCache.getInstance().setMaximumSize(4);
+        SEIModelCache.getInstance().invalidate(PORT_INTERFACE);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        WSDLModelCache.getInstance().setMaximumSize(0);
+        SEIModelCache.getInstance().invalidate(PORT_INTERFACE);
+        super.tearDown();
+    }
+
+    public void testSharedBetweenServices() {
+        SEIModelCache cache = SEIModelCache.getInstance();
+        long hits = cache.getHits();
+        SEIPortInfo first = portInfo(createService());
+        SEIPortInfo second = portInfo(createService());
+        assertSame(first.model, second.model);
+        assertNotSame(first, second);
+        assertEquals(hits + 1, cache.getHits());
+        assertEquals(1, cache.getSize());
+    }
+
+    public void testFeaturesAreCompared() {
+        SEIPortInfo first = portInfo(createService(), new AddressingFeature(true, false));
+        assertSame(first.model, portInfo(createService(), new AddressingFeature(true, false)).model);
+        assertNotSame(first.model, portInfo(createService(), new AddressingFeature(true, true)).model);
+    }
+
+    public void testNotSharedWithoutWSDLModelCache() {
+        WSDLModelCache.getInstance().setMaximumSize(0);
+        long misses = SEIModelCache.getInstance().getMisses();
+        assertNotSame(portInfo(createService()).model, portInfo(createService()).model);
+        assertEquals(misses, SEIModelCache.getInstance().getMisses());
+    }
+
+    public void testSizeCountsTheModelsOfLoadedSEIsOnly() throws Exception {
+        SEIModelCache cache = new SEIModelCache();
+        ClassLoader loader = new ClassLoader(getClass().getClassLoader()) {
+            {
+                String name = Unloadable.class.getName();
+                InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class");
+                ByteArrayBuffer buf = new ByteArrayBuffer();
+                try {
+                    buf.write(in);
+                } finally {
+                    in.close();
+                }
+                defineClass(name, buf.getRawData(), 0, buf.size());
+            }
+        };
+        Class<?> sei = Class.forName(Unloadable.class.getName(), false, loader);
+        assertNotSame(Unloadable.class, sei);
+        for (int i = 0; i < SEIModelCache.MODELS_PER_SEI + 2; i++) {
+            cache.get(true, WSServiceDelegate.class, sei, SERVICE_NAME, PORT_NAME,
+                    null, "port" + i, new WebServiceFeature[0], new SEIModelCache.Builder() {
+                @Override
+                public SOAPSEIModel build() {
+                    return null;
+                }
+            });
+        }
+        assertEquals(SEIModelCache.MODELS_PER_SEI, cache.getSize());
+
+        loader = null;
+        sei = null;
+        for (int i = 0; i < 50 && cache.getSize() > 0; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        assertEquals(0, cache.getSize());
+    }
+
+    public static final class Unloadable {
+    }
+
+    private static WSServiceDelegate createService() {
+        return (WSServiceDelegate) WSService.create(WSDL_URL, SERVICE_NAME);
+    }
+
+    private static SEIPortInfo portInfo(WSServiceDelegate service, WebServiceFeature... features) {
+        service.getPort(PORT_NAME, PORT_INTERFACE, features);
+        return (SEIPortInfo) service.getQNameToPortInfoMap().get(PORT_NAME);
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+
+import com.sun.xml.ws.api.model.wsdl.WSDLModel;
+import com.sun.xml.ws.api.server.Container;
+import com.sun.xml.ws.api.wsdl.parser.WSDLParserExtension;
+
+import junit.framework.TestCase;
+
+public class WSDLModelCacheTest extends TestCase {
+
+    private static final WSDLParserExtension[] NO_EXTENSIONS = new WSDLParserExtension[0];
+
+    private final EntityResolver resolver = new EntityResolver() {
+        @Override
+        public InputSource resolveEntity(String publicId, String systemId) {
+            return null;
+        }
+    };
+
+    private File wsdl;
+    private int parsed;
+    private String lastParsedContent;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        wsdl = File.createTempFile("cache", ".wsdl");
+        write("<definitions/>");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        wsdl.delete();
+        super.tearDown();
+    }
+
+    public void testDisabled() throws Exception {
+        WSDLModelCache cache = new WSDLModelCache(0);
+        assertNotSame(get(cache), get(cache));
+        assertEquals(2, parsed);
+        assertEquals(0, cache.getHits() + cache.getMisses());
+    }
+
+    public void testHit() throws Exception {
+        WSDLModelCache cache = new WSDLModelCache(4);
+        WSDLModel model = get(cache);
+        assertSame(model, get(cache));
+        assertEquals(1, parsed);
+        assertEquals("<definitions/>", lastParsedContent);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    public void testChangedContent() throws Exception {
+        WSDLModelCache cache = new WSDLModelCache(4);
+        WSDLModel model = get(cache);
+        write("<definitions name='changed'/>");
+        assertNotSame(model, get(cache));
+        assertEquals("<definitions name='changed'/>", lastParsedContent);
+        assertEquals(2, cache.getMisses());
+    }
+
+    public void testInvalidate() throws Exception {
+        WSDLModelCache cache = new WSDLModelCache(4);
+        WSDLModel model = get(cache);
+        cache.invalidate(location());
+        assertEquals(0, cache.size());
+        assertNotSame(model, get(cache));
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+
+    public void testEviction() throws Exception {
+        WSDLModelCache cache = new WSDLModelCache(1);
+        get(cache);
+        write("<definitions name='other'/>");
+        get(cache);
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getEvictions());
+
+        cache.setMaximumSize(0);
+        assertFalse(cache.isEnabled());
+        assertEquals(0, cache.size());
+    }
+
+    public void testStreamSource() throws Exception {
+        WSDLModelCache cache = new WSDLModelCache(4);
+        WSDLModel model = cache.get(null, new StreamSource(new ByteArrayInputStream("<definitions/>".getBytes("UTF-8")), "urn:wsdl"),
+                resolver, null, NO_EXTENSIONS, new ClientContainer(), parser());
+        assertEquals("<definitions/>", lastParsedContent);
+        assertSame(model, cache.get(null, new StreamSource(new ByteArrayInputStream("<definitions/>".getBytes("UTF-8")), "urn:wsdl"),
+                resolver, null, NO_EXTENSIONS, new ClientContainer(), parser()));
+        assertEquals(1, parsed);
+    }
+
+    /**
+     * The location is resolved with the catalog, as the parser does.
+     */
+    public void testResolvedLocation() throws Exception {
+        EntityResolver catalog = new EntityResolver() {
+            @Override
+            public InputSource resolveEntity(String publicId, String systemId) throws IOException {
+                return "urn:wsdl".equals(systemId) ? new InputSource(location()) : null;
+            }
+        };
+        WSDLModelCache cache = new WSDLModelCache(4);
+        WSDLModel model = cache.get(null, new StreamSource("urn:wsdl"), catalog, null, NO_EXTENSIONS, new ClientContainer(), parser());
+        assertEquals("<definitions/>", lastParsedContent);
+        assertSame(model, cache.get(null, new StreamSource("urn:wsdl"), catalog, null, NO_EXTENSIONS, new ClientContainer(), parser()));
+
+        write("<definitions name='changed'/>");
+        assertNotSame(model, cache.get(null, new StreamSource("urn:wsdl"), catalog, null, NO_EXTENSIONS, new ClientContainer(), parser()));
+        assertEquals(2, cache.getMisses());
+    }
+
+    /**
+     * The default container of each service doesn't prevent sharing,
+     * a container of its own does.
+     */
+    public void testContainer() throws Exception {
+        WSDLModelCache cache = new WSDLModelCache(4);
+        WSDLModel model = get(cache);
+        assertSame(model, get(cache, new ClientContainer()));
+
+        Container container = new Container() {};
+        WSDLModel own = get(cache, container);
+        assertNotSame(model, own);
+        assertSame(own, get(cache, container));
+        assertNotSame(own, get(cache, new Container() {}));
+        assertEquals(3, parsed);
+    }
+
+    public void testCollectedClassLoaderIsDropped() throws Exception {
+        WSDLModelCache cache = new WSDLModelCache(4);
+        Thread thread = Thread.currentThread();
+        ClassLoader old = thread.getContextClassLoader();
+        thread.setContextClassLoader(new URLClassLoader(new URL[0], old));
+        try {
+            get(cache);
+        } finally {
+            thread.setContextClassLoader(old);
+        }
+        assertEquals(1, cache.size());
+
+        for (int i = 0; i < 100 && cache.size() > 0; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertEquals(0, cache.size());
+    }
+
+    private WSDLModel get(WSDLModelCache cache) throws Exception {
+        return get(cache, new ClientContainer());
+    }
+
+    private WSDLModel get(WSDLModelCache cache, Container container) throws Exception {
+        return cache.get(wsdl.toURI().toURL(), new StreamSource(location()), resolver, null, NO_EXTENSIONS, container, parser());
+    }
+
+    private String location() throws IOException {
+        return wsdl.toURI().toURL().toExternalForm();
+    }
+
+    private WSDLModelCache.Parser parser() {
+        return new WSDLModelCache.Parser() {
+            @Override
+            public WSDLModel parse(Source wsdlSource) throws IOException {
+                parsed++;
+                InputStream in = ((StreamSource) wsdlSource).getInputStream();
+                if (in == null) {
+                    in = new URL(wsdlSource.getSystemId()).openStream();
+                }
+                StringBuilder sb = new StringBuilder();
+                for (int b = in.read(); b != -1; b = in.read()) {
+                    sb.append((char) b);
+                }
+                lastParsedContent = sb.toString();
+                return (WSDLModel) Proxy.newProxyInstance(WSDLModel.class.getClassLoader(), new Class<?>[] {WSDLModel.class},
+                        new InvocationHandler() {
+                            @Override
+                            public Object invoke(Object proxy, Method method, Object[] args) {
+                                if (method.getName().equals("equals")) {
+                                    return proxy == args[0];
+                                }
+                                if (method.getName().equals("hashCode")) {
+                                    return System.identityHashCode(proxy);
+                                }
+                                throw new UnsupportedOperationException();
+                            }
+                        });
+            }
+        };
+    }
+
+    private void write(String content) throws IOException {
+        OutputStream out = new FileOutputStream(wsdl);
+        try {
+            out.write(content.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+    }
+}
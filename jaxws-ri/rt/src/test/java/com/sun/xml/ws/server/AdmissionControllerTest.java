@@ -0,0 +1,175 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.server;
+
+import com.sun.xml.ws.developer.AdmissionControlFeature;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests {@link AdmissionController}.
+ */
+public class AdmissionControllerTest extends TestCase {
+
+    public void testQueuesOverLimitAndRejectsOverQueue() {
+        AdmissionController ac = new AdmissionController(new AdmissionControlFeature(2, 1, 0));
+        List<TestRequest> requests = new ArrayList<TestRequest>();
+        for (int i = 0; i < 4; i++) {
+            requests.add(new TestRequest(null));
+        }
+        assertTrue(ac.submit(requests.get(0)));
+        assertTrue(ac.submit(requests.get(1)));
+        assertFalse(ac.submit(requests.get(2)));
+        assertFalse(ac.submit(requests.get(3)));
+
+        assertNull(requests.get(2).rejection);
+        assertFalse(requests.get(2).admitted);
+        assertEquals(AdmissionController.Rejection.BUSY, requests.get(3).rejection);
+        assertEquals(2, ac.getActiveRequests());
+        assertEquals(1, ac.getQueuedRequests());
+        assertEquals(1, ac.getRejectedRequests());
+
+        // the slot goes to the queued request
+        ac.release(null);
+        assertTrue(requests.get(2).admitted);
+        assertEquals(2, ac.getActiveRequests());
+        assertEquals(0, ac.getQueuedRequests());
+
+        ac.release(null);
+        ac.release(null);
+        assertEquals(0, ac.getActiveRequests());
+        assertEquals(3, ac.getAdmittedRequests());
+    }
+
+    public void testQueueTimeout() throws Exception {
+        AdmissionController ac = new AdmissionController(new AdmissionControlFeature(1, 10, 20));
+        assertTrue(ac.submit(new TestRequest(null)));
+        TestRequest queued = new TestRequest(null);
+        assertFalse(ac.submit(queued));
+
+        // rejected without any other request arriving or finishing
+        for (int i = 0; i < 500 && queued.rejection == null; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(AdmissionController.Rejection.TIMEOUT, queued.rejection);
+        assertEquals(1, ac.getTimedOutRequests());
+        assertEquals(0, ac.getQueuedRequests());
+
+        TestRequest next = new TestRequest(null);
+        assertFalse(ac.submit(next));
+
+        ac.release(null);
+        assertTrue(next.admitted);
+        assertEquals(1, ac.getActiveRequests());
+    }
+
+    public void testOperationLimit() {
+        AdmissionControlFeature feature = new AdmissionControlFeature(10, 10, 0, new String[] {"slow=1"});
+        AdmissionController ac = new AdmissionController(feature);
+        assertTrue(ac.hasOperationLimits());
+        assertTrue(ac.submit(new TestRequest("slow")));
+        TestRequest second = new TestRequest("slow");
+        assertFalse(ac.submit(second));
+        assertEquals(AdmissionController.Rejection.OPERATION_BUSY, second.rejection);
+        assertTrue(ac.submit(new TestRequest("fast")));
+        assertEquals(1, ac.getOperationRejectedRequests());
+
+        ac.release("slow");
+        assertTrue(ac.submit(new TestRequest("slow")));
+    }
+
+    public void testAcquireBlocksUntilReleased() throws Exception {
+        final AdmissionController ac = new AdmissionController(new AdmissionControlFeature(1, 1, 0));
+        assertNull(ac.acquire(null));
+
+        final AtomicReference<AdmissionController.Rejection> result = new AtomicReference<AdmissionController.Rejection>();
+        final CountDownLatch done = new CountDownLatch(1);
+        Thread waiter = new Thread() {
+            @Override
+            public void run() {
+                result.set(ac.acquire(null));
+                done.countDown();
+            }
+        };
+        waiter.start();
+        while (ac.getQueuedRequests() == 0) {
+            Thread.sleep(1);
+        }
+        assertFalse(done.await(20, TimeUnit.MILLISECONDS));
+        ac.release(null);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertNull(result.get());
+        assertEquals(1, ac.getActiveRequests());
+    }
+
+    public void testAcquireTimesOut() {
+        AdmissionController ac = new AdmissionController(new AdmissionControlFeature(1, 1, 20));
+        assertNull(ac.acquire(null));
+        assertEquals(AdmissionController.Rejection.TIMEOUT, ac.acquire(null));
+        assertEquals(0, ac.getQueuedRequests());
+        assertEquals(1, ac.getTimedOutRequests());
+    }
+
+    private static final class TestRequest extends AdmissionController.Request {
+        volatile boolean admitted;
+        volatile AdmissionController.Rejection rejection;
+
+        TestRequest(String operation) {
+            super(operation);
+        }
+
+        @Override
+        void admitted() {
+            admitted = true;
+        }
+
+        @Override
+        void rejected(AdmissionController.Rejection reason) {
+            rejection = reason;
+        }
+    }
+}
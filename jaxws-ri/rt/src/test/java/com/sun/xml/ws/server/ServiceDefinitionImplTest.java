@@ -0,0 +1,165 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.server;
+
+import com.sun.xml.ws.api.server.SDDocument;
+import com.sun.xml.ws.api.server.SDDocumentSource;
+
+import javax.xml.namespace.QName;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+public class ServiceDefinitionImplTest extends TestCase {
+
+    private static final String WSDL =
+            "<definitions xmlns=\"http://schemas.xmlsoap.org/wsdl/\" targetNamespace=\"urn:test\">"
+            + "<portType name=\"TestPortType\"/><service name=\"TestService\"/></definitions>";
+    private static final QName SERVICE = new QName("urn:test", "TestService");
+    private static final QName PORT_TYPE = new QName("urn:test", "TestPortType");
+
+    private File wsdl;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        wsdl = File.createTempFile("service", ".wsdl");
+        OutputStream out = new FileOutputStream(wsdl);
+        try {
+            out.write(WSDL.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        wsdl.delete();
+        super.tearDown();
+    }
+
+    public void testGeneratedOnFirstUse() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        ServiceDefinitionImpl def = new ServiceDefinitionImpl(new Callable<ServiceDefinitionImpl>() {
+            @Override
+            public ServiceDefinitionImpl call() throws Exception {
+                calls.incrementAndGet();
+                return generated();
+            }
+        });
+        assertEquals(0, calls.get());
+        SDDocument primary = def.getPrimary();
+        assertTrue(primary.isWSDL());
+        assertSame(primary, def.iterator().next());
+        assertSame(primary, def.resolve(wsdl.toURI().toURL().toExternalForm()));
+        assertEquals(1, calls.get());
+    }
+
+    public void testGeneratedOnceByConcurrentRequests() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch generating = new CountDownLatch(1);
+        final ServiceDefinitionImpl def = new ServiceDefinitionImpl(new Callable<ServiceDefinitionImpl>() {
+            @Override
+            public ServiceDefinitionImpl call() throws Exception {
+                calls.incrementAndGet();
+                generating.await();
+                return generated();
+            }
+        });
+        final List<SDDocument> primaries = Collections.synchronizedList(new ArrayList<SDDocument>());
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 8; i++) {
+            Thread t = new Thread() {
+                @Override
+                public void run() {
+                    primaries.add(def.getPrimary());
+                }
+            };
+            t.start();
+            threads.add(t);
+        }
+        generating.countDown();
+        for (Thread t : threads) {
+            t.join(10000);
+        }
+        assertEquals(1, calls.get());
+        assertEquals(8, primaries.size());
+        for (SDDocument primary : primaries) {
+            assertSame(primaries.get(0), primary);
+        }
+    }
+
+    public void testFailedGenerationIsRetried() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        ServiceDefinitionImpl def = new ServiceDefinitionImpl(new Callable<ServiceDefinitionImpl>() {
+            @Override
+            public ServiceDefinitionImpl call() throws Exception {
+                if (calls.incrementAndGet() == 1) {
+                    throw new IllegalStateException("first");
+                }
+                return generated();
+            }
+        });
+        try {
+            def.getPrimary();
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("first", e.getMessage());
+        }
+        assertTrue(def.getPrimary().isWSDL());
+        assertEquals(2, calls.get());
+    }
+
+    private ServiceDefinitionImpl generated() throws Exception {
+        SDDocumentImpl doc = SDDocumentImpl.create(SDDocumentSource.create(wsdl.toURI().toURL()), SERVICE, PORT_TYPE);
+        List<SDDocumentImpl> docs = new ArrayList<SDDocumentImpl>();
+        docs.add(doc);
+        return new ServiceDefinitionImpl(docs, doc);
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport;
+
+import com.sun.xml.ws.api.BindingID;
+import com.sun.xml.ws.api.Component;
+import com.sun.xml.ws.api.EndpointAddress;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.ClientTubeAssemblerContext;
+import com.sun.xml.ws.api.pipe.NextAction;
+import com.sun.xml.ws.api.pipe.TransportTubeFactory;
+import com.sun.xml.ws.api.pipe.Tube;
+import com.sun.xml.ws.api.pipe.TubeCloner;
+import com.sun.xml.ws.api.pipe.helper.AbstractTubeImpl;
+import com.sun.xml.ws.api.server.Container;
+import com.sun.xml.ws.binding.BindingImpl;
+import com.sun.xml.ws.developer.WSBindingProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks that the copies of a {@link DeferredTransportPipe} share the
+ * transports the factory creates, and that only the pipe they are copied
+ * from destroys them.
+ */
+public class DeferredTransportPipeTest extends TestCase {
+
+    private final List<RecordingTube> created = new ArrayList<RecordingTube>();
+
+    public void testCopiesShareTheTransportOfAnAddress() throws Exception {
+        DeferredTransportPipe master = new DeferredTransportPipe(null, createContext("http://localhost/a"));
+        assertEquals(1, created.size());
+
+        List<Tube> copies = new ArrayList<Tube>();
+        for (int i = 0; i < 3; i++) {
+            copies.add(TubeCloner.clone(master));
+        }
+        // every copy switches to another address
+        for (Tube copy : copies) {
+            copy.processRequest(request("http://localhost/b"));
+            copy.processRequest(request("http://localhost/b"));
+        }
+        master.processRequest(request("http://localhost/b"));
+        assertEquals(2, created.size());
+        for (RecordingTube original : created) {
+            assertFalse(original.destroyed);
+        }
+
+        // the copies are dropped by the tube pool without being destroyed
+        copies.clear();
+        master.preDestroy();
+        for (RecordingTube original : created) {
+            assertTrue(original.destroyed);
+        }
+    }
+
+    private ClientTubeAssemblerContext createContext(String address) {
+        Container container = new Container() {
+        };
+        container.getComponents().add(new Component() {
+            @SuppressWarnings("unchecked")
+            public <S> S getSPI(Class<S> spiType) {
+                if (TransportTubeFactory.class.equals(spiType)) {
+                    return (S) new TransportTubeFactory() {
+                        public Tube doCreate(ClientTubeAssemblerContext context) {
+                            RecordingTube tube = new RecordingTube();
+                            created.add(tube);
+                            return tube;
+                        }
+                    };
+                }
+                return null;
+            }
+        });
+        BindingImpl binding = BindingImpl.create(BindingID.SOAP11_HTTP);
+        return new ClientTubeAssemblerContext(EndpointAddress.create(address), null, (WSBindingProvider) null,
+                binding, container, binding.createCodec(), null, null);
+    }
+
+    private static Packet request(String address) {
+        Packet packet = new Packet();
+        packet.endpointAddress = EndpointAddress.create(address);
+        return packet;
+    }
+
+    /**
+     * Transport that remembers whether it was destroyed. Its copies hold
+     * nothing, so destroying them does nothing.
+     */
+    private static final class RecordingTube extends AbstractTubeImpl {
+        volatile boolean destroyed;
+
+        RecordingTube() {
+        }
+
+        private RecordingTube(RecordingTube that, TubeCloner cloner) {
+            super(that, cloner);
+        }
+
+        @Override
+        public NextAction processRequest(Packet request) {
+            return doReturnWith(request);
+        }
+
+        @Override
+        public NextAction processResponse(Packet response) {
+            return doReturnWith(response);
+        }
+
+        @Override
+        public NextAction processException(Throwable t) {
+            return doThrow(t);
+        }
+
+        @Override
+        public void preDestroy() {
+            destroyed = true;
+        }
+
+        @Override
+        public RecordingTube copy(TubeCloner cloner) {
+            return new RecordingTube(this, cloner);
+        }
+    }
+}
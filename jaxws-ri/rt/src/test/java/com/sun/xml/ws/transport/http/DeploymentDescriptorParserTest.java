@@ -0,0 +1,230 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http;
+
+import com.sun.xml.ws.api.server.WSEndpoint;
+
+import junit.framework.TestCase;
+
+import javax.annotation.PreDestroy;
+import javax.xml.transform.Source;
+import javax.xml.ws.Provider;
+import javax.xml.ws.Service;
+import javax.xml.ws.ServiceMode;
+import javax.xml.ws.WebServiceProvider;
+import java.io.ByteArrayInputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Parses {@code sun-jaxws.xml} descriptors and builds their endpoints one
+ * after the other and in parallel.
+ */
+public class DeploymentDescriptorParserTest extends TestCase {
+
+    static final List<String> disposed = Collections.synchronizedList(new ArrayList<String>());
+
+    @Override
+    protected void setUp() throws Exception {
+        disposed.clear();
+    }
+
+    public void testAdaptersInDescriptorOrder() throws Exception {
+        for (int parallelism : new int[]{1, 4}) {
+            List<String> adapters = parse(parallelism,
+                    endpoint("slow", SlowProvider.class),
+                    endpoint("fast", FastProvider.class),
+                    endpoint("other", OtherProvider.class));
+            assertEquals("parallelism " + parallelism, Arrays.asList("slow", "fast", "other"), adapters);
+        }
+    }
+
+    public void testFirstFailureIsThrownSequentially() throws Exception {
+        try {
+            parse(1,
+                    endpoint("fast", FastProvider.class),
+                    endpoint("first", SlowFailingProvider.class),
+                    endpoint("second", FailingProvider.class));
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("first", e.getMessage());
+            // the endpoints after the failed one are not built
+            assertEquals(0, e.getSuppressed().length);
+        }
+        assertEquals(Collections.singletonList("fast"), disposed);
+    }
+
+    public void testFirstFailureIsThrownInParallel() throws Exception {
+        try {
+            parse(4,
+                    endpoint("fast", FastProvider.class),
+                    endpoint("first", SlowFailingProvider.class),
+                    endpoint("second", FailingProvider.class),
+                    endpoint("other", OtherProvider.class));
+            fail();
+        } catch (IllegalStateException e) {
+            // thrown although it completed last
+            assertEquals("first", e.getMessage());
+            assertEquals(1, e.getSuppressed().length);
+            assertEquals("second", e.getSuppressed()[0].getMessage());
+        }
+        assertEquals(2, disposed.size());
+        assertTrue(disposed.contains("fast"));
+        assertTrue(disposed.contains("other"));
+    }
+
+    private static String endpoint(String name, Class<?> implementation) {
+        return "<endpoint name='" + name + "' implementation='" + implementation.getName()
+                + "' url-pattern='/" + name + "'/>";
+    }
+
+    private static List<String> parse(int parallelism, String... endpoints) throws Exception {
+        StringBuilder dd = new StringBuilder("<endpoints xmlns='" + DeploymentDescriptorParser.NS_RUNTIME + "' version='2.0'>");
+        for (String endpoint : endpoints) {
+            dd.append(endpoint);
+        }
+        dd.append("</endpoints>");
+
+        DeploymentDescriptorParser<String> parser = new DeploymentDescriptorParser<String>(
+                DeploymentDescriptorParserTest.class.getClassLoader(), new NoResources(), null,
+                new DeploymentDescriptorParser.AdapterFactory<String>() {
+                    public String createAdapter(String name, String urlPattern, WSEndpoint<?> endpoint) {
+                        return name;
+                    }
+                });
+        parser.setParallelism(parallelism);
+        return parser.parse("sun-jaxws.xml", new ByteArrayInputStream(dd.toString().getBytes("UTF-8")));
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(300);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class NoResources implements ResourceLoader {
+        public URL getResource(String path) {
+            return null;
+        }
+
+        public URL getCatalogFile() {
+            return null;
+        }
+
+        public Set<String> getResourcePaths(String path) {
+            return null;
+        }
+    }
+
+    @WebServiceProvider
+    @ServiceMode(Service.Mode.PAYLOAD)
+    public static class SlowProvider implements Provider<Source> {
+        public SlowProvider() {
+            sleep();
+        }
+
+        public Source invoke(Source request) {
+            return request;
+        }
+
+        @PreDestroy
+        public void destroy() {
+            disposed.add("slow");
+        }
+    }
+
+    @WebServiceProvider
+    @ServiceMode(Service.Mode.PAYLOAD)
+    public static class FastProvider implements Provider<Source> {
+        public Source invoke(Source request) {
+            return request;
+        }
+
+        @PreDestroy
+        public void destroy() {
+            disposed.add("fast");
+        }
+    }
+
+    @WebServiceProvider
+    @ServiceMode(Service.Mode.PAYLOAD)
+    public static class OtherProvider implements Provider<Source> {
+        public Source invoke(Source request) {
+            return request;
+        }
+
+        @PreDestroy
+        public void destroy() {
+            disposed.add("other");
+        }
+    }
+
+    @WebServiceProvider
+    @ServiceMode(Service.Mode.PAYLOAD)
+    public static class SlowFailingProvider implements Provider<Source> {
+        public SlowFailingProvider() {
+            sleep();
+            throw new IllegalStateException("first");
+        }
+
+        public Source invoke(Source request) {
+            return request;
+        }
+    }
+
+    @WebServiceProvider
+    @ServiceMode(Service.Mode.PAYLOAD)
+    public static class FailingProvider implements Provider<Source> {
+        public FailingProvider() {
+            throw new IllegalStateException("second");
+        }
+
+        public Source invoke(Source request) {
+            return request;
+        }
+    }
+}
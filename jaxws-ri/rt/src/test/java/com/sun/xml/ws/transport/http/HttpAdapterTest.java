@@ -0,0 +1,374 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http;
+
+import com.sun.xml.ws.api.BindingID;
+import com.sun.xml.ws.api.server.SDDocumentSource;
+import com.sun.xml.ws.api.server.WSEndpoint;
+import com.sun.xml.ws.api.server.WebServiceContextDelegate;
+import com.sun.xml.ws.binding.BindingImpl;
+
+import junit.framework.TestCase;
+
+import javax.xml.namespace.QName;
+import javax.xml.transform.Source;
+import javax.xml.ws.Provider;
+import javax.xml.ws.Service;
+import javax.xml.ws.ServiceMode;
+import javax.xml.ws.WebServiceProvider;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Serves the WSDL of an endpoint through {@link HttpAdapter#publishWSDL}.
+ */
+public class HttpAdapterTest extends TestCase {
+
+    private static final String NS = "http://echo.org/";
+    private static final String BASE_ADDRESS = "http://localhost:8080/echo";
+
+    private HttpAdapter adapter;
+    private int cacheSize;
+
+    @Override
+    protected void setUp() throws Exception {
+        cacheSize = HttpAdapter.wsdl_cache_size;
+        URL wsdl = Thread.currentThread().getContextClassLoader().getResource("etc/EchoService.wsdl");
+        WSEndpoint<?> endpoint = WSEndpoint.create(EchoProvider.class, false, null,
+                new QName(NS, "EchoService"), new QName(NS, "EchoPort"), null,
+                BindingImpl.create(BindingID.SOAP11_HTTP), SDDocumentSource.create(wsdl), null, null, true);
+        adapter = HttpAdapter.createAlone(endpoint);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        HttpAdapter.wsdl_cache_size = cacheSize;
+        adapter.getEndpoint().dispose();
+    }
+
+    public void testWSDL() throws IOException {
+        TestConnection con = get("wsdl");
+
+        assertEquals(HttpURLConnection.HTTP_OK, con.status);
+        assertNotNull(con.getResponseHeader("ETag"));
+        assertNull(con.getResponseHeader("Last-Modified"));
+        assertNull(con.getResponseHeader("Content-Encoding"));
+        assertEquals(con.body().length, con.contentLength);
+        String wsdl = new String(con.body(), "UTF-8");
+        assertTrue(wsdl, wsdl.contains("name=\"EchoService\""));
+        assertTrue(wsdl, wsdl.contains(BASE_ADDRESS));
+
+        // rendered once
+        TestConnection again = get("wsdl");
+        assertEquals(con.getResponseHeader("ETag"), again.getResponseHeader("ETag"));
+        assertTrue(Arrays.equals(con.body(), again.body()));
+    }
+
+    public void testDocumentsAreRenderedPerBaseAddress() throws IOException {
+        TestConnection con = get("wsdl");
+        TestConnection other = new TestConnection("wsdl", "http://otherhost:8080/echo");
+        adapter.publishWSDL(other);
+
+        assertEquals(HttpURLConnection.HTTP_OK, other.status);
+        assertFalse(con.getResponseHeader("ETag").equals(other.getResponseHeader("ETag")));
+        assertTrue(new String(other.body(), "UTF-8").contains("http://otherhost:8080/echo"));
+    }
+
+    public void testNotModified() throws IOException {
+        String etag = get("wsdl").getResponseHeader("ETag");
+
+        TestConnection con = new TestConnection("wsdl", BASE_ADDRESS);
+        con.setRequestHeader("If-None-Match", "\"other\", " + etag);
+        adapter.publishWSDL(con);
+        assertEquals(HttpURLConnection.HTTP_NOT_MODIFIED, con.status);
+        assertEquals(etag, con.getResponseHeader("ETag"));
+        assertEquals(0, con.body().length);
+
+        con = new TestConnection("wsdl", BASE_ADDRESS);
+        con.setRequestHeader("If-None-Match", "\"other\"");
+        adapter.publishWSDL(con);
+        assertEquals(HttpURLConnection.HTTP_OK, con.status);
+    }
+
+    public void testGzip() throws IOException {
+        TestConnection plain = get("wsdl");
+
+        TestConnection con = new TestConnection("wsdl", BASE_ADDRESS);
+        con.setRequestHeader("Accept-Encoding", "deflate, gzip");
+        adapter.publishWSDL(con);
+
+        assertEquals(HttpURLConnection.HTTP_OK, con.status);
+        assertEquals("gzip", con.getResponseHeader("Content-Encoding"));
+        assertEquals(con.body().length, con.contentLength);
+        assertFalse(plain.getResponseHeader("ETag").equals(con.getResponseHeader("ETag")));
+        assertTrue(Arrays.equals(plain.body(), gunzip(con.body())));
+
+        // the ETag of the compressed copy validates the compressed copy only
+        TestConnection conditional = new TestConnection("wsdl", BASE_ADDRESS);
+        conditional.setRequestHeader("Accept-Encoding", "gzip");
+        conditional.setRequestHeader("If-None-Match", con.getResponseHeader("ETag"));
+        adapter.publishWSDL(conditional);
+        assertEquals(HttpURLConnection.HTTP_NOT_MODIFIED, conditional.status);
+
+        for (String refusal : new String[] {"gzip;q=0", "gzip; q=0.0", "*, gzip;q=0.000", "*;q=0"}) {
+            TestConnection refused = new TestConnection("wsdl", BASE_ADDRESS);
+            refused.setRequestHeader("Accept-Encoding", refusal);
+            adapter.publishWSDL(refused);
+            assertNull(refusal, refused.getResponseHeader("Content-Encoding"));
+        }
+
+        TestConnection weighted = new TestConnection("wsdl", BASE_ADDRESS);
+        weighted.setRequestHeader("Accept-Encoding", "deflate;q=1.0, gzip;q=0.5");
+        adapter.publishWSDL(weighted);
+        assertEquals("gzip", weighted.getResponseHeader("Content-Encoding"));
+    }
+
+    public void testCacheDisabled() throws IOException {
+        byte[] cached = get("wsdl").body();
+        HttpAdapter.wsdl_cache_size = 0;
+
+        TestConnection con = new TestConnection("wsdl", BASE_ADDRESS);
+        con.setRequestHeader("Accept-Encoding", "gzip");
+        con.setRequestHeader("If-None-Match", "*");
+        adapter.publishWSDL(con);
+
+        assertEquals(HttpURLConnection.HTTP_OK, con.status);
+        assertNull(con.getResponseHeader("ETag"));
+        assertNull(con.getResponseHeader("Content-Encoding"));
+        assertTrue(Arrays.equals(cached, con.body()));
+    }
+
+    public void testUnknownDocument() throws IOException {
+        TestConnection con = get("xsd=42");
+        assertEquals(HttpURLConnection.HTTP_NOT_FOUND, con.status);
+    }
+
+    private TestConnection get(String query) throws IOException {
+        TestConnection con = new TestConnection(query, BASE_ADDRESS);
+        adapter.publishWSDL(con);
+        return con;
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[1024];
+        for (int n; (n = in.read(buf)) != -1; ) {
+            out.write(buf, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    @WebServiceProvider(serviceName = "EchoService", portName = "EchoPort", targetNamespace = NS)
+    @ServiceMode(Service.Mode.PAYLOAD)
+    public static class EchoProvider implements Provider<Source> {
+        public Source invoke(Source request) {
+            return request;
+        }
+    }
+
+    private static final class TestConnection extends WSHTTPConnection {
+        private final String query;
+        private final String baseAddress;
+        private final Map<String, List<String>> requestHeaders =
+                new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+        private final Map<String, List<String>> responseHeaders =
+                new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        int status;
+        int contentLength = -1;
+
+        TestConnection(String query, String baseAddress) {
+            this.query = query;
+            this.baseAddress = baseAddress;
+        }
+
+        void setRequestHeader(String name, String value) {
+            requestHeaders.put(name, Collections.singletonList(value));
+        }
+
+        String getResponseHeader(String name) {
+            List<String> values = responseHeaders.get(name);
+            return values == null ? null : values.get(0);
+        }
+
+        byte[] body() {
+            return output.toByteArray();
+        }
+
+        @Override
+        public void setResponseHeaders(Map<String, List<String>> headers) {
+            responseHeaders.clear();
+            responseHeaders.putAll(headers);
+        }
+
+        @Override
+        public void setResponseHeader(String key, List<String> value) {
+            responseHeaders.put(key, new ArrayList<String>(value));
+        }
+
+        @Override
+        public void setContentTypeResponseHeader(String value) {
+            setResponseHeader("Content-Type", value);
+        }
+
+        @Override
+        public void setContentLengthResponseHeader(int value) {
+            contentLength = value;
+        }
+
+        @Override
+        public void setStatus(int status) {
+            this.status = status;
+        }
+
+        @Override
+        public int getStatus() {
+            return status;
+        }
+
+        @Override
+        public InputStream getInput() {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        @Override
+        public OutputStream getOutput() {
+            return output;
+        }
+
+        @Override
+        public WebServiceContextDelegate getWebServiceContextDelegate() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String getRequestMethod() {
+            return "GET";
+        }
+
+        @Override
+        public Map<String, List<String>> getRequestHeaders() {
+            return requestHeaders;
+        }
+
+        @Override
+        public Set<String> getRequestHeaderNames() {
+            return requestHeaders.keySet();
+        }
+
+        @Override
+        public Map<String, List<String>> getResponseHeaders() {
+            return responseHeaders;
+        }
+
+        @Override
+        public String getRequestHeader(String headerName) {
+            List<String> values = requestHeaders.get(headerName);
+            return values == null ? null : values.get(0);
+        }
+
+        @Override
+        public List<String> getRequestHeaderValues(String headerName) {
+            return requestHeaders.get(headerName);
+        }
+
+        @Override
+        public String getQueryString() {
+            return query;
+        }
+
+        @Override
+        public String getPathInfo() {
+            return null;
+        }
+
+        @Override
+        public String getRequestURI() {
+            return "/echo";
+        }
+
+        @Override
+        public String getRequestScheme() {
+            return "http";
+        }
+
+        @Override
+        public String getServerName() {
+            return "localhost";
+        }
+
+        @Override
+        public int getServerPort() {
+            return 8080;
+        }
+
+        @Override
+        public String getBaseAddress() {
+            return baseAddress;
+        }
+
+        @Override
+        public boolean isSecure() {
+            return false;
+        }
+
+        @Override
+        protected PropertyMap getPropertyMap() {
+            return model;
+        }
+
+        private static final PropertyMap model = parse(TestConnection.class);
+    }
+}
@@ -0,0 +1,336 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http.client;
+
+import com.sun.xml.ws.api.BindingID;
+import com.sun.xml.ws.api.EndpointAddress;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.TubeCloner;
+import com.sun.xml.ws.binding.BindingImpl;
+import com.sun.xml.ws.developer.Http2TransportFeature;
+import com.sun.xml.ws.transport.Headers;
+import com.sun.xml.ws.util.ByteArrayBuffer;
+import com.sun.xml.ws.util.SegmentedBuffer;
+import junit.framework.TestCase;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.CompletionHandler;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs {@link Http2ClientTransport} and {@link Http2Connection} against an
+ * in-process h2c peer that echoes the request entity.
+ */
+public class Http2ClientTest extends TestCase {
+
+    private ServerSocket server;
+    private Thread acceptor;
+    private final AtomicInteger accepted = new AtomicInteger();
+    private final CountDownLatch peerClosed = new CountDownLatch(1);
+    private Http2Client client;
+
+    @Override
+    protected void setUp() throws Exception {
+        client = new Http2Client();
+        server = new ServerSocket(0, 50, InetAddress.getByName("localhost"));
+        acceptor = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    while (true) {
+                        Socket socket = server.accept();
+                        accepted.incrementAndGet();
+                        Thread peer = new Thread(new Peer(socket));
+                        peer.setDaemon(true);
+                        peer.start();
+                    }
+                } catch (IOException e) {
+                    // server socket closed
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        client.close();
+        server.close();
+        acceptor.join(5000);
+    }
+
+    public void testExchange() throws Exception {
+        Result result = exchange("/echo", "<hello/>");
+        assertNull(result.error);
+        NonBlockingClientTransport con = result.con;
+        assertEquals(200, con.statusCode);
+        assertEquals(8, con.getContentLength());
+        assertEquals("text/xml", con.getContentType());
+        assertEquals("text/xml; charset=utf-8", con.getHeaders().get("x-request-type").get(0));
+        assertEquals("/echo", con.getHeaders().get("x-request-path").get(0));
+        assertEquals("<hello/>", read(con.getInput()));
+    }
+
+    public void testConcurrentRequestsShareTheConnection() throws Exception {
+        List<Result> results = new ArrayList<Result>();
+        for (int i = 0; i < 10; i++) {
+            results.add(send("/echo", "<hello>" + i + "</hello>"));
+        }
+        for (int i = 0; i < results.size(); i++) {
+            Result result = results.get(i);
+            assertTrue(result.done.await(10, TimeUnit.SECONDS));
+            assertNull(result.error);
+            assertEquals("<hello>" + i + "</hello>", read(result.con.getInput()));
+        }
+        assertEquals(1, accepted.get());
+        assertEquals(1, client.getCreatedCount());
+        assertEquals(10, client.getStreamCount());
+    }
+
+    public void testLastDisposeClosesTheConnections() throws Exception {
+        client.retain();
+        client.retain();
+        assertNull(exchange("/echo", "<hello/>").error);
+        assertEquals(1, client.getOpenCount());
+
+        client.dispose();
+        assertEquals(1, client.getOpenCount());
+        assertEquals(1, peerClosed.getCount());
+
+        client.dispose();
+        assertEquals(0, client.getOpenCount());
+        assertTrue(peerClosed.await(10, TimeUnit.SECONDS));
+        assertNotNull(exchange("/echo", "<hello/>").error);
+
+        // a new user reopens the client
+        client.retain();
+        assertNull(exchange("/echo", "<hello/>").error);
+        assertEquals(2, accepted.get());
+    }
+
+    public void testTubeReleasesTheClientWhenDestroyed() throws Exception {
+        Http2TransportFeature feature = new Http2TransportFeature();
+        client = feature.getClient();
+        BindingImpl binding = BindingImpl.create(BindingID.SOAP11_HTTP, new Http2TransportFeature[] {feature});
+        Http2TransportTube master = new Http2TransportTube(binding.createCodec(), binding);
+        Http2TransportTube copy = (Http2TransportTube) TubeCloner.clone(master);
+        assertNull(exchange("/echo", "<hello/>").error);
+
+        copy.preDestroy();
+        assertEquals(1, client.getOpenCount());
+        assertEquals(1, peerClosed.getCount());
+
+        master.preDestroy();
+        assertEquals(0, client.getOpenCount());
+        assertTrue(peerClosed.await(10, TimeUnit.SECONDS));
+    }
+
+    private Result exchange(String path, String entity) throws Exception {
+        Result result = send(path, entity);
+        assertTrue(result.done.await(10, TimeUnit.SECONDS));
+        return result;
+    }
+
+    private Result send(String path, String entity) throws Exception {
+        Packet packet = new Packet();
+        packet.endpointAddress = new EndpointAddress("http://localhost:" + server.getLocalPort() + path);
+        Map<String, List<String>> headers = new Headers();
+        headers.put("Content-Type", Collections.singletonList("text/xml; charset=utf-8"));
+
+        final Result result = new Result();
+        Http2ClientTransport con = new Http2ClientTransport(packet, headers, client);
+        SegmentedBuffer buf = new SegmentedBuffer();
+        buf.write(entity.getBytes("UTF-8"));
+        con.send(buf, packet,
+                new CompletionHandler<NonBlockingClientTransport, Packet>() {
+            public void completed(NonBlockingClientTransport con, Packet request) {
+                result.con = con;
+                result.done.countDown();
+            }
+
+            public void failed(Throwable exc, Packet request) {
+                result.error = exc;
+                result.done.countDown();
+            }
+        });
+        return result;
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayBuffer buf = new ByteArrayBuffer();
+        buf.write(in);
+        return new String(buf.getRawData(), 0, buf.size(), "UTF-8");
+    }
+
+    private static final class Result {
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile NonBlockingClientTransport con;
+        volatile Throwable error;
+    }
+
+    /**
+     * Minimal h2c server side of a connection: acknowledges the client's
+     * settings and answers each stream with its request entity.
+     */
+    private final class Peer implements Runnable {
+        private final Socket socket;
+        private final Hpack.Encoder encoder = new Hpack.Encoder();
+        private final Hpack.Decoder decoder = new Hpack.Decoder();
+        private final Map<Integer, List<String[]>> requestHeaders = new HashMap<Integer, List<String[]>>();
+        private final Map<Integer, ByteArrayBuffer> entities = new HashMap<Integer, ByteArrayBuffer>();
+
+        Peer(Socket socket) {
+            this.socket = socket;
+        }
+
+        public void run() {
+            try {
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                OutputStream out = socket.getOutputStream();
+                byte[] preface = new byte[24];
+                in.readFully(preface);
+                assertEquals("PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n", new String(preface, "US-ASCII"));
+                writeFrame(out, Http2Connection.SETTINGS, 0, 0, new byte[0], 0);
+
+                ByteArrayBuffer block = new ByteArrayBuffer();
+                boolean endStream = false;
+                while (true) {
+                    int length;
+                    try {
+                        length = (in.readUnsignedByte() << 16) | in.readUnsignedShort();
+                    } catch (EOFException e) {
+                        peerClosed.countDown();
+                        return;
+                    }
+                    int type = in.readUnsignedByte();
+                    int flags = in.readUnsignedByte();
+                    int streamId = in.readInt() & 0x7fffffff;
+                    byte[] payload = new byte[length];
+                    in.readFully(payload);
+                    switch (type) {
+                    case Http2Connection.SETTINGS:
+                        if ((flags & Http2Connection.FLAG_ACK) == 0) {
+                            writeFrame(out, Http2Connection.SETTINGS, Http2Connection.FLAG_ACK, 0, new byte[0], 0);
+                        }
+                        break;
+                    case Http2Connection.HEADERS:
+                        endStream = (flags & Http2Connection.FLAG_END_STREAM) != 0;
+                        entities.put(streamId, new ByteArrayBuffer());
+                        // fall through
+                    case Http2Connection.CONTINUATION:
+                        block.write(payload, 0, length);
+                        if ((flags & Http2Connection.FLAG_END_HEADERS) != 0) {
+                            requestHeaders.put(streamId, decoder.decode(block.getRawData(), 0, block.size()));
+                            block.reset();
+                            if (endStream) {
+                                respond(out, streamId);
+                            }
+                        }
+                        break;
+                    case Http2Connection.DATA:
+                        entities.get(streamId).write(payload, 0, length);
+                        if ((flags & Http2Connection.FLAG_END_STREAM) != 0) {
+                            respond(out, streamId);
+                        }
+                        break;
+                    default:
+                        // WINDOW_UPDATE, PING ... aren't needed for these exchanges
+                    }
+                }
+            } catch (IOException e) {
+                peerClosed.countDown();
+            } finally {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    // Nothing much can be done. Intentionally left empty
+                }
+            }
+        }
+
+        private void respond(OutputStream out, int streamId) throws IOException {
+            List<String[]> request = requestHeaders.remove(streamId);
+            ByteArrayBuffer entity = entities.remove(streamId);
+            List<String[]> response = new ArrayList<String[]>();
+            response.add(new String[] {":status", "200"});
+            response.add(new String[] {"content-type", "text/xml"});
+            response.add(new String[] {"content-length", String.valueOf(entity.size())});
+            for (String[] header : request) {
+                if ("content-type".equals(header[0])) {
+                    response.add(new String[] {"x-request-type", header[1]});
+                } else if (":path".equals(header[0])) {
+                    response.add(new String[] {"x-request-path", header[1]});
+                }
+            }
+            ByteArrayBuffer block = new ByteArrayBuffer();
+            encoder.encode(response, block);
+            writeFrame(out, Http2Connection.HEADERS, Http2Connection.FLAG_END_HEADERS, streamId,
+                    block.getRawData(), block.size());
+            writeFrame(out, Http2Connection.DATA, Http2Connection.FLAG_END_STREAM, streamId,
+                    entity.getRawData(), entity.size());
+        }
+
+        private void writeFrame(OutputStream out, int type, int flags, int streamId, byte[] payload, int length)
+                throws IOException {
+            byte[] header = {
+                (byte) (length >>> 16), (byte) (length >>> 8), (byte) length, (byte) type, (byte) flags,
+                (byte) (streamId >>> 24), (byte) (streamId >>> 16), (byte) (streamId >>> 8), (byte) streamId
+            };
+            out.write(header);
+            out.write(payload, 0, length);
+            out.flush();
+        }
+    }
+}
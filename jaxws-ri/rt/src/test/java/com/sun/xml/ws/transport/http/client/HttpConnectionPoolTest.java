@@ -0,0 +1,207 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http.client;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+import java.nio.channels.CompletionHandler;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Borrows connections from {@link HttpConnectionPool} to local server sockets,
+ * which the operating system accepts without the test reading from them.
+ */
+public class HttpConnectionPoolTest extends TestCase {
+
+    private ServerSocket server;
+    private ServerSocket otherServer;
+    private HttpConnectionPool pool;
+
+    @Override
+    protected void setUp() throws Exception {
+        server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        otherServer = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (pool != null) {
+            pool.close();
+        }
+        server.close();
+        otherServer.close();
+    }
+
+    public void testWaiterTimesOut() throws Exception {
+        pool = new HttpConnectionPool(null, 1, HttpConnectionPool.DEFAULT_IDLE_TIMEOUT);
+        Borrow first = borrow(server, 0);
+        assertNotNull(first.await().connection);
+
+        Borrow second = borrow(server, 100);
+        assertTrue(second.await().error instanceof SocketTimeoutException);
+        assertEquals(0, pool.getPendingCount());
+        assertEquals(1, pool.getWaitedCount());
+        assertEquals(1, pool.getWaitTimeoutCount());
+
+        // the connection is not handed to the borrower that gave up
+        pool.release(first.connection, true);
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    public void testWaiterGetsReleasedConnection() throws Exception {
+        pool = new HttpConnectionPool(null, 1, HttpConnectionPool.DEFAULT_IDLE_TIMEOUT);
+        Borrow first = borrow(server, 0);
+        assertNotNull(first.await().connection);
+
+        Borrow second = borrow(server, 200);
+        assertEquals(1, pool.getPendingCount());
+        pool.release(first.connection, true);
+        assertSame(first.connection.channel, second.await().connection.channel);
+
+        // the wait deadline was cancelled
+        Thread.sleep(400);
+        assertEquals(1, second.calls);
+        assertEquals(0, pool.getWaitTimeoutCount());
+        pool.release(second.connection, true);
+    }
+
+    public void testIdleConnectionClosedByServerIsDropped() throws Exception {
+        pool = new HttpConnectionPool(null, 2, HttpConnectionPool.DEFAULT_IDLE_TIMEOUT);
+        Borrow first = borrow(server, 0);
+        pool.release(first.await().connection, true);
+        assertEquals(1, pool.getIdleCount());
+
+        server.accept().close();
+        for (int i = 0; i < 100 && pool.getIdleCount() > 0; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(0, pool.getOpenCount());
+        assertEquals(1, pool.getInvalidCount());
+
+        // the next borrower gets a new connection
+        Borrow second = borrow(server, 0);
+        assertFalse(second.await().connection.reused);
+        assertEquals(2, pool.getCreatedCount());
+    }
+
+    public void testUnusedHostsAreRemoved() throws Exception {
+        pool = new HttpConnectionPool(null, 2, 50);
+        Borrow first = borrow(server, 0);
+        pool.release(first.await().connection, false);
+        assertEquals(1, pool.getHostCount());
+
+        Thread.sleep(100);
+        Borrow other = borrow(otherServer, 0);
+        assertNotNull(other.await().connection);
+        assertEquals(1, pool.getHostCount());
+
+        // a removed host is replaced on the next borrow
+        Borrow again = borrow(server, 0);
+        assertNotNull(again.await().connection);
+        assertEquals(2, pool.getHostCount());
+        assertEquals(2, pool.getOpenCount());
+    }
+
+    public void testDisposedByLastUser() throws Exception {
+        pool = new HttpConnectionPool(null, 2, HttpConnectionPool.DEFAULT_IDLE_TIMEOUT);
+        pool.retain();
+        pool.retain();
+        Borrow first = borrow(server, 0);
+        pool.release(first.await().connection, true);
+        assertEquals(1, pool.getIdleCount());
+
+        pool.dispose();
+        assertEquals(1, pool.getIdleCount());
+        pool.dispose();
+        assertEquals(0, pool.getIdleCount());
+        assertTrue(borrow(server, 0).await().error instanceof IOException);
+
+        pool.retain();
+        assertNotNull(borrow(server, 0).await().connection);
+    }
+
+    public void testCloseFailsWaiters() throws Exception {
+        pool = new HttpConnectionPool(null, 1, HttpConnectionPool.DEFAULT_IDLE_TIMEOUT);
+        assertNotNull(borrow(server, 0).await().connection);
+        Borrow waiting = borrow(server, 0);
+
+        pool.close();
+        assertTrue(waiting.await().error instanceof IOException);
+        assertEquals(0, pool.getPendingCount());
+    }
+
+    private Borrow borrow(ServerSocket to, long connectTimeout) {
+        Borrow borrow = new Borrow();
+        pool.borrow(new InetSocketAddress(to.getInetAddress(), to.getLocalPort()), connectTimeout, false, borrow);
+        return borrow;
+    }
+
+    private static final class Borrow implements CompletionHandler<HttpConnectionPool.Connection, Void> {
+        private final CountDownLatch done = new CountDownLatch(1);
+        volatile HttpConnectionPool.Connection connection;
+        volatile Throwable error;
+        volatile int calls;
+
+        public void completed(HttpConnectionPool.Connection result, Void attachment) {
+            connection = result;
+            calls++;
+            done.countDown();
+        }
+
+        public void failed(Throwable exc, Void attachment) {
+            error = exc;
+            calls++;
+            done.countDown();
+        }
+
+        Borrow await() throws InterruptedException {
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            return this;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.sun.xml.ws.api.EndpointAddress;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.client.BindingProviderProperties;
+import com.sun.xml.ws.client.ClientTransportException;
+import com.sun.xml.ws.transport.Headers;
+import com.sun.xml.ws.util.ByteArrayBuffer;
+import com.sun.xml.ws.util.SegmentedBuffer;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.InterruptedByTimeoutException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs {@link NonBlockingHttpClientTransport} against an in-process HTTP server.
+ */
+public class NonBlockingHttpClientTransportTest extends TestCase {
+
+    private HttpServer server;
+    private HttpConnectionPool pool;
+    private final AtomicInteger slowRequests = new AtomicInteger();
+
+    @Override
+    protected void setUp() throws Exception {
+        pool = new HttpConnectionPool(null, 2, HttpConnectionPool.DEFAULT_IDLE_TIMEOUT);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/echo", new HttpHandler() {
+            public void handle(HttpExchange t) throws IOException {
+                ByteArrayBuffer in = new ByteArrayBuffer();
+                in.write(t.getRequestBody());
+                t.getResponseHeaders().add("Content-Type", "text/xml");
+                t.getResponseHeaders().add("X-Request-Type", t.getRequestHeaders().getFirst("Content-Type"));
+                t.sendResponseHeaders(200, in.size());
+                OutputStream out = t.getResponseBody();
+                in.writeTo(out);
+                out.close();
+            }
+        });
+        server.createContext("/chunked", new HttpHandler() {
+            public void handle(HttpExchange t) throws IOException {
+                t.getRequestBody().close();
+                t.getResponseHeaders().add("Content-Type", "text/xml");
+                t.sendResponseHeaders(500, 0);
+                OutputStream out = t.getResponseBody();
+                for (int i = 0; i < 1000; i++) {
+                    out.write("<fault/>".getBytes("UTF-8"));
+                    out.flush();
+                }
+                out.close();
+            }
+        });
+        server.createContext("/slow", new HttpHandler() {
+            public void handle(HttpExchange t) throws IOException {
+                slowRequests.incrementAndGet();
+                t.getRequestBody().close();
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                t.sendResponseHeaders(200, -1);
+                t.close();
+            }
+        });
+        server.start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        pool.close();
+        server.stop(0);
+    }
+
+    public void testContentLengthResponse() throws Exception {
+        Result result = exchange("/echo", "<hello/>");
+        assertNull(result.error);
+        NonBlockingClientTransport con = result.con;
+        assertEquals(200, con.statusCode);
+        assertEquals(8, con.getContentLength());
+        assertEquals("text/xml", con.getContentType());
+        assertEquals("text/xml; charset=utf-8", con.getHeaders().get("X-Request-Type").get(0));
+        assertEquals("<hello/>", read(con.getInput()));
+    }
+
+    public void testMultiSegmentRequest() throws Exception {
+        StringBuilder sb = new StringBuilder("<hello>");
+        while (sb.length() < 3 * SegmentedBuffer.SEGMENT_SIZE) {
+            sb.append("0123456789");
+        }
+        sb.append("</hello>");
+        Result result = exchange("/echo", sb.toString());
+        assertNull(result.error);
+        assertEquals(sb.length(), result.con.getContentLength());
+        assertEquals(sb.toString(), read(result.con.getInput()));
+    }
+
+    public void testChunkedResponse() throws Exception {
+        Result result = exchange("/chunked", "<hello/>");
+        assertNull(result.error);
+        NonBlockingClientTransport con = result.con;
+        assertEquals(500, con.statusCode);
+        assertEquals(-1, con.getContentLength());
+        assertEquals(8000, read(con.getInput()).length());
+    }
+
+    public void testConnectionFailure() throws Exception {
+        int port = server.getAddress().getPort();
+        server.stop(0);
+        Result result = exchange(port, "/echo", "<hello/>");
+        assertNull(result.con);
+        assertTrue(result.error instanceof ClientTransportException);
+        assertEquals(0, pool.getOpenCount());
+    }
+
+    public void testKeepAliveReuse() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Result result = exchange("/echo", "<hello" + i + "/>");
+            assertNull(result.error);
+            assertEquals("<hello" + i + "/>", read(result.con.getInput()));
+        }
+        assertEquals(1, pool.getCreatedCount());
+        assertEquals(2, pool.getReusedCount());
+        assertEquals(1, pool.getIdleCount());
+        assertEquals(1, pool.getOpenCount());
+    }
+
+    public void testTimeoutOnReusedConnectionIsNotRetried() throws Exception {
+        assertNull(exchange("/echo", "<hello/>").error);
+        assertEquals(1, pool.getIdleCount());
+
+        Result result = exchange(server.getAddress().getPort(), "/slow", "<hello/>", 200);
+        assertTrue(result.error instanceof ClientTransportException);
+        assertTrue(result.error.getCause() instanceof InterruptedByTimeoutException);
+        assertEquals(1, pool.getReusedCount());
+
+        // a second attempt would reach the server once the first one is done
+        Thread.sleep(1500);
+        assertEquals(1, slowRequests.get());
+        assertEquals(1, pool.getCreatedCount());
+    }
+
+    private Result exchange(String path, String entity) throws Exception {
+        return exchange(server.getAddress().getPort(), path, entity);
+    }
+
+    private Result exchange(int port, String path, String entity) throws Exception {
+        return exchange(port, path, entity, 0);
+    }
+
+    private Result exchange(int port, String path, String entity, int requestTimeout) throws Exception {
+        Packet packet = new Packet();
+        packet.endpointAddress = new EndpointAddress("http://localhost:" + port + path);
+        if (requestTimeout > 0) {
+            packet.invocationProperties.put(BindingProviderProperties.REQUEST_TIMEOUT, requestTimeout);
+        }
+        Map<String, List<String>> headers = new Headers();
+        headers.put("Content-Type", Collections.singletonList("text/xml; charset=utf-8"));
+
+        final Result result = new Result();
+        final CountDownLatch done = new CountDownLatch(1);
+        NonBlockingHttpClientTransport con = new NonBlockingHttpClientTransport(packet, headers, pool);
+        SegmentedBuffer buf = new SegmentedBuffer();
+        buf.write(entity.getBytes("UTF-8"));
+        con.send(buf, packet,
+                new CompletionHandler<NonBlockingClientTransport, Packet>() {
+            public void completed(NonBlockingClientTransport con, Packet request) {
+                result.con = con;
+                done.countDown();
+            }
+
+            public void failed(Throwable exc, Packet request) {
+                result.error = exc;
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        return result;
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayBuffer buf = new ByteArrayBuffer();
+        buf.write(in);
+        return new String(buf.getRawData(), 0, buf.size(), "UTF-8");
+    }
+
+    private static final class Result {
+        volatile NonBlockingClientTransport con;
+        volatile Throwable error;
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.util;
+
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.NextAction;
+import com.sun.xml.ws.api.pipe.Tube;
+import com.sun.xml.ws.api.pipe.TubeCloner;
+import com.sun.xml.ws.api.pipe.helper.AbstractTubeImpl;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests {@link Pool}.
+ */
+public class PoolTest extends TestCase {
+
+    private static final class CountingPool extends Pool<Object> {
+        final AtomicInteger created = new AtomicInteger();
+
+        @Override
+        protected Object create() {
+            created.incrementAndGet();
+            return new Object();
+        }
+    }
+
+    public void testRecycledObjectIsReused() {
+        CountingPool pool = new CountingPool();
+        Object first = pool.take();
+        pool.recycle(first);
+        assertSame(first, pool.take());
+        assertEquals(1, pool.created.get());
+
+        Pool.Statistics stats = pool.getStatistics();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getCreated());
+        assertEquals(0, stats.getIdle());
+    }
+
+    public void testObjectsRecycledBeyondMaxSizeAreDropped() {
+        CountingPool pool = new CountingPool();
+        pool.setMaxSize(2);
+        List<Object> taken = new ArrayList<Object>();
+        for (int i = 0; i < 5; i++) {
+            taken.add(pool.take());
+        }
+        for (Object o : taken) {
+            pool.recycle(o);
+        }
+        assertEquals(2, pool.getStatistics().getIdle());
+        assertEquals(3, pool.getStatistics().getDiscarded());
+
+        Set<Object> reused = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        reused.add(pool.take());
+        reused.add(pool.take());
+        assertEquals(2, reused.size());
+        assertEquals(5, pool.created.get());
+        pool.take();
+        assertEquals(6, pool.created.get());
+    }
+
+    public void testDroppedTubelineCopiesAreDestroyed() {
+        DestroyableTube master = new DestroyableTube();
+        Pool.TubePool pool = new Pool.TubePool(master, true);
+        pool.setMaxSize(1);
+        assertSame(master, pool.take());
+        DestroyableTube copy = (DestroyableTube) pool.take();
+        pool.recycle(copy);
+        pool.recycle(master);
+        assertEquals(1, pool.getStatistics().getDiscarded());
+        assertFalse(copy.destroyed);
+        assertFalse(master.destroyed);
+
+        pool.take();
+        DestroyableTube other = (DestroyableTube) pool.take();
+        pool.recycle(master);
+        pool.recycle(other);
+        assertTrue(other.destroyed);
+        assertFalse(master.destroyed);
+    }
+
+    public void testServerTubelineCopiesAreNotDestroyed() {
+        DestroyableTube master = new DestroyableTube();
+        Pool.TubePool pool = new Pool.TubePool(master);
+        pool.setMaxSize(1);
+        pool.take();
+        DestroyableTube copy = (DestroyableTube) pool.take();
+        pool.recycle(master);
+        pool.recycle(copy);
+        assertEquals(1, pool.getStatistics().getDiscarded());
+        assertFalse(copy.destroyed);
+    }
+
+    private static final class DestroyableTube extends AbstractTubeImpl {
+        boolean destroyed;
+
+        DestroyableTube() {
+        }
+
+        private DestroyableTube(DestroyableTube that, TubeCloner cloner) {
+            super(that, cloner);
+        }
+
+        public NextAction processRequest(Packet request) {
+            return doReturnWith(request);
+        }
+
+        public NextAction processResponse(Packet response) {
+            return doReturnWith(response);
+        }
+
+        public NextAction processException(Throwable t) {
+            return doThrow(t);
+        }
+
+        public void preDestroy() {
+            destroyed = true;
+        }
+
+        public DestroyableTube copy(TubeCloner cloner) {
+            return new DestroyableTube(this, cloner);
+        }
+    }
+
+    public void testObjectIsNeverSharedBetweenThreads() throws Exception {
+        final CountingPool pool = new CountingPool();
+        final Set<Object> inUse = Collections.synchronizedSet(
+                Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>()));
+        final AtomicReference<String> failure = new AtomicReference<String>();
+        final int threads = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int j = 0; j < 20000; j++) {
+                            Object o = pool.take();
+                            if (!inUse.add(o)) {
+                                failure.set("object handed out twice");
+                            }
+                            inUse.remove(o);
+                            pool.recycle(o);
+                        }
+                    } catch (InterruptedException e) {
+                        failure.set(e.toString());
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }.start();
+        }
+        start.countDown();
+        done.await();
+
+        assertNull(failure.get());
+        Pool.Statistics stats = pool.getStatistics();
+        assertEquals(threads * 20000L, stats.getHits() + stats.getMisses());
+        assertEquals(pool.created.get(), stats.getIdle());
+    }
+}
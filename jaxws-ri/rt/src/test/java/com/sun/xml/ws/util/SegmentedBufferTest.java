@@ -0,0 +1,102 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests {@link SegmentedBuffer}.
+ */
+public class SegmentedBufferTest extends TestCase {
+
+    public void testRangeSpanningSegments() {
+        SegmentedBuffer buffer = new SegmentedBuffer();
+        byte[] data = fill(SegmentedBuffer.SEGMENT_SIZE * 2 + 10);
+        buffer.write(data, 0, data.length);
+        assertEquals(data.length, buffer.size());
+
+        int off = SegmentedBuffer.SEGMENT_SIZE - 5;
+        ByteBuffer[] range = buffer.getBuffers(off, SegmentedBuffer.SEGMENT_SIZE + 10);
+        assertEquals(3, range.length);
+        byte[] read = new byte[SegmentedBuffer.SEGMENT_SIZE + 10];
+        int pos = 0;
+        for (ByteBuffer b : range) {
+            int n = b.remaining();
+            b.get(read, pos, n);
+            pos += n;
+        }
+        assertTrue(Arrays.equals(Arrays.copyOfRange(data, off, off + read.length), read));
+        buffer.release();
+    }
+
+    public void testHeapSegmentsBeyondDirectLimit() throws Exception {
+        SegmentedBuffer buffer = new SegmentedBuffer();
+        byte[] data = fill(SegmentedBuffer.SEGMENT_SIZE * (SegmentedBuffer.POOL_SIZE + 2));
+        buffer.write(data, 0, data.length);
+
+        ByteBuffer[] segments = buffer.getBuffers();
+        assertTrue(segments[0].isDirect());
+        assertFalse(segments[segments.length - 1].isDirect());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        buffer.writeTo(out);
+        assertTrue(Arrays.equals(data, out.toByteArray()));
+        buffer.release();
+
+        // the direct segments went back to the pool
+        SegmentedBuffer next = new SegmentedBuffer();
+        next.write(data, 0, SegmentedBuffer.SEGMENT_SIZE);
+        assertTrue(next.getBuffers()[0].isDirect());
+        next.release();
+    }
+
+    private static byte[] fill(int size) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) i;
+        }
+        return data;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.util.pipe;
+
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.Messages;
+import com.sun.xml.ws.server.DraconianValidationErrorHandler;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.ws.WebServiceException;
+import java.io.StringReader;
+
+import junit.framework.TestCase;
+
+public class StreamingValidationMessageTest extends TestCase {
+
+    private static final String SCHEMA =
+            "<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema' xmlns:t='urn:test' targetNamespace='urn:test' elementFormDefault='qualified'>" +
+            "<xs:complexType name='Base'><xs:sequence><xs:element name='n' type='xs:int'/></xs:sequence></xs:complexType>" +
+            "<xs:complexType name='Extended'><xs:complexContent><xs:extension base='t:Base'>" +
+            "<xs:sequence><xs:element name='m' type='xs:string'/></xs:sequence></xs:extension></xs:complexContent></xs:complexType>" +
+            "<xs:element name='echo'><xs:complexType><xs:sequence>" +
+            "<xs:element name='v' type='t:Base' maxOccurs='unbounded'/></xs:sequence></xs:complexType></xs:element>" +
+            "</xs:schema>";
+
+    private Schema schema;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        schema = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI)
+                .newSchema(new StreamSource(new StringReader(SCHEMA)));
+    }
+
+    public void testValidPayload() throws Exception {
+        // t and xsi are declared on the envelope
+        StreamingValidationMessage msg = create(
+                "<t:echo><t:v><t:n>1</t:n></t:v><t:v xsi:type='t:Extended'><t:n>2</t:n><t:m>x</t:m></t:v></t:echo>");
+        readAll(msg.readPayload());
+        assertNull(msg.getError());
+    }
+
+    public void testInvalidPayloadIsReportedAtTheEnd() throws Exception {
+        StreamingValidationMessage msg = create("<t:echo><t:v><t:n>one</t:n></t:v></t:echo>");
+        XMLStreamReader reader = msg.readPayload();
+        try {
+            readAll(reader);
+            fail("invalid payload was read");
+        } catch (XMLStreamException e) {
+            assertSame(msg.getError(), e.getNestedException());
+        }
+        assertTrue(reader.isEndElement());
+        assertEquals("echo", reader.getLocalName());
+    }
+
+    public void testInvalidPayloadReadAsSource() throws Exception {
+        StreamingValidationMessage msg = create("<t:echo><t:v xsi:type='t:Extended'><t:n>1</t:n></t:v></t:echo>");
+        try {
+            msg.readPayloadAsSource();
+            fail("invalid payload was read");
+        } catch (WebServiceException e) {
+            assertSame(msg.getError(), e.getCause());
+        }
+    }
+
+    private StreamingValidationMessage create(String payload) {
+        String envelope = "<S:Envelope xmlns:S='" + SOAPVersion.SOAP_11.nsUri + "' xmlns:t='urn:test'" +
+                " xmlns:xsi='" + XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI + "'><S:Body>" + payload + "</S:Body></S:Envelope>";
+        Message msg = Messages.create(new StreamSource(new StringReader(envelope)), SOAPVersion.SOAP_11);
+        return new StreamingValidationMessage(msg, schema, new DraconianValidationErrorHandler());
+    }
+
+    private static void readAll(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            reader.next();
+        }
+    }
+}
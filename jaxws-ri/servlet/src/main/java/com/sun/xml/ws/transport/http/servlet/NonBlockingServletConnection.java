@@ -0,0 +1,199 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http.servlet;
+
+import com.sun.istack.NotNull;
+import com.sun.xml.ws.transport.http.HttpAdapter;
+import com.sun.xml.ws.util.ByteArrayBuffer;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link ServletConnectionImpl} that moves the bytes with the Servlet 3.1
+ * non-blocking I/O API.
+ *
+ * <p>
+ * The request body is accumulated by a {@link ReadListener} and only when all
+ * of it has arrived is the request handed to {@link HttpAdapter}, so the codec
+ * decodes from memory. The codec likewise encodes the response to memory, and
+ * a {@link WriteListener} drains it to the client afterwards. No container
+ * thread blocks on a slow client in either direction, at the cost of holding
+ * the complete request and response bytes in memory for the duration of the
+ * exchange.
+ */
+final class NonBlockingServletConnection extends ServletConnectionImpl {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private final HttpServletRequest request;
+    private final HttpServletResponse response;
+    private final ByteArrayBuffer requestBytes = new ByteArrayBuffer();
+    private ByteArrayBuffer responseBytes;
+
+    NonBlockingServletConnection(@NotNull ServletAdapter adapter, ServletContext context,
+                                 HttpServletRequest request, HttpServletResponse response) {
+        super(adapter, context, request, response);
+        this.request = request;
+        this.response = response;
+    }
+
+    @Override
+    public @NotNull InputStream getInput() {
+        return requestBytes.newInputStream();
+    }
+
+    @Override
+    public @NotNull OutputStream getOutput() throws IOException {
+        // sets the status code and the response headers
+        super.getOutput();
+        if (responseBytes == null) {
+            responseBytes = new ByteArrayBuffer();
+        }
+        return responseBytes;
+    }
+
+    /**
+     * Reads the request body without blocking, runs the request through the
+     * adapter and writes the response without blocking.
+     *
+     * The request must be in asynchronous mode.
+     *
+     * @param handler invoked with this connection once the whole request body is read;
+     *                it must call the given completion callback when the response is encoded
+     * @param done invoked once the response is written, or the exchange failed
+     */
+    void process(final Handler handler, final HttpAdapter.CompletionCallback done) throws IOException {
+        final ServletInputStream in = request.getInputStream();
+        in.setReadListener(new ReadListener() {
+            private final byte[] chunk = new byte[CHUNK_SIZE];
+
+            @Override
+            public void onDataAvailable() throws IOException {
+                // isReady() registers for the next onDataAvailable() when it returns false
+                while (in.isReady() && !in.isFinished()) {
+                    int len = in.read(chunk);
+                    if (len < 0) {
+                        break;
+                    }
+                    requestBytes.write(chunk, 0, len);
+                }
+            }
+
+            @Override
+            public void onAllDataRead() throws IOException {
+                handler.handle(NonBlockingServletConnection.this, new HttpAdapter.CompletionCallback() {
+                    @Override
+                    public void onCompletion() {
+                        try {
+                            writeResponse(done);
+                        } catch (IOException e) {
+                            fail(e, done);
+                        }
+                    }
+                });
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail(t, done);
+            }
+        });
+    }
+
+    private void writeResponse(final HttpAdapter.CompletionCallback done) throws IOException {
+        if (responseBytes == null || responseBytes.size() == 0) {
+            done.onCompletion();
+            return;
+        }
+        final byte[] data = responseBytes.getRawData();
+        final int size = responseBytes.size();
+        response.setContentLength(size);
+        final ServletOutputStream out = response.getOutputStream();
+        out.setWriteListener(new WriteListener() {
+            private int written;
+
+            @Override
+            public void onWritePossible() throws IOException {
+                // isReady() registers for the next onWritePossible() when it returns false
+                while (out.isReady()) {
+                    if (written == size) {
+                        done.onCompletion();
+                        return;
+                    }
+                    int len = Math.min(CHUNK_SIZE, size - written);
+                    out.write(data, written, len);
+                    written += len;
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail(t, done);
+            }
+        });
+    }
+
+    private void fail(Throwable t, HttpAdapter.CompletionCallback done) {
+        LOGGER.log(Level.FINE, "Non-blocking I/O failed for " + request.getRequestURL(), t);
+        close();
+        done.onCompletion();
+    }
+
+    /**
+     * Runs the request once its body is available.
+     */
+    interface Handler {
+        void handle(NonBlockingServletConnection connection, HttpAdapter.CompletionCallback callback) throws IOException;
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(NonBlockingServletConnection.class.getName());
+}
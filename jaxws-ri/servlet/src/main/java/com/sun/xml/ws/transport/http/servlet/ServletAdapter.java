@@ -207,9 +207,7 @@ public class ServletAdapter extends HttpAdapter implements BoundEndpoint {
             if (asyncRequest) {
                 final javax.servlet.AsyncContext asyncContext = request.startAsync(request, response);
                 final AsyncCompletionCheck completionCheck = new AsyncCompletionCheck();
-                new WSAsyncListener(connection, callback).addListenerTo(asyncContext,completionCheck);
-                //asyncContext.setTimeout(10000L);// TODO get it from @ or config file
-                super.invokeAsync(connection, new CompletionCallback() {
+                final CompletionCallback completion = new CompletionCallback() {
                     @Override
                     public void onCompletion() {
                         synchronized (completionCheck) {
@@ -219,7 +217,24 @@ public class ServletAdapter extends HttpAdapter implements BoundEndpoint {
                             }
                         }
                     }
-                });
+                };
+                //asyncContext.setTimeout(10000L);// TODO get it from @ or config file
+                boolean nonBlocking = nonBlockingIO && isServlet31Based && supportsNonBlockingIO(request);
+                if (nonBlocking) {
+                    connection = new NonBlockingServletConnection(this, context, request, response);
+                }
+                // the listener closes this connection on a timeout or an error, so it must be the final one
+                new WSAsyncListener(connection, callback).addListenerTo(asyncContext,completionCheck);
+                if (nonBlocking) {
+                    ((NonBlockingServletConnection) connection).process(new NonBlockingServletConnection.Handler() {
+                        @Override
+                        public void handle(NonBlockingServletConnection con, CompletionCallback responseEncoded) throws IOException {
+                            ServletAdapter.super.invokeAsync(con, responseEncoded);
+                        }
+                    }, completion);
+                } else {
+                    super.invokeAsync(connection, completion);
+                }
                 asyncStarted = true;
             } else {
                 super.handle(connection);
@@ -231,6 +246,22 @@ public class ServletAdapter extends HttpAdapter implements BoundEndpoint {
         }
     }
 
+    /**
+     * Checks that the container implements the Servlet 3.1 non-blocking I/O
+     * API, with a call that has no side effect.
+     */
+    private boolean supportsNonBlockingIO(HttpServletRequest request) throws IOException {
+        try {
+            request.getInputStream().isFinished();
+            return true;
+        } catch (AbstractMethodError e) {
+            //this happens when the loaded Servlet API is 3.1, but the impl is not
+            LOGGER.log(Level.INFO, request.getClass().getName() + " does not support non-blocking I/O, Continuing with blocking I/O", e);
+            isServlet31Based = false;
+            return false;
+        }
+    }
+
     /**
      * Synchronizes the CompletionHandler action and Container's timeout action.
      */
@@ -268,4 +299,35 @@ public class ServletAdapter extends HttpAdapter implements BoundEndpoint {
 
     private boolean isServlet30Based = ServletUtil.isServlet30Based();
 
+    private volatile boolean isServlet31Based = ServletUtil.isServlet31Based();
+
+    /**
+     * Reads requests and writes responses of asynchronous invocations with
+     * the Servlet 3.1 non-blocking I/O API, so that a slow client doesn't hold
+     * a container thread.
+     *
+     * <p>
+     * The whole request body is held in memory until it is decoded, and the
+     * whole encoded response until the client has read it, so each exchange
+     * in progress costs about the size of its request plus its response in
+     * heap. Endpoints that exchange large attachments should stay with
+     * blocking I/O.
+     */
+    public static volatile boolean nonBlockingIO = false;
+
+    public static synchronized void setNonBlockingIO(boolean nonBlocking) {
+        nonBlockingIO = nonBlocking;
+    }
+
+    static {
+        try {
+            nonBlockingIO = Boolean.getBoolean(ServletAdapter.class.getName() + ".nonBlockingIO");
+        } catch (SecurityException se) {
+            if (LOGGER.isLoggable(Level.CONFIG)) {
+                LOGGER.log(Level.CONFIG, "Cannot read ''{0}'' property, using defaults.",
+                        new Object[] {ServletAdapter.class.getName() + ".nonBlockingIO"});
+            }
+        }
+    }
+
 }
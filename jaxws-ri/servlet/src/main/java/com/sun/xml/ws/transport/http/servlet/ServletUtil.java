@@ -55,4 +55,20 @@ public class ServletUtil {
         }
         return false;        
     }
+
+    /**
+     * @return true if the Servlet 3.1 non-blocking I/O API is available
+     */
+    public static boolean isServlet31Based() {
+        try {
+            Class.forName("javax.servlet.ReadListener");
+            Class servletInputStreamClazz = Class.forName("javax.servlet.ServletInputStream");
+            servletInputStreamClazz.getDeclaredMethod("setReadListener", Class.forName("javax.servlet.ReadListener"));
+            //no exception
+            return true;
+        } catch (Throwable t) {
+            // Not Servlet 3.1 API
+        }
+        return false;
+    }
 }
@@ -122,5 +122,14 @@ public class WSServlet extends HttpServlet {
         "com.sun.xml.ws.server.http.publishWSDL";
     public static final String JAXWS_RI_PROPERTY_PUBLISH_STATUS_PAGE =
         "com.sun.xml.ws.server.http.publishStatusPage";
+    public static final String JAXWS_RI_PROPERTY_NON_BLOCKING_IO =
+        "com.sun.xml.ws.server.http.nonBlockingIO";
+    /**
+     * Number of threads the endpoints of {@code sun-jaxws.xml} are built on.
+     *
+     * @see com.sun.xml.ws.transport.http.DeploymentDescriptorParser#setParallelism(int)
+     */
+    public static final String JAXWS_RI_PROPERTY_DEPLOYMENT_PARALLELISM =
+        "com.sun.xml.ws.server.http.deploymentParallelism";
 
 }
@@ -128,6 +128,10 @@ public final class WSServletContextListener
             // Parse the descriptor file and build endpoint infos
             DeploymentDescriptorParser<ServletAdapter> parser = new DeploymentDescriptorParser<ServletAdapter>(
                 classLoader,new ServletResourceLoader(context), createContainer(context), new ServletAdapterList(context));
+            String parallelism = context.getInitParameter(WSServlet.JAXWS_RI_PROPERTY_DEPLOYMENT_PARALLELISM);
+            if (parallelism != null) {
+                parser.setParallelism(Integer.parseInt(parallelism.trim()));
+            }
             adapters = parser.parse(sunJaxWsXml.toExternalForm(), sunJaxWsXml.openStream());
             registerWSServlet(adapters, context);
             delegate = createDelegate(adapters, context);
@@ -105,6 +105,11 @@ public class WSServletDelegate {
         if (publishStatusPageParam != null) {
             HttpAdapter.setPublishStatus(Boolean.parseBoolean(publishStatusPageParam));
         }
+        String nonBlockingIOParam =
+            context.getInitParameter(WSServlet.JAXWS_RI_PROPERTY_NON_BLOCKING_IO);
+        if (nonBlockingIOParam != null) {
+            ServletAdapter.setNonBlockingIO(Boolean.parseBoolean(nonBlockingIOParam));
+        }
     }
 
     public void destroy() {
@@ -0,0 +1,233 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http.servlet;
+
+import com.sun.xml.ws.transport.http.HttpAdapter;
+import com.sun.xml.ws.util.ByteArrayBuffer;
+import junit.framework.TestCase;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs {@link NonBlockingServletConnection} in an embedded Jetty whose thread
+ * pool is smaller than the number of slow clients. If the connection held a
+ * container thread while a client trickles its request or reads its response,
+ * the pool would run dry and the fast requests in between would not be served.
+ */
+public class NonBlockingServletConnectionTest extends TestCase {
+
+    private static final int MAX_THREADS = 8;
+    private static final int SLOW_CLIENTS = 12;
+    private static final int RESPONSE_COPIES = 512;
+
+    private Server server;
+    private int port;
+
+    @Override
+    protected void setUp() throws Exception {
+        server = new Server(new QueuedThreadPool(MAX_THREADS, MAX_THREADS));
+        ServerConnector connector = new ServerConnector(server, 1, 1);
+        connector.setHost("localhost");
+        server.addConnector(connector);
+        ServletContextHandler context = new ServletContextHandler();
+        context.setContextPath("/");
+        ServletHolder holder = new ServletHolder(new EchoServlet());
+        holder.setAsyncSupported(true);
+        context.addServlet(holder, "/echo");
+        server.setHandler(context);
+        server.start();
+        port = connector.getLocalPort();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        server.stop();
+    }
+
+    public void testSlowClientsDontHoldContainerThreads() throws Exception {
+        byte[] body = body(1024);
+        int half = body.length / 2;
+
+        // each client sends its headers and half of its body, then stalls
+        List<Socket> clients = new ArrayList<Socket>();
+        for (int i = 0; i < SLOW_CLIENTS; i++) {
+            Socket client = new Socket();
+            client.setReceiveBufferSize(4096);
+            client.setSoTimeout(10000);
+            client.connect(new InetSocketAddress("localhost", port));
+            OutputStream out = client.getOutputStream();
+            out.write(("POST /echo HTTP/1.1\r\n"
+                    + "Host: localhost:" + port + "\r\n"
+                    + "Content-Type: text/xml\r\n"
+                    + "Content-Length: " + body.length + "\r\n"
+                    + "X-Copies: " + RESPONSE_COPIES + "\r\n"
+                    + "Connection: close\r\n\r\n").getBytes("ISO-8859-1"));
+            out.write(body, 0, half);
+            out.flush();
+            clients.add(client);
+        }
+        assertFastRequestIsServed();
+
+        // the rest of the bodies, drip-fed
+        for (int off = half; off < body.length; off += 128) {
+            for (Socket client : clients) {
+                OutputStream out = client.getOutputStream();
+                out.write(body, off, Math.min(128, body.length - off));
+                out.flush();
+            }
+            Thread.sleep(10);
+        }
+
+        // nobody reads the responses yet, their writes wait for the clients
+        Thread.sleep(200);
+        assertFastRequestIsServed();
+
+        // the responses are read a little at a time
+        List<ByteArrayBuffer> responses = new ArrayList<ByteArrayBuffer>();
+        for (int i = 0; i < SLOW_CLIENTS; i++) {
+            responses.add(new ByteArrayBuffer());
+        }
+        byte[] chunk = new byte[4096];
+        boolean reading = true;
+        while (reading) {
+            reading = false;
+            for (int i = 0; i < SLOW_CLIENTS; i++) {
+                Socket client = clients.get(i);
+                if (client.isClosed()) {
+                    continue;
+                }
+                int len = client.getInputStream().read(chunk);
+                if (len < 0) {
+                    client.close();
+                } else {
+                    responses.get(i).write(chunk, 0, len);
+                    reading = true;
+                }
+            }
+            Thread.sleep(1);
+        }
+        for (ByteArrayBuffer response : responses) {
+            String text = new String(response.getRawData(), 0, response.size(), "ISO-8859-1");
+            assertTrue(text, text.startsWith("HTTP/1.1 200"));
+            int head = text.indexOf("\r\n\r\n") + 4;
+            assertEquals(body.length * RESPONSE_COPIES, response.size() - head);
+            assertTrue(Arrays.equals(body, Arrays.copyOfRange(response.getRawData(), head, head + body.length)));
+        }
+    }
+
+    private void assertFastRequestIsServed() throws IOException {
+        byte[] body = body(64);
+        HttpURLConnection con = (HttpURLConnection) new URL("http://localhost:" + port + "/echo").openConnection();
+        con.setConnectTimeout(5000);
+        con.setReadTimeout(5000);
+        con.setDoOutput(true);
+        con.setRequestMethod("POST");
+        con.setRequestProperty("Content-Type", "text/xml");
+        con.setRequestProperty("X-Copies", "1");
+        OutputStream out = con.getOutputStream();
+        out.write(body);
+        out.close();
+        assertEquals(200, con.getResponseCode());
+        ByteArrayBuffer response = new ByteArrayBuffer();
+        InputStream in = con.getInputStream();
+        response.write(in);
+        in.close();
+        assertTrue(Arrays.equals(body, response.toByteArray()));
+    }
+
+    private static byte[] body(int size) {
+        byte[] body = new byte[size];
+        for (int i = 0; i < size; i++) {
+            body[i] = (byte) ('a' + i % 26);
+        }
+        return body;
+    }
+
+    /**
+     * Echoes the request body as many times as the X-Copies header says.
+     */
+    private static final class EchoServlet extends HttpServlet {
+        @Override
+        protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            final AsyncContext async = request.startAsync();
+            async.setTimeout(30000);
+            NonBlockingServletConnection connection = new NonBlockingServletConnection(null, getServletContext(), request, response);
+            connection.process(new NonBlockingServletConnection.Handler() {
+                @Override
+                public void handle(NonBlockingServletConnection con, HttpAdapter.CompletionCallback callback) throws IOException {
+                    ByteArrayBuffer body = new ByteArrayBuffer();
+                    body.write(con.getInput());
+                    int copies = Integer.parseInt(con.getRequestHeader("X-Copies"));
+                    con.setStatus(200);
+                    con.setContentTypeResponseHeader("text/xml");
+                    OutputStream out = con.getOutput();
+                    for (int i = 0; i < copies; i++) {
+                        body.writeTo(out);
+                    }
+                    callback.onCompletion();
+                }
+            }, new HttpAdapter.CompletionCallback() {
+                @Override
+                public void onCompletion() {
+                    async.complete();
+                }
+            });
+        }
+    }
+}
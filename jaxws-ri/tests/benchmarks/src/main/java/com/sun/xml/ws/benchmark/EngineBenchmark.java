@@ -0,0 +1,178 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.benchmark;
+
+import com.sun.istack.NotNull;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.Engine;
+import com.sun.xml.ws.api.pipe.Fiber;
+import com.sun.xml.ws.api.pipe.NextAction;
+import com.sun.xml.ws.api.pipe.TubeCloner;
+import com.sun.xml.ws.api.pipe.helper.AbstractTubeImpl;
+import com.sun.xml.ws.api.server.Container;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a batch of concurrent fibers whose tube blocks, like a tube doing
+ * synchronous I/O, on the default executor of an {@link Engine}: the cached
+ * thread pool, or one virtual thread per fiber when
+ * {@link Engine#VIRTUAL_THREADS_PROPERTY} is set and the JDK supports them.
+ *
+ * <p>
+ * The property is read once per JVM, so the two modes only differ when the
+ * benchmarks run forked. {@code -prof hs_thr} shows the number of platform
+ * threads each mode starts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EngineBenchmark {
+
+    @Param({"100", "2000"})
+    public int fibers;
+
+    @Param({"20"})
+    public long blockingMillis;
+
+    private Engine engine;
+
+    @Setup
+    public void setup() {
+        engine = new Engine("benchmark", new Container() {});
+    }
+
+    @Benchmark
+    public int cachedThreadPool() throws InterruptedException {
+        return run();
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Dcom.sun.xml.ws.api.pipe.Engine.virtualThreads=true")
+    public int virtualThreads() throws InterruptedException {
+        return run();
+    }
+
+    private int run() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(fibers);
+        final int[] failed = new int[1];
+        for (int i = 0; i < fibers; i++) {
+            engine.createFiber().start(new BlockingTube(blockingMillis), new Packet(), new Fiber.CompletionCallback() {
+                @Override
+                public void onCompletion(@NotNull Packet response) {
+                    done.countDown();
+                }
+
+                @Override
+                public void onCompletion(@NotNull Throwable error) {
+                    synchronized (failed) {
+                        failed[0]++;
+                    }
+                    done.countDown();
+                }
+            });
+        }
+        if (!done.await(1, TimeUnit.MINUTES)) {
+            throw new IllegalStateException("Fibers didn't complete");
+        }
+        synchronized (failed) {
+            return failed[0];
+        }
+    }
+
+    /**
+     * Blocks the thread that runs the fiber for a while.
+     */
+    static final class BlockingTube extends AbstractTubeImpl {
+        private final long millis;
+
+        BlockingTube(long millis) {
+            this.millis = millis;
+        }
+
+        BlockingTube(BlockingTube that, TubeCloner cloner) {
+            super(that, cloner);
+            this.millis = that.millis;
+        }
+
+        @Override
+        @NotNull
+        public NextAction processRequest(@NotNull Packet request) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return doReturnWith(request);
+        }
+
+        @Override
+        @NotNull
+        public NextAction processResponse(@NotNull Packet response) {
+            return doReturnWith(response);
+        }
+
+        @Override
+        @NotNull
+        public NextAction processException(@NotNull Throwable t) {
+            return doThrow(t);
+        }
+
+        @Override
+        public void preDestroy() {
+        }
+
+        @Override
+        public BlockingTube copy(TubeCloner cloner) {
+            return new BlockingTube(this, cloner);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.benchmark;
+
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.addressing.AddressingVersion;
+import com.sun.xml.ws.api.message.AddressingUtils;
+import com.sun.xml.ws.api.message.MessageHeaders;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.Codec;
+import com.sun.xml.ws.api.pipe.Codecs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.xml.namespace.QName;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+/**
+ * Decodes WS-Addressing requests with a small payload and looks their headers
+ * up the way the addressing tubes and the {@code mustUnderstand} processing do.
+ */
+@State(Scope.Thread)
+public class HeaderBenchmark {
+
+    /**
+     * Number of application headers in addition to the WS-Addressing ones.
+     * 20 is about what WS-Security and WS-ReliableMessaging add to a request.
+     */
+    @Param({"0", "20", "100"})
+    public int customHeaders;
+
+    private final SOAPVersion sv = SOAPVersion.SOAP_11;
+    private final AddressingVersion av = AddressingVersion.W3C;
+    private Codec codec;
+    private byte[] envelope;
+    private QName lastHeader;
+    private QName[] knownHeaders;
+
+    @Setup
+    public void setup() {
+        codec = Codecs.createSOAPEnvelopeXmlCodec(sv);
+        envelope = Payloads.envelope(sv, Payloads.payload(1), true, customHeaders);
+        lastHeader = new QName(Payloads.NS, "h" + Math.max(0, customHeaders - 1));
+        knownHeaders = new QName[customHeaders];
+        for (int i = 0; i < customHeaders; i++) {
+            knownHeaders[i] = new QName(Payloads.NS, "h" + i);
+        }
+    }
+
+    @Benchmark
+    public void addressingHeaders(Blackhole bh) throws IOException {
+        MessageHeaders headers = decode();
+        bh.consume(AddressingUtils.getTo(headers, av, sv));
+        bh.consume(AddressingUtils.getAction(headers, av, sv));
+        bh.consume(AddressingUtils.getMessageID(headers, av, sv));
+        bh.consume(AddressingUtils.getRelatesTo(headers, av, sv));
+        bh.consume(AddressingUtils.getReplyTo(headers, av, sv));
+        bh.consume(AddressingUtils.getFaultTo(headers, av, sv));
+    }
+
+    @Benchmark
+    public void applicationHeader(Blackhole bh) throws IOException {
+        MessageHeaders headers = decode();
+        bh.consume(headers.get(lastHeader, true));
+        bh.consume(headers.isUnderstood(lastHeader));
+    }
+
+    /**
+     * What a header-heavy request goes through on the server: every tube
+     * looks up the headers it knows, the addressing ones are read repeatedly,
+     * and the {@code mustUnderstand} processing checks what is left.
+     */
+    @Benchmark
+    public void headerProcessing(Blackhole bh) throws IOException {
+        MessageHeaders headers = decode();
+        for (QName name : knownHeaders) {
+            bh.consume(headers.get(name, true));
+        }
+        for (int i = 0; i < 3; i++) {
+            bh.consume(AddressingUtils.getAction(headers, av, sv));
+            bh.consume(AddressingUtils.getMessageID(headers, av, sv));
+        }
+        bh.consume(AddressingUtils.getTo(headers, av, sv));
+        bh.consume(AddressingUtils.getReplyTo(headers, av, sv));
+        bh.consume(headers.getNotUnderstoodHeaders(null, null, null));
+    }
+
+    private MessageHeaders decode() throws IOException {
+        Packet packet = new Packet();
+        codec.decode(new ByteArrayInputStream(envelope), sv.contentType, packet);
+        return packet.getMessage().getHeaders();
+    }
+}
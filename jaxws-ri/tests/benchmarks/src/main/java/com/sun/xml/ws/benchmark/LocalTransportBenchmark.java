@@ -0,0 +1,134 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.benchmark;
+
+import com.sun.xml.ws.api.BindingID;
+import com.sun.xml.ws.api.server.WSEndpoint;
+import com.sun.xml.ws.transport.local.InVmServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.xml.sax.Attributes;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.namespace.QName;
+import javax.xml.transform.Source;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXResult;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.ws.Dispatch;
+import javax.xml.ws.Service;
+import javax.xml.ws.soap.SOAPBinding;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collections;
+
+/**
+ * Full client-server round trips through the in-VM flavor of the local transport
+ * ({@code transports/local}): the client tubeline, encoding, the server's
+ * {@code HttpAdapter}, decoding and the endpoint's tubeline, and back.
+ *
+ * <p>
+ * The {@code in-vm-direct} variant passes the messages between the two
+ * tubelines without encoding them.
+ */
+@State(Scope.Benchmark)
+public class LocalTransportBenchmark {
+
+    private static final QName SERVICE = new QName(Payloads.NS, "EchoService");
+    private static final QName PORT = new QName(Payloads.NS, "EchoPort");
+
+    @Param({"1", "100"})
+    public int items;
+
+    @Param({"in-vm", "in-vm-direct"})
+    public String scheme;
+
+    private InVmServer server;
+    private Dispatch<Source> dispatch;
+    private String payload;
+    private Transformer transformer;
+
+    @Setup(Level.Trial)
+    public void deploy() throws IOException, TransformerException {
+        BindingID bindingId = BindingID.SOAP11_HTTP;
+        WSEndpoint<EchoProvider> endpoint = WSEndpoint.create(EchoProvider.class, false, null, SERVICE, PORT,
+                null, bindingId.createBinding(), null, null, (EntityResolver) null, true);
+        String id = "benchmark-" + System.identityHashCode(this);
+        server = new InVmServer(id, Collections.<WSEndpoint>singletonList(endpoint));
+
+        Service service = Service.create(SERVICE);
+        service.addPort(PORT, SOAPBinding.SOAP11HTTP_BINDING, scheme + "://" + id + "/");
+        dispatch = service.createDispatch(PORT, Source.class, Service.Mode.PAYLOAD);
+        payload = Payloads.payload(items);
+        // the response isn't necessarily a source a StAX implementation can read
+        transformer = TransformerFactory.newInstance().newTransformer();
+    }
+
+    @TearDown(Level.Trial)
+    public void undeploy() {
+        server.undeploy();
+    }
+
+    @Benchmark
+    public int roundTrip() throws TransformerException {
+        Source response = dispatch.invoke(new StreamSource(new StringReader(payload)));
+        ElementCounter counter = new ElementCounter();
+        transformer.transform(response, new SAXResult(counter));
+        return counter.elements;
+    }
+
+    private static final class ElementCounter extends DefaultHandler {
+        int elements;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            elements++;
+        }
+    }
+}
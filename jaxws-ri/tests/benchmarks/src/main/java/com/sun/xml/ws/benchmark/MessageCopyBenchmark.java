@@ -0,0 +1,120 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.benchmark;
+
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.Messages;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.Codec;
+import com.sun.xml.ws.api.pipe.Codecs;
+import com.sun.xml.ws.api.streaming.XMLStreamWriterFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+/**
+ * Measures {@link Message#copy()}, as done by the tubes that need to look at a
+ * message more than once, of a decoded {@code StreamMessage} and of a
+ * {@code JAXBMessage}. Both the original and the copy are written out,
+ * so the benchmarks include the cost of buffering the original.
+ * {@link SOAPDecodeBenchmark} gives the cost of decoding alone.
+ */
+@State(Scope.Thread)
+public class MessageCopyBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int items;
+
+    private final SOAPVersion sv = SOAPVersion.SOAP_11;
+    private Codec codec;
+    private byte[] envelope;
+    private JAXBContext context;
+    private Echo echo;
+
+    @Setup
+    public void setup() throws JAXBException {
+        codec = Codecs.createSOAPEnvelopeXmlCodec(sv);
+        envelope = Payloads.envelope(sv, Payloads.payload(items), true, 0);
+        context = JAXBContext.newInstance(Echo.class);
+        echo = Echo.create(items);
+    }
+
+    @Benchmark
+    public void streamMessage() throws IOException, XMLStreamException {
+        Packet packet = new Packet();
+        codec.decode(new ByteArrayInputStream(envelope), sv.contentType, packet);
+        writeWithCopy(packet.getMessage());
+    }
+
+    @Benchmark
+    public void jaxbMessage() throws XMLStreamException {
+        writeWithCopy(Messages.create(context, echo, sv));
+    }
+
+    private static void writeWithCopy(Message message) throws XMLStreamException {
+        Message copy = message.copy();
+        write(copy);
+        write(message);
+    }
+
+    /*
+     * One writer per document, as a writer doesn't have to accept a second one.
+     */
+    private static void write(Message message) throws XMLStreamException {
+        XMLStreamWriter writer = XMLStreamWriterFactory.create(MtomBenchmark.NullOutputStream.INSTANCE);
+        try {
+            message.writeTo(writer);
+            writer.flush();
+        } finally {
+            XMLStreamWriterFactory.recycle(writer);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.benchmark;
+
+import com.sun.tools.ws.wscompile.WsgenTool;
+import com.sun.xml.ws.api.databinding.DatabindingConfig;
+import com.sun.xml.ws.api.databinding.DatabindingFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Builds the runtime models of a set of synthetic endpoints in a fresh class loader,
+ * like a container deploying an application:
+ * <ul>
+ * <li>{@code generated}: the endpoint classes only, the wrapper and exception beans
+ *     are generated at runtime after the class loader failed to find them,</li>
+ * <li>{@code wsgen}: the beans compiled by {@code wsgen} next to the endpoints.</li>
+ * </ul>
+ *
+ * The class loader searches {@code jars} unrelated jars before the endpoint classes,
+ * as an application class loader of a container does, so a failed class look-up
+ * costs about what it costs there.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ModelStartupBenchmark {
+
+    private static final int OPERATIONS = 10;
+
+    @Param({"100"})
+    public int endpoints;
+
+    @Param({"generated", "wsgen"})
+    public String variant;
+
+    @Param({"0", "200"})
+    public int jars;
+
+    private File dir;
+    private URL[] classPath;
+    private List<String> endpointClasses;
+
+    @Setup(Level.Trial)
+    public void generate() throws Exception {
+        dir = Files.createTempDirectory("model-startup").toFile();
+        File src = new File(dir, "src");
+        File classes = new File(dir, "classes");
+        File generated = new File(dir, "generated");
+        classes.mkdirs();
+        generated.mkdirs();
+
+        List<String> sources = new ArrayList<String>();
+        endpointClasses = new ArrayList<String>();
+        sources.add(write(src, "bench.common.Item", itemSource()));
+        sources.add(write(src, "bench.common.ItemFault", faultSource()));
+        for (int i = 0; i < endpoints; i++) {
+            String name = "bench.s" + i + ".Service" + i;
+            sources.add(write(src, name, endpointSource(i)));
+            endpointClasses.add(name);
+        }
+        JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        List<String> args = new ArrayList<String>();
+        args.add("-nowarn");
+        args.add("-d");
+        args.add(classes.getPath());
+        args.add("-cp");
+        args.add(System.getProperty("java.class.path"));
+        args.addAll(sources);
+        if (javac.run(null, null, null, args.toArray(new String[args.size()])) != 0) {
+            throw new IllegalStateException("cannot compile the endpoints");
+        }
+        List<URL> urls = new ArrayList<URL>();
+        File lib = new File(dir, "lib");
+        lib.mkdirs();
+        for (int i = 0; i < jars; i++) {
+            urls.add(writeJar(lib, i).toURI().toURL());
+        }
+        urls.add(classes.toURI().toURL());
+        urls.add(generated.toURI().toURL());
+        classPath = urls.toArray(new URL[urls.size()]);
+
+        if ("wsgen".equals(variant)) {
+            for (String name : endpointClasses) {
+                boolean ok = new WsgenTool(MtomBenchmark.NullOutputStream.INSTANCE).run(new String[] {
+                    "-cp", classes.getPath(),
+                    "-d", generated.getPath(),
+                    name});
+                if (!ok) {
+                    throw new IllegalStateException("wsgen failed for " + name);
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() {
+        delete(dir);
+    }
+
+    @Benchmark
+    public void deploy(Blackhole bh) throws ClassNotFoundException {
+        ClassLoader loader = new URLClassLoader(classPath, getClass().getClassLoader());
+        DatabindingFactory factory = DatabindingFactory.newInstance();
+        for (String name : endpointClasses) {
+            bh.consume(factory.createRuntime(config(loader, name)));
+        }
+    }
+
+    private static DatabindingConfig config(ClassLoader loader, String name) throws ClassNotFoundException {
+        DatabindingConfig config = new DatabindingConfig();
+        config.setEndpointClass(loader.loadClass(name));
+        config.setClassLoader(loader);
+        return config;
+    }
+
+    private static String itemSource() {
+        return "package bench.common;\n"
+                + "public class Item {\n"
+                + "    private String name; private int count;\n"
+                + "    public String getName() { return name; } public void setName(String n) { name = n; }\n"
+                + "    public int getCount() { return count; } public void setCount(int c) { count = c; }\n"
+                + "}\n";
+    }
+
+    private static String faultSource() {
+        return "package bench.common;\n"
+                + "public class ItemFault extends Exception {\n"
+                + "    private final String code;\n"
+                + "    public ItemFault(String message, String code) { super(message); this.code = code; }\n"
+                + "    public String getCode() { return code; }\n"
+                + "}\n";
+    }
+
+    private static String endpointSource(int i) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("package bench.s").append(i).append(";\n");
+        sb.append("@javax.jws.WebService(targetNamespace = \"urn:benchmark:s").append(i).append("\")\n");
+        sb.append("public class Service").append(i).append(" {\n");
+        for (int op = 0; op < OPERATIONS; op++) {
+            sb.append("    public bench.common.Item operation").append(op)
+                    .append("(String name, int count, bench.common.Item item) throws bench.common.ItemFault {\n")
+                    .append("        return item;\n")
+                    .append("    }\n");
+        }
+        return sb.append("}\n").toString();
+    }
+
+    private static String write(File src, String className, String source) throws IOException {
+        File file = new File(src, className.replace('.', File.separatorChar) + ".java");
+        file.getParentFile().mkdirs();
+        Writer w = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8);
+        try {
+            w.write(source);
+        } finally {
+            w.close();
+        }
+        return file.getPath();
+    }
+
+    /*
+     * A jar with one class file, which the class loader opens and searches.
+     */
+    private static File writeJar(File lib, int i) throws IOException {
+        File jar = new File(lib, "lib" + i + ".jar");
+        JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+        try {
+            out.putNextEntry(new JarEntry("lib" + i + "/Library.class"));
+            out.write(new byte[16]);
+            out.closeEntry();
+        } finally {
+            out.close();
+        }
+        return jar;
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
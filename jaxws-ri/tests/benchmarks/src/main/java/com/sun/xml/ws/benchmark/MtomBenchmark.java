@@ -0,0 +1,149 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.benchmark;
+
+import com.sun.xml.ws.api.BindingID;
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.WSBinding;
+import com.sun.xml.ws.api.message.Attachment;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.Messages;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.Codec;
+import com.sun.xml.ws.api.pipe.ContentType;
+import com.sun.xml.ws.message.ByteArrayAttachment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.ws.soap.MTOMFeature;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+
+/**
+ * Encodes and decodes MTOM/XOP messages with one binary attachment
+ * of 1 KB to 10 MB through {@code MtomCodec}.
+ */
+@State(Scope.Thread)
+public class MtomBenchmark {
+
+    private static final String CID = "attachment@benchmark";
+
+    @Param({"1024", "102400", "10485760"})
+    public int size;
+
+    private Codec codec;
+    private byte[] data;
+    private byte[] encoded;
+    private String contentType;
+    private final byte[] buffer = new byte[8192];
+
+    @Setup
+    public void setup() throws IOException {
+        BindingID bindingId = BindingID.SOAP11_HTTP_MTOM;
+        WSBinding binding = bindingId.createBinding();
+        codec = bindingId.createEncoder(binding);
+        data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) i;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size + 1024);
+        contentType = encode(out).getContentType();
+        encoded = out.toByteArray();
+    }
+
+    @Benchmark
+    public void encode() throws IOException {
+        encode(NullOutputStream.INSTANCE);
+    }
+
+    @Benchmark
+    public void decode(Blackhole bh) throws IOException, XMLStreamException {
+        Packet packet = new Packet();
+        codec.decode(new ByteArrayInputStream(encoded), contentType, packet);
+        Message message = packet.getMessage();
+        SOAPDecodeBenchmark.readPayload(message, bh);
+        for (Attachment a : message.getAttachments()) {
+            InputStream in = a.asInputStream();
+            int total = 0;
+            for (int n; (n = in.read(buffer)) != -1; ) {
+                total += n;
+            }
+            in.close();
+            bh.consume(total);
+        }
+    }
+
+    private ContentType encode(OutputStream out) throws IOException {
+        String payload = "<data xmlns=\"" + Payloads.NS + "\"><xop:Include xmlns:xop=\"http://www.w3.org/2004/08/xop/include\" href=\"cid:"
+                + CID + "\"/></data>";
+        Message message = Messages.createUsingPayload(new StreamSource(new StringReader(payload)), SOAPVersion.SOAP_11);
+        message.getAttachments().add(new ByteArrayAttachment(CID, data, "application/octet-stream"));
+        Packet packet = new Packet(message);
+        packet.setState(Packet.State.ClientRequest);
+        packet.setMtomFeature(new MTOMFeature(true));
+        return codec.encode(packet, out);
+    }
+
+    /**
+     * Discards whatever is written.
+     */
+    static final class NullOutputStream extends OutputStream {
+        static final NullOutputStream INSTANCE = new NullOutputStream();
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
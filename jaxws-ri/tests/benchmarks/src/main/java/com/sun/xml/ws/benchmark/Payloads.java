@@ -0,0 +1,100 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.benchmark;
+
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.addressing.AddressingVersion;
+
+import java.io.UnsupportedEncodingException;
+
+/**
+ * Builds the messages the benchmarks work on.
+ */
+final class Payloads {
+
+    static final String NS = "urn:benchmark";
+
+    private Payloads() {}
+
+    /**
+     * Payload with the given number of {@code item} elements, about 60 bytes each.
+     */
+    static String payload(int items) {
+        StringBuilder sb = new StringBuilder(64 * items + 64);
+        sb.append("<echo xmlns=\"").append(NS).append("\">");
+        for (int i = 0; i < items; i++) {
+            sb.append("<item id=\"").append(i).append("\">value of the item number ").append(i).append("</item>");
+        }
+        return sb.append("</echo>").toString();
+    }
+
+    /**
+     * SOAP envelope with the given payload.
+     *
+     * @param addressing
+     *      if true, the envelope has the WS-Addressing headers of a request.
+     * @param customHeaders
+     *      number of extra, application defined, headers.
+     */
+    static byte[] envelope(SOAPVersion sv, String payload, boolean addressing, int customHeaders) {
+        String wsa = AddressingVersion.W3C.nsUri;
+        StringBuilder sb = new StringBuilder(payload.length() + 1024 + 128 * customHeaders);
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+        sb.append("<S:Envelope xmlns:S=\"").append(sv.nsUri).append("\"><S:Header>");
+        if (addressing) {
+            sb.append("<To xmlns=\"").append(wsa).append("\">in-vm://benchmark/</To>");
+            sb.append("<Action xmlns=\"").append(wsa).append("\">").append(NS).append("/echo</Action>");
+            sb.append("<MessageID xmlns=\"").append(wsa).append("\">uuid:6b29fc40-ca47-1067-b31d-00dd010662da</MessageID>");
+            sb.append("<ReplyTo xmlns=\"").append(wsa).append("\"><Address>").append(wsa).append("/anonymous</Address></ReplyTo>");
+            sb.append("<FaultTo xmlns=\"").append(wsa).append("\"><Address>").append(wsa).append("/anonymous</Address></FaultTo>");
+            sb.append("<RelatesTo xmlns=\"").append(wsa).append("\">uuid:0f8fad5b-d9cb-469f-a165-70867728950e</RelatesTo>");
+        }
+        for (int i = 0; i < customHeaders; i++) {
+            sb.append("<h").append(i).append(" xmlns=\"").append(NS).append("\">header value ").append(i).append("</h").append(i).append('>');
+        }
+        sb.append("</S:Header><S:Body>").append(payload).append("</S:Body></S:Envelope>");
+        try {
+            return sb.toString().getBytes("UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
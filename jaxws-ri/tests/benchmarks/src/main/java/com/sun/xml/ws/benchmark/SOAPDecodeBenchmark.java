@@ -0,0 +1,104 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.benchmark;
+
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.Codec;
+import com.sun.xml.ws.api.pipe.Codecs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+/**
+ * Decodes SOAP 1.1 and 1.2 envelopes of various sizes with {@code StreamSOAPCodec}
+ * and reads their payload.
+ */
+@State(Scope.Thread)
+public class SOAPDecodeBenchmark {
+
+    @Param({"SOAP_11", "SOAP_12"})
+    public String soapVersion;
+
+    /**
+     * Number of payload elements: about 250 bytes, 6 KB and 600 KB envelopes.
+     */
+    @Param({"1", "100", "10000"})
+    public int items;
+
+    private Codec codec;
+    private String contentType;
+    private byte[] envelope;
+
+    @Setup
+    public void setup() {
+        SOAPVersion sv = SOAPVersion.valueOf(soapVersion);
+        codec = Codecs.createSOAPEnvelopeXmlCodec(sv);
+        contentType = sv.contentType;
+        envelope = Payloads.envelope(sv, Payloads.payload(items), false, 0);
+    }
+
+    @Benchmark
+    public void decode(Blackhole bh) throws IOException, XMLStreamException {
+        Packet packet = new Packet();
+        codec.decode(new ByteArrayInputStream(envelope), contentType, packet);
+        readPayload(packet.getMessage(), bh);
+    }
+
+    static void readPayload(Message message, Blackhole bh) throws XMLStreamException {
+        XMLStreamReader reader = message.readPayload();
+        while (reader.hasNext()) {
+            if (reader.next() == XMLStreamReader.CHARACTERS) {
+                bh.consume(reader.getTextLength());
+            }
+        }
+        reader.close();
+    }
+}
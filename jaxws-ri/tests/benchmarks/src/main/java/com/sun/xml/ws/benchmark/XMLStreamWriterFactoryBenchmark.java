@@ -0,0 +1,125 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.benchmark;
+
+import com.sun.xml.ws.api.streaming.XMLStreamWriterFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Serializes a small SOAP envelope from 1, 8 and 64 threads with the
+ * synchronized {@link XMLStreamWriterFactory.Default} and with
+ * {@link XMLStreamWriterFactory.Zephyr}, which reuses the writers.
+ */
+@State(Scope.Benchmark)
+public class XMLStreamWriterFactoryBenchmark {
+
+    private static final String SOAP_NS = "http://schemas.xmlsoap.org/soap/envelope/";
+
+    @Param({"default", "zephyr"})
+    public String factory;
+
+    private XMLStreamWriterFactory f;
+
+    @Setup
+    public void setup() {
+        XMLOutputFactory xof = XMLOutputFactory.newInstance();
+        f = "zephyr".equals(factory)
+                ? XMLStreamWriterFactory.Zephyr.newInstance(xof)
+                : new XMLStreamWriterFactory.Default(xof);
+        if (f == null) {
+            throw new IllegalStateException("The StAX implementation doesn't let writers be reused: " + xof.getClass());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Output {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int oneThread(Output o) throws XMLStreamException {
+        return write(o.out);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int eightThreads(Output o) throws XMLStreamException {
+        return write(o.out);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public int sixtyFourThreads(Output o) throws XMLStreamException {
+        return write(o.out);
+    }
+
+    private int write(ByteArrayOutputStream out) throws XMLStreamException {
+        out.reset();
+        XMLStreamWriter w = f.doCreate(out);
+        w.writeStartDocument();
+        w.writeStartElement("S", "Envelope", SOAP_NS);
+        w.writeNamespace("S", SOAP_NS);
+        w.writeStartElement("S", "Body", SOAP_NS);
+        w.writeStartElement("", "echoResponse", "urn:test");
+        w.writeDefaultNamespace("urn:test");
+        w.writeStartElement("", "return", "urn:test");
+        w.writeCharacters("hello");
+        w.writeEndElement();
+        w.writeEndElement();
+        w.writeEndElement();
+        w.writeEndElement();
+        w.writeEndDocument();
+        w.flush();
+        f.doRecycle(w);
+        return out.size();
+    }
+}
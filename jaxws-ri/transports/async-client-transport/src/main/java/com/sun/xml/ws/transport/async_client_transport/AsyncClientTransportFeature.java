@@ -52,13 +52,30 @@ public class AsyncClientTransportFeature extends WebServiceFeature{
     public static final String ID = "http://java.sun.com/xml/ns/jaxws/async/client/transport";
     private NonAnonymousResponsesReceiver receiver;
     private String nonanonAddress;
+    private long responseTimeout;
+    private int maxOutstandingRequests;
 
     public AsyncClientTransportFeature() {
         this(null,null);
     }
     public AsyncClientTransportFeature(String nonanonAddress, NonAnonymousResponsesReceiver receiver) {
+        this(nonanonAddress, receiver, ResponseCorrelationTable.DEFAULT_RESPONSE_TIMEOUT,
+                ResponseCorrelationTable.DEFAULT_MAX_OUTSTANDING_REQUESTS);
+    }
+
+    /**
+     * @param responseTimeout
+     *      milliseconds a request waits for its non-anonymous response before it fails.
+     * @param maxOutstandingRequests
+     *      maximum number of requests waiting for their response; further
+     *      requests fail until one of them completes.
+     */
+    public AsyncClientTransportFeature(String nonanonAddress, NonAnonymousResponsesReceiver receiver,
+                                       long responseTimeout, int maxOutstandingRequests) {
         this.receiver = receiver;
         this.nonanonAddress = nonanonAddress;
+        this.responseTimeout = responseTimeout;
+        this.maxOutstandingRequests = maxOutstandingRequests;
     }
 
     public NonAnonymousResponsesReceiver getReceiver() {
@@ -77,4 +94,12 @@ public class AsyncClientTransportFeature extends WebServiceFeature{
         return nonanonAddress;
     }
 
+    public long getResponseTimeout() {
+        return responseTimeout;
+    }
+
+    public int getMaxOutstandingRequests() {
+        return maxOutstandingRequests;
+    }
+
 }
@@ -58,6 +58,7 @@ import com.sun.xml.ws.binding.BindingImpl;
 import com.sun.istack.NotNull;
 
 import javax.xml.stream.XMLStreamWriter;
+import javax.xml.ws.WebServiceException;
 import java.util.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -88,7 +89,8 @@ public class AsyncClientTransportTube extends AbstractFilterTubeImpl {
                 responseReceiver = nonanonftr.getReceiver();
             }
         }
-        nonAnonHandler = new RINonAnonymousResponseHandler();
+        nonAnonHandler = new RINonAnonymousResponseHandler(new ResponseCorrelationTable<Message>(
+                nonanonftr.getResponseTimeout(), nonanonftr.getMaxOutstandingRequests()));
         responseReceiver.register(nonAnonHandler);
         requestSender = new RequestSender(toString(), next);
         nonAnonymousEPR = new WSEndpointReference(responseReceiver.getAddress(), binding.getAddressingVersion());
@@ -132,10 +134,19 @@ public class AsyncClientTransportTube extends AbstractFilterTubeImpl {
         if (request.expectReply) {
             setNonAnnonymousReplyTo(request.getMessage(), binding.getAddressingVersion(), nonAnonymousHeader);
             String msgId = getMessageId(request.getMessage());
+            if (msgId == null) {
+                throw new WebServiceException("Request without a MessageID header cannot get a non-anonymous response");
+            }
             nonAnonHandler.addNonAnonymousResponseHandler(msgId, new ClientResponseHandler(request));
             LOGGER.log(Level.FINE, "Sending request with message id{0}", msgId);
             //requestSender.sendAsync(request, new SyncResponseHandler(msgId, nonAnonHandler));
-            requestSender.send(request);
+            try {
+                requestSender.send(request);
+            } catch (RuntimeException e) {
+                // nothing will come back for it
+                nonAnonHandler.remove(msgId);
+                throw e;
+            }
             return doSuspend();
         } else {
             //oneway, continue as usual
@@ -169,6 +180,14 @@ public class AsyncClientTransportTube extends AbstractFilterTubeImpl {
 
     }
 
+    /**
+     * Statistics of the requests waiting for their non-anonymous response,
+     * shared by all the copies of this tube.
+     */
+    public ResponseCorrelationTable<Message> getCorrelationTable() {
+        return nonAnonHandler.waiting;
+    }
+
     String getMessageId(Message m) {
         return AddressingUtils.getMessageID(m.getHeaders(), binding.getAddressingVersion(), binding.getSOAPVersion());
     }
@@ -215,19 +234,22 @@ public class AsyncClientTransportTube extends AbstractFilterTubeImpl {
     }
 
     class RINonAnonymousResponseHandler implements NonAnonymousResponseHandler<Message> {
-        Map<String, NonAnonymousResponseHandler> waiting = Collections.synchronizedMap(
-                new HashMap<String, NonAnonymousResponseHandler>());
+        final ResponseCorrelationTable<Message> waiting;
+
+        RINonAnonymousResponseHandler(ResponseCorrelationTable<Message> waiting) {
+            this.waiting = waiting;
+        }
 
-        public void addNonAnonymousResponseHandler(String msgId, NonAnonymousResponseHandler handler) {
-            waiting.put(msgId, handler);
+        public void addNonAnonymousResponseHandler(String msgId, NonAnonymousResponseHandler<Message> handler) {
+            waiting.add(msgId, handler);
         }
 
-        public NonAnonymousResponseHandler remove(String msgId) {
+        public NonAnonymousResponseHandler<Message> remove(String msgId) {
             return waiting.remove(msgId);
         }
 
         public void cleanUp() {
-            waiting.clear();
+            waiting.close();
         }
 
         @Override
@@ -235,7 +257,7 @@ public class AsyncClientTransportTube extends AbstractFilterTubeImpl {
             String msgId = getRelatesTo(response);
             LOGGER.log(Level.FINE, "Received message with id{0}", msgId);
             if (msgId != null) {
-                final NonAnonymousResponseHandler handler = waiting.remove(msgId);
+                final NonAnonymousResponseHandler<Message> handler = waiting.remove(msgId);
                 if (handler == null) {
                     LOGGER.log(Level.WARNING, "Received unexpected message with realtesTo id = {0}", msgId);
                 } else {
@@ -282,7 +304,7 @@ public class AsyncClientTransportTube extends AbstractFilterTubeImpl {
                     if (!msgId.equals(relatesToId)) {
                         LOGGER.log(Level.WARNING, "Received unexpected message for id = {0}with id = {1}", new Object[]{msgId, getMessageId(responseMessage)});
                     }
-                    NonAnonymousResponseHandler responseHandler = nonAnonResponseTracker.remove(msgId);
+                    NonAnonymousResponseHandler<Message> responseHandler = nonAnonResponseTracker.remove(msgId);
                     if (responseHandler != null) {
                         responseHandler.onReceive(responseMessage);
                     }
@@ -295,7 +317,7 @@ public class AsyncClientTransportTube extends AbstractFilterTubeImpl {
         public void onCompletion(@NotNull Throwable error) {
             LOGGER.log(Level.WARNING, "Received unexpected error for request with id = {0}", msgId);
 
-            NonAnonymousResponseHandler responseHandler = nonAnonResponseTracker.remove(msgId);
+            NonAnonymousResponseHandler<Message> responseHandler = nonAnonResponseTracker.remove(msgId);
             if (responseHandler != null) {
                 responseHandler.onError(error);
             }
@@ -61,7 +61,7 @@ public class RequestSender implements Closeable {
     public RequestSender(String name, Tube tubeline) {
         this.masterTubeline = tubeline;
         this.engine = new Engine(name);
-        this.tubelinePool = new Pool.TubePool(masterTubeline);
+        this.tubelinePool = new Pool.TubePool(masterTubeline, true);
 
     }
 
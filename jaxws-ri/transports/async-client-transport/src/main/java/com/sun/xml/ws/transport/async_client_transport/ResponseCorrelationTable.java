@@ -0,0 +1,335 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.async_client_transport;
+
+import com.sun.istack.NotNull;
+
+import javax.xml.ws.WebServiceException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Correlates the non-anonymous responses with the requests waiting for them,
+ * by the message ID of the request.
+ *
+ * <p>
+ * Every request gets a deadline when it's added. The deadlines of the
+ * requests of all the tables are kept in one timing wheel, a ring of
+ * {@link #WHEEL_SIZE} buckets that a timer thread visits one after the other,
+ * every {@link #TICK_MILLIS} milliseconds; a request whose deadline has passed
+ * is removed from its table and its handler fails with a
+ * {@link WebServiceException}. Adding, correlating and expiring a request thus
+ * cost constant time, whatever the number of outstanding requests. The wheel
+ * only references the pending requests, so a table without any, like the one
+ * of a proxy that is no longer used but wasn't closed, can be garbage collected.
+ *
+ * <p>
+ * At most {@link #getMaxOutstandingRequests()} requests can wait for their
+ * response at any time; {@link #add} fails right away when that many are
+ * waiting, rather than blocking the thread that sends the request.
+ *
+ * @param <T>
+ *      the response type.
+ */
+public final class ResponseCorrelationTable<T> {
+
+    public static final long DEFAULT_RESPONSE_TIMEOUT = 600000;
+    public static final int DEFAULT_MAX_OUTSTANDING_REQUESTS = 10000;
+
+    static final long TICK_MILLIS = 100;
+    static final int WHEEL_SIZE = 512;
+
+    private final long responseTimeout;
+    private final int maxOutstandingRequests;
+
+    /**
+     * Pending requests by message ID. {@link ConcurrentHashMap} is already
+     * split into independently locked bins, so adding and correlating
+     * requests from many threads doesn't contend on one lock.
+     */
+    private final ConcurrentMap<String, Entry<T>> pending = new ConcurrentHashMap<String, Entry<T>>();
+    private final Semaphore permits;
+
+    private final AtomicLong correlated = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * @param responseTimeout
+     *      milliseconds a request waits for its response.
+     * @param maxOutstandingRequests
+     *      maximum number of requests waiting for their response.
+     */
+    public ResponseCorrelationTable(long responseTimeout, int maxOutstandingRequests) {
+        if (responseTimeout <= 0) {
+            throw new IllegalArgumentException("responseTimeout must be positive: " + responseTimeout);
+        }
+        if (maxOutstandingRequests <= 0) {
+            throw new IllegalArgumentException("maxOutstandingRequests must be positive: " + maxOutstandingRequests);
+        }
+        this.responseTimeout = responseTimeout;
+        this.maxOutstandingRequests = maxOutstandingRequests;
+        this.permits = new Semaphore(maxOutstandingRequests);
+    }
+
+    /**
+     * Registers the handler of the response to the request with the given
+     * message ID.
+     *
+     * @throws WebServiceException
+     *      if {@link #getMaxOutstandingRequests()} requests are already waiting,
+     *      or if a request with the same message ID is already waiting.
+     */
+    public void add(@NotNull String msgId, @NotNull NonAnonymousResponseHandler<T> handler) {
+        if (!permits.tryAcquire()) {
+            rejected.incrementAndGet();
+            throw new WebServiceException("Too many requests waiting for a non-anonymous response (" +
+                    maxOutstandingRequests + "), cannot send request " + msgId);
+        }
+        // at least one tick ahead, so it never lands in a bucket the wheel already went past
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(responseTimeout, TICK_MILLIS));
+        Entry<T> entry = new Entry<T>(this, msgId, handler, deadline);
+        if (pending.putIfAbsent(msgId, entry) != null) {
+            permits.release();
+            throw new WebServiceException("A request with message id " + msgId + " is already waiting for its response");
+        }
+        WHEEL[slot(deadline)].add(entry);
+    }
+
+    /**
+     * Removes the handler of the response to the request with the given message ID.
+     *
+     * @return null if there is no such request, because it already got its
+     *      response, expired or was never added.
+     */
+    public NonAnonymousResponseHandler<T> remove(@NotNull String msgId) {
+        Entry<T> entry = pending.remove(msgId);
+        if (entry == null) {
+            return null;
+        }
+        correlated.incrementAndGet();
+        return entry.complete(permits);
+    }
+
+    /**
+     * Fails all the pending requests.
+     */
+    public void close() {
+        for (Iterator<Entry<T>> it = pending.values().iterator(); it.hasNext(); ) {
+            Entry<T> entry = it.next();
+            if (pending.remove(entry.msgId, entry)) {
+                NonAnonymousResponseHandler<T> handler = entry.complete(permits);
+                handler.onError(new WebServiceException("Closed before the response to request " + entry.msgId + " was received"));
+            }
+        }
+        // the completed entries leave the wheel when their bucket is swept
+    }
+
+    /**
+     * Expires the requests of the buckets the wheel went past since the last call.
+     */
+    static void advance() {
+        synchronized (WHEEL) {
+            long now = System.nanoTime();
+            long tick = (now - START_NANOS) / TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS);
+            // a late timer catches up, but doesn't sweep a bucket twice
+            long from = Math.max(lastTick + 1, tick - WHEEL_SIZE + 1);
+            for (long t = from; t <= tick; t++) {
+                expire(WHEEL[(int) (t & (WHEEL_SIZE - 1))], now);
+            }
+            lastTick = tick;
+        }
+    }
+
+    private static void expire(Queue<Entry<?>> bucket, long now) {
+        for (Iterator<Entry<?>> it = bucket.iterator(); it.hasNext(); ) {
+            Entry<?> entry = it.next();
+            if (entry.handler == null) {
+                // got its response
+                it.remove();
+            } else if (entry.deadline - now <= 0) {
+                it.remove();
+                entry.table.expire(entry);
+            }
+        }
+    }
+
+    private void expire(Entry<?> entry) {
+        // loses against a response that arrives just now
+        if (pending.remove(entry.msgId, entry)) {
+            expired.incrementAndGet();
+            NonAnonymousResponseHandler<?> handler = entry.complete(permits);
+            LOGGER.log(Level.FINE, "No response received for request {0} within {1} ms",
+                    new Object[]{entry.msgId, responseTimeout});
+            try {
+                handler.onError(new WebServiceException("No response received for request " + entry.msgId +
+                        " within " + responseTimeout + " ms"));
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, e.getMessage(), e);
+            }
+        }
+    }
+
+    private static int slot(long deadline) {
+        long tick = (deadline - START_NANOS + TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS) - 1)
+                / TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS);
+        return (int) (tick & (WHEEL_SIZE - 1));
+    }
+
+    public long getResponseTimeout() {
+        return responseTimeout;
+    }
+
+    public int getMaxOutstandingRequests() {
+        return maxOutstandingRequests;
+    }
+
+    /**
+     * Number of requests waiting for their response.
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Number of requests that got their response.
+     */
+    public long getCorrelatedCount() {
+        return correlated.get();
+    }
+
+    /**
+     * Number of requests that didn't get their response in time.
+     */
+    public long getExpiredCount() {
+        return expired.get();
+    }
+
+    /**
+     * Number of requests that were not sent because too many others were waiting.
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ResponseCorrelationTable{pending=" + getPendingCount() + ", correlated=" + getCorrelatedCount() +
+                ", expired=" + getExpiredCount() + ", rejected=" + getRejectedCount() + '}';
+    }
+
+    private static final class Entry<T> {
+        final ResponseCorrelationTable<T> table;
+        final String msgId;
+        final long deadline;
+        /**
+         * Cleared once the request is completed, so that an entry that
+         * stays in the wheel until its bucket is swept doesn't keep the
+         * suspended fiber and its packet alive.
+         */
+        volatile NonAnonymousResponseHandler<T> handler;
+
+        Entry(ResponseCorrelationTable<T> table, String msgId, NonAnonymousResponseHandler<T> handler, long deadline) {
+            this.table = table;
+            this.msgId = msgId;
+            this.handler = handler;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Called once, by the thread that removed the entry from the table.
+         */
+        NonAnonymousResponseHandler<T> complete(Semaphore permits) {
+            NonAnonymousResponseHandler<T> h = handler;
+            handler = null;
+            permits.release();
+            return h;
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(ResponseCorrelationTable.class.getName());
+
+    /**
+     * Deadlines of the pending requests of all the tables, guarded by itself
+     * while it is swept.
+     */
+    private static final Queue<Entry<?>>[] WHEEL = createWheel();
+    private static final long START_NANOS = System.nanoTime();
+    /**
+     * Last tick processed by {@link #advance()}.
+     */
+    private static long lastTick;
+
+    @SuppressWarnings("unchecked")
+    private static Queue<Entry<?>>[] createWheel() {
+        Queue<Entry<?>>[] wheel = new Queue[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<Entry<?>>();
+        }
+        return wheel;
+    }
+
+    static {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "jaxws-async-client-transport-timer");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        timer.scheduleAtFixedRate(new Runnable() {
+            public void run() {
+                advance();
+            }
+        }, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.async_client_transport;
+
+import junit.framework.TestCase;
+
+import javax.xml.ws.WebServiceException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ResponseCorrelationTableTest extends TestCase {
+
+    public void testRemoveCorrelates() {
+        ResponseCorrelationTable<String> table = new ResponseCorrelationTable<String>(60000, 10);
+        Handler handler = new Handler();
+        table.add("urn:uuid:1", handler);
+        assertEquals(1, table.getPendingCount());
+
+        assertSame(handler, table.remove("urn:uuid:1"));
+        assertNull(table.remove("urn:uuid:1"));
+        assertEquals(0, table.getPendingCount());
+        assertEquals(1, table.getCorrelatedCount());
+    }
+
+    public void testDuplicateMessageIdIsRejected() {
+        ResponseCorrelationTable<String> table = new ResponseCorrelationTable<String>(60000, 10);
+        table.add("urn:uuid:1", new Handler());
+        try {
+            table.add("urn:uuid:1", new Handler());
+            fail();
+        } catch (WebServiceException e) {
+            // expected
+        }
+        assertEquals(1, table.getPendingCount());
+        // the failed add gave its permit back
+        for (int i = 2; i <= 10; i++) {
+            table.add("urn:uuid:" + i, new Handler());
+        }
+    }
+
+    public void testFullTableFailsFast() {
+        ResponseCorrelationTable<String> table = new ResponseCorrelationTable<String>(60000, 1);
+        table.add("urn:uuid:1", new Handler());
+
+        long start = System.nanoTime();
+        try {
+            table.add("urn:uuid:2", new Handler());
+            fail();
+        } catch (WebServiceException e) {
+            // expected
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(1, table.getRejectedCount());
+        assertEquals(1, table.getPendingCount());
+
+        // a response frees the permit
+        table.remove("urn:uuid:1");
+        table.add("urn:uuid:2", new Handler());
+        assertEquals(1, table.getPendingCount());
+    }
+
+    public void testExpiry() throws Exception {
+        ResponseCorrelationTable<String> table = new ResponseCorrelationTable<String>(1, 1);
+        Handler handler = new Handler();
+        table.add("urn:uuid:1", handler);
+
+        assertTrue(handler.done.await(10, TimeUnit.SECONDS));
+        assertTrue(handler.error.get() instanceof WebServiceException);
+        assertEquals(0, table.getPendingCount());
+        assertEquals(1, table.getExpiredCount());
+        assertNull(table.remove("urn:uuid:1"));
+        // the expired request gave its permit back
+        table.add("urn:uuid:2", new Handler());
+    }
+
+    public void testCorrelatedRequestDoesNotExpire() throws Exception {
+        ResponseCorrelationTable<String> table = new ResponseCorrelationTable<String>(1, 10);
+        Handler correlated = new Handler();
+        table.add("urn:uuid:1", correlated);
+        table.remove("urn:uuid:1");
+        Handler expiring = new Handler();
+        table.add("urn:uuid:2", expiring);
+
+        assertTrue(expiring.done.await(10, TimeUnit.SECONDS));
+        assertNull(correlated.error.get());
+        assertEquals(1, table.getExpiredCount());
+        assertEquals(1, table.getCorrelatedCount());
+    }
+
+    public void testCloseFailsPendingRequests() {
+        ResponseCorrelationTable<String> table = new ResponseCorrelationTable<String>(60000, 10);
+        Handler first = new Handler();
+        Handler second = new Handler();
+        table.add("urn:uuid:1", first);
+        table.add("urn:uuid:2", second);
+
+        table.close();
+        assertTrue(first.error.get() instanceof WebServiceException);
+        assertTrue(second.error.get() instanceof WebServiceException);
+        assertEquals(0, table.getPendingCount());
+        assertNull(table.remove("urn:uuid:1"));
+    }
+
+    private static final class Handler implements NonAnonymousResponseHandler<String> {
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        public void onReceive(String response) {
+            done.countDown();
+        }
+
+        public void onError(Throwable t) {
+            error.set(t);
+            done.countDown();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.local;
+
+import com.sun.istack.NotNull;
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.NextAction;
+import com.sun.xml.ws.api.pipe.Tube;
+import com.sun.xml.ws.api.pipe.TubeCloner;
+import com.sun.xml.ws.api.pipe.helper.AbstractTubeImpl;
+import com.sun.xml.ws.api.server.ServiceDefinition;
+import com.sun.xml.ws.api.server.TransportBackChannel;
+import com.sun.xml.ws.api.server.WSEndpoint;
+import com.sun.xml.ws.api.server.WebServiceContextDelegate;
+
+import java.net.URI;
+import java.security.Principal;
+
+/**
+ * Transport {@link Tube} that hands the request {@link Message} of the client
+ * straight to a {@link WSEndpoint} running in the same VM, and the response
+ * {@link Message} of the endpoint straight back to the client.
+ *
+ * <p>
+ * Unlike {@link LocalTransportTube}, nothing is encoded or decoded on the way;
+ * the server side tubeline, including the handlers and WS-Addressing, still
+ * processes the request as if it had been received from the wire.
+ * As with any other transport, the request message is given away: the
+ * client doesn't read it again once it has been sent, so the endpoint may
+ * consume or modify it without copying it first. HTTP specific properties,
+ * such as the HTTP request headers, are not available to the endpoint.
+ *
+ * <p>
+ * Used for "in-vm-direct://<i>inVmServerId</i>[?<i>portLocalName</i>]"
+ * addresses, see {@link InVmTransportFactory}.
+ */
+final class InVmDirectTransportTube extends AbstractTubeImpl implements WebServiceContextDelegate {
+
+    private final WSEndpoint<?> endpoint;
+
+    /**
+     * Server side tubeline, one per client tubeline, so it's not shared
+     * between concurrent requests.
+     */
+    private final WSEndpoint.PipeHead head;
+
+    /**
+     * The address of the endpoint deployed in this tube.
+     */
+    private final URI baseURI;
+
+    InVmDirectTransportTube(URI baseURI, WSEndpoint<?> endpoint) {
+        this.baseURI = baseURI;
+        this.endpoint = endpoint;
+        this.head = endpoint.createPipeHead();
+    }
+
+    /**
+     * Copy constructor for {@link Tube#copy(TubeCloner)}.
+     */
+    private InVmDirectTransportTube(InVmDirectTransportTube that, TubeCloner cloner) {
+        this(that.baseURI, that.endpoint);
+        cloner.add(that, this);
+    }
+
+    public Packet process(Packet request) {
+        Packet serverRequest = new Packet(request.getMessage());
+        serverRequest.soapAction = quote(request.soapAction, endpoint.getBinding().getSOAPVersion());
+        serverRequest.wasTransportSecure = false;
+        serverRequest.transportBackChannel = NO_BACK_CHANNEL;
+        serverRequest.webServiceContextDelegate = this;
+        serverRequest.setState(Packet.State.ServerRequest);
+
+        Packet serverResponse = head.process(serverRequest, this, NO_BACK_CHANNEL);
+
+        // null for one way operations
+        return request.createClientResponse(serverResponse.getMessage());
+    }
+
+    /**
+     * The server side expects the SOAPAction the way it is read from the
+     * HTTP request, that is, quoted. Over HTTP, SOAP 1.1 always has a
+     * {@code SOAPAction} header, but SOAP 1.2 has no {@code action}
+     * parameter when there is no SOAPAction.
+     */
+    private static String quote(String soapAction, SOAPVersion sv) {
+        if (soapAction == null && sv == SOAPVersion.SOAP_12) {
+            return null;
+        }
+        if (soapAction == null || soapAction.length() == 0) {
+            return "\"\"";
+        }
+        if (soapAction.charAt(0) == '"' && soapAction.charAt(soapAction.length() - 1) == '"') {
+            return soapAction;
+        }
+        return '"' + soapAction + '"';
+    }
+
+    @NotNull
+    public NextAction processRequest(@NotNull Packet request) {
+        return doReturnWith(process(request));
+    }
+
+    @NotNull
+    public NextAction processResponse(@NotNull Packet response) {
+        throw new IllegalStateException("InVmDirectTransportTube's processResponse shouldn't be called.");
+    }
+
+    public @NotNull NextAction processException(@NotNull Throwable t) {
+        return doThrow(t);
+    }
+
+    public void preDestroy() {
+        // Nothing to do here. The endpoint is undeployed by InVmServer
+    }
+
+    public InVmDirectTransportTube copy(TubeCloner cloner) {
+        return new InVmDirectTransportTube(this, cloner);
+    }
+
+    public Principal getUserPrincipal(@NotNull Packet request) {
+        return null;   // not really supported
+    }
+
+    public boolean isUserInRole(@NotNull Packet request, String role) {
+        return false;   // not really supported
+    }
+
+    public @NotNull String getEPRAddress(@NotNull Packet request, @NotNull WSEndpoint endpoint) {
+        return baseURI.resolve("?" + endpoint.getPortName().getLocalPart()).toString();
+    }
+
+    public String getWSDLAddress(@NotNull Packet request, @NotNull WSEndpoint endpoint) {
+        ServiceDefinition sd = endpoint.getServiceDefinition();
+        if (sd != null) {
+            return sd.getPrimary().getURL().toString();
+        } else
+            return null;
+    }
+
+    /**
+     * There is no connection to close early for one way operations,
+     * the client gets the (empty) response when the endpoint returns.
+     */
+    private static final TransportBackChannel NO_BACK_CHANNEL = new TransportBackChannel() {
+        public void close() {
+        }
+    };
+}
@@ -62,5 +62,10 @@
  * application by using {@link com.sun.xml.ws.transport.local.InVmServer},
  * {@link com.sun.xml.ws.transport.local.InVmServer#getAddress() obtain its address}, configure the JAX-WS RI
  * with that endpoint, then use that to talk to the running service.
+ *
+ * <p>
+ * Replacing the "in-vm" scheme of that address with "in-vm-direct" skips
+ * the encoding and decoding of the messages altogether; the client and the
+ * service exchange {@link com.sun.xml.ws.api.message.Message} objects.
  */
 package com.sun.xml.ws.transport.local;
@@ -0,0 +1,359 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.local;
+
+import com.sun.xml.ws.api.BindingID;
+import com.sun.xml.ws.api.server.WSEndpoint;
+import com.sun.xml.ws.binding.BindingImpl;
+
+import junit.framework.TestCase;
+import org.w3c.dom.Document;
+import org.xml.sax.EntityResolver;
+
+import javax.xml.namespace.QName;
+import javax.xml.soap.MessageFactory;
+import javax.xml.soap.SOAPException;
+import javax.xml.soap.SOAPHeader;
+import javax.xml.soap.SOAPHeaderElement;
+import javax.xml.soap.SOAPMessage;
+import javax.xml.transform.Source;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMResult;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.ws.BindingProvider;
+import javax.xml.ws.Dispatch;
+import javax.xml.ws.Provider;
+import javax.xml.ws.Service;
+import javax.xml.ws.ServiceMode;
+import javax.xml.ws.WebServiceException;
+import javax.xml.ws.WebServiceFeature;
+import javax.xml.ws.WebServiceProvider;
+import javax.xml.ws.handler.Handler;
+import javax.xml.ws.handler.MessageContext;
+import javax.xml.ws.handler.soap.SOAPHandler;
+import javax.xml.ws.handler.soap.SOAPMessageContext;
+import javax.xml.ws.soap.AddressingFeature;
+import javax.xml.ws.soap.SOAPBinding;
+import javax.xml.ws.soap.SOAPFaultException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Invokes endpoints through "in-vm-direct://" addresses.
+ */
+public class InVmDirectTransportTest extends TestCase {
+
+    private static final String NS = "http://echo.org/";
+    private static final QName SERVICE = new QName(NS, "EchoService");
+    private static final QName PORT = new QName(NS, "EchoPort");
+    private static final String WSA_NS = "http://www.w3.org/2005/08/addressing";
+    private static final String REQUEST = "<echo xmlns=\"" + NS + "\">hello</echo>";
+
+    private static final AtomicInteger ids = new AtomicInteger();
+
+    private InVmServer server;
+    private String address;
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (server != null) {
+            server.undeploy();
+        }
+    }
+
+    public void testRequestResponse() throws Exception {
+        RecordingHandler handler = new RecordingHandler();
+        deploy(EchoProvider.class, BindingID.SOAP11_HTTP, handler);
+        Dispatch<Source> dispatch = createDispatch(SOAPBinding.SOAP11HTTP_BINDING);
+        dispatch.getRequestContext().put(BindingProvider.SOAPACTION_USE_PROPERTY, true);
+        dispatch.getRequestContext().put(BindingProvider.SOAPACTION_URI_PROPERTY, "urn:echo");
+
+        assertEquals("hello", text(dispatch.invoke(request())));
+        assertEquals("\"urn:echo\"", handler.soapAction);
+
+        assertEquals("hello", text(dispatch.invoke(request())));
+        assertEquals(2, handler.requests);
+    }
+
+    public void testSOAP11WithoutSOAPAction() throws Exception {
+        RecordingHandler handler = new RecordingHandler();
+        deploy(EchoProvider.class, BindingID.SOAP11_HTTP, handler);
+
+        assertEquals("hello", text(createDispatch(SOAPBinding.SOAP11HTTP_BINDING).invoke(request())));
+        assertEquals("\"\"", handler.soapAction);
+    }
+
+    public void testSOAP12WithoutAction() throws Exception {
+        RecordingHandler handler = new RecordingHandler();
+        deploy(EchoProvider.class, BindingID.SOAP12_HTTP, handler);
+
+        assertEquals("hello", text(createDispatch(SOAPBinding.SOAP12HTTP_BINDING).invoke(request())));
+        assertNull(handler.soapAction);
+    }
+
+    public void testSOAP12WithAction() throws Exception {
+        RecordingHandler handler = new RecordingHandler();
+        deploy(EchoProvider.class, BindingID.SOAP12_HTTP, handler);
+        Dispatch<Source> dispatch = createDispatch(SOAPBinding.SOAP12HTTP_BINDING);
+        dispatch.getRequestContext().put(BindingProvider.SOAPACTION_USE_PROPERTY, true);
+        dispatch.getRequestContext().put(BindingProvider.SOAPACTION_URI_PROPERTY, "urn:echo");
+
+        assertEquals("hello", text(dispatch.invoke(request())));
+        assertEquals("\"urn:echo\"", handler.soapAction);
+    }
+
+    public void testOneWay() throws Exception {
+        OneWayProvider.received.clear();
+        RecordingHandler handler = new RecordingHandler();
+        deploy(OneWayProvider.class, BindingID.SOAP11_HTTP, handler);
+
+        createDispatch(SOAPBinding.SOAP11HTTP_BINDING).invokeOneWay(request());
+
+        // the endpoint is invoked in the thread of the client
+        assertEquals(1, OneWayProvider.received.size());
+        assertEquals("hello", OneWayProvider.received.get(0));
+        assertEquals(1, handler.requests);
+        assertEquals(0, handler.responses);
+    }
+
+    public void testFault() throws Exception {
+        deploy(FaultingProvider.class, BindingID.SOAP11_HTTP);
+
+        try {
+            createDispatch(SOAPBinding.SOAP11HTTP_BINDING).invoke(request());
+            fail("SOAPFaultException expected");
+        } catch (SOAPFaultException e) {
+            assertEquals("boom", e.getFault().getFaultString());
+        }
+    }
+
+    public void testServerHandlerChangesResponse() throws Exception {
+        RecordingHandler handler = new RecordingHandler();
+        handler.responseHeader = new QName(NS, "served-by");
+        deploy(EchoProvider.class, BindingID.SOAP11_HTTP, handler);
+        Service service = Service.create(SERVICE);
+        service.addPort(PORT, SOAPBinding.SOAP11HTTP_BINDING, address);
+        Dispatch<SOAPMessage> dispatch = service.createDispatch(PORT, SOAPMessage.class, Service.Mode.MESSAGE);
+
+        SOAPMessage request = MessageFactory.newInstance().createMessage();
+        request.getSOAPBody().addDocument(document(REQUEST));
+        SOAPMessage response = dispatch.invoke(request);
+
+        assertNotNull(header(response.getSOAPHeader(), handler.responseHeader));
+        assertEquals("hello", response.getSOAPBody().getFirstChild().getTextContent());
+        assertEquals(1, handler.responses);
+    }
+
+    public void testAddressing() throws Exception {
+        RecordingHandler handler = new RecordingHandler();
+        deploy(EchoProvider.class, BindingID.SOAP11_HTTP, new WebServiceFeature[]{new AddressingFeature(true, true)}, handler);
+        Service service = Service.create(SERVICE);
+        service.addPort(PORT, SOAPBinding.SOAP11HTTP_BINDING, address);
+        Dispatch<Source> dispatch = service.createDispatch(PORT, Source.class, Service.Mode.PAYLOAD, new AddressingFeature());
+        dispatch.getRequestContext().put(BindingProvider.SOAPACTION_USE_PROPERTY, true);
+        dispatch.getRequestContext().put(BindingProvider.SOAPACTION_URI_PROPERTY, "urn:echo");
+
+        assertEquals("hello", text(dispatch.invoke(request())));
+        assertNotNull(handler.messageId);
+        assertEquals("urn:echo", handler.action);
+
+        String first = handler.messageId;
+        assertEquals("hello", text(dispatch.invoke(request())));
+        assertFalse(first.equals(handler.messageId));
+    }
+
+    public void testAddressingRequired() throws Exception {
+        deploy(EchoProvider.class, BindingID.SOAP11_HTTP, new WebServiceFeature[]{new AddressingFeature(true, true)});
+
+        try {
+            createDispatch(SOAPBinding.SOAP11HTTP_BINDING).invoke(request());
+            fail("SOAPFaultException expected");
+        } catch (SOAPFaultException e) {
+            assertEquals(new QName(WSA_NS, "MessageAddressingHeaderRequired"), e.getFault().getFaultCodeAsQName());
+        }
+    }
+
+    private void deploy(Class<?> impl, BindingID bindingId, Handler... handlers) throws Exception {
+        deploy(impl, bindingId, new WebServiceFeature[0], handlers);
+    }
+
+    private void deploy(Class<?> impl, BindingID bindingId, WebServiceFeature[] features, Handler... handlers) throws Exception {
+        BindingImpl binding = BindingImpl.create(bindingId, features);
+        if (handlers.length > 0) {
+            binding.setHandlerChain(Arrays.asList(handlers));
+        }
+        WSEndpoint<?> endpoint = WSEndpoint.create(impl, false, null, SERVICE, PORT, null, binding,
+                null, null, (EntityResolver) null, true);
+        String id = "in-vm-direct-test-" + ids.incrementAndGet();
+        server = new InVmServer(id, Collections.<WSEndpoint>singletonList(endpoint));
+        address = "in-vm-direct://" + id + "/";
+    }
+
+    private Dispatch<Source> createDispatch(String bindingId) {
+        Service service = Service.create(SERVICE);
+        service.addPort(PORT, bindingId, address);
+        return service.createDispatch(PORT, Source.class, Service.Mode.PAYLOAD);
+    }
+
+    private static Source request() {
+        return new StreamSource(new StringReader(REQUEST));
+    }
+
+    private static Document document(String xml) throws Exception {
+        DOMResult result = new DOMResult();
+        TransformerFactory.newInstance().newTransformer().transform(new StreamSource(new StringReader(xml)), result);
+        return (Document) result.getNode();
+    }
+
+    private static String text(Source source) throws Exception {
+        Transformer t = TransformerFactory.newInstance().newTransformer();
+        DOMResult result = new DOMResult();
+        t.transform(source, result);
+        return result.getNode().getFirstChild().getTextContent();
+    }
+
+    private static SOAPHeaderElement header(SOAPHeader header, QName name) {
+        if (header == null) {
+            return null;
+        }
+        for (Iterator<?> it = header.examineAllHeaderElements(); it.hasNext(); ) {
+            SOAPHeaderElement e = (SOAPHeaderElement) it.next();
+            if (e.getElementQName().equals(name)) {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    @WebServiceProvider(serviceName = "EchoService", portName = "EchoPort", targetNamespace = NS)
+    @ServiceMode(Service.Mode.PAYLOAD)
+    public static class EchoProvider implements Provider<Source> {
+        public Source invoke(Source request) {
+            try {
+                return new StreamSource(new StringReader("<echoResponse xmlns=\"" + NS + "\">" + text(request) + "</echoResponse>"));
+            } catch (Exception e) {
+                throw new WebServiceException(e);
+            }
+        }
+    }
+
+    @WebServiceProvider(serviceName = "EchoService", portName = "EchoPort", targetNamespace = NS)
+    @ServiceMode(Service.Mode.PAYLOAD)
+    public static class OneWayProvider implements Provider<Source> {
+        static final List<String> received = Collections.synchronizedList(new ArrayList<String>());
+
+        public Source invoke(Source request) {
+            try {
+                received.add(text(request));
+            } catch (Exception e) {
+                throw new WebServiceException(e);
+            }
+            return null;
+        }
+    }
+
+    @WebServiceProvider(serviceName = "EchoService", portName = "EchoPort", targetNamespace = NS)
+    @ServiceMode(Service.Mode.PAYLOAD)
+    public static class FaultingProvider implements Provider<Source> {
+        public Source invoke(Source request) {
+            throw new WebServiceException("boom");
+        }
+    }
+
+    /**
+     * Records what the server side sees of the requests, and adds
+     * {@link #responseHeader} to the responses when it's set.
+     */
+    private static final class RecordingHandler implements SOAPHandler<SOAPMessageContext> {
+        volatile int requests;
+        volatile int responses;
+        volatile String soapAction;
+        volatile String messageId;
+        volatile String action;
+        QName responseHeader;
+
+        public boolean handleMessage(SOAPMessageContext context) {
+            try {
+                if ((Boolean) context.get(MessageContext.MESSAGE_OUTBOUND_PROPERTY)) {
+                    responses++;
+                    if (responseHeader != null) {
+                        SOAPMessage message = context.getMessage();
+                        SOAPHeader header = message.getSOAPHeader();
+                        if (header == null) {
+                            header = message.getSOAPPart().getEnvelope().addHeader();
+                        }
+                        header.addHeaderElement(responseHeader).setTextContent("in-vm-direct");
+                        message.saveChanges();
+                    }
+                } else {
+                    requests++;
+                    soapAction = (String) context.get(BindingProvider.SOAPACTION_URI_PROPERTY);
+                    SOAPHeader header = context.getMessage().getSOAPHeader();
+                    SOAPHeaderElement id = header(header, new QName(WSA_NS, "MessageID"));
+                    SOAPHeaderElement a = header(header, new QName(WSA_NS, "Action"));
+                    messageId = id == null ? null : id.getTextContent();
+                    action = a == null ? null : a.getTextContent();
+                }
+            } catch (SOAPException e) {
+                throw new WebServiceException(e);
+            }
+            return true;
+        }
+
+        public boolean handleFault(SOAPMessageContext context) {
+            return true;
+        }
+
+        public void close(MessageContext context) {
+        }
+
+        public Set<QName> getHeaders() {
+            return null;
+        }
+    }
+}